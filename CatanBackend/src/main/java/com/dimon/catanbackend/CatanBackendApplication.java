@@ -3,11 +3,15 @@ package com.dimon.catanbackend;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 // Write Readme file
 // Add Aspect
 // Check if redis work
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class CatanBackendApplication {
 
     public static void main(String[] args) {
@@ -27,7 +27,7 @@ public class ApiAnalyticsAspect {
     @Around("execution(* com.dimon.catanbackend.controller..*(..))")
     public Object logAnalytics(ProceedingJoinPoint joinPoint) throws Throwable {
 
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         boolean success = false;
 
         try {
@@ -35,7 +35,7 @@ public class ApiAnalyticsAspect {
             success = true;
             return result;
         } finally {
-            long duration = System.currentTimeMillis() - startTime;
+            long duration = System.nanoTime() - startTime;
             String endpoint = joinPoint.getSignature().toShortString();
             apiAnalyticsService.recordApiCall(endpoint, duration, success);
         }
@@ -0,0 +1,125 @@
+package com.dimon.catanbackend.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration class splitting database traffic between the primary and a read replica. It is only active
+ * when {@code app.datasource.replica.enabled=true}; otherwise Spring Boot's single data source is used.
+ *
+ * Transactions marked {@code @Transactional(readOnly = true)} (including Spring Data's read methods
+ * called outside a service transaction) go to the replica while it is within the allowed lag; all other
+ * transactions, and Flyway migrations, go to the primary. Each side has its own Hikari pool, so browsing
+ * the lobby, the admin panel or M1TV does not take connections from gameplay writes.
+ *
+ * Only reads that tolerate a stale answer are marked read-only: the lobby, the admin panel, M1TV, profiles
+ * and game history. Gameplay reads (property owners, snapshot rebuilds, rehydration) run in read-write
+ * transactions so that they always see the primary, since a lagging replica would hand out a property
+ * that was just bought or rebuild a snapshot from old balances.
+ *
+ * Configuration properties:
+ * - {@code spring.datasource.*}: The primary, as before.
+ * - {@code app.datasource.replica.jdbc-url}, {@code username}, {@code password}, {@code maximum-pool-size}:
+ *   Hikari settings of the replica pool.
+ * - {@code app.datasource.replica.max-lag}: Lag above which reads fall back to the primary.
+ * - {@code app.datasource.replica.lag-query}: Query returning the replica lag in seconds.
+ * - {@code app.datasource.replica.lag-probe-interval}: Delay between lag probes.
+ *
+ * For local testing, point {@code jdbc-url} at a second PostgreSQL instance (or the same one, with
+ * {@code lag-query=select 0}).
+ *
+ * Annotations used:
+ * - {@link Configuration} to indicate that this class contains Spring bean definitions.
+ * - {@link ConditionalOnProperty} to enable routing only when a replica is configured.
+ * - {@link FlywayDataSource} so that migrations always run against the primary.
+ * - {@link Primary} to expose the routing proxy as the application's data source.
+ *
+ * @see ReadWriteRoutingDataSource
+ * @see ReplicaLagMonitor
+ * @see LazyConnectionDataSourceProxy
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /**
+     * Creates the primary pool from the regular {@code spring.datasource} properties.
+     *
+     * @param properties the Spring Boot data source properties
+     * @return the primary data source
+     */
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the replica pool, bound from {@code app.datasource.replica}.
+     *
+     * @return the replica data source
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Creates the monitor deciding whether the replica is fresh enough to serve reads.
+     *
+     * @param replicaDataSource the replica data source
+     * @param lagQuery the query returning the replica lag in seconds
+     * @param maxLag the maximum tolerated lag
+     * @return the replica lag monitor
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            @Value("${app.datasource.replica.lag-query:select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end}") String lagQuery,
+            @Value("${app.datasource.replica.max-lag:PT1S}") Duration maxLag) {
+        return new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLag);
+    }
+
+    /**
+     * Creates the data source used by JPA: a lazy proxy around the read/write router.
+     *
+     * @param primaryDataSource the primary data source
+     * @param replicaDataSource the replica data source
+     * @param replicaLagMonitor the replica lag monitor
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(replicaLagMonitor);
+        routingDataSource.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource));
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
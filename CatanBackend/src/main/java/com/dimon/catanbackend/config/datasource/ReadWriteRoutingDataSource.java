@@ -0,0 +1,42 @@
+package com.dimon.catanbackend.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link AbstractRoutingDataSource} sending read-only transactions to the replica and everything else
+ * to the primary.
+ *
+ * The routing key is taken from {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()},
+ * which is only set once the transaction has started. This data source must therefore be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the physical connection is
+ * fetched at the first statement rather than when the transaction begins.
+ *
+ * If the {@link ReplicaLagMonitor} reports the replica as lagging or unreachable, read-only transactions
+ * fall back to the primary.
+ *
+ * @see DataSourceRoutingConfig
+ * @see ReplicaLagMonitor
+ *
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaLagMonitor.isReplicaUsable()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
@@ -0,0 +1,77 @@
+package com.dimon.catanbackend.config.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Periodically measures how far the read replica is behind the primary and decides whether read-only
+ * transactions may use it.
+ *
+ * The probe runs {@code app.datasource.replica.lag-query} directly against the replica. The query must
+ * return the replication lag in seconds; the default one works on a PostgreSQL streaming replica and
+ * returns 0 when the replica has replayed everything it received. When the lag exceeds
+ * {@code app.datasource.replica.max-lag}, or the probe fails, the replica is marked unusable until the
+ * next successful probe and reads go to the primary.
+ *
+ * Methods:
+ * - {@code probe}: Scheduled lag measurement.
+ * - {@code isReplicaUsable}: Whether reads may currently be routed to the replica.
+ * - {@code getLastLagSeconds}: Lag measured by the last successful probe.
+ *
+ * @see ReadWriteRoutingDataSource
+ *
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replicaDataSource;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    private volatile boolean replicaUsable = false;
+    private volatile double lastLagSeconds = -1;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, Duration maxLag) {
+        this.replicaDataSource = replicaDataSource;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Measures the replica lag and updates the routing decision.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-probe-interval:PT1S}")
+    public void probe() {
+        boolean usable;
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            double lag = resultSet.next() ? resultSet.getDouble(1) : Double.MAX_VALUE;
+            lastLagSeconds = lag;
+            usable = lag * 1000 <= maxLag.toMillis();
+        } catch (Exception e) {
+            logger.warn("Replica lag probe failed: {}", e.getMessage());
+            usable = false;
+        }
+
+        if (usable != replicaUsable) {
+            logger.info("Read replica is now {} (lag {} s)", usable ? "in use" : "bypassed", lastLagSeconds);
+        }
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public double getLastLagSeconds() {
+        return lastLagSeconds;
+    }
+}
@@ -0,0 +1,36 @@
+package com.dimon.catanbackend.config.pagination;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration class for keyset pagination, bound from properties with the prefix {@code app.pagination}.
+ *
+ * Example configuration in `application.properties`:
+ * <pre>
+ * app.pagination.default-page-size=50
+ * app.pagination.max-page-size=200
+ * </pre>
+ *
+ * Methods:
+ * - {@code resolvePageSize}: Returns the requested page size clamped to {@code [1, maxPageSize]},
+ *   or the default when none was requested.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.pagination")
+public class PaginationProperties {
+    private int defaultPageSize = 50;
+    private int maxPageSize = 200;
+
+    public int resolvePageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+}
@@ -2,11 +2,16 @@ package com.dimon.catanbackend.config.redis;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.List;
+
 /**
  * Configuration class for setting up Redis in the application. This class configures a custom
  * {@link RedisTemplate} bean that will be used to interact with Redis.
@@ -22,6 +27,14 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
  * Methods:
  * - {@code redisTemplate}: Configures and returns a {@link RedisTemplate} that connects to the Redis server
  *   using the provided {@link RedisConnectionFactory}.
+ * - {@code gameStateCasScript}: Loads the Lua script performing versioned compare-and-set writes of game state.
+ * - {@code gameSnapshotWriteScript}: Loads the Lua script writing the changed fields of a game snapshot.
+ * - {@code auctionStartScript}, {@code auctionBidScript}, {@code auctionSealedBidScript},
+ *   {@code auctionCloseScript}: Load the Lua scripts that arbitrate auctions in Redis, so every node sees the
+ *   same bids.
+ * - {@code rateLimitScript}: Loads the Lua script counting attempts against a rate limit shared by every node.
+ * - {@code redisMessageListenerContainer}: Receives the messages of the Redis channels the application
+ *   subscribes to, such as the revocations of JWT tokens.
  *
  * Example usage:
  * <pre>
@@ -59,4 +72,97 @@ public class RedisConfig {
         template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
         return template;
     }
+
+    /**
+     * Creates the container that dispatches messages of subscribed Redis channels to their listeners. Listeners
+     * register themselves with it when they start.
+     *
+     * @param connectionFactory the Redis connection factory used to subscribe
+     * @return the listener container
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * Loads the Lua script that writes a game state hash only if its version matches the expected one.
+     * The script returns a two-element list: a success flag and the resulting (or current) version.
+     *
+     * @return the compare-and-set script for game state hashes
+     */
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> gameStateCasScript() {
+        return RedisScript.of(new ClassPathResource("redis/game-state-cas.lua"), List.class);
+    }
+
+    /**
+     * Loads the Lua script that writes the changed fields of a game snapshot hash, removes the dropped ones
+     * and increments its version, so readers never see a write half applied.
+     *
+     * @return the snapshot write script, returning the new version
+     */
+    @Bean
+    public RedisScript<Long> gameSnapshotWriteScript() {
+        return RedisScript.of(new ClassPathResource("redis/game-snapshot-write.lua"), Long.class);
+    }
+
+    /**
+     * Loads the Lua script that creates the state of an auction unless the game already has one.
+     *
+     * @return the script, returning 1 when the auction was created
+     */
+    @Bean
+    public RedisScript<Long> auctionStartScript() {
+        return RedisScript.of(new ClassPathResource("redis/auction-start.lua"), Long.class);
+    }
+
+    /**
+     * Loads the Lua script that accepts or refuses a bid and picks the next bidder.
+     * The script returns the status, the round, the highest bid and the next bidder.
+     *
+     * @return the bid script
+     */
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> auctionBidScript() {
+        return RedisScript.of(new ClassPathResource("redis/auction-bid.lua"), List.class);
+    }
+
+    /**
+     * Loads the Lua script that records the one hidden bid of a player in a sealed-bid auction.
+     * The script returns the status, the number of bids placed so far and the number of bidders.
+     *
+     * @return the sealed bid script
+     */
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> auctionSealedBidScript() {
+        return RedisScript.of(new ClassPathResource("redis/auction-sealed-bid.lua"), List.class);
+    }
+
+    /**
+     * Loads the Lua script that closes an auction and returns its final state.
+     *
+     * @return the close script, returning the fields of the closed auction or an empty list
+     */
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> auctionCloseScript() {
+        return RedisScript.of(new ClassPathResource("redis/auction-close.lua"), List.class);
+    }
+
+    /**
+     * Loads the Lua script counting an attempt in the current window of a rate limit.
+     *
+     * @return the rate limit script, returning the count of the window and the milliseconds left in it
+     */
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> rateLimitScript() {
+        return RedisScript.of(new ClassPathResource("redis/rate-limit.lua"), List.class);
+    }
 }
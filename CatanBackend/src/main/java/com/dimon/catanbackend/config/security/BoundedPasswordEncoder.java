@@ -0,0 +1,46 @@
+package com.dimon.catanbackend.config.security;
+
+import com.dimon.catanbackend.service.PasswordHashingExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} that hashes and verifies passwords with another encoder on the bounded pool of
+ * {@link PasswordHashingExecutor}, so slow hashes never run on the request threads and a burst of them is
+ * refused instead of queued without limit.
+ *
+ * Methods:
+ * - {@code encode}: Hashes a password on the pool.
+ * - {@code matches}: Verifies a password against its hash on the pool.
+ * - {@code upgradeEncoding}: Asks the wrapped encoder, which only inspects the hash.
+ *
+ * Exception handling:
+ * - {@code encode} and {@code matches} throw {@link com.dimon.catanbackend.exceptions.TooManyRequestsException}
+ *   when the pool is saturated.
+ *
+ * @see SecurityConfig
+ *
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor passwordHashingExecutor) {
+        this.delegate = delegate;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return passwordHashingExecutor.call("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return passwordHashingExecutor.call("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -1,8 +1,11 @@
 package com.dimon.catanbackend.config.security;
 
+import com.dimon.catanbackend.service.TokenRevocationService;
 import com.dimon.catanbackend.service.UserService;
 import com.dimon.catanbackend.utils.JwtTokenUtils;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,6 +13,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,7 +23,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.security.SignatureException;
 /**
  * Filter class responsible for handling JWT authentication in incoming HTTP requests.
  * This filter extracts the JWT token from the `Authorization` header of the request, validates it,
@@ -35,7 +38,14 @@ import java.security.SignatureException;
  *
  * Dependencies:
  * - {@link JwtTokenUtils} for extracting and validating JWT tokens.
- * - {@link UserService} for loading user details based on the username extracted from the token.
+ * - {@link TokenRevocationService} for refusing tokens that were revoked before they expired.
+ * - {@link UserService} for loading user details based on the username extracted from the token, when the
+ *   filter is not stateless.
+ *
+ * Configuration properties:
+ * - {@code app.auth.stateless}: When {@code true} (the default), the principal is built from the verified
+ *   claims of the token alone and the database is not part of authentication; a deleted user is shut out by
+ *   revoking the user's tokens. When {@code false}, the user is loaded for every request as before.
  *
  * Methods:
  * - {@code doFilterInternal}: Extracts the JWT token, validates it, and sets the authentication in the
@@ -43,8 +53,11 @@ import java.security.SignatureException;
  *
  * Key logic:
  * - Extracts the JWT token from the `Authorization` header if it starts with "Bearer".
- * - Uses the {@link JwtTokenUtils} to extract the username from the token and validate it.
- * - Loads the user details from the {@link UserService} and sets the authentication in the security context.
+ * - Verifies the token once with {@link JwtTokenUtils}, which serves tokens it verified before from a cache,
+ *   and takes the username and expiry from the same claims.
+ * - Refuses the token if it was revoked, for example by logging out.
+ * - Builds the user details from the claims, or loads them from the {@link UserService} when not stateless,
+ *   and sets the authentication in the security context.
  * - Handles exceptions such as expired or malformed JWT tokens and logs the details.
  *
  * Example usage:
@@ -55,10 +68,12 @@ import java.security.SignatureException;
  * </pre>
  *
  * Exception handling:
- * - Catches and logs {@link ExpiredJwtException}, {@link MalformedJwtException}, and other JWT-related exceptions.
+ * - Catches and logs {@link ExpiredJwtException}, {@link MalformedJwtException}, and other JWT-related exceptions
+ *   such as a forged signature; the request then continues unauthenticated.
  *
  * @see OncePerRequestFilter
  * @see JwtTokenUtils
+ * @see TokenRevocationService
  * @see UserService
  * @see SecurityContextHolder
  * @see UsernamePasswordAuthenticationToken
@@ -71,6 +86,10 @@ import java.security.SignatureException;
 public class JwtRequestFilter extends OncePerRequestFilter {
     private final JwtTokenUtils jwtTokenUtils;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${app.auth.stateless:true}")
+    private boolean stateless;
 
     /**
      * Extracts the JWT token from the request, validates it, and sets the authentication in the security context.
@@ -85,26 +104,34 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
         String email = null;
-        String jwt = null;
+        Claims claims = null;
 
         if(authHeader != null && authHeader.startsWith("Bearer ")){
-            jwt = authHeader.substring(7);
-            log.debug("Extracted JWT Token: {}", jwt);
+            String jwt = authHeader.substring(7);
             try {
-                email = jwtTokenUtils.getUsername(jwt);
+                claims = jwtTokenUtils.getClaims(jwt);
+                if (tokenRevocationService.isRevoked(claims)) {
+                    log.debug("JWT Token was revoked: subject={}", claims.getSubject());
+                } else {
+                    email = claims.getSubject();
+                }
             } catch (ExpiredJwtException e) {
                 log.debug("JWT Token has expired: {}", e.getMessage());
             } catch (MalformedJwtException e) {
                 log.debug("Invalid JWT Token: {}", e.getMessage());
+            } catch (JwtException e) {
+                log.debug("Rejected JWT Token: {}", e.getMessage());
             }
         }
 
-        log.debug("Before filter: email={}, jwt={}", email, jwt);
+        log.debug("Before filter: email={}", email);
 
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(email);
+            UserDetails userDetails = stateless
+                    ? jwtTokenUtils.getUserDetails(claims)
+                    : userService.loadUserByUsername(email);
 
-            if (jwtTokenUtils.validateToken(jwt, userDetails)) {
+            if (jwtTokenUtils.validateToken(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authenticationToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
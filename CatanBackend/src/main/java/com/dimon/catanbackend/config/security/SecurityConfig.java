@@ -1,5 +1,6 @@
 package com.dimon.catanbackend.config.security;
 
+import com.dimon.catanbackend.service.PasswordHashingExecutor;
 import com.dimon.catanbackend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -31,6 +33,7 @@ import static org.springframework.security.config.Customizer.withDefaults;
 public class SecurityConfig {
     private UserService userService;
     private JwtRequestFilter jwtRequestFilter;
+    private PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
     @Lazy
@@ -43,6 +46,11 @@ public class SecurityConfig {
         this.jwtRequestFilter = jwtRequestFilter;
     }
 
+    @Autowired
+    public void setPasswordHashingExecutor(PasswordHashingExecutor passwordHashingExecutor) {
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
     // TODO ADD AUTHENTICATED FOR ALL MY REQUEST ABOUT GAME
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, OAuth2UserService oAuth2UserService) throws Exception {
@@ -50,10 +58,12 @@ public class SecurityConfig {
                 .cors(withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // The SockJS handshake cannot carry a token; STOMP sessions authenticate at CONNECT instead
                         .requestMatchers("/ws/**").permitAll()
                         .requestMatchers("/secured").authenticated()
                         .requestMatchers("/info").authenticated()
-                        .requestMatchers("/adminPanel").hasRole("ADMIN")
+                        .requestMatchers("/adminPanel/**").hasRole("ADMIN")
+                        .requestMatchers("/api/ledger/**").authenticated()
                         .anyRequest().permitAll())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .exceptionHandling(ex -> ex
@@ -68,8 +78,9 @@ public class SecurityConfig {
 
     //Базові настройки знизу
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder() {
+        // Hashes run on a bounded pool of their own, so a burst of logins cannot take over the request threads
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingExecutor);
     }
 
     @Bean
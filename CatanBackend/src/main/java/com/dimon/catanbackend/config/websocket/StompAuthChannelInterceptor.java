@@ -0,0 +1,115 @@
+package com.dimon.catanbackend.config.websocket;
+
+import com.dimon.catanbackend.dtos.AuthUser;
+import com.dimon.catanbackend.service.TokenRevocationService;
+import com.dimon.catanbackend.service.UserService;
+import com.dimon.catanbackend.utils.JwtTokenUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Channel interceptor authenticating STOMP sessions. The WebSocket handshake itself is open, because SockJS
+ * cannot send an {@code Authorization} header with it; instead the client sends its JWT token as a native
+ * header of the STOMP {@code CONNECT} frame.
+ *
+ * The token is verified once, at {@code CONNECT}, and the resulting {@link StompPrincipal} is bound to the
+ * session: Spring attaches it to every later frame of the session, and hands it to handlers that declare a
+ * {@link java.security.Principal} parameter. Frames sent by a session that is not authenticated are refused.
+ *
+ * Tokens issued at login carry the user's ID and username, so connecting does not touch the database; older
+ * tokens without them are resolved once through the cached {@link UserService#findAuthUser}. A token revoked
+ * after the session connected stays valid for that session until it disconnects.
+ *
+ * Annotations used:
+ * - {@link Component} to mark this class as a Spring-managed bean.
+ * - {@link Slf4j} to provide a logger for this class using Lombok.
+ *
+ * Methods:
+ * - {@code preSend}: Authenticates {@code CONNECT} frames and refuses frames of unauthenticated sessions.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * // Client side
+ * stompClient.connect({ Authorization: `Bearer ${token}` }, onConnected);
+ * }
+ * </pre>
+ *
+ * Exception handling:
+ * - Throws {@link MessageDeliveryException} for a missing, invalid or revoked token, and for a frame sent
+ *   before the session was authenticated; the client receives an {@code ERROR} frame.
+ *
+ * @see StompPrincipal
+ * @see WebSocketConfig
+ * @see JwtTokenUtils
+ * @see TokenRevocationService
+ *
+ */
+@Component
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    @Autowired
+    private JwtTokenUtils jwtTokenUtils;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+        } else if (requiresUser(accessor.getCommand()) && accessor.getUser() == null) {
+            throw new MessageDeliveryException("Not authenticated");
+        }
+        return message;
+    }
+
+    private StompPrincipal authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new MessageDeliveryException("Token is missing");
+        }
+
+        Claims claims;
+        try {
+            claims = jwtTokenUtils.getClaims(authHeader.substring(7));
+        } catch (JwtException e) {
+            log.debug("Rejected STOMP token: {}", e.getMessage());
+            throw new MessageDeliveryException("Invalid token");
+        }
+        if (tokenRevocationService.isRevoked(claims)) {
+            throw new MessageDeliveryException("Invalid token");
+        }
+
+        Object userId = claims.get("uid");
+        String username = claims.get("username", String.class);
+        if (userId instanceof Number id && username != null) {
+            return new StompPrincipal(id.longValue(), username, claims.getSubject());
+        }
+        AuthUser user = userService.findAuthUser(claims.getSubject())
+                .orElseThrow(() -> new MessageDeliveryException("User not found"));
+        return new StompPrincipal(user.getId(), user.getUsername(), user.getEmail());
+    }
+
+    private static boolean requiresUser(StompCommand command) {
+        return command == StompCommand.SEND || command == StompCommand.SUBSCRIBE;
+    }
+}
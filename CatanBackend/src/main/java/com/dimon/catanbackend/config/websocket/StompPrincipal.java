@@ -0,0 +1,25 @@
+package com.dimon.catanbackend.config.websocket;
+
+import lombok.Value;
+
+import java.security.Principal;
+
+/**
+ * The user a STOMP session was authenticated as when it connected. It is bound to the session by
+ * {@link StompAuthChannelInterceptor} and handed to every {@code @MessageMapping} method that declares a
+ * {@link Principal} parameter, so handlers act for this user whatever the payload says.
+ *
+ * The name of the principal is the username, which is also the username of the user's players, so
+ * {@code convertAndSendToUser} addresses a player directly.
+ */
+@Value
+public class StompPrincipal implements Principal {
+    Long userId;
+    String username;
+    String email;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
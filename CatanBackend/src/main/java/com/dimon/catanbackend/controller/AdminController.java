@@ -1,16 +1,22 @@
 package com.dimon.catanbackend.controller;
 
+import com.dimon.catanbackend.dtos.ArchiveJobDto;
+import com.dimon.catanbackend.dtos.CursorPage;
 import com.dimon.catanbackend.entities.Game;
 import com.dimon.catanbackend.entities.User;
 import com.dimon.catanbackend.exceptions.GameNotFoundException;
 import com.dimon.catanbackend.exceptions.UserNotFoundException;
+import com.dimon.catanbackend.service.GameArchiveService;
 import com.dimon.catanbackend.service.GameService;
+import com.dimon.catanbackend.service.TokenRevocationService;
 import com.dimon.catanbackend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController()
 @RequestMapping("/adminPanel")
@@ -18,16 +24,21 @@ public class AdminController {
 
     private final UserService service;
     private final GameService gameService;
+    private final GameArchiveService gameArchiveService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public AdminController(UserService userService, GameService gameService) {
+    public AdminController(UserService userService, GameService gameService, GameArchiveService gameArchiveService,
+                           TokenRevocationService tokenRevocationService) {
         this.service = userService;
         this.gameService = gameService;
+        this.gameArchiveService = gameArchiveService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @GetMapping("/getAllUser")
-    public ResponseEntity<?> getAllUser() {
-        List<User> users = service.getAllUser();
+    public ResponseEntity<?> getAllUser(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        CursorPage<User> users = service.getUsersPage(cursor, size);
         return ResponseEntity.ok(users);
     }
 
@@ -41,14 +52,24 @@ public class AdminController {
         }
     }
 
+    @PostMapping("/revokeTokens/{userId}")
+    public ResponseEntity<?> revokeTokens(@PathVariable Long userId) {
+        return service.findById(userId)
+                .<ResponseEntity<?>>map(user -> {
+                    tokenRevocationService.revokeUser(user.getEmail());
+                    return ResponseEntity.ok().body("Tokens of the user revoked");
+                })
+                .orElseGet(() -> ResponseEntity.status(404).body("User not found"));
+    }
+
     @GetMapping("/getAllGames")
-    public ResponseEntity<?> getAllGames() {
-        List<Game> games = gameService.findAllGames();
+    public ResponseEntity<?> getAllGames(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        CursorPage<Game> games = gameService.findGamesPage(cursor, size);
         return ResponseEntity.ok(games);
     }
 
     @DeleteMapping("/deleteGame/{gameId}")
-    public ResponseEntity<?> deleteGame(@PathVariable String gameId) {
+    public ResponseEntity<?> deleteGame(@PathVariable UUID gameId) {
         try {
             gameService.deleteGameById(gameId);
             return ResponseEntity.ok().body("Game deleted successfully");
@@ -59,8 +80,21 @@ public class AdminController {
         }
     }
 
+    @PostMapping("/archiveGames")
+    public ResponseEntity<?> archiveGames(@RequestParam(required = false) Long olderThanHours) {
+        ArchiveJobDto job = gameArchiveService.startArchiveJob(olderThanHours != null ? Duration.ofHours(olderThanHours) : null);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/archiveJobs/{jobId}")
+    public ResponseEntity<?> getArchiveJob(@PathVariable String jobId) {
+        return gameArchiveService.getJob(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("error", "Archive job not found")));
+    }
+
     @PostMapping("/watchGame/{gameId}")
-    public ResponseEntity<String> watchGame(@PathVariable String gameId, @RequestParam Long userId) {
+    public ResponseEntity<String> watchGame(@PathVariable UUID gameId, @RequestParam Long userId) {
         try {
             gameService.addObserverToGame(gameId, userId);
             return ResponseEntity.ok("User is now observing the game");
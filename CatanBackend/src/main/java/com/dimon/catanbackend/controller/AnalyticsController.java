@@ -2,13 +2,17 @@ package com.dimon.catanbackend.controller;
 
 import com.dimon.catanbackend.utils.api.ApiAnalyticsService;
 import com.dimon.catanbackend.utils.api.ApiMetrics;
+import com.dimon.catanbackend.utils.api.CacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
+import java.util.TreeMap;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -17,6 +21,9 @@ public class AnalyticsController {
     @Autowired
     private ApiAnalyticsService apiAnalyticsService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @GetMapping("/all")
     public Map<String, ApiMetrics> getAllMetrics() {
         return apiAnalyticsService.getAllMetrics();
@@ -26,5 +33,15 @@ public class AnalyticsController {
     public ApiMetrics getMetricsForEndpoint(@RequestParam String endpoint) {
         return apiAnalyticsService.getMetricsForEndpoint(endpoint);
     }
-}
 
+    @GetMapping("/caches")
+    public Map<String, CacheMetrics> getCacheMetrics() {
+        Map<String, CacheMetrics> metrics = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                metrics.put(name, new CacheMetrics(cache.getNativeCache()));
+            }
+        }
+        return metrics;
+    }
+}
@@ -4,8 +4,13 @@ import com.dimon.catanbackend.dtos.RegistrationUserDto;
 import com.dimon.catanbackend.entities.User;
 import com.dimon.catanbackend.service.AuthService;
 import com.dimon.catanbackend.service.FileStorageService;
+import com.dimon.catanbackend.service.LoginRateLimiter;
+import com.dimon.catanbackend.service.TokenRevocationService;
 import com.dimon.catanbackend.service.UserService;
 import com.dimon.catanbackend.utils.JwtTokenUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
@@ -26,15 +31,19 @@ public class AuthController {
     private final UserService userService;
     private final JwtTokenUtils jwtTokenUtils;
     private final FileStorageService fileStorageService;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginRateLimiter loginRateLimiter;
 
 
     @PostMapping("/login")
-    public ResponseEntity<?> createAuthToken(@RequestBody @Valid JwtRequest authRequest) {
+    public ResponseEntity<?> createAuthToken(@RequestBody @Valid JwtRequest authRequest, HttpServletRequest request) {
+        loginRateLimiter.checkLogin(request.getRemoteAddr(), authRequest.getEmail());
         return authService.createAuthToken(authRequest);
     }
 
     @PostMapping("/registration")
-    public ResponseEntity<?> createNewUser(@RequestBody RegistrationUserDto userDto) {
+    public ResponseEntity<?> createNewUser(@RequestBody RegistrationUserDto userDto, HttpServletRequest request) {
+        loginRateLimiter.checkRegistration(request.getRemoteAddr());
         System.out.println("I am in registration");
         System.out.println(userDto.getEmail());
         return authService.createNewUser(userDto);
@@ -64,9 +73,12 @@ public class AuthController {
         }
 
         try {
-            String username = jwtTokenUtils.getUsername(token);
-            UserDetails userDetails = userService.loadUserByUsername(username);
-            if (jwtTokenUtils.validateToken(token, userDetails)) {
+            Claims claims = jwtTokenUtils.getClaims(token);
+            if (tokenRevocationService.isRevoked(claims)) {
+                return ResponseEntity.status(401).body("Invalid token");
+            }
+            UserDetails userDetails = userService.loadUserByUsername(claims.getSubject());
+            if (jwtTokenUtils.validateToken(claims, userDetails)) {
                 return ResponseEntity.ok("Token is valid");
             } else {
                 return ResponseEntity.status(401).body("Invalid token");
@@ -76,6 +88,19 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body("Token is missing");
+        }
+
+        try {
+            tokenRevocationService.revokeToken(jwtTokenUtils.getClaims(authHeader.substring(7)));
+        } catch (JwtException e) {
+            // An invalid or expired token is not accepted anyway
+        }
+        return ResponseEntity.ok("Logged out");
+    }
 
     @GetMapping("/profile-photo/{userId}")
     public ResponseEntity<Resource> getUserProfilePhoto(@PathVariable Long userId) {
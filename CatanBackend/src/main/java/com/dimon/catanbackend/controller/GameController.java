@@ -1,12 +1,19 @@
 package com.dimon.catanbackend.controller;
 
+import com.dimon.catanbackend.config.websocket.StompPrincipal;
+import com.dimon.catanbackend.dtos.CursorPage;
 import com.dimon.catanbackend.dtos.PlayerDTO;
+import com.dimon.catanbackend.dtos.snapshot.GameSnapshot;
+import com.dimon.catanbackend.dtos.snapshot.PlayerSnapshot;
 import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.GameState;
 import com.dimon.catanbackend.entities.Player;
 import com.dimon.catanbackend.service.AuctionService;
 import com.dimon.catanbackend.service.ContractService;
 import com.dimon.catanbackend.service.GameService;
+import com.dimon.catanbackend.service.GameSnapshotService;
 import com.dimon.catanbackend.service.PlayerService;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -18,6 +25,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.util.*;
 
 @RestController
@@ -37,6 +45,9 @@ public class GameController {
     @Autowired
     private ContractService contractService;
 
+    @Autowired
+    private GameSnapshotService gameSnapshotService;
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
@@ -49,7 +60,7 @@ public class GameController {
         System.out.println("Creating game for user: " + userDetails.getUsername());
         try {
             Game createdGame = gameService.createGame(message);
-            messagingTemplate.convertAndSend("/topic/games", gameService.findAllGames());
+            messagingTemplate.convertAndSend("/topic/games", gameService.findWaitingGames(null, null).getItems());
             return ResponseEntity.status(201).body(createdGame);
         } catch (RuntimeException e) {
             return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
@@ -57,52 +68,62 @@ public class GameController {
     }
 
     @PostMapping("/{gameId}/state")
-    public ResponseEntity<?> saveGameState(@PathVariable String gameId, @RequestBody Map<String, String> message, @AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<?> saveGameState(@PathVariable UUID gameId, @RequestBody JsonNode message, @AuthenticationPrincipal UserDetails userDetails) {
         if(userDetails == null) {
             return ResponseEntity.status(401).build();
         }
 
-        String state = message.get("state");
-        System.out.println("State: " + state);
-        if(state == null) {
-            return ResponseEntity.status(400).body(Map.of("error", "State is missing"));
+        long version;
+        if(message.has("patch")) {
+            if(!message.path("baseVersion").canConvertToLong()) {
+                return ResponseEntity.status(400).body(Map.of("error", "Base version is missing"));
+            }
+            version = gameService.patchGameState(gameId, message.get("baseVersion").asLong(), message.get("patch"));
+        } else {
+            JsonNode state = message.get("state");
+            if(state == null || !state.isTextual()) {
+                return ResponseEntity.status(400).body(Map.of("error", "State is missing"));
+            }
+            version = gameService.saveGameState(gameId, state.asText());
         }
-
-        gameService.saveGameState(gameId, state);
-        return ResponseEntity.status(200).build();
+        return ResponseEntity.ok(Map.of("version", version));
     }
 
     @GetMapping("/{gameId}/state")
-    public ResponseEntity<?> getGameState(@PathVariable String gameId) {
-        String state = gameService.getGameState(gameId);
-        if(state == null) {
+    public ResponseEntity<?> getGameState(@PathVariable UUID gameId) {
+        GameState gameState = gameService.getGameStateSnapshot(gameId);
+        if(gameState == null) {
             return ResponseEntity.status(404).body(Map.of("error", "Game state not found"));
         }
 
-        return ResponseEntity.ok(Map.of("state", state));
+        return ResponseEntity.ok(Map.of("state", gameState.getState(), "version", gameState.getVersion()));
+    }
+
+    @GetMapping("/{gameId}/snapshot")
+    public ResponseEntity<GameSnapshot> getGameSnapshot(@PathVariable UUID gameId) {
+        return ResponseEntity.ok(gameSnapshotService.getSnapshot(gameId));
+    }
+
+    @GetMapping("/{gameId}/snapshot/players")
+    public ResponseEntity<List<PlayerSnapshot>> getPlayerSnapshots(@PathVariable UUID gameId, @RequestParam List<UUID> ids) {
+        return ResponseEntity.ok(gameSnapshotService.findPlayers(gameId, ids));
     }
 
     @GetMapping("")
-    public ResponseEntity<?> getAllGames() {
-        List<Game> games = gameService.findAllGames();
-        if (games.isEmpty()) {
-            System.out.println("Is empty");
-            return ResponseEntity.ok(Collections.emptyList());
-        } else {
-            System.out.println("Not empty");
-            return ResponseEntity.ok(games);
-        }
+    public ResponseEntity<CursorPage<Game>> getAllGames(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(gameService.findWaitingGames(cursor, size));
     }
 
     @MessageMapping("/player/payMoney")
-    public void payMoney(Map<String, Object> message) {
+    public void payMoney(Map<String, Object> message, Principal principal) {
+        actAs(message, principal);
         System.out.println("Pay Money");
         playerService.payMoney(message);
     }
 
     //TODO ALSO PROBLEM WITH SOCKETS
     @PostMapping("/{gameId}/join")
-    public ResponseEntity<?> joinGame(@PathVariable String gameId, @RequestBody Map<String, String> message, @AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<?> joinGame(@PathVariable UUID gameId, @RequestBody Map<String, String> message, @AuthenticationPrincipal UserDetails userDetails) {
         if (userDetails == null) {
             return ResponseEntity.status(401).build();
         }
@@ -127,7 +148,7 @@ public class GameController {
     }
 
     @GetMapping("/{gameId}/status")
-    public ResponseEntity<Map<String, Object>> getGameStatus(@PathVariable String gameId) {
+    public ResponseEntity<Map<String, Object>> getGameStatus(@PathVariable UUID gameId) {
         Game game = gameService.findGameById(gameId);
         if (game == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Game not found"));
@@ -141,7 +162,7 @@ public class GameController {
 
     //TODO HERE ERROR 400 BAD REQUEST
     @PostMapping("/{gameId}/leave")
-    public ResponseEntity<?> leaveGame(@PathVariable String gameId, @RequestBody Map<String, String> message, @AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<?> leaveGame(@PathVariable UUID gameId, @RequestBody Map<String, String> message, @AuthenticationPrincipal UserDetails userDetails) {
         if (userDetails == null) {
             return ResponseEntity.status(401).build();
         }
@@ -155,7 +176,7 @@ public class GameController {
         }
     }
     @GetMapping("/{gameId}")
-    public ResponseEntity<Game> getGameById(@PathVariable String gameId) {
+    public ResponseEntity<Game> getGameById(@PathVariable UUID gameId) {
         Game game = gameService.findGameById(gameId);
         if (game != null) {
             System.out.println("Get game norm");
@@ -167,9 +188,9 @@ public class GameController {
 
     @MessageMapping("/game/create")
     @SendTo("/topic/game-created")
-    public void createGameThroughWebSocket(Map<String, String> message) {
-        gameService.createGame(message);
-        messagingTemplate.convertAndSend("/topic/games", gameService.findAllGames());
+    public void createGameThroughWebSocket(Map<String, String> message, StompPrincipal principal) {
+        gameService.createGame(message, principal.getUserId(), principal.getUsername());
+        messagingTemplate.convertAndSend("/topic/games", gameService.findWaitingGames(null, null).getItems());
     }
 
 //    @MessageMapping("/game/join")
@@ -179,7 +200,8 @@ public class GameController {
 
     //TODO HERE PROBLEM WITH FIRST OF ALL END TURN AND THEN MOVE PLAYER IN FRONTEND
     @MessageMapping("/player/move")
-    public void movePlayer(Map<String, Object> message) {
+    public void movePlayer(Map<String, Object> message, Principal principal) {
+            actAs(message, principal);
             System.out.println(message.get("gameId"));
             System.out.println(message.get("gameName"));
             System.out.println(message.get("username"));
@@ -191,7 +213,7 @@ public class GameController {
 
     // TODO FIX THIS FUNCTION
     @GetMapping("/property/{gameId}/{propertyName}/owner")
-    public ResponseEntity<?> getPropertyOwner(@PathVariable String gameId, @PathVariable String propertyName) {
+    public ResponseEntity<?> getPropertyOwner(@PathVariable UUID gameId, @PathVariable String propertyName) {
         System.out.println("I am getting property owner");
         Game game = gameService.findGameById(gameId);
         if (game == null) {
@@ -217,86 +239,112 @@ public class GameController {
     }
 
     @MessageMapping("/player/payRent")
-    public void payRent(Map<String, Object> message) {
+    public void payRent(Map<String, Object> message, Principal principal) {
+        actAs(message, principal);
         System.out.println("Pay Rent");
         playerService.payRent(message);
     }
 
     @MessageMapping("/game/endTurn")
-    public void endTurn(Map<String, String> message) {
-        System.out.println("End turn");
+    public void endTurn(Map<String, String> message, Principal principal) {
+        actAs(message, principal);
         gameService.endTurn(message);
     }
 
 
-    @GetMapping("/api/games")
-    @ResponseBody
-    public List<Map<String, String>> getGames() {
-        return gameService.getGames();
-    }
-
-
     @MessageMapping("/player/buyProperty")
-    public void buyProperty(Map<String, String> message) {
+    public void buyProperty(Map<String, String> message, Principal principal) {
+        actAs(message, principal);
         System.out.println("I buy property");
         playerService.buyProperty(message);
     }
 
     @MessageMapping("/player/landOnField")
-    public void landOnField(Map<String, String> message) {
+    public void landOnField(Map<String, String> message, Principal principal) {
+        actAs(message, principal);
         playerService.landOnField(message);
     }
 
 
     @MessageMapping("/player/buyOffice")
-    public void buyOffice(Map<String, String> message) {
+    public void buyOffice(Map<String, String> message, Principal principal) {
+        actAs(message, principal);
         playerService.buyOffice(message);
     }
 
     @MessageMapping("/player/casinoGame")
-    public void playCasinoGame(Map<String, Object> message) {
+    public void playCasinoGame(Map<String, Object> message, Principal principal) {
+        actAs(message, principal);
         playerService.playCasinoGame(message);
     }
 
     @MessageMapping("/player/startAuction")
-    public void startAuction(Map<String, Object> message) {
+    public void startAuction(Map<String, Object> message, Principal principal) {
+        actAs(message, principal);
         System.out.println("I start Auction");
         auctionService.startAuction(message);
     }
 
     @MessageMapping("/player/placeBid")
-    public void placeBid(Map<String, Object> message) {
+    public void placeBid(Map<String, Object> message, Principal principal) {
+        actAs(message, principal);
         auctionService.placeBid(message);
     }
 
     @MessageMapping("/player/sellOffice")
-    public void sellOffice(Map<String, String> message) {
+    public void sellOffice(Map<String, String> message, Principal principal) {
+        actAs(message, principal);
         playerService.sellOffice(message);
     }
 
     @MessageMapping("/player/mortgageProperty")
-    public void mortgageProperty(Map<String, String> message) {
+    public void mortgageProperty(Map<String, String> message, Principal principal) {
+        actAs(message, principal);
         playerService.mortgageProperty(message);
     }
 
     @MessageMapping("/player/unmortgageProperty")
-    public void unmortgageProperty(Map<String, String> message) {
+    public void unmortgageProperty(Map<String, String> message, Principal principal) {
+        actAs(message, principal);
         playerService.unmortgageProperty(message);
     }
 
+    @MessageMapping("/player/manageProperties")
+    public void manageProperties(Map<String, Object> message, Principal principal) {
+        actAs(message, principal);
+        playerService.manageProperties(message);
+    }
+
     @MessageMapping("/player/surrender")
-    public void surround(Map<String, String> message) {
+    public void surround(Map<String, String> message, Principal principal) {
+        actAs(message, principal);
         playerService.surrender(message);
     }
 
     @MessageMapping("/player/proposeContract")
-    public void proposeContract(Map<String, Object> message) {
+    @SuppressWarnings("unchecked")
+    public void proposeContract(Map<String, Object> message, Principal principal) {
+        Object terms = message.get("contract");
+        if (terms instanceof Map) {
+            ((Map<String, Object>) terms).put("fromUsername", principal.getName());
+        }
         contractService.proposeContract(message);
     }
 
     @MessageMapping("/player/acceptContract")
-    public void acceptContract(Map<String, Object> message) {
+    public void acceptContract(Map<String, Object> message, Principal principal) {
+        actAs(message, principal);
         contractService.acceptContract(message);
     }
 
+    @MessageMapping("/player/declineContract")
+    public void declineContract(Map<String, Object> message, Principal principal) {
+        actAs(message, principal);
+        contractService.declineContract(message);
+    }
+
+    // STOMP handlers act for the user the session authenticated as, never for a username sent in the payload
+    private static void actAs(Map<String, ? super String> message, Principal principal) {
+        message.put("username", principal.getName());
+    }
 }
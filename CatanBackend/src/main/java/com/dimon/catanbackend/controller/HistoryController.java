@@ -0,0 +1,31 @@
+package com.dimon.catanbackend.controller;
+
+import com.dimon.catanbackend.dtos.CursorPage;
+import com.dimon.catanbackend.dtos.GameHistoryDto;
+import com.dimon.catanbackend.dtos.GameReplayDto;
+import com.dimon.catanbackend.service.GameHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/history")
+public class HistoryController {
+
+    @Autowired
+    private GameHistoryService gameHistoryService;
+
+    @GetMapping("/players/{username}/games")
+    public ResponseEntity<CursorPage<GameHistoryDto>> getPlayerHistory(@PathVariable String username,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(gameHistoryService.findHistory(username, cursor, size));
+    }
+
+    @GetMapping("/games/{gameId}")
+    public ResponseEntity<GameReplayDto> getReplay(@PathVariable UUID gameId) {
+        return ResponseEntity.ok(gameHistoryService.getReplay(gameId));
+    }
+}
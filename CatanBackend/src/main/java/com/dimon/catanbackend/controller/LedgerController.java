@@ -0,0 +1,59 @@
+package com.dimon.catanbackend.controller;
+
+import com.dimon.catanbackend.dtos.CursorPage;
+import com.dimon.catanbackend.dtos.LedgerBalanceDto;
+import com.dimon.catanbackend.dtos.LedgerSummaryDto;
+import com.dimon.catanbackend.entities.LedgerEntry;
+import com.dimon.catanbackend.service.MoneyLedgerService;
+import com.dimon.catanbackend.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/ledger")
+public class LedgerController {
+
+    @Autowired
+    private MoneyLedgerService moneyLedgerService;
+
+    @Autowired
+    private UserService userService;
+
+    @GetMapping("/games/{gameId}/entries")
+    public ResponseEntity<CursorPage<LedgerEntry>> getGameEntries(@PathVariable UUID gameId,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(moneyLedgerService.findGameEntries(gameId, cursor, size));
+    }
+
+    @GetMapping("/games/{gameId}/summary")
+    public ResponseEntity<List<LedgerSummaryDto>> getGameSummary(@PathVariable UUID gameId) {
+        return ResponseEntity.ok(moneyLedgerService.summarizeGame(gameId));
+    }
+
+    @GetMapping("/games/{gameId}/balances")
+    public ResponseEntity<List<LedgerBalanceDto>> getGameBalances(@PathVariable UUID gameId) {
+        return ResponseEntity.ok(moneyLedgerService.getGameBalances(gameId));
+    }
+
+    // The economics of a user are visible to that user and to admins only
+    @GetMapping("/users/{username}/summary")
+    public ResponseEntity<List<LedgerSummaryDto>> getUserSummary(@PathVariable String username,
+                                                                 @AuthenticationPrincipal UserDetails userDetails) {
+        boolean admin = userDetails.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        boolean self = userService.findAuthUser(userDetails.getUsername())
+                .map(user -> user.getUsername().equals(username))
+                .orElse(false);
+        if (!admin && !self) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(moneyLedgerService.summarizeUser(username));
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/m1tv")
 public class M1TVController {
@@ -21,16 +23,16 @@ public class M1TVController {
     }
 
     @GetMapping("/getAllGames")
-    public ResponseEntity<?> getAllGames() {
+    public ResponseEntity<?> getAllGames(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
         try {
-            return ResponseEntity.ok(gameService.findAllGames());
+            return ResponseEntity.ok(gameService.findWaitingGames(cursor, size));
         } catch (Exception e) {
             return ResponseEntity.status(500).body("An error occurred while fetching games");
         }
     }
 
     @PostMapping("/watchGame/{gameId}")
-    public ResponseEntity<String> watchGame(@PathVariable String gameId, @RequestParam(required = false) Long userId) {
+    public ResponseEntity<String> watchGame(@PathVariable UUID gameId, @RequestParam(required = false) Long userId) {
         try {
             if (userId != null) {
                 gameService.addObserverToGame(gameId, userId);
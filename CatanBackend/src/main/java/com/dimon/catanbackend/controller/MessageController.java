@@ -1,8 +1,13 @@
 package com.dimon.catanbackend.controller;
 
+import com.dimon.catanbackend.config.pagination.PaginationProperties;
+import com.dimon.catanbackend.dtos.CursorPage;
 import com.dimon.catanbackend.entities.ChatMessage;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
 import com.dimon.catanbackend.repositories.ChatMessageRepository;
+import com.dimon.catanbackend.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
@@ -10,8 +15,10 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.security.Principal;
 import java.util.List;
 import java.util.Objects;
 
@@ -25,16 +32,31 @@ public class MessageController {
     @Autowired
     private ChatMessageRepository chatMessageRepository;
 
+    @Autowired
+    private PaginationProperties paginationProperties;
+
     @MessageMapping("/chat.sendMessage")
     @SendTo("/topic/public")
-    public ChatMessage sendMessage(ChatMessage chatMessage) {
+    public ChatMessage sendMessage(ChatMessage chatMessage, Principal principal) {
+        // The sender is the user of the session, not whoever the client claims to be
+        chatMessage.setSender(principal.getName());
         // Broadcast the message to all subscribers
         return chatMessageRepository.save(chatMessage);
     }
 
-    // Fetch all chat messages
+    // Fetch chat history, newest page first; pass the returned cursor to load older messages
     @GetMapping("/api/chat/messages")
-    public List<ChatMessage> getAllMessages() {
-        return chatMessageRepository.findAll();
+    public CursorPage<ChatMessage> getAllMessages(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null) {
+            try {
+                beforeId = Long.parseLong(KeysetCursor.decode(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new InvalidActionException("Invalid page cursor");
+            }
+        }
+        List<ChatMessage> rows = chatMessageRepository.findByIdLessThanOrderByIdDesc(beforeId, Limit.of(pageSize + 1));
+        return KeysetCursor.page(rows, pageSize, message -> KeysetCursor.encode(message.getId().toString()));
     }
 }
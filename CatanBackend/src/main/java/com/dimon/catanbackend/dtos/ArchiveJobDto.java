@@ -0,0 +1,28 @@
+package com.dimon.catanbackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchiveJobDto {
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private String jobId;
+    private Status status;
+    private LocalDateTime cutoff;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private int archivedGames;
+    private int batches;
+    private String error;
+}
@@ -0,0 +1,41 @@
+package com.dimon.catanbackend.dtos;
+
+import com.dimon.catanbackend.entities.Role;
+import com.dimon.catanbackend.entities.User;
+import lombok.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+/**
+ * Immutable view of a user holding only what authentication needs. Instances are shared through the
+ * {@code authUsers} cache, so every caller gets a fresh {@link UserDetails} from {@link #toUserDetails()}:
+ * Spring Security erases the credentials of the object it authenticated, which must not be the cached one.
+ */
+@Value
+public class AuthUser {
+    Long id;
+    String email;
+    String username;
+    String password;
+    boolean active;
+    List<String> roles;
+
+    public AuthUser(User user) {
+        this.id = user.getId();
+        this.email = user.getEmail();
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.active = user.isActive();
+        this.roles = user.getRoles().stream().map(Role::getName).toList();
+    }
+
+    public UserDetails toUserDetails() {
+        return new org.springframework.security.core.userdetails.User(
+                email,
+                password,
+                roles.stream().map(SimpleGrantedAuthority::new).toList()
+        );
+    }
+}
@@ -0,0 +1,24 @@
+package com.dimon.catanbackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContractDto {
+    private UUID id;
+    private UUID gameId;
+    private String gameName;
+    private String fromUsername;
+    private String toUsername;
+    // What the proposing player gives
+    private ContractSideDto offer;
+    // What the proposing player gets
+    private ContractSideDto request;
+    // Epoch milliseconds after which the contract can no longer be accepted
+    private long expiresAt;
+}
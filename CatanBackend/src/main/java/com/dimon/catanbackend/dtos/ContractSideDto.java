@@ -0,0 +1,16 @@
+package com.dimon.catanbackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContractSideDto {
+    private int money;
+    private List<String> properties = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.dimon.catanbackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
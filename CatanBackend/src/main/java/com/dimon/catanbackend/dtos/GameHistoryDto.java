@@ -0,0 +1,20 @@
+package com.dimon.catanbackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameHistoryDto {
+    private UUID gameId;
+    private String name;
+    private LocalDateTime createdTime;
+    private LocalDateTime finishedTime;
+    private LocalDateTime archivedAt;
+    private int playerCount;
+}
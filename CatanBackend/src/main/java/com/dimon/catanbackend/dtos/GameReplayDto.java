@@ -0,0 +1,14 @@
+package com.dimon.catanbackend.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameReplayDto {
+    private GameHistoryDto game;
+    private JsonNode state;
+}
@@ -0,0 +1,16 @@
+package com.dimon.catanbackend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerBalanceDto {
+    private UUID playerId;
+    private String username;
+    private long balance;
+}
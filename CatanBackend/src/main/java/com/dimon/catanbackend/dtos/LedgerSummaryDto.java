@@ -0,0 +1,17 @@
+package com.dimon.catanbackend.dtos;
+
+import com.dimon.catanbackend.entities.LedgerReason;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerSummaryDto {
+    private String username;
+    private LedgerReason reason;
+    private long paid;
+    private long received;
+    private long transfers;
+}
@@ -5,13 +5,14 @@ import lombok.*;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.UUID;
 
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class PlayerDTO {
-    private String id;
+    private UUID id;
     private String username;
     private int currentPosition;
     private float x;
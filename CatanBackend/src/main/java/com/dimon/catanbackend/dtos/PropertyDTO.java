@@ -2,13 +2,14 @@ package com.dimon.catanbackend.dtos;
 
 import com.dimon.catanbackend.entities.Property;
 import lombok.*;
+import java.util.UUID;
 
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class PropertyDTO {
-    private String id;
+    private UUID id;
     private String name;
     private int position;
     private int offices;
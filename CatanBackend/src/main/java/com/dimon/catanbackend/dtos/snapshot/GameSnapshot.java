@@ -0,0 +1,19 @@
+package com.dimon.catanbackend.dtos.snapshot;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameSnapshot {
+    private UUID gameId;
+    private long version;
+    private TurnSnapshot turn;
+    private Map<UUID, PlayerSnapshot> players;
+    private Map<Integer, TileSnapshot> tiles;
+}
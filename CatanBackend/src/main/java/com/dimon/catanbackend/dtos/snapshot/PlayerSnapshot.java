@@ -0,0 +1,30 @@
+package com.dimon.catanbackend.dtos.snapshot;
+
+import com.dimon.catanbackend.entities.Player;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlayerSnapshot {
+    private UUID id;
+    private String username;
+    private String color;
+    private int money;
+    private int currentPosition;
+    private float x;
+    private float y;
+
+    public PlayerSnapshot(Player player) {
+        this.id = player.getId();
+        this.username = player.getUsername();
+        this.color = player.getColor();
+        this.money = player.getMoney();
+        this.currentPosition = player.getCurrentPosition();
+        this.x = player.getX();
+        this.y = player.getY();
+    }
+}
@@ -0,0 +1,34 @@
+package com.dimon.catanbackend.dtos.snapshot;
+
+import com.dimon.catanbackend.entities.Property;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TileSnapshot {
+    private UUID propertyId;
+    private String name;
+    private int position;
+    private String category;
+    private int cost;
+    private UUID ownerId;
+    private int offices;
+    private boolean mortgaged;
+    private int baseRent;
+
+    public TileSnapshot(Property property) {
+        this.propertyId = property.getId();
+        this.name = property.getName();
+        this.position = property.getPosition();
+        this.category = property.getCategory();
+        this.cost = property.getCost();
+        this.ownerId = property.getOwner() != null ? property.getOwner().getId() : null;
+        this.offices = property.getOffices();
+        this.mortgaged = property.isMortgaged();
+        this.baseRent = property.getBaseRent();
+    }
+}
@@ -0,0 +1,29 @@
+package com.dimon.catanbackend.dtos.snapshot;
+
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.Player;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TurnSnapshot {
+    private String name;
+    private boolean gameStarted;
+    private int maxPlayers;
+    private UUID currentPlayerId;
+    private List<UUID> playerOrder;
+
+    public TurnSnapshot(Game game) {
+        this.name = game.getName();
+        this.gameStarted = game.isGameStarted();
+        this.maxPlayers = game.getMaxPlayers();
+        this.currentPlayerId = game.getCurrentPlayerId();
+        this.playerOrder = game.getPlayers().stream().map(Player::getId).toList();
+    }
+}
@@ -0,0 +1,14 @@
+package com.dimon.catanbackend.entities;
+
+/**
+ * How the unowned properties of a game are auctioned.
+ *
+ * - {@code ENGLISH}: Open ascending auction. Every bid is broadcast, and the auction ends once nobody has
+ *   outbid the highest bid for the bid window.
+ * - {@code SEALED_BID}: Every player submits at most one hidden bid within a single window. The highest bid
+ *   wins, and the result is the only broadcast of the auction.
+ */
+public enum AuctionMode {
+    ENGLISH,
+    SEALED_BID
+}
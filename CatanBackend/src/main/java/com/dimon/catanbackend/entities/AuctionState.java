@@ -1,56 +1,211 @@
 package com.dimon.catanbackend.entities;
 
+import com.dimon.catanbackend.utils.HashedTimingWheel;
 import lombok.Getter;
-import lombok.Setter;
-import org.springframework.scheduling.TaskScheduler;
 
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ScheduledFuture;
+import java.util.Map;
+import java.util.UUID;
 
+/**
+ * State of a running auction as one node knows it. The authoritative copy is a Redis hash written by the
+ * auction scripts; this object mirrors it so that a bid which cannot win (too low, or more than the bidder has)
+ * is refused without a round trip, and so that the bidders and their balances never have to be read from the
+ * database while the auction runs.
+ *
+ * Balances are the ones the players had when the auction started. The award checks the real balance again.
+ *
+ * In a {@link AuctionMode#SEALED_BID} auction the highest bid holds the minimum bid for the whole auction,
+ * and the hidden bids are only known to Redis until the auction is closed.
+ *
+ * A state is immutable: an accepted bid produces a new snapshot, which the node swaps in with a
+ * compare-and-set, so a bid and the end timer racing for the same auction never see a half-written state.
+ * Snapshots are compared by identity, which is what the compare-and-set relies on, so this class must not
+ * override {@code equals}.
+ */
 //TODO Change that highest bid will be 0 in start or half of cost
 @Getter
-@Setter
-public class AuctionState {
-    private final Property property;
-    private final Player startingPlayer;
-    private Player highestBidder;
-    private int highestBid;
-    List<Player> players;
-    private ScheduledFuture<?> scheduledFuture;
-    private final TaskScheduler taskScheduler;
-    private int currentPlayerIndex = 0;
-
-    public AuctionState(Property property, Player startingPlayer, TaskScheduler taskScheduler) {
-        this.property = property;
-        this.startingPlayer = startingPlayer;
-        this.taskScheduler = taskScheduler;
-        this.highestBid = property.getCost() / 2;
-        this.players = property.getGame().getPlayers();
-    }
-
-    public boolean placeBid(Player player, int bidAmount) {
-        if(bidAmount > highestBid) {
-            highestBidder = player;
-            highestBid = bidAmount;
-            if(scheduledFuture != null) {
-                scheduledFuture.cancel(false);
-            }
-            return true;
+public final class AuctionState {
+    private final UUID gameId;
+    private final AuctionMode mode;
+    private final String gameName;
+    private final UUID propertyId;
+    private final String propertyName;
+    // Usernames in turn order
+    private final List<String> bidders;
+    private final Map<String, Integer> balances;
+    private final Map<String, UUID> playerIds;
+    private final String highestBidder;
+    private final int highestBid;
+    private final String nextBidder;
+    // Incremented on every accepted bid, so an end timer that fired for an earlier bid can be told apart
+    private final int round;
+    // Hidden bids of a sealed-bid auction by username, known once the auction is closed
+    private final Map<String, Integer> sealedBids;
+    // The end timer of this round, if it was scheduled already
+    private final HashedTimingWheel.Timeout endTimer;
+
+    private AuctionState(AuctionState base, String highestBidder, int highestBid, String nextBidder, int round,
+                         Map<String, Integer> sealedBids, HashedTimingWheel.Timeout endTimer) {
+        this(base.gameId, base.mode, base.gameName, base.propertyId, base.propertyName, base.bidders, base.balances,
+                base.playerIds, highestBidder, highestBid, nextBidder, round, sealedBids, endTimer);
+    }
+
+    private AuctionState(UUID gameId, AuctionMode mode, String gameName, UUID propertyId, String propertyName,
+                         List<String> bidders, Map<String, Integer> balances, Map<String, UUID> playerIds,
+                         String highestBidder, int highestBid, String nextBidder, int round,
+                         Map<String, Integer> sealedBids, HashedTimingWheel.Timeout endTimer) {
+        this.gameId = gameId;
+        this.mode = mode;
+        this.gameName = gameName;
+        this.propertyId = propertyId;
+        this.propertyName = propertyName;
+        this.bidders = bidders;
+        this.balances = balances;
+        this.playerIds = playerIds;
+        this.highestBidder = highestBidder;
+        this.highestBid = highestBid;
+        this.nextBidder = nextBidder;
+        this.round = round;
+        this.sealedBids = sealedBids;
+        this.endTimer = endTimer;
+    }
+
+    /**
+     * Creates the state of a new auction of a property, with every player of its game as a bidder.
+     */
+    public static AuctionState start(Property property) {
+        Game game = property.getGame();
+        List<String> bidders = new ArrayList<>();
+        Map<String, Integer> balances = new HashMap<>();
+        Map<String, UUID> playerIds = new HashMap<>();
+        for (Player player : game.getPlayers()) {
+            bidders.add(player.getUsername());
+            balances.put(player.getUsername(), player.getMoney());
+            playerIds.put(player.getUsername(), player.getId());
+        }
+        return new AuctionState(game.getId(), game.getAuctionMode(), game.getName(), property.getId(),
+                property.getName(), Collections.unmodifiableList(bidders), Collections.unmodifiableMap(balances),
+                Collections.unmodifiableMap(playerIds), null, property.getCost() / 2, null, 0, Map.of(), null);
+    }
+
+    public boolean isBidder(String username) {
+        return balances.containsKey(username);
+    }
+
+    public boolean canCover(String username, int amount) {
+        Integer balance = balances.get(username);
+        return balance != null && balance >= amount;
+    }
+
+    /**
+     * Returns the state after a bid accepted by Redis. The new round has no end timer yet.
+     */
+    public AuctionState withBid(String username, int amount, int round, String nextBidder) {
+        return new AuctionState(this, username, amount, nextBidder, round, sealedBids, null);
+    }
+
+    /**
+     * Returns the state with a higher bid that another node accepted, learnt from a refused bid.
+     */
+    public AuctionState withHighestBid(int amount) {
+        return new AuctionState(this, highestBidder, amount, nextBidder, round, sealedBids, endTimer);
+    }
+
+    /**
+     * Returns the state with one more hidden bid of a sealed-bid auction.
+     */
+    public AuctionState withSealedBid(String username, int amount) {
+        Map<String, Integer> bids = new HashMap<>(sealedBids);
+        bids.put(username, amount);
+        return new AuctionState(this, highestBidder, highestBid, nextBidder, round,
+                Collections.unmodifiableMap(bids), endTimer);
+    }
+
+    /**
+     * Returns the state with the end timer scheduled for its round.
+     */
+    public AuctionState withEndTimer(HashedTimingWheel.Timeout endTimer) {
+        return new AuctionState(this, highestBidder, highestBid, nextBidder, round, sealedBids, endTimer);
+    }
+
+    /**
+     * Cancels the end timer of this round, if it was scheduled.
+     */
+    public void cancelEndTimer() {
+        if (endTimer != null) {
+            endTimer.cancel();
         }
-        return false;
     }
 
-    public void moveToNextPlayer() {
-        currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
+    /**
+     * Returns the position of a bidder in turn order, which breaks ties between equal sealed bids.
+     */
+    public int positionOf(String username) {
+        return bidders.indexOf(username);
     }
 
-    public Player getCurrentPlayer() {
-        return players.get(currentPlayerIndex);
+    /**
+     * Returns the fields of the Redis hash holding this auction.
+     */
+    public Map<String, String> toFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("mode", mode.name());
+        fields.put("gameName", gameName);
+        fields.put("propertyId", propertyId.toString());
+        fields.put("propertyName", propertyName);
+        fields.put("highestBidder", highestBidder != null ? highestBidder : "");
+        fields.put("highestBid", String.valueOf(highestBid));
+        fields.put("nextBidder", nextBidder != null ? nextBidder : "");
+        fields.put("round", String.valueOf(round));
+        fields.put("bidders", String.valueOf(bidders.size()));
+        for (int i = 0; i < bidders.size(); i++) {
+            String username = bidders.get(i);
+            fields.put("bidder:" + i, username);
+            fields.put("position:" + username, String.valueOf(i));
+            fields.put("money:" + username, String.valueOf(balances.get(username)));
+            fields.put("id:" + username, playerIds.get(username).toString());
+        }
+        sealedBids.forEach((username, amount) -> fields.put("sealed:" + username, String.valueOf(amount)));
+        if (mode == AuctionMode.SEALED_BID) {
+            fields.put("submitted", String.valueOf(sealedBids.size()));
+        }
+        return fields;
     }
 
-    public void scheduleEnd(Runnable endTask) {
-        scheduledFuture = taskScheduler.schedule(endTask, new Date(System.currentTimeMillis() + 10000));
+    /**
+     * Rebuilds the state of an auction from its Redis hash, on a node that did not start it.
+     */
+    public static AuctionState fromFields(UUID gameId, Map<String, String> fields) {
+        int count = Integer.parseInt(fields.get("bidders"));
+        List<String> bidders = new ArrayList<>(count);
+        Map<String, Integer> balances = new HashMap<>();
+        Map<String, UUID> playerIds = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String username = fields.get("bidder:" + i);
+            bidders.add(username);
+            balances.put(username, Integer.parseInt(fields.get("money:" + username)));
+            playerIds.put(username, UUID.fromString(fields.get("id:" + username)));
+        }
+        Map<String, Integer> sealedBids = new HashMap<>();
+        fields.forEach((field, value) -> {
+            if (field.startsWith("sealed:")) {
+                sealedBids.put(field.substring("sealed:".length()), Integer.parseInt(value));
+            }
+        });
+        return new AuctionState(gameId, AuctionMode.valueOf(fields.get("mode")), fields.get("gameName"),
+                UUID.fromString(fields.get("propertyId")), fields.get("propertyName"),
+                Collections.unmodifiableList(bidders), Collections.unmodifiableMap(balances),
+                Collections.unmodifiableMap(playerIds), emptyToNull(fields.get("highestBidder")),
+                Integer.parseInt(fields.get("highestBid")), emptyToNull(fields.get("nextBidder")),
+                Integer.parseInt(fields.get("round")), Collections.unmodifiableMap(sealedBids), null);
     }
 
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
 }
@@ -0,0 +1,9 @@
+package com.dimon.catanbackend.entities;
+
+/**
+ * State of an email in the outbox, as stored in {@link EmailOutboxMessage#getStatus()}. Sent emails are deleted.
+ */
+public enum EmailOutboxStatus {
+    PENDING,
+    DEAD
+}
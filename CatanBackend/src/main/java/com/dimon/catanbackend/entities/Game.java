@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 @Entity
 @AllArgsConstructor
@@ -16,15 +17,22 @@ import java.util.Set;
 @Builder
 @Getter
 @Setter
+@Table(indexes = @Index(name = "idx_game_lobby", columnList = "isGameStarted, createdTime, id"))
 public class Game {
     @Id
-    private String id;
+    private UUID id;
     private String name;
     @Column(nullable = false)
     private boolean isGameStarted;
     private int maxPlayers;
-    private String currentPlayerId;
+    private UUID currentPlayerId;
+    @Column(nullable = false)
     private LocalDateTime createdTime;
+    private LocalDateTime finishedTime;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private AuctionMode auctionMode = AuctionMode.ENGLISH;
 
     @OneToMany(mappedBy = "game",cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @JsonManagedReference
@@ -44,6 +52,15 @@ public class Game {
         player.setGame(null);
     }
 
+    /**
+     * Marks a started game as finished once at most one player is left in it.
+     */
+    public void markFinishedIfDecided() {
+        if (isGameStarted && finishedTime == null && players.size() <= 1) {
+            finishedTime = LocalDateTime.now();
+        }
+    }
+
     @ManyToMany
     @JoinTable(
             name = "game_observers",
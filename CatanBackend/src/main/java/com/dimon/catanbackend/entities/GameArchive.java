@@ -0,0 +1,41 @@
+package com.dimon.catanbackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "game_archive")
+public class GameArchive implements Persistable<UUID> {
+    @Id
+    private UUID gameId;
+    private String name;
+    private LocalDateTime createdTime;
+    private LocalDateTime finishedTime;
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+    private int playerCount;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Override
+    public UUID getId() {
+        return gameId;
+    }
+
+    // Archives are only ever inserted, so skip the select Spring Data would issue for an assigned ID
+    @Override
+    @Transient
+    public boolean isNew() {
+        return true;
+    }
+}
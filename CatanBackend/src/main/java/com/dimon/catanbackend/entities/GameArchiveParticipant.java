@@ -0,0 +1,46 @@
+package com.dimon.catanbackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "game_archive_participant")
+@IdClass(GameArchiveParticipant.Key.class)
+public class GameArchiveParticipant implements Persistable<GameArchiveParticipant.Key> {
+    @Id
+    private String username;
+    @Id
+    private LocalDateTime archivedAt;
+    @Id
+    private UUID gameId;
+
+    @Override
+    public Key getId() {
+        return new Key(username, archivedAt, gameId);
+    }
+
+    // Participants are only ever inserted together with their archive
+    @Override
+    @Transient
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String username;
+        private LocalDateTime archivedAt;
+        private UUID gameId;
+    }
+}
@@ -1,15 +1,15 @@
 package com.dimon.catanbackend.entities;
 
-import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.util.UUID;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class GameState {
-    private String gameId;
+    private UUID gameId;
     private String state;
-    private Game game;
+    private long version;
 }
@@ -0,0 +1,49 @@
+package com.dimon.catanbackend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One money movement. A {@code null} player on either side is the bank.
+ */
+@Entity
+@Immutable
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@Table(name = "money_ledger")
+public class LedgerEntry {
+    // Allocated in blocks of 50, so a batch of inserts needs one sequence call per 50 rows
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "money_ledger_seq")
+    @SequenceGenerator(name = "money_ledger_seq", sequenceName = "money_ledger_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID gameId;
+    private UUID fromPlayerId;
+    private String fromUsername;
+    private UUID toPlayerId;
+    private String toUsername;
+    private int amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private LedgerReason reason;
+
+    // Version of the game snapshot written by the same command, if it wrote one
+    private Long gameVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Set by the database when the batch is inserted; checkpoints are cut by this time
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,20 @@
+package com.dimon.catanbackend.entities;
+
+/**
+ * Why money moved, as stored in {@link LedgerEntry#getReason()}.
+ */
+public enum LedgerReason {
+    STARTING_MONEY,
+    GO_SALARY,
+    RENT,
+    PAYMENT,
+    PURCHASE,
+    OFFICE_PURCHASE,
+    OFFICE_SALE,
+    MORTGAGE,
+    UNMORTGAGE,
+    CASINO_WIN,
+    CASINO_LOSS,
+    AUCTION,
+    CONTRACT
+}
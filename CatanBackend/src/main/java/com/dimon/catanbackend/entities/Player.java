@@ -8,6 +8,7 @@ import lombok.*;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 @Entity
 @AllArgsConstructor
@@ -15,13 +16,19 @@ import java.util.Set;
 @Builder
 @Getter
 @Setter
+@Table(indexes = {
+        @Index(name = "idx_player_username_game", columnList = "username, game_id"),
+        @Index(name = "idx_player_game", columnList = "game_id")
+})
 public class Player {
     @Id
-    private String id;
+    private UUID id;
     private String username;
     private String color;
     private float x;
     private float y;
+    // Written only through MoneyTransferService, so a stale copy of the player can never overwrite a transfer
+    @Column(updatable = false)
     private int money;
     private int currentPosition;
 
@@ -0,0 +1,16 @@
+package com.dimon.catanbackend.entities;
+
+/**
+ * What one operation of a bulk property management command does to a property its player owns.
+ *
+ * - {@code BUILD}: Buys an office for the property.
+ * - {@code SELL}: Sells an office of the property back to the bank.
+ * - {@code MORTGAGE}: Mortgages a property without offices.
+ * - {@code UNMORTGAGE}: Pays off the mortgage of the property.
+ */
+public enum PortfolioAction {
+    BUILD,
+    SELL,
+    MORTGAGE,
+    UNMORTGAGE
+}
@@ -1,11 +1,12 @@
 package com.dimon.catanbackend.entities;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
-import jakarta.persistence.ManyToOne;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.util.UUID;
 
 @Entity
 @Setter
@@ -13,9 +14,15 @@ import lombok.*;
 @Builder
 @NoArgsConstructor
 @Getter
-public class Property {
+@Table(indexes = {
+        @Index(name = "idx_property_game_position", columnList = "game_id, position"),
+        @Index(name = "idx_property_game_name", columnList = "game_id, name"),
+        @Index(name = "idx_property_game_category", columnList = "game_id, category"),
+        @Index(name = "idx_property_owner", columnList = "owner_id")
+})
+public class Property implements Persistable<UUID> {
     @Id
-    private String id;
+    private UUID id;
     private String name;
     private int position;
     private int offices = 0;
@@ -36,7 +43,13 @@ public class Property {
     @JsonBackReference(value = "game-properties")
     private Game game;
 
-    public Property(String id, String name, int position, int cost, String category, Game game, Player owner, int baseRent) {
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    public Property(UUID id, String name, int position, int cost, String category, Game game, Player owner, int baseRent) {
         this.id = id;
         this.name = name;
         this.position = position;
@@ -48,4 +61,17 @@ public class Property {
         this.originalBaseRent = baseRent;
         this.mortgageValue = (int) (cost / 2);
     }
+
+    // IDs are assigned before saving, so without this Spring Data would select every new property before inserting it
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -14,7 +14,7 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_activation_token", columnList = "activationToken"))
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
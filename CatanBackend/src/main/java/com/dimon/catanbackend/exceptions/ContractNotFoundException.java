@@ -0,0 +1,7 @@
+package com.dimon.catanbackend.exceptions;
+
+public class ContractNotFoundException extends RuntimeException {
+    public ContractNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.dimon.catanbackend.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class StateVersionConflictException extends RuntimeException {
+    private final long currentVersion;
+
+    public StateVersionConflictException(String message, long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+}
@@ -1,9 +1,13 @@
 package com.dimon.catanbackend.repositories;
 
 import com.dimon.catanbackend.entities.ChatMessage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
+    List<ChatMessage> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
 }
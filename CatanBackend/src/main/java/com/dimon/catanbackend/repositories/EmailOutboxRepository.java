@@ -0,0 +1,20 @@
+package com.dimon.catanbackend.repositories;
+
+import com.dimon.catanbackend.entities.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+    // Rows another sender has locked are skipped instead of waited for, so senders on several nodes share the work
+    @Query(value = "select * from email_outbox where status = 'PENDING' and next_attempt_at <= :now " +
+            "order by next_attempt_at limit :limit for update skip locked", nativeQuery = true)
+    List<EmailOutboxMessage> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    List<EmailOutboxMessage> findByRecipient(String recipient);
+}
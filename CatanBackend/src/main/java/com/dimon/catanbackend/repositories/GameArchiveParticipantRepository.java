@@ -0,0 +1,25 @@
+package com.dimon.catanbackend.repositories;
+
+import com.dimon.catanbackend.entities.GameArchiveParticipant;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GameArchiveParticipantRepository extends JpaRepository<GameArchiveParticipant, GameArchiveParticipant.Key> {
+    List<GameArchiveParticipant> findByUsernameOrderByArchivedAtDescGameIdDesc(String username, Limit limit);
+
+    @Query("select p from GameArchiveParticipant p where p.username = :username and " +
+            "(p.archivedAt < :archivedAt or (p.archivedAt = :archivedAt and p.gameId < :gameId)) " +
+            "order by p.archivedAt desc, p.gameId desc")
+    List<GameArchiveParticipant> findByUsernameBefore(@Param("username") String username,
+                                                      @Param("archivedAt") LocalDateTime archivedAt,
+                                                      @Param("gameId") UUID gameId,
+                                                      Limit limit);
+}
@@ -0,0 +1,22 @@
+package com.dimon.catanbackend.repositories;
+
+import com.dimon.catanbackend.dtos.GameHistoryDto;
+import com.dimon.catanbackend.entities.GameArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GameArchiveRepository extends JpaRepository<GameArchive, UUID> {
+    // archivedAt lets PostgreSQL prune the monthly partitions that cannot contain the games
+    @Query("select new com.dimon.catanbackend.dtos.GameHistoryDto(a.gameId, a.name, a.createdTime, a.finishedTime, " +
+            "a.archivedAt, a.playerCount) from GameArchive a where a.gameId in :gameIds and a.archivedAt in :archivedAt")
+    List<GameHistoryDto> findSummaries(@Param("gameIds") Collection<UUID> gameIds,
+                                       @Param("archivedAt") Collection<LocalDateTime> archivedAt);
+}
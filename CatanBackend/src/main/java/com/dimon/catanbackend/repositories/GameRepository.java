@@ -1,13 +1,64 @@
 package com.dimon.catanbackend.repositories;
 
 import com.dimon.catanbackend.entities.Game;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface GameRepository extends JpaRepository<Game, String> {
+public interface GameRepository extends JpaRepository<Game, UUID> {
     Optional<Game> findByName(String name);
+
+    @Query("select g.id from Game g where g.finishedTime is null order by g.id")
+    List<UUID> findLiveIds();
+
+    @Query("select distinct g from Game g left join fetch g.players where g.id in :ids")
+    List<Game> findAllWithPlayersByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("select g from Game g where g.isGameStarted = false order by g.createdTime, g.id")
+    List<Game> findWaiting(Limit limit);
+
+    @Query("select g from Game g where g.isGameStarted = false and " +
+            "(g.createdTime > :createdTime or (g.createdTime = :createdTime and g.id > :id)) " +
+            "order by g.createdTime, g.id")
+    List<Game> findWaitingAfter(@Param("createdTime") LocalDateTime createdTime, @Param("id") UUID id, Limit limit);
+
+    List<Game> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
+
+    // Games still being played are never selected, however old they are
+    @Query("select g.id from Game g where g.finishedTime < :cutoff " +
+            "or (g.finishedTime is null and g.isGameStarted = false and g.createdTime < :cutoff) order by g.id")
+    List<UUID> findIdsFinishedOrAbandonedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("select g.id from Game g where g.finishedTime < :cutoff order by g.finishedTime, g.id")
+    List<UUID> findIdsFinishedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Modifying
+    @Query(value = "insert into game_participant (game_id, username) values (:gameId, :username) " +
+            "on conflict do nothing", nativeQuery = true)
+    void addParticipant(@Param("gameId") UUID gameId, @Param("username") String username);
+
+    @Query(value = "select game_id, username from game_participant where game_id in :gameIds", nativeQuery = true)
+    List<Object[]> findParticipantsByGameIdIn(@Param("gameIds") Collection<UUID> gameIds);
+
+    @Modifying
+    @Query(value = "delete from game_participant where game_id in :gameIds", nativeQuery = true)
+    int deleteParticipantsByGameIdIn(@Param("gameIds") Collection<UUID> gameIds);
+
+    @Modifying
+    @Query(value = "delete from game_observers where game_id in :gameIds", nativeQuery = true)
+    int deleteObserversByGameIdIn(@Param("gameIds") Collection<UUID> gameIds);
+
+    @Modifying
+    @Query("delete from Game g where g.id in :gameIds")
+    int deleteByIdIn(@Param("gameIds") Collection<UUID> gameIds);
 }
@@ -0,0 +1,33 @@
+package com.dimon.catanbackend.repositories;
+
+import com.dimon.catanbackend.entities.LedgerEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    List<LedgerEntry> findByGameIdAndIdGreaterThanOrderByIdAsc(UUID gameId, Long afterId, Limit limit);
+
+    // Rows are [username, reason, amount sum, count]; the bank's side is left out
+    @Query("select e.fromUsername, e.reason, sum(e.amount), count(e) from LedgerEntry e " +
+            "where e.gameId = :gameId and e.fromPlayerId is not null group by e.fromUsername, e.reason")
+    List<Object[]> sumPaidByGame(@Param("gameId") UUID gameId);
+
+    @Query("select e.toUsername, e.reason, sum(e.amount), count(e) from LedgerEntry e " +
+            "where e.gameId = :gameId and e.toPlayerId is not null group by e.toUsername, e.reason")
+    List<Object[]> sumReceivedByGame(@Param("gameId") UUID gameId);
+
+    @Query("select e.fromUsername, e.reason, sum(e.amount), count(e) from LedgerEntry e " +
+            "where e.fromUsername = :username group by e.fromUsername, e.reason")
+    List<Object[]> sumPaidByUser(@Param("username") String username);
+
+    @Query("select e.toUsername, e.reason, sum(e.amount), count(e) from LedgerEntry e " +
+            "where e.toUsername = :username group by e.toUsername, e.reason")
+    List<Object[]> sumReceivedByUser(@Param("username") String username);
+}
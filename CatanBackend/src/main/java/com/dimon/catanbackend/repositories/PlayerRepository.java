@@ -1,18 +1,52 @@
 package com.dimon.catanbackend.repositories;
 
 import com.dimon.catanbackend.entities.Player;
+import jakarta.persistence.Tuple;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface PlayerRepository extends JpaRepository<Player, String> {
-    List<Player> findByGameId(String gameId);
-    Optional<Player> findByUsernameAndGameId(String username, String gameId);
+public interface PlayerRepository extends JpaRepository<Player, UUID> {
+    List<Player> findByGameId(UUID gameId);
+    Optional<Player> findByUsernameAndGameId(String username, UUID gameId);
     void deleteByUsername(String username);
     void delete(Player player);
     Optional<Player> findByUsername(String username);
+
+    @Modifying
+    @Query(value = "delete from player_properties_with_offices where player_id in " +
+            "(select id from player where game_id in :gameIds)", nativeQuery = true)
+    int deleteOfficesByGameIdIn(@Param("gameIds") Collection<UUID> gameIds);
+
+    @Modifying
+    @Query("delete from Player p where p.game.id in :gameIds")
+    int deleteByGameIdIn(@Param("gameIds") Collection<UUID> gameIds);
+
+    // Debit and credit in one statement; the debited row only matches while it can cover the amount, and the
+    // credited row only while the debited one does, so a payer who cannot cover it leaves both rows untouched
+    @Query(value = "update player set money = case when id = :toId then money + :amount else money - :amount end " +
+            "where (id = :fromId and money >= :amount) " +
+            "or (id = :toId and exists (select 1 from player where id = :fromId and money >= :amount)) " +
+            "returning id, money", nativeQuery = true)
+    List<Tuple> transferMoney(@Param("fromId") UUID fromId, @Param("toId") UUID toId, @Param("amount") int amount);
+
+    @Query(value = "update player set money = case when id = :toId then money + :amount else money - :amount end " +
+            "where id in (:fromId, :toId) returning id, money", nativeQuery = true)
+    List<Tuple> transferMoneyAllowingDebt(@Param("fromId") UUID fromId, @Param("toId") UUID toId, @Param("amount") int amount);
+
+    @Query(value = "update player set money = money - :amount where id = :playerId and money >= :amount " +
+            "returning id, money", nativeQuery = true)
+    List<Tuple> debitMoney(@Param("playerId") UUID playerId, @Param("amount") int amount);
+
+    @Query(value = "update player set money = money + :amount where id = :playerId returning id, money", nativeQuery = true)
+    List<Tuple> creditMoney(@Param("playerId") UUID playerId, @Param("amount") int amount);
 }
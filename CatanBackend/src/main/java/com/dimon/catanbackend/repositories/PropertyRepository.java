@@ -3,15 +3,33 @@ package com.dimon.catanbackend.repositories;
 import com.dimon.catanbackend.entities.Player;
 import com.dimon.catanbackend.entities.Property;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
-public interface PropertyRepository extends JpaRepository<Property, String> {
-    List<Property> findByGameId(String gameId);
-    Optional<Property> findByNameAndGameId(String name, String gameId);
-    Optional<Property> findByGameIdAndName(String gameId, String name);
-    Optional<Property> findByGameIdAndPosition(String gameId, int newPosition);
+public interface PropertyRepository extends JpaRepository<Property, UUID> {
+    List<Property> findByGameId(UUID gameId);
+    List<Property> findByGameIdIn(Collection<UUID> gameIds);
+    Optional<Property> findByNameAndGameId(String name, UUID gameId);
+    Optional<Property> findByGameIdAndName(UUID gameId, String name);
+    Optional<Property> findByGameIdAndPosition(UUID gameId, int newPosition);
     List<Property> findByOwner(Player player);
-    List<Property> findByGameIdAndCategory(String gameId, String category);
+    List<Property> findByGameIdAndCategory(UUID gameId, String category);
+
+    // Moves the named properties to a new owner in one statement, but only those the expected owner still has;
+    // the caller compares the count with the number of names
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Property p set p.owner = :newOwner " +
+            "where p.game.id = :gameId and p.name in :names and p.owner = :owner")
+    int transferOwnership(@Param("gameId") UUID gameId, @Param("names") Collection<String> names,
+                          @Param("owner") Player owner, @Param("newOwner") Player newOwner);
+
+    @Modifying
+    @Query("delete from Property p where p.game.id in :gameIds")
+    int deleteByGameIdIn(@Param("gameIds") Collection<UUID> gameIds);
 }
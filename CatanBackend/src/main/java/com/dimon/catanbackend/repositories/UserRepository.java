@@ -1,9 +1,11 @@
 package com.dimon.catanbackend.repositories;
 
 import com.dimon.catanbackend.entities.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +13,5 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByActivationToken(String token);
     Optional<User> findByEmail(String email);
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
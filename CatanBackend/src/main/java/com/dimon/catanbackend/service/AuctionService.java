@@ -1,19 +1,32 @@
 package com.dimon.catanbackend.service;
 
+import com.dimon.catanbackend.entities.AuctionMode;
 import com.dimon.catanbackend.entities.AuctionState;
 import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.LedgerReason;
 import com.dimon.catanbackend.entities.Player;
 import com.dimon.catanbackend.entities.Property;
-import com.dimon.catanbackend.repositories.GameRepository;
+import com.dimon.catanbackend.exceptions.InsufficientFundsException;
 import com.dimon.catanbackend.repositories.PlayerRepository;
 import com.dimon.catanbackend.repositories.PropertyRepository;
+import com.dimon.catanbackend.utils.HashedTimingWheel;
+import com.dimon.catanbackend.utils.UuidUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 /**
  * Service class responsible for handling auction-related logic in the game. The auction allows players
@@ -21,28 +34,54 @@ import java.util.concurrent.ConcurrentHashMap;
  * of the auction. The service manages the auction process, including starting an auction, placing bids,
  * determining the next bidder, and ending the auction.
  *
- * The service interacts with the {@link GameRepository}, {@link PlayerRepository}, and {@link PropertyRepository}
- * to manage the state of the game, players, and properties. It also uses {@link SimpMessagingTemplate} to send
- * updates to game clients and the {@link TaskScheduler} to manage auction timing.
+ * The state of a running auction lives in a Redis hash ({@code auction:<gameId>}), so a bid can be sent to any
+ * node. Bids are arbitrated by a Lua script that accepts a bid only if it beats the highest bid and the bidder
+ * can cover it, and picks the next bidder in turn order, all in one atomic step. Each node keeps an
+ * {@link AuctionState} mirror of the hash with the bidders, their balances and the highest bid, so bids that
+ * cannot win are refused locally, and a node that did not start the auction loads the mirror from Redis on its
+ * first bid. Bidding never touches the database: the bidders' balances are the ones they had when the auction
+ * started, and only the award loads the winner and the property, debiting the winner with a guarded statement.
+ *
+ * Bids take no lock. The mirror is an immutable snapshot that a bid accepted by Redis replaces with a
+ * compare-and-set on its map entry; concurrent bids retry until the snapshot of the latest round is in place, and
+ * a snapshot is never replaced by one of an earlier round. Only the bid that installs its snapshot broadcasts it
+ * and schedules the end timer, so bids of the same auction can be accepted in parallel, on one node or many.
  *
  * Annotations used:
  * - {@link Service} to mark this class as a Spring service component.
  * - {@link Autowired} to inject the necessary dependencies.
  *
  * Fields:
- * - {@code auctionStateMap}: A concurrent map that stores the current auction state for each game by game ID.
+ * - {@code auctionStateMap}: The latest snapshot of the auctions this node has seen, by game ID; a cache of the
+ *   Redis hashes.
  *
  * Methods:
  * - {@code startAuction}: Initiates an auction for a property, with an initial bid placed by the player.
  * - {@code placeBid}: Allows a player to place a bid in the ongoing auction, checking for valid bids.
- * - {@code getNextPlayer}: Determines the next player in the auction who is eligible to place a bid.
  * - {@code endAuction}: Ends the auction, awarding the property to the highest bidder and deducting their money.
  *
  * Messaging:
  * - Uses {@link SimpMessagingTemplate} to notify players in real-time about auction events (start, bid, and end).
  *
  * Scheduling:
- * - Uses {@link TaskScheduler} to schedule the automatic end of the auction after a specific duration.
+ * - Uses {@link GameTimerService} to end the auction once nobody has bid for {@code app.auction.bid-window}.
+ *   Every accepted bid cancels the pending timer and starts a new one. Starting an auction and closing it, by
+ *   the end timer or because nobody can outbid the last bid, run in the game's lane of the
+ *   {@link GameCommandExecutor}, in order with the other commands of the game; bids do not. A timer only closes
+ *   the auction if no bid was accepted since it was scheduled, on any node: the close script compares the round
+ *   with the one in Redis, so a bid that wins the race against the timer keeps the auction open and one that
+ *   loses it is refused. The close script hands the final state to exactly one caller.
+ * - The Redis hash expires {@code app.auction.state-grace} after the bid window, so an auction whose timer
+ *   was lost with its node does not block the game forever; the property then stays with the bank.
+ *
+ * Auction modes:
+ * - {@link AuctionMode#ENGLISH}: Open ascending auction as described above; every accepted bid is broadcast.
+ * - {@link AuctionMode#SEALED_BID}: One window of {@code app.auction.sealed-window} that is never extended.
+ *   Every player may place one hidden bid above half the cost of the property; bids are recorded in the Redis
+ *   hash and not broadcast. When the window closes, or as soon as every player has bid, the bids are ranked in
+ *   one pass (highest first, ties going to the player earlier in turn order) and the property goes to the
+ *   first bidder who can still pay. The start and the result are the only broadcasts of the auction.
+ *   The mode is chosen per game when it is created.
  *
  * Example usage:
  * <pre>
@@ -60,18 +99,17 @@ import java.util.concurrent.ConcurrentHashMap;
  * @see Game
  * @see Player
  * @see Property
- * @see GameRepository
  * @see PlayerRepository
  * @see PropertyRepository
  * @see SimpMessagingTemplate
- * @see TaskScheduler
+ * @see GameTimerService
+ * @see GameCommandExecutor
  *
  */
 @Service
 public class AuctionService {
 
-    @Autowired
-    private GameRepository gameRepository;
+    private static final String PREFIX = "auction:";
 
     @Autowired
     private PlayerRepository playerRepository;
@@ -83,9 +121,48 @@ public class AuctionService {
     private SimpMessagingTemplate messagingTemplate;
 
     @Autowired
-    private TaskScheduler taskScheduler;
+    private GameTimerService gameTimerService;
+
+    @Autowired
+    private GameCommandExecutor gameCommandExecutor;
+
+    @Autowired
+    private GameSnapshotService gameSnapshotService;
 
-    private final Map<String, AuctionState> auctionStateMap = new ConcurrentHashMap<>();
+    @Autowired
+    private MoneyTransferService moneyTransferService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisScript<Long> auctionStartScript;
+
+    @Autowired
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> auctionBidScript;
+
+    @Autowired
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> auctionCloseScript;
+
+    @Autowired
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> auctionSealedBidScript;
+
+    @Value("${app.auction.bid-window:PT10S}")
+    private Duration bidWindow;
+
+    @Value("${app.auction.sealed-window:PT15S}")
+    private Duration sealedWindow;
+
+    @Value("${app.auction.state-grace:PT30S}")
+    private Duration stateGrace;
+
+    private final Map<UUID, AuctionState> auctionStateMap = new ConcurrentHashMap<>();
 
     /**
      * Starts an auction for the specified property in the game, with an initial bid placed by the player.
@@ -94,156 +171,402 @@ public class AuctionService {
      * @throws RuntimeException if an auction is already in progress or if the property is already owned
      */
     public void startAuction(Map<String, Object> message) {
-        String gameId = (String) message.get("gameId");
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
         String username = (String) message.get("username");
         String propertyName = (String) message.get("propertyName");
         int initialBid = (Integer) message.get("initialBid");
 
+        gameCommandExecutor.call(gameId, () -> {
+            startAuction(gameId, username, propertyName, initialBid);
+            return null;
+        });
+    }
 
+    private void startAuction(UUID gameId, String username, String propertyName, int initialBid) {
         System.out.println("Starting auction for property: " + propertyName + " in game: " + gameId);
-        if (auctionStateMap.containsKey(gameId)) {
-            throw new RuntimeException("Auction already in progress for this game.");
-        }
 
-        Game game = gameRepository.findById(gameId).orElseThrow(() -> new RuntimeException("Game not found"));
-        Player player = playerRepository.findByUsernameAndGameId(username, gameId).orElseThrow(() -> new RuntimeException("Player not found"));
+        // The game and its players come with the property
         Property property = propertyRepository.findByGameIdAndName(gameId, propertyName)
                 .orElseThrow(() -> new RuntimeException("Property '" + propertyName + "' not found in game '" + gameId + "'"));
+        Game game = property.getGame();
+        Player player = game.getPlayers().stream()
+                .filter(candidate -> candidate.getUsername().equals(username))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Player not found"));
 
         if (property.getOwner() != null) {
             throw new RuntimeException("Property already owned");
         }
 
-        AuctionState auctionState = new AuctionState(property, player, taskScheduler);
-        auctionStateMap.put(gameId, auctionState);
+        AuctionState auctionState = AuctionState.start(property);
+        if (initialBid > auctionState.getHighestBid()) {
+            if (!auctionState.canCover(username, initialBid)) {
+                throw new RuntimeException("You don't have enough money");
+            }
+            if (auctionState.getMode() == AuctionMode.SEALED_BID) {
+                // The initial bid is the starting player's hidden bid
+                auctionState = auctionState.withSealedBid(username, initialBid);
+            } else {
+                auctionState = auctionState.withBid(username, initialBid, 0, username);
+            }
+        }
 
-        auctionState.placeBid(player, initialBid);
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(stateTtl(auctionState).toMillis()));
+        AuctionState started = auctionState;
+        started.toFields().forEach((field, value) -> {
+            args.add(field);
+            args.add(value);
+        });
+        Long created = stringRedisTemplate.execute(auctionStartScript, List.of(key(gameId)), args.toArray());
+        if (created == null || created == 0) {
+            throw new RuntimeException("Auction already in progress for this game.");
+        }
+        // Anything left in the cache is an auction that ended on another node
+        AuctionState previous = auctionStateMap.put(gameId, auctionState);
+        if (previous != null) {
+            previous.cancelEndTimer();
+        }
+
+        if (auctionState.getMode() == AuctionMode.SEALED_BID) {
+            // Every player bids within the same window, so everybody is told about it at once
+            Map<String, Object> response = new HashMap<>();
+            response.put("gameId", gameId);
+            response.put("gameName", game.getName());
+            response.put("property", property);
+            response.put("auctionMode", AuctionMode.SEALED_BID);
+            response.put("minimumBid", auctionState.getHighestBid() + 1);
+            response.put("bidders", auctionState.getBidders());
+            response.put("windowSeconds", sealedWindow.toSeconds());
+            messagingTemplate.convertAndSend("/topic/auction/start/" + gameId, response);
+            scheduleEnd(auctionState);
+            return;
+        }
 
         // Notify all players that the auction has started and the first bid has been placed
-        Map<String, Object> response = Map.of(
-                "gameId", gameId,
-                "gameName", game.getName(),
-                "property", property,
-                "highestBid", auctionState.getHighestBid(),
-                "highestBidder", auctionState.getHighestBidder(),
-                "currentPlayerTurn", player.getId()
-        );
+        Map<String, Object> response = new HashMap<>();
+        response.put("gameId", gameId);
+        response.put("gameName", game.getName());
+        response.put("property", property);
+        response.put("highestBid", auctionState.getHighestBid());
+        response.put("highestBidder", auctionState.getHighestBidder());
+        response.put("currentPlayerTurn", player.getId());
 
         messagingTemplate.convertAndSendToUser(username,"/topic/auction/bid/" + game.getId(), response);
-        auctionState.scheduleEnd(() -> endAuction(gameId));
+        scheduleEnd(auctionState);
     }
 
     /**
      * Allows a player to place a bid in the ongoing auction. Ensures that the bid is valid
      * (i.e., higher than the current highest bid and that the player has enough money).
      *
+     * Bids are not queued behind the other commands of the game; only closing the auction is.
+     *
      * @param message a map containing the game ID, username, and bid amount
      * @throws RuntimeException if the auction is not found, the bid is too low, or the player lacks funds
      */
     public void placeBid(Map<String, Object> message) {
-        String gameId = (String) message.get("gameId");
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
         String username = (String) message.get("username");
         int bidAmount = (Integer) message.get("bidAmount");
 
         AuctionState auctionState = auctionStateMap.get(gameId);
         if (auctionState == null) {
-            throw new RuntimeException("AuctionState not found");
+            auctionState = loadAuction(gameId);
+            if (auctionState == null) {
+                throw new RuntimeException("AuctionState not found");
+            }
+            AuctionState cached = auctionStateMap.putIfAbsent(gameId, auctionState);
+            if (cached != null) {
+                auctionState = cached;
+            }
+        }
+        if (!auctionState.isBidder(username)) {
+            throw new RuntimeException("Player not found");
+        }
+        if (auctionState.getMode() == AuctionMode.SEALED_BID) {
+            placeSealedBid(auctionState, username, bidAmount);
+            return;
         }
-        Game game = gameRepository.findById(gameId).get();
-        Player player = playerRepository.findByUsernameAndGameId(username, gameId).orElseThrow(() -> new RuntimeException("Player not found"));
 
+        // The local highest bid can only be behind the real one, so a bid it refuses would be refused anyway
         if (bidAmount <= auctionState.getHighestBid()) {
             throw new RuntimeException("Bid amount must be higher than the current highest bid.");
         }
 
-        if (player.getMoney() < bidAmount) {
+        if (!auctionState.canCover(username, bidAmount)) {
             throw new RuntimeException("You don't have enough money");
         }
 
-        if (auctionState.placeBid(player, bidAmount)) {
-            // Determine the next player
-            Player nextPlayer = getNextPlayer(game, player);
-            if (nextPlayer == null) {
-                endAuction(gameId);
-                return;
+        List<?> result = stringRedisTemplate.execute(auctionBidScript, List.of(key(gameId)),
+                username, String.valueOf(bidAmount), String.valueOf(stateTtl(auctionState).toMillis()));
+        long status = (Long) result.get(0);
+        if (status == 0) {
+            auctionStateMap.remove(gameId, auctionState);
+            throw new RuntimeException("AuctionState not found");
+        }
+        if (status == -1) {
+            // Another bid was accepted first, on this node or another one
+            raiseHighestBid(gameId, ((Long) result.get(2)).intValue());
+            throw new RuntimeException("Bid amount must be higher than the current highest bid.");
+        }
+        if (status != 1) {
+            throw new RuntimeException("You don't have enough money");
+        }
+
+        String nextBidder = (String) result.get(3);
+        int round = ((Long) result.get(1)).intValue();
+        AuctionState accepted = auctionState.withBid(username, bidAmount, round, nextBidder);
+        if (nextBidder.isEmpty()) {
+            // No eligible players left to bid
+            gameCommandExecutor.call(gameId, () -> {
+                closeAuction(gameId, round);
+                return null;
+            });
+            return;
+        }
+        if (!publish(accepted)) {
+            // A later bid is already in place; it is the one to broadcast and to time
+            return;
+        }
+
+        // Notify the next player to place their bid
+        Map<String, Object> response = Map.of(
+                "gameId", gameId,
+                "gameName", accepted.getGameName(),
+                "highestBidder", username,
+                "highestBid", bidAmount,
+                "nextBidder", nextBidder,
+                "round", round
+        );
+        messagingTemplate.convertAndSend("/topic/auction/bid/" + gameId, response);
+        // Reschedule the auction end time
+        scheduleEnd(accepted);
+    }
+
+    /**
+     * Installs the snapshot of a bid accepted by Redis, unless the cache already holds a later round, and cancels
+     * the end timer of the snapshot it replaces. Concurrent bids retry their compare-and-set until the snapshot
+     * of the latest round is in place.
+     *
+     * @param accepted the snapshot after the bid
+     * @return {@code true} if the snapshot was installed, {@code false} if a later bid was installed first
+     */
+    private boolean publish(AuctionState accepted) {
+        UUID gameId = accepted.getGameId();
+        while (true) {
+            AuctionState current = auctionStateMap.get(gameId);
+            if (current == null) {
+                // The timer closed the cached auction, but Redis accepted this bid first and keeps it open
+                if (auctionStateMap.putIfAbsent(gameId, accepted) == null) {
+                    return true;
+                }
+            } else if (current.getRound() >= accepted.getRound()) {
+                return false;
+            } else if (auctionStateMap.replace(gameId, current, accepted)) {
+                current.cancelEndTimer();
+                return true;
             }
+        }
+    }
 
-            // Notify the next player to place their bid
-            Map<String, Object> response = Map.of(
-                    "gameId", gameId,
-                    "gameName", game.getName(),
-                    "highestBidder", player,
-                    "highestBid", bidAmount,
-                    "nextBidder", nextPlayer.getUsername()
-            );
-            messagingTemplate.convertAndSend("/topic/auction/bid/" + game.getId(), response);
-            // Reschedule the auction end time
-            auctionState.scheduleEnd(() -> endAuction(gameId));
+    private void raiseHighestBid(UUID gameId, int highestBid) {
+        while (true) {
+            AuctionState current = auctionStateMap.get(gameId);
+            if (current == null || current.getHighestBid() >= highestBid
+                    || auctionStateMap.replace(gameId, current, current.withHighestBid(highestBid))) {
+                return;
+            }
         }
     }
 
     /**
-     * Determines the next player who can place a bid in the auction. Skips players who do not have enough money to bid.
+     * Records the hidden bid of a player in a sealed-bid auction, and resolves the auction at once if every
+     * player has bid. Nothing is broadcast.
      *
-     * @param game the current game object
-     * @param currentPlayer the current player who just placed a bid
-     * @return the next player eligible to place a bid, or {@code null} if no players are eligible
+     * @param auctionState the auction
+     * @param username the bidding player
+     * @param bidAmount the amount of the hidden bid
+     * @throws RuntimeException if the bid is not above the minimum, the player lacks funds or already bid
      */
-    private Player getNextPlayer(Game game, Player currentPlayer) {
-        // Logic to determine the next player
-        // This could be based on a turn order list or any other rule you define
-        List<Player> players = playerRepository.findByGameId(game.getId());
-        int currentIndex = players.indexOf(currentPlayer);
-        if (currentIndex < 0) {
-            return null;
+    private void placeSealedBid(AuctionState auctionState, String username, int bidAmount) {
+        UUID gameId = auctionState.getGameId();
+        if (bidAmount <= auctionState.getHighestBid()) {
+            throw new RuntimeException("Bid amount must be higher than the minimum bid.");
+        }
+        if (!auctionState.canCover(username, bidAmount)) {
+            throw new RuntimeException("You don't have enough money");
+        }
+
+        List<?> result = stringRedisTemplate.execute(auctionSealedBidScript, List.of(key(gameId)),
+                username, String.valueOf(bidAmount));
+        long status = (Long) result.get(0);
+        if (status == 0) {
+            auctionStateMap.remove(gameId, auctionState);
+            throw new RuntimeException("AuctionState not found");
+        }
+        if (status == -4) {
+            throw new RuntimeException("You have already placed a bid in this auction.");
+        }
+        if (status != 1) {
+            throw new RuntimeException("You don't have enough money");
         }
 
-        int nextIndex = (currentIndex + 1) % players.size();
-        while (nextIndex != currentIndex) {
-            Player nextPlayer = players.get(nextIndex);
-            if (nextPlayer.getMoney() >= auctionStateMap.get(game.getId()).getHighestBid()) {
-                return nextPlayer;
+        if ((Long) result.get(1) >= (Long) result.get(2)) {
+            // Everybody has bid, so there is no reason to wait for the end of the window
+            gameCommandExecutor.call(gameId, () -> {
+                closeAuction(gameId, auctionState.getRound());
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Schedules the end of the auction for the round of a snapshot and attaches the timer to it. If a later
+     * round replaced the snapshot in the meantime, the timer is cancelled again: the later round has its own.
+     *
+     * @param auctionState the snapshot installed by the caller
+     */
+    private void scheduleEnd(AuctionState auctionState) {
+        UUID gameId = auctionState.getGameId();
+        int round = auctionState.getRound();
+        HashedTimingWheel.Timeout timer = gameTimerService.schedule(gameId, window(auctionState),
+                () -> closeAuction(gameId, round));
+        while (true) {
+            AuctionState current = auctionStateMap.get(gameId);
+            if (current == null || current.getRound() != round) {
+                timer.cancel();
+                return;
+            }
+            if (auctionStateMap.replace(gameId, current, current.withEndTimer(timer))) {
+                return;
             }
-            nextIndex = (nextIndex + 1) % players.size();
         }
+    }
 
-        return null;  // No eligible players left to bid, auction ends
+    /**
+     * Closes the auction as of the given round and awards the property, unless a later bid was accepted since,
+     * in which case nothing happens. Runs in the game's lane.
+     *
+     * @param gameId the ID of the game
+     * @param round the round the auction is closed as of
+     */
+    private void closeAuction(UUID gameId, int round) {
+        AuctionState current = auctionStateMap.get(gameId);
+        if (current != null) {
+            if (current.getRound() > round) {
+                // This node accepted a later bid, which rescheduled the end
+                return;
+            }
+            // Whether or not the script closes the auction, the snapshot is obsolete: if another node accepted
+            // a later bid, the next bid on this node reloads it from Redis
+            current.cancelEndTimer();
+            auctionStateMap.remove(gameId, current);
+        }
+        List<?> fields = stringRedisTemplate.execute(auctionCloseScript, List.of(key(gameId)), String.valueOf(round));
+        if (fields == null || fields.isEmpty()) {
+            return;
+        }
+        endAuction(AuctionState.fromFields(gameId, toMap(fields)));
     }
 
     /**
      * Ends the auction and awards the property to the highest bidder. Deducts the bid amount from the highest bidder's money.
+     * If the highest bidder can no longer cover the bid, the property stays with the bank.
      * Sends a message to all players with the auction result.
      *
-     * @param gameId the ID of the game in which the auction is ending
+     * @param auctionState the final state of the auction, taken out of Redis by the close script
      */
-    private void endAuction(String gameId) {
-        AuctionState auctionState = auctionStateMap.remove(gameId);
-        Game game = gameRepository.findById(gameId).orElseThrow(() -> new RuntimeException("Game not found"));
-        if (auctionState != null) {
-            Property property = auctionState.getProperty();
-            Player highestBidder = auctionState.getHighestBidder();
-            int highestBid = auctionState.getHighestBid();
-
-            if (highestBidder != null) {
-                highestBidder.setMoney(highestBidder.getMoney() - highestBid);
-                property.setOwner(highestBidder);
-                playerRepository.save(highestBidder);
-                propertyRepository.save(property);
+    private void endAuction(AuctionState auctionState) {
+        UUID gameId = auctionState.getGameId();
+        List<Map.Entry<String, Integer>> ranking = rank(auctionState);
+        int highestBid = ranking.isEmpty() ? auctionState.getHighestBid() : ranking.get(0).getValue();
+
+        Property property = propertyRepository.findById(auctionState.getPropertyId())
+                .orElseThrow(() -> new RuntimeException("Property not found"));
+        Player winner = null;
+        for (Map.Entry<String, Integer> bid : ranking) {
+            Player bidder = playerRepository.findById(auctionState.getPlayerIds().get(bid.getKey()))
+                    .orElseThrow(() -> new RuntimeException("Player not found"));
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    moneyTransferService.debit(bidder, bid.getValue(), LedgerReason.AUCTION);
+                    property.setOwner(bidder);
+                    propertyRepository.save(property);
+                    gameSnapshotService.update(gameId).player(bidder).tile(property).write();
+                });
+                winner = bidder;
+                highestBid = bid.getValue();
+                break;
+            } catch (InsufficientFundsException e) {
+                // The bidder spent the money elsewhere while the auction was running
+                property.setOwner(null);
             }
+        }
+
+        List<Player> players = playerRepository.findByGameId(gameId);
+
+        // The winner is null when nobody bid or the highest bidder could not pay
+        Map<String, Object> response = new HashMap<>();
+        response.put("gameId", gameId);
+        response.put("gameName", auctionState.getGameName());
+        response.put("property", property);
+        response.put("highestBidder", winner);
+        response.put("highestBid", highestBid);
+        response.put("players", players);
+        if (auctionState.getMode() == AuctionMode.SEALED_BID) {
+            // Sealed bids are revealed with the result
+            response.put("auctionMode", AuctionMode.SEALED_BID);
+            response.put("bids", auctionState.getSealedBids());
+        }
+
+        messagingTemplate.convertAndSend("/topic/auction/end/" + gameId, response);
+    }
+
+    /**
+     * Returns the bids that can win the auction, best first: the highest bid of an English auction, or every
+     * hidden bid of a sealed-bid auction ranked by amount and then by turn order.
+     */
+    private static List<Map.Entry<String, Integer>> rank(AuctionState auctionState) {
+        if (auctionState.getMode() == AuctionMode.SEALED_BID) {
+            return auctionState.getSealedBids().entrySet().stream()
+                    .sorted(Comparator.comparing(Map.Entry<String, Integer>::getValue).reversed()
+                            .thenComparing(bid -> auctionState.positionOf(bid.getKey())))
+                    .toList();
+        }
+        if (auctionState.getHighestBidder() == null) {
+            return List.of();
+        }
+        return List.of(Map.entry(auctionState.getHighestBidder(), auctionState.getHighestBid()));
+    }
 
-            List<Player> players = playerRepository.findByGameId(gameId);
+    private AuctionState loadAuction(UUID gameId) {
+        Map<Object, Object> fields = stringRedisTemplate.opsForHash().entries(key(gameId));
+        if (fields.isEmpty()) {
+            return null;
+        }
+        Map<String, String> values = new HashMap<>();
+        fields.forEach((field, value) -> values.put((String) field, (String) value));
+        return AuctionState.fromFields(gameId, values);
+    }
 
-            Map<String, Object> response = Map.of(
-                    "gameId", gameId,
-                    "gameName", game.getName(),
-                    "property", property,
-                    "highestBidder", highestBidder,
-                    "highestBid", highestBid,
-                    "players", players
-            );
+    private Duration window(AuctionState auctionState) {
+        return auctionState.getMode() == AuctionMode.SEALED_BID ? sealedWindow : bidWindow;
+    }
 
-            messagingTemplate.convertAndSend("/topic/auction/end/" + game.getId(), response);
+    private Duration stateTtl(AuctionState auctionState) {
+        return window(auctionState).plus(stateGrace);
+    }
+
+    private static Map<String, String> toMap(List<?> fields) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i + 1 < fields.size(); i += 2) {
+            values.put((String) fields.get(i), (String) fields.get(i + 1));
         }
+        return values;
     }
 
+    private static String key(UUID gameId) {
+        return PREFIX + gameId;
+    }
 }
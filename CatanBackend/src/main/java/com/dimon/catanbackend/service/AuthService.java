@@ -1,5 +1,6 @@
 package com.dimon.catanbackend.service;
 
+import com.dimon.catanbackend.dtos.AuthUser;
 import com.dimon.catanbackend.dtos.JwtRequest;
 import com.dimon.catanbackend.dtos.JwtResponse;
 import com.dimon.catanbackend.dtos.RegistrationUserDto;
@@ -8,17 +9,18 @@ import com.dimon.catanbackend.entities.User;
 import com.dimon.catanbackend.exceptions.AppError;
 import com.dimon.catanbackend.exceptions.EmailAlreadyInUseException;
 import com.dimon.catanbackend.exceptions.InvalidTokenException;
+import com.dimon.catanbackend.exceptions.TooManyRequestsException;
 import com.dimon.catanbackend.utils.JwtTokenUtils;
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -27,7 +29,7 @@ import java.util.UUID;
 /**
  * Service class responsible for handling user authentication and registration, as well as account activation
  * via email verification. It interacts with the {@link UserService}, {@link JwtTokenUtils}, {@link AuthenticationManager},
- * {@link EmailSenderService}, and {@link FileStorageService} to perform these operations.
+ * {@link EmailOutboxService}, and {@link FileStorageService} to perform these operations.
  *
  * Annotations used:
  * - {@link Service} to mark this class as a Spring service component.
@@ -35,23 +37,24 @@ import java.util.UUID;
  *
  * Methods:
  * - {@code createAuthToken}: Authenticates a user using their email and password, and generates a JWT token.
- * - {@code createNewUser}: Registers a new user, saves their profile photo, and sends an email for account activation.
+ * - {@code createNewUser}: Registers a new user, saves their profile photo, and queues an email for account activation.
  * - {@code activateAccount}: Activates a user's account based on a valid activation token.
  *
  * Messaging:
- * - Sends account activation emails via the {@link EmailSenderService}.
+ * - Queues account activation emails in the {@link EmailOutboxService}, in the transaction that creates the user.
  *
  * Exception handling:
  * - Throws {@link BadCredentialsException} for incorrect login credentials.
  * - Throws {@link EmailAlreadyInUseException} if the email is already registered.
  * - Throws {@link InvalidTokenException} if the activation token is invalid.
+ * - Throws {@link TooManyRequestsException} if passwords cannot be hashed right now because too many are queued.
  * - Returns a {@link ResponseEntity} with appropriate HTTP status codes for errors (e.g., 401 for unauthorized, 400 for bad requests).
  *
  * Example usage:
  * <pre>
  * {@code
  * authService.createAuthToken(jwtRequest);  // Authenticate and generate JWT
- * authService.createNewUser(userDto);       // Register new user and send activation email
+ * authService.createNewUser(userDto);       // Register new user and queue activation email
  * authService.activateAccount(token);       // Activate user account with token
  * }
  * </pre>
@@ -59,7 +62,7 @@ import java.util.UUID;
  * @see UserService
  * @see JwtTokenUtils
  * @see AuthenticationManager
- * @see EmailSenderService
+ * @see EmailOutboxService
  * @see FileStorageService
  * @see JwtRequest
  * @see JwtResponse
@@ -76,7 +79,7 @@ public class AuthService {
     private final UserService userService;
     private final JwtTokenUtils jwtTokenUtils;
     private final AuthenticationManager authenticationManager;
-    private final EmailSenderService emailSenderService;
+    private final EmailOutboxService emailOutboxService;
     private final FileStorageService fileStorageService;
 
     /**
@@ -92,27 +95,33 @@ public class AuthService {
             );
         } catch (BadCredentialsException e) {
             return new ResponseEntity<>(new AppError(HttpStatus.UNAUTHORIZED.value(), "Incorrect email or password"), HttpStatus.UNAUTHORIZED);
+        } catch (InternalAuthenticationServiceException e) {
+            // A saturated password pool surfaces wrapped when it refuses the hash made while looking the user up
+            if (e.getCause() instanceof TooManyRequestsException tooManyRequests) {
+                throw tooManyRequests;
+            }
+            throw e;
         }
 
-        UserDetails userDetails = userService.loadUserByUsername(authRequest.getEmail());
-        User user = userService.findByEmail(authRequest.getEmail())
+        AuthUser user = userService.findAuthUser(authRequest.getEmail())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         if (!user.isActive()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new AppError(HttpStatus.UNAUTHORIZED.value(), "User is not active"));
         }
 
-        String token = jwtTokenUtils.generateToken(userDetails);
+        String token = jwtTokenUtils.generateToken(user);
         return ResponseEntity.ok(new JwtResponse(token));
     }
 
     /**
-     * Registers a new user, saves their profile photo, sends an account activation email, and
-     * returns the user's details.
+     * Registers a new user, saves their profile photo, queues an account activation email, and
+     * returns the user's details. The user and the email are committed together.
      *
      * @param userDto the DTO containing registration details (username, email, password, etc.)
      * @return a {@link ResponseEntity} with the user's details or an error message
      */
+    @Transactional
     public ResponseEntity<?> createNewUser(@RequestBody RegistrationUserDto userDto) {
         if (!userDto.getPassword().equals(userDto.getRe_password())) {
             return new ResponseEntity<>(new AppError(HttpStatus.BAD_REQUEST.value(), "Passwords do not match"), HttpStatus.BAD_REQUEST);
@@ -122,21 +131,22 @@ public class AuthService {
             throw new EmailAlreadyInUseException("Email is already in use");
         }
 
-        User user = userService.createNewUser(userDto);
-        String activationToken = UUID.randomUUID().toString();
-        System.out.println("Activation Token: " + activationToken);
-        user.setActivationToken(activationToken);
-
+        // Stored before the user is created, so a failure leaves nothing behind
+        String profilePhotoFileName = null;
         MultipartFile profilePhoto = userDto.getProfilePhoto();
         if(profilePhoto != null && !profilePhoto.isEmpty()) {
             try {
-                String fileName = fileStorageService.storeFile(profilePhoto);
-                user.setProfilePhotoFileName(fileName);
+                profilePhotoFileName = fileStorageService.storeFile(profilePhoto);
             } catch (Exception e) {
                 return new ResponseEntity<>(new AppError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to save profile photo"), HttpStatus.INTERNAL_SERVER_ERROR);
             }
         }
 
+        User user = userService.createNewUser(userDto);
+        String activationToken = UUID.randomUUID().toString();
+        System.out.println("Activation Token: " + activationToken);
+        user.setActivationToken(activationToken);
+        user.setProfilePhotoFileName(profilePhotoFileName);
 
         System.out.println(user.getEmail());
         userService.save(user);
@@ -160,12 +170,8 @@ public class AuthService {
                 "</body>\n" +
                 "</html>";
 
-        try {
-            emailSenderService.sendEmail(user.getEmail(), "Email Verification", htmlContent);
-        } catch (MessagingException e) {
-            e.printStackTrace();
-            return new ResponseEntity<>(new AppError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to send email"), HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        // Sent in the background once the user is committed, so registration never waits for the mail server
+        emailOutboxService.enqueue(user.getEmail(), "Email Verification", htmlContent);
 
         return ResponseEntity.ok(new UserDto(user.getId(), user.getUsername(), user.getEmail()));
     }
@@ -1,38 +1,63 @@
 package com.dimon.catanbackend.service;
 
+import com.dimon.catanbackend.dtos.ContractDto;
+import com.dimon.catanbackend.dtos.ContractSideDto;
 import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.LedgerReason;
 import com.dimon.catanbackend.entities.Player;
 import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.exceptions.ContractNotFoundException;
 import com.dimon.catanbackend.exceptions.GameNotFoundException;
+import com.dimon.catanbackend.exceptions.InsufficientFundsException;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
 import com.dimon.catanbackend.exceptions.PlayerNotFoundException;
-import com.dimon.catanbackend.exceptions.PropertyNotFoundException;
-import com.dimon.catanbackend.repositories.GameRepository;
 import com.dimon.catanbackend.repositories.PlayerRepository;
 import com.dimon.catanbackend.repositories.PropertyRepository;
+import com.dimon.catanbackend.utils.UuidUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 /**
  * Service class responsible for managing contract proposals and acceptance between players
  * in the game. Contracts allow players to trade money and properties. This service handles
  * the proposing, accepting, and executing of contracts between players, updating their assets
  * and notifying all players in the game of changes.
  *
- * The service interacts with the {@link GameRepository}, {@link PlayerRepository}, and {@link PropertyRepository}
- * to manage game, player, and property state. It also uses {@link SimpMessagingTemplate} to send updates
- * to the players in real-time.
+ * A proposed contract is checked against the players' current assets and kept by the server in Redis
+ * ({@code contract:<gameId>:<contractId>}) until it is accepted, declined or expires after
+ * {@code app.contracts.ttl}. Accepting or declining only names the contract by its ID; the terms are never
+ * taken from the client again. Each side of a contract is a bundle of money and any number of properties.
+ * Accepting claims the contract by deleting it, so it is settled at most once, and settles it in one
+ * transaction: one guarded statement moves the money difference and one guarded statement per side moves the
+ * properties, so either the whole bundle changes hands or nothing does. The result is sent in one broadcast.
+ *
+ * The service interacts with the {@link PlayerRepository} and {@link PropertyRepository} to manage player and
+ * property state. It also uses {@link SimpMessagingTemplate} to send updates to the players in real-time.
  *
  * Annotations used:
  * - {@link Service} to mark this class as a Spring service component.
  * - {@link Autowired} to inject the necessary dependencies.
  *
  * Methods:
- * - {@code proposeContract}: Proposes a contract between two players, notifying all players in the game.
- * - {@code acceptContract}: Accepts a contract, executes the exchange of money and properties,
+ * - {@code proposeContract}: Checks and registers a contract between two players, notifying all players in the game.
+ * - {@code acceptContract}: Accepts a registered contract, executes the exchange of money and properties,
  *   and updates the game state for all players.
+ * - {@code declineContract}: Declines or withdraws a registered contract.
  *
  * Messaging:
  * - Uses {@link SimpMessagingTemplate} to notify players in real-time about contract proposals and acceptance.
@@ -40,17 +65,22 @@ import java.util.Map;
  * Exceptions:
  * - Throws {@link GameNotFoundException} if the game is not found.
  * - Throws {@link PlayerNotFoundException} if a player is not found.
- * - Throws {@link PropertyNotFoundException} if a property involved in the contract is not found.
+ * - Throws {@link ContractNotFoundException} if the contract was settled, declined or has expired.
+ * - Throws {@link InvalidActionException} if the terms are invalid, a player does not own a property of the
+ *   contract any more, or the wrong player accepts it.
+ *
+ * Configuration properties:
+ * - {@code app.contracts.ttl}: How long a proposed contract can be accepted.
  *
  * Example usage:
  * <pre>
  * {@code
  * contractService.proposeContract(message);  // Proposes a trade contract between two players
- * contractService.acceptContract(acceptMessage);  // Accepts and executes the trade contract
+ * contractService.acceptContract(acceptMessage);  // Accepts and executes the trade contract by its ID
  * }
  * </pre>
  *
- * @see GameRepository
+ * @see ContractDto
  * @see PlayerRepository
  * @see PropertyRepository
  * @see Game
@@ -59,14 +89,13 @@ import java.util.Map;
  * @see SimpMessagingTemplate
  * @see GameNotFoundException
  * @see PlayerNotFoundException
- * @see PropertyNotFoundException
+ * @see ContractNotFoundException
  *
  */
 @Service
 public class ContractService {
 
-    @Autowired
-    private GameRepository gameRepository;
+    private static final String PREFIX = "contract:";
 
     @Autowired
     private PlayerRepository playerRepository;
@@ -77,31 +106,73 @@ public class ContractService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private GameSnapshotService gameSnapshotService;
+
+    @Autowired
+    private MoneyTransferService moneyTransferService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.contracts.ttl:PT2M}")
+    private Duration ttl;
+
     /**
-     * Proposes a contract between two players in the specified game. This contract can include
-     * money and/or property offers from each player. The proposed contract is broadcast to all
-     * players in the game via WebSocket.
+     * Proposes a contract between two players in the specified game. Each side of the contract can include
+     * money and any number of properties, which the side must own. The contract is registered under a new ID
+     * and broadcast to all players in the game via WebSocket.
      *
-     * @param message the message containing the contract details (gameId, fromUsername, toUsername, offer, and request)
+     * @param message the message containing the game ID and the contract terms (fromUsername, toUsername, offer
+     *                and request, each with money and properties)
      * @throws GameNotFoundException if the game is not found
      * @throws PlayerNotFoundException if either the proposing or receiving player is not found
+     * @throws InvalidActionException if the terms are invalid or a side does not own a property it would give
+     * @throws InsufficientFundsException if the player paying the money difference cannot cover it
      */
     public void proposeContract(Map<String, Object> message) {
-        String gameId = (String) message.get("gameId");
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new GameNotFoundException("Game not found with id: " + gameId));
-        Map<String, Object> contract = (Map<String, Object>) message.get("contract");
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
+        Map<String, Object> terms = (Map<String, Object>) message.get("contract");
+
+        String fromUsername = (String) terms.get("fromUsername");
+        String toUsername = (String) terms.get("toUsername");
+        if (fromUsername == null || fromUsername.equals(toUsername)) {
+            throw new InvalidActionException("A contract needs two different players");
+        }
 
-        String fromUsername = (String) contract.get("fromUsername");
-        String toUsername = (String) contract.get("toUsername");
+        List<Player> players = playerRepository.findByGameId(gameId);
+        if (players.isEmpty()) {
+            throw new GameNotFoundException("Game not found with id: " + gameId);
+        }
+        Player fromPlayer = findPlayer(players, fromUsername);
+        Player toPlayer = findPlayer(players, toUsername);
+
+        ContractSideDto offer = readSide((Map<String, Object>) terms.get("offer"));
+        ContractSideDto request = readSide((Map<String, Object>) terms.get("request"));
+        if (offer.getMoney() == 0 && request.getMoney() == 0
+                && offer.getProperties().isEmpty() && request.getProperties().isEmpty()) {
+            throw new InvalidActionException("A contract must exchange something");
+        }
+        checkOwnership(fromPlayer, offer.getProperties());
+        checkOwnership(toPlayer, request.getProperties());
+        // Checked again when the contract is accepted, but a contract nobody could settle is not worth sending
+        int difference = offer.getMoney() - request.getMoney();
+        Player payer = difference >= 0 ? fromPlayer : toPlayer;
+        if (payer.getMoney() < Math.abs(difference)) {
+            throw new InsufficientFundsException("Player " + payer.getUsername() + " cannot pay " + Math.abs(difference));
+        }
 
-        Player fromPlayer = playerRepository.findByUsernameAndGameId(fromUsername, gameId)
-                .orElseThrow(() -> new PlayerNotFoundException("Player not found with username: " + fromUsername));
-        Player toPlayer = playerRepository.findByUsernameAndGameId(toUsername, gameId)
-                .orElseThrow(() -> new PlayerNotFoundException("Player not found with username: " + toUsername));
+        Game game = fromPlayer.getGame();
+        ContractDto contract = new ContractDto(UuidUtils.timeOrdered(), gameId, game.getName(), fromUsername,
+                toUsername, offer, request, System.currentTimeMillis() + ttl.toMillis());
+        stringRedisTemplate.opsForValue().set(key(gameId, contract.getId()), toJson(contract), ttl);
 
         Map<String, Object> response = Map.of(
                 "contract", contract,
+                "status", "PROPOSED",
                 "gameId", gameId,
                 "gameName", game.getName()
         );
@@ -110,65 +181,200 @@ public class ContractService {
     }
 
     /**
-     * Accepts a proposed contract between two players, executing the exchange of money and properties
-     * as specified in the contract. After the contract is accepted and executed, all players in the game
-     * are notified of the updated game state.
+     * Accepts a registered contract, executing the exchange of money and properties it was proposed with.
+     * The contract is claimed before it is settled, so two accepts of the same contract settle it once. All
+     * transfers happen in one transaction, and all players in the game are notified of the result in one
+     * broadcast. A contract that can no longer be settled is discarded, and the players are told why.
      *
-     * @param message the message containing the contract details (gameId, fromUsername, toUsername, offer, and request)
-     * @throws GameNotFoundException if the game is not found
-     * @throws PlayerNotFoundException if either the proposing or receiving player is not found
-     * @throws PropertyNotFoundException if any property involved in the contract is not found
+     * @param message the message containing the game ID, the contract ID and the username of the accepting player
+     * @throws ContractNotFoundException if the contract was settled, declined or has expired
+     * @throws InvalidActionException if the player is not the one the contract was proposed to, or a side no
+     *                                longer owns a property it would give
+     * @throws InsufficientFundsException if the player paying the money difference cannot cover it
      */
+    @Transactional
     public void acceptContract(Map<String, Object> message) {
-        String gameId = (String) message.get("gameId");
-        Map<String, Object> contract = (Map<String, Object>) message.get("contract");
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
+        UUID contractId = UuidUtils.parse((String) message.get("contractId"));
+        String username = (String) message.get("username");
+
+        String key = key(gameId, contractId);
+        ContractDto contract = readContract(key, contractId);
+        if (!contract.getToUsername().equals(username)) {
+            throw new InvalidActionException("Only " + contract.getToUsername() + " can accept this contract");
+        }
+        // Deleting is the claim: only one of two concurrent accepts deletes the key
+        if (!Boolean.TRUE.equals(stringRedisTemplate.delete(key))) {
+            throw new ContractNotFoundException("Contract not found or expired: " + contractId);
+        }
+
+        List<Player> players;
+        try {
+            players = settle(contract);
+        } catch (RuntimeException e) {
+            // The transaction is rolled back, so nothing of the contract changed hands
+            messagingTemplate.convertAndSend("/topic/game/" + gameId + "/contract", Map.of(
+                    "contractId", contractId,
+                    "status", "FAILED",
+                    "reason", String.valueOf(e.getMessage()),
+                    "gameId", gameId,
+                    "gameName", contract.getGameName()
+            ));
+            throw e;
+        }
+
+        // Notify all players about the updated game state
+        Map<String, Object> response = Map.of(
+                "players", players,
+                "contract", contract,
+                "status", "ACCEPTED",
+                "gameId", gameId,
+                "gameName", contract.getGameName()
+        );
+        messagingTemplate.convertAndSend("/topic/game/" + gameId, response);
+    }
+
+    /**
+     * Declines a registered contract, or withdraws it if the player is the one who proposed it.
+     *
+     * @param message the message containing the game ID, the contract ID and the username of the player
+     * @throws ContractNotFoundException if the contract was settled, declined or has expired
+     * @throws InvalidActionException if the player is not a party to the contract
+     */
+    public void declineContract(Map<String, Object> message) {
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
+        UUID contractId = UuidUtils.parse((String) message.get("contractId"));
+        String username = (String) message.get("username");
 
-        String fromUsername = (String) contract.get("fromUsername");
-        String toUsername = (String) contract.get("toUsername");
+        String key = key(gameId, contractId);
+        ContractDto contract = readContract(key, contractId);
+        if (!username.equals(contract.getFromUsername()) && !username.equals(contract.getToUsername())) {
+            throw new InvalidActionException("Player " + username + " is not a party to this contract");
+        }
+        if (!Boolean.TRUE.equals(stringRedisTemplate.delete(key))) {
+            throw new ContractNotFoundException("Contract not found or expired: " + contractId);
+        }
+
+        messagingTemplate.convertAndSend("/topic/game/" + gameId + "/contract", Map.of(
+                "contractId", contractId,
+                "status", username.equals(contract.getFromUsername()) ? "WITHDRAWN" : "DECLINED",
+                "username", username,
+                "gameId", gameId,
+                "gameName", contract.getGameName()
+        ));
+    }
+
+    /**
+     * Moves the money difference and the properties of both sides, and returns the players of the game as they
+     * are afterwards. Must run in the transaction of the caller, which any failure rolls back.
+     */
+    private List<Player> settle(ContractDto contract) {
+        UUID gameId = contract.getGameId();
+        List<Player> players = playerRepository.findByGameId(gameId);
+        Player fromPlayer = findPlayer(players, contract.getFromUsername());
+        Player toPlayer = findPlayer(players, contract.getToUsername());
 
-        Player fromPlayer = playerRepository.findByUsernameAndGameId(fromUsername, gameId)
-                .orElseThrow(() -> new PlayerNotFoundException("Player not found with username: " + fromUsername));
-        Player toPlayer = playerRepository.findByUsernameAndGameId(toUsername, gameId)
-                .orElseThrow(() -> new PlayerNotFoundException("Player not found with username: " + toUsername));
+        // Only the difference changes hands; the side paying it must be able to cover it
+        int difference = contract.getOffer().getMoney() - contract.getRequest().getMoney();
+        if (difference >= 0) {
+            moneyTransferService.transfer(fromPlayer, toPlayer, difference, LedgerReason.CONTRACT);
+        } else {
+            moneyTransferService.transfer(toPlayer, fromPlayer, -difference, LedgerReason.CONTRACT);
+        }
+        GameSnapshotService.SnapshotUpdate snapshotUpdate = gameSnapshotService.update(gameId);
+        transferProperties(gameId, fromPlayer, toPlayer, contract.getOffer().getProperties(), snapshotUpdate);
+        transferProperties(gameId, toPlayer, fromPlayer, contract.getRequest().getProperties(), snapshotUpdate);
+        snapshotUpdate.player(fromPlayer).player(toPlayer).write();
+        return players;
+    }
 
-        Map<String, Object> offer = (Map<String, Object>) contract.get("offer");
-        Map<String, Object> request = (Map<String, Object>) contract.get("request");
+    /**
+     * Moves the named properties from one player to another with one guarded statement, then brings the loaded
+     * players up to date. The statement clears the persistence context, so the players and their properties are
+     * detached by then and changing them does not write them again.
+     */
+    private void transferProperties(UUID gameId, Player owner, Player newOwner, List<String> names,
+                                    GameSnapshotService.SnapshotUpdate snapshotUpdate) {
+        if (names.isEmpty()) {
+            return;
+        }
+        int moved = propertyRepository.transferOwnership(gameId, names, owner, newOwner);
+        if (moved != names.size()) {
+            throw new InvalidActionException("Player " + owner.getUsername() + " no longer owns every property of the contract");
+        }
+        for (Property property : new ArrayList<>(owner.getProperties())) {
+            if (names.contains(property.getName())) {
+                owner.getProperties().remove(property);
+                property.setOwner(newOwner);
+                newOwner.getProperties().add(property);
+                snapshotUpdate.tile(property);
+            }
+        }
+    }
 
-        int offerMoney = (int) offer.get("money");
-        int requestMoney = (int) request.get("money");
-        String offerProperty = (String) offer.get("property");
-        String requestProperty = (String) request.get("property");
+    private static void checkOwnership(Player player, Collection<String> names) {
+        Set<String> owned = player.getProperties().stream().map(Property::getName).collect(Collectors.toSet());
+        for (String name : names) {
+            if (!owned.contains(name)) {
+                throw new InvalidActionException("Player " + player.getUsername() + " does not own " + name);
+            }
+        }
+    }
 
-        fromPlayer.setMoney(fromPlayer.getMoney() - offerMoney + requestMoney);
-        toPlayer.setMoney(toPlayer.getMoney() - requestMoney + offerMoney);
+    private static Player findPlayer(List<Player> players, String username) {
+        return players.stream()
+                .filter(player -> player.getUsername().equals(username))
+                .findFirst()
+                .orElseThrow(() -> new PlayerNotFoundException("Player not found with username: " + username));
+    }
 
-        // Transfer properties if applicable
-        if (offerProperty != null && !offerProperty.isEmpty()) {
-            Property property = propertyRepository.findByNameAndGameId(offerProperty, gameId)
-                    .orElseThrow(() -> new PropertyNotFoundException("Property not found with name: " + offerProperty));
-            property.setOwner(toPlayer);
-            propertyRepository.save(property);
+    /**
+     * Reads one side of the proposed terms. A side names its properties in {@code properties}; the single
+     * {@code property} of older clients is accepted as well.
+     */
+    private static ContractSideDto readSide(Map<String, Object> side) {
+        if (side == null) {
+            return new ContractSideDto(0, new ArrayList<>());
+        }
+        int money = side.get("money") instanceof Number number ? number.intValue() : 0;
+        if (money < 0) {
+            throw new InvalidActionException("Money in a contract cannot be negative");
         }
-        if (requestProperty != null && !requestProperty.isEmpty()) {
-            Property property = propertyRepository.findByNameAndGameId(requestProperty, gameId)
-                    .orElseThrow(() -> new PropertyNotFoundException("Property not found with name: " + requestProperty));
-            property.setOwner(fromPlayer);
-            propertyRepository.save(property);
+        Set<String> properties = new LinkedHashSet<>();
+        if (side.get("properties") instanceof Collection<?> names) {
+            for (Object name : names) {
+                if (name instanceof String text && !text.isBlank()) {
+                    properties.add(text);
+                }
+            }
         }
+        if (side.get("property") instanceof String name && !name.isBlank()) {
+            properties.add(name);
+        }
+        return new ContractSideDto(money, new ArrayList<>(properties));
+    }
 
-        playerRepository.save(fromPlayer);
-        playerRepository.save(toPlayer);
+    private ContractDto readContract(String key, UUID contractId) {
+        String value = stringRedisTemplate.opsForValue().get(key);
+        if (value == null) {
+            throw new ContractNotFoundException("Contract not found or expired: " + contractId);
+        }
+        try {
+            return objectMapper.readValue(value, ContractDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupted contract " + contractId, e);
+        }
+    }
 
-        // Notify all players about the updated game state
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new GameNotFoundException("Game not found with id: " + gameId));
-        List<Player> players = game.getPlayers();
+    private String toJson(ContractDto contract) {
+        try {
+            return objectMapper.writeValueAsString(contract);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize contract", e);
+        }
+    }
 
-        Map<String, Object> response = Map.of(
-                "players", players,
-                "gameId", gameId,
-                "gameName", game.getName()
-        );
-        messagingTemplate.convertAndSend("/topic/game/" + game.getId(), response);
+    private static String key(UUID gameId, UUID contractId) {
+        return PREFIX + gameId + ":" + contractId;
     }
 }
@@ -0,0 +1,218 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.entities.EmailOutboxMessage;
+import com.dimon.catanbackend.entities.EmailOutboxStatus;
+import com.dimon.catanbackend.repositories.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class sending emails through a transactional outbox, so that no request waits for the mail server.
+ *
+ * {@code enqueue} only inserts a row into the {@code email_outbox} table, in the transaction of the change the
+ * email is about: the email exists if and only if the change committed. A scheduled sender then picks up the
+ * due rows in batches and sends each batch over a single connection to the mail server. Sent emails are
+ * deleted. An email that fails is retried with exponential backoff, and after {@code max-attempts} attempts it
+ * is kept as {@link EmailOutboxStatus#DEAD} with its last error, for investigation.
+ *
+ * A batch is claimed in a short transaction that locks its rows with {@code FOR UPDATE SKIP LOCKED}, so senders
+ * on several nodes never pick the same rows, and pushes their next attempt {@code claim-timeout} ahead. The
+ * emails are then sent with no transaction or connection held, and the outcome is written in a second
+ * transaction. If a node dies in between, its claimed emails become due again once the claim times out, so an
+ * email is sent at least once, and only a sender that dies right after sending can send it twice.
+ *
+ * Configuration properties:
+ * - {@code app.mail.outbox.poll-interval}: Delay between runs of the sender.
+ * - {@code app.mail.outbox.batch-size}: Number of emails claimed and sent together.
+ * - {@code app.mail.outbox.max-attempts}: Number of attempts before an email is given up on.
+ * - {@code app.mail.outbox.initial-backoff}: Delay before the first retry; each later one waits twice as long.
+ * - {@code app.mail.outbox.max-backoff}: Longest delay between two attempts.
+ * - {@code app.mail.outbox.claim-timeout}: How long claimed emails are hidden from other senders.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ * - {@link Scheduled} for the sender runs.
+ * - {@link Transactional} with {@code MANDATORY} propagation on {@code enqueue}, which must join the
+ *   transaction of the change.
+ *
+ * Methods:
+ * - {@code enqueue}: Adds an email to the outbox in the current transaction.
+ * - {@code dispatch}: Sends every due email, one batch after the other.
+ * - {@code dispatchBatch}: Claims and sends a single batch of due emails.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * @Transactional
+ * public void register(...) {
+ *     userService.save(user);
+ *     emailOutboxService.enqueue(user.getEmail(), "Email Verification", htmlContent);
+ * }
+ * }
+ * </pre>
+ *
+ * @see EmailOutboxMessage
+ * @see EmailSenderService
+ *
+ */
+@Service
+public class EmailOutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailSenderService emailSenderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.initial-backoff:PT30S}")
+    private Duration initialBackoff;
+
+    @Value("${app.mail.outbox.max-backoff:PT1H}")
+    private Duration maxBackoff;
+
+    @Value("${app.mail.outbox.claim-timeout:PT5M}")
+    private Duration claimTimeout;
+
+    /**
+     * Adds an email to the outbox. The email is sent shortly after the current transaction commits, and never
+     * if it rolls back.
+     *
+     * @param to the recipient's email address
+     * @param subject the subject of the email
+     * @param htmlContent the HTML content of the email
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String to, String subject, String htmlContent) {
+        LocalDateTime now = LocalDateTime.now();
+        emailOutboxRepository.save(EmailOutboxMessage.builder()
+                .recipient(to)
+                .subject(subject)
+                .htmlContent(htmlContent)
+                .status(EmailOutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    /**
+     * Sends every due email, one batch after the other, until a batch comes out smaller than the batch size.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        try {
+            while (dispatchBatch() == batchSize) {
+                // A full batch suggests more emails are due
+            }
+        } catch (RuntimeException e) {
+            logger.error("Sending queued emails failed, retrying with the next run", e);
+        }
+    }
+
+    /**
+     * Claims a batch of due emails, sends it and records the outcome: sent emails are deleted, failed ones are
+     * scheduled for a retry or given up on.
+     *
+     * @return the number of emails claimed, sent or not
+     */
+    public int dispatchBatch() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<EmailOutboxMessage> batch = transactionTemplate.execute(status -> claim());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Exception> failures = send(batch);
+        transactionTemplate.executeWithoutResult(status -> settle(batch, failures));
+        return batch.size();
+    }
+
+    private List<EmailOutboxMessage> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxMessage> batch = emailOutboxRepository.lockDue(now, batchSize);
+        for (EmailOutboxMessage email : batch) {
+            // Counted up front, so an email whose sender keeps dying still runs out of attempts
+            email.setAttempts(email.getAttempts() + 1);
+            email.setNextAttemptAt(now.plus(claimTimeout));
+        }
+        return batch;
+    }
+
+    private Map<Long, Exception> send(List<EmailOutboxMessage> batch) {
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, Long> ids = new IdentityHashMap<>();
+        List<MimeMessage> emails = new ArrayList<>(batch.size());
+        for (EmailOutboxMessage email : batch) {
+            try {
+                MimeMessage mimeMessage = emailSenderService.createEmail(email.getRecipient(), email.getSubject(), email.getHtmlContent());
+                ids.put(mimeMessage, email.getId());
+                emails.add(mimeMessage);
+            } catch (MessagingException e) {
+                failures.put(email.getId(), e);
+            }
+        }
+        emailSenderService.sendEmails(emails).forEach((mimeMessage, failure) -> failures.put(ids.get(mimeMessage), failure));
+        return failures;
+    }
+
+    private void settle(List<EmailOutboxMessage> batch, Map<Long, Exception> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sent = new ArrayList<>();
+        List<EmailOutboxMessage> failed = new ArrayList<>();
+        for (EmailOutboxMessage email : batch) {
+            Exception failure = failures.get(email.getId());
+            if (failure == null) {
+                sent.add(email.getId());
+                continue;
+            }
+
+            String error = String.valueOf(failure.getMessage());
+            email.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(EmailOutboxStatus.DEAD);
+                logger.error("Giving up on email {} to {} after {} attempts", email.getId(), email.getRecipient(), email.getAttempts(), failure);
+            } else {
+                email.setNextAttemptAt(now.plus(backoff(email.getAttempts())));
+                logger.warn("Sending email {} to {} failed, retrying at {}: {}", email.getId(), email.getRecipient(), email.getNextAttemptAt(), error);
+            }
+            failed.add(email);
+        }
+        emailOutboxRepository.deleteAllByIdInBatch(sent);
+        emailOutboxRepository.saveAll(failed);
+    }
+
+    // The first retry waits the initial backoff and every later one twice as long as the one before
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
@@ -3,10 +3,16 @@ package com.dimon.catanbackend.service;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Service class responsible for sending emails using the {@link JavaMailSender} API.
  * This service constructs and sends HTML emails to recipients with the provided subject and content.
@@ -17,6 +23,8 @@ import org.springframework.stereotype.Service;
  *
  * Methods:
  * - {@code sendEmail}: Sends an email with the specified recipient, subject, and HTML content.
+ * - {@code createEmail}: Creates such an email without sending it.
+ * - {@code sendEmails}: Sends several emails over one connection and returns the ones that failed.
  *
  * Exceptions:
  * - Throws {@link MessagingException} if there is an issue creating or sending the email.
@@ -58,6 +66,19 @@ public class EmailSenderService {
      * @throws MessagingException if an error occurs while creating or sending the email
      */
     public void sendEmail(String to, String subject, String htmlContent) throws MessagingException{
+        mailSender.send(createEmail(to, subject, htmlContent));
+    }
+
+    /**
+     * Creates an email to the specified recipient with the given subject and HTML content, without sending it.
+     *
+     * @param to the recipient's email address
+     * @param subject the subject of the email
+     * @param htmlContent the HTML content of the email
+     * @return the email, ready to be sent
+     * @throws MessagingException if an error occurs while creating the email
+     */
+    public MimeMessage createEmail(String to, String subject, String htmlContent) throws MessagingException {
         MimeMessage mimeMessage = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
 
@@ -65,8 +86,34 @@ public class EmailSenderService {
         helper.setText(htmlContent, true);
         helper.setTo(to);
         helper.setSubject(subject);
+        return mimeMessage;
+    }
 
-        mailSender.send(mimeMessage);
+    /**
+     * Sends several emails over a single connection to the mail server. An email that fails does not stop the
+     * others from being sent.
+     *
+     * @param emails the emails to send
+     * @return the emails that could not be sent, each with the reason, or an empty map if all were sent
+     */
+    public Map<MimeMessage, Exception> sendEmails(List<MimeMessage> emails) {
+        Map<MimeMessage, Exception> failures = new IdentityHashMap<>();
+        if (emails.isEmpty()) {
+            return failures;
+        }
+        try {
+            mailSender.send(emails.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Keyed by the emails that were passed in
+            e.getFailedMessages().forEach((email, failure) -> failures.put((MimeMessage) email, failure));
+            if (failures.isEmpty()) {
+                emails.forEach(email -> failures.put(email, e));
+            }
+        } catch (MailException e) {
+            // Nothing was sent, for example because the server refused to authenticate
+            emails.forEach(email -> failures.put(email, e));
+        }
+        return failures;
     }
 
 }
@@ -0,0 +1,294 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.dtos.ArchiveJobDto;
+import com.dimon.catanbackend.dtos.snapshot.PlayerSnapshot;
+import com.dimon.catanbackend.dtos.snapshot.TileSnapshot;
+import com.dimon.catanbackend.dtos.snapshot.TurnSnapshot;
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.GameArchive;
+import com.dimon.catanbackend.entities.GameArchiveParticipant;
+import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.repositories.GameArchiveParticipantRepository;
+import com.dimon.catanbackend.repositories.GameArchiveRepository;
+import com.dimon.catanbackend.repositories.GameRepository;
+import com.dimon.catanbackend.repositories.PropertyRepository;
+import com.dimon.catanbackend.utils.CompressionUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class responsible for moving finished and stale games out of the live tables into
+ * {@link GameArchive} rows, so the live {@code game}, {@code player} and {@code property} tables (and their
+ * indexes) only hold games that are still being played.
+ *
+ * Archiving works in batches, each in its own transaction: a batch loads games with their players and
+ * properties, writes one compressed JSON archive row per game plus one {@link GameArchiveParticipant} row
+ * per player who ever joined it, and then removes the games with the set-based
+ * {@link GameService#deleteGamesByIds} statements.
+ *
+ * Two kinds of runs exist:
+ * - A scheduled sweep archiving games whose {@code finishedTime} is older than a grace period.
+ * - Admin jobs archiving every game that finished before a cutoff, plus lobby games created before it that
+ *   never started, run on a dedicated thread and tracked by ID. Games still being played are left alone.
+ *
+ * The archive table is partitioned by month of {@code archivedAt}. Partitions for the current and the next
+ * months are created at startup and daily by {@code ensurePartitions}.
+ *
+ * Configuration properties:
+ * - {@code app.archive.batch-size}: Number of games archived per transaction.
+ * - {@code app.archive.older-than}: Default age after which a game is considered stale.
+ * - {@code app.archive.finished-grace}: How long a finished game stays live (so players can see the result).
+ * - {@code app.archive.sweep-interval}: Delay between sweeps for finished games.
+ * - {@code app.archive.partitions-ahead}: Number of future monthly partitions kept ready.
+ * - {@code app.archive.retained-jobs}: Number of admin jobs kept for {@code getJob}; older ones are forgotten.
+ *
+ * Methods:
+ * - {@code startArchiveJob}: Queues a job archiving the finished and abandoned games older than a cutoff.
+ * - {@code getJob}: Returns the progress of a job.
+ * - {@code archiveFinishedGames}: Scheduled sweep for finished games.
+ * - {@code ensurePartitions}: Creates the monthly partitions that will be needed soon.
+ *
+ * @see GameArchive
+ * @see ArchiveJobDto
+ * @see CompressionUtils
+ *
+ */
+@Service
+public class GameArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(GameArchiveService.class);
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private GameArchiveRepository gameArchiveRepository;
+
+    @Autowired
+    private GameArchiveParticipantRepository gameArchiveParticipantRepository;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.archive.older-than:PT24H}")
+    private Duration defaultOlderThan;
+
+    @Value("${app.archive.finished-grace:PT10M}")
+    private Duration finishedGrace;
+
+    @Value("${app.archive.partitions-ahead:2}")
+    private int partitionsAhead;
+
+    @Value("${app.archive.retained-jobs:100}")
+    private int retainedJobs;
+
+    // Sweeps and admin jobs must not pick up the same games concurrently
+    private final Object archiveLock = new Object();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Insertion ordered, so the oldest job is dropped once more than retainedJobs were started
+    private final Map<String, ArchiveJobDto> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ArchiveJobDto> eldest) {
+            return size() > retainedJobs;
+        }
+    });
+
+    /**
+     * Queues a job archiving every game that finished before {@code now - olderThan}, and every game created
+     * before it that never started. Started games that have not finished are not archived.
+     *
+     * @param olderThan the minimum age of the games to archive, or {@code null} for the configured default
+     * @return the queued job
+     */
+    public ArchiveJobDto startArchiveJob(Duration olderThan) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(olderThan != null ? olderThan : defaultOlderThan);
+        ArchiveJobDto job = new ArchiveJobDto(UUID.randomUUID().toString(), ArchiveJobDto.Status.QUEUED,
+                cutoff, null, null, 0, 0, null);
+        jobs.put(job.getJobId(), job);
+        executor.submit(() -> run(job));
+        return copy(job);
+    }
+
+    /**
+     * Returns the current progress of an archive job.
+     *
+     * @param jobId the ID of the job
+     * @return the job, or empty if no job with this ID was started or it is no longer retained
+     */
+    public Optional<ArchiveJobDto> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(this::copy);
+    }
+
+    /**
+     * Archives every game that finished more than the grace period ago.
+     */
+    @Scheduled(fixedDelayString = "${app.archive.sweep-interval:PT5M}", initialDelayString = "${app.archive.sweep-interval:PT5M}")
+    public void archiveFinishedGames() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(finishedGrace);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        try {
+            while (true) {
+                int archived = archiveBatch(transactionTemplate, limit -> gameRepository.findIdsFinishedBefore(cutoff, limit));
+                if (archived == 0) {
+                    break;
+                }
+                total += archived;
+            }
+        } catch (RuntimeException e) {
+            logger.error("Archiving finished games failed after {} games", total, e);
+        }
+        if (total > 0) {
+            logger.info("Archived {} finished games", total);
+        }
+    }
+
+    /**
+     * Creates the archive partitions for the current month and the configured number of months ahead.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.archive.partition-cron:0 0 3 * * *}")
+    public void ensurePartitions() {
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= partitionsAhead; i++) {
+            jdbcTemplate.queryForObject("select ensure_game_archive_partition(?)", String.class,
+                    month.plusMonths(i).atDay(1));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ArchiveJobDto job) {
+        synchronized (job) {
+            job.setStatus(ArchiveJobDto.Status.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int archived = archiveBatch(transactionTemplate, limit -> gameRepository.findIdsFinishedOrAbandonedBefore(job.getCutoff(), limit));
+                if (archived == 0) {
+                    break;
+                }
+                synchronized (job) {
+                    job.setArchivedGames(job.getArchivedGames() + archived);
+                    job.setBatches(job.getBatches() + 1);
+                }
+            }
+            synchronized (job) {
+                job.setStatus(ArchiveJobDto.Status.COMPLETED);
+                job.setFinishedAt(LocalDateTime.now());
+            }
+            logger.info("Archive job {} archived {} games in {} batches", job.getJobId(), job.getArchivedGames(), job.getBatches());
+        } catch (RuntimeException e) {
+            synchronized (job) {
+                job.setStatus(ArchiveJobDto.Status.FAILED);
+                job.setError(e.getMessage());
+                job.setFinishedAt(LocalDateTime.now());
+            }
+            logger.error("Archive job {} failed", job.getJobId(), e);
+        }
+    }
+
+    private int archiveBatch(TransactionTemplate transactionTemplate, Function<Limit, List<UUID>> selectIds) {
+        synchronized (archiveLock) {
+            Integer archived = transactionTemplate.execute(status -> archiveGames(selectIds.apply(Limit.of(batchSize))));
+            return archived != null ? archived : 0;
+        }
+    }
+
+    private int archiveGames(List<UUID> gameIds) {
+        if (gameIds.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, List<Property>> propertiesByGame = propertyRepository.findByGameIdIn(gameIds).stream()
+                .collect(Collectors.groupingBy(property -> property.getGame().getId()));
+        LocalDateTime archivedAt = LocalDateTime.now();
+
+        List<GameArchiveParticipant> participants = new ArrayList<>();
+        for (Object[] row : gameRepository.findParticipantsByGameIdIn(gameIds)) {
+            participants.add(new GameArchiveParticipant((String) row[1], archivedAt, (UUID) row[0]));
+        }
+
+        List<GameArchive> archives = new ArrayList<>();
+        for (Game game : gameRepository.findAllWithPlayersByIdIn(gameIds)) {
+            archives.add(GameArchive.builder()
+                    .gameId(game.getId())
+                    .name(game.getName())
+                    .createdTime(game.getCreatedTime())
+                    .finishedTime(game.getFinishedTime())
+                    .archivedAt(archivedAt)
+                    .playerCount(game.getPlayers().size())
+                    .payload(toPayload(game, propertiesByGame.getOrDefault(game.getId(), List.of())))
+                    .build());
+        }
+        gameArchiveRepository.saveAll(archives);
+        gameArchiveParticipantRepository.saveAll(participants);
+        return gameService.deleteGamesByIds(gameIds);
+    }
+
+    private String toPayload(Game game, List<Property> properties) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("turn", new TurnSnapshot(game));
+        payload.put("players", game.getPlayers().stream().map(PlayerSnapshot::new).toList());
+        payload.put("tiles", properties.stream().map(TileSnapshot::new).toList());
+        try {
+            return CompressionUtils.compress(objectMapper.writeValueAsString(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize archive of game " + game.getId(), e);
+        }
+    }
+
+    private ArchiveJobDto copy(ArchiveJobDto job) {
+        synchronized (job) {
+            return new ArchiveJobDto(job.getJobId(), job.getStatus(), job.getCutoff(), job.getStartedAt(),
+                    job.getFinishedAt(), job.getArchivedGames(), job.getBatches(), job.getError());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.dimon.catanbackend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Service class running the commands of each game one at a time, in the order they were submitted.
+ *
+ * Every game has a lane: the command submitted last for it, which the next command is chained to. Commands of
+ * different games run in parallel on a shared pool, while two commands of the same game that go through the
+ * lane never overlap. A lane is forgotten as soon as its last command has finished, so idle games cost nothing.
+ *
+ * Only the auction lifecycle uses the lanes today: starting an auction, and closing it from the end timer or
+ * once nobody can outbid the last bid. Bids are arbitrated in Redis, and the other player commands (moves,
+ * purchases, rent, the end of a turn) do not go through the lanes, so they can still run at the same time as
+ * an auction being started or closed.
+ *
+ * A command queued with {@code execute} runs on the shared pool; {@code call} waits for its turn and runs the
+ * command on the calling thread. A command that fails does not block the lane: the exception is logged (or
+ * thrown to the caller of {@code call}) and the next command still runs.
+ *
+ * Configuration properties:
+ * - {@code app.game-commands.threads}: Number of threads running the commands of all games.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ *
+ * Methods:
+ * - {@code execute}: Queues a command of a game and returns immediately.
+ * - {@code call}: Runs a command of a game on the calling thread once it is its turn.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * gameCommandExecutor.execute(gameId, () -> closeAuction(gameId, round));
+ * gameCommandExecutor.call(gameId, () -> { startAuction(gameId, username, propertyName, initialBid); return null; });
+ * }
+ * </pre>
+ *
+ * Exception handling:
+ * - {@code call} rethrows the {@link RuntimeException} thrown by the command on the calling thread.
+ *
+ * @see GameTimerService
+ *
+ */
+@Service
+public class GameCommandExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(GameCommandExecutor.class);
+
+    @Value("${app.game-commands.threads:4}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    private final Map<UUID, CompletableFuture<?>> lanes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "game-commands-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues a command of a game. It runs on the pool after every command queued for the game before it.
+     *
+     * @param gameId the ID of the game
+     * @param command the command to run
+     */
+    public void execute(UUID gameId, Runnable command) {
+        CompletableFuture<?> tail = lanes.compute(gameId, (id, previous) -> {
+            CompletableFuture<?> before = previous != null ? previous : CompletableFuture.completedFuture(null);
+            return before.thenRunAsync(() -> {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    // Logged rather than rethrown, so the lane completes normally and the next command runs
+                    logger.warn("Command of game {} failed", gameId, e);
+                }
+            }, executor);
+        });
+        tail.whenComplete((ignored, failure) -> lanes.remove(gameId, tail));
+    }
+
+    /**
+     * Waits until every command queued for a game before has run, then runs the command on the calling
+     * thread and returns its result. Running it on the caller keeps the caller's thread-bound context, such as
+     * the security context and open transactions. Must not be called from a command of the same game, which
+     * would wait for itself.
+     *
+     * @param gameId the ID of the game
+     * @param command the command to run
+     * @param <T> the type of the result
+     * @return the result of the command
+     * @throws RuntimeException the exception thrown by the command
+     */
+    public <T> T call(UUID gameId, Supplier<T> command) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        List<CompletableFuture<?>> before = new ArrayList<>(1);
+        lanes.compute(gameId, (id, previous) -> {
+            if (previous != null) {
+                before.add(previous);
+            }
+            return done;
+        });
+        try {
+            // Lane futures never complete exceptionally
+            before.forEach(CompletableFuture::join);
+            return command.get();
+        } finally {
+            done.complete(null);
+            lanes.remove(gameId, done);
+        }
+    }
+}
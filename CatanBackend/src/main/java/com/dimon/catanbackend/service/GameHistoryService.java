@@ -0,0 +1,129 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.config.pagination.PaginationProperties;
+import com.dimon.catanbackend.dtos.CursorPage;
+import com.dimon.catanbackend.dtos.GameHistoryDto;
+import com.dimon.catanbackend.dtos.GameReplayDto;
+import com.dimon.catanbackend.entities.GameArchive;
+import com.dimon.catanbackend.entities.GameArchiveParticipant;
+import com.dimon.catanbackend.exceptions.GameNotFoundException;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.dimon.catanbackend.repositories.GameArchiveParticipantRepository;
+import com.dimon.catanbackend.repositories.GameArchiveRepository;
+import com.dimon.catanbackend.utils.CompressionUtils;
+import com.dimon.catanbackend.utils.KeysetCursor;
+import com.dimon.catanbackend.utils.UuidUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class providing the read path for archived games: a player's game history and the stored
+ * final state of a single game for replays.
+ *
+ * History is read from the participant table (keyed by username and archive time), so it never touches the
+ * live game tables. Archive rows are always looked up together with their {@code archivedAt} so that
+ * PostgreSQL only scans the matching monthly partitions.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ * - {@link Transactional} with {@code readOnly = true}, so reads can be served by the read replica.
+ *
+ * Methods:
+ * - {@code findHistory}: Returns one page of a player's archived games, newest first.
+ * - {@code getReplay}: Returns an archived game together with its decompressed final state.
+ *
+ * @see GameArchiveService
+ * @see GameArchive
+ * @see GameArchiveParticipant
+ *
+ */
+@Service
+public class GameHistoryService {
+
+    @Autowired
+    private GameArchiveRepository gameArchiveRepository;
+
+    @Autowired
+    private GameArchiveParticipantRepository gameArchiveParticipantRepository;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Returns one page of the games a player took part in, most recently archived first.
+     *
+     * @param username the username of the player
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param size the requested page size, or {@code null} for the configured default
+     * @return the page of archived games
+     * @throws InvalidActionException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<GameHistoryDto> findHistory(String username, String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        List<GameArchiveParticipant> rows;
+        if (cursor == null) {
+            rows = gameArchiveParticipantRepository.findByUsernameOrderByArchivedAtDescGameIdDesc(username, Limit.of(pageSize + 1));
+        } else {
+            String[] key = KeysetCursor.decode(cursor, 2);
+            rows = gameArchiveParticipantRepository.findByUsernameBefore(username, parseTime(key[0]), UuidUtils.parse(key[1]), Limit.of(pageSize + 1));
+        }
+        CursorPage<GameArchiveParticipant> page = KeysetCursor.page(rows, pageSize,
+                row -> KeysetCursor.encode(row.getArchivedAt().toString(), row.getGameId().toString()));
+        if (page.getItems().isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        Set<UUID> gameIds = page.getItems().stream().map(GameArchiveParticipant::getGameId).collect(Collectors.toSet());
+        Set<LocalDateTime> archivedAt = page.getItems().stream().map(GameArchiveParticipant::getArchivedAt).collect(Collectors.toSet());
+        Map<UUID, GameHistoryDto> summaries = gameArchiveRepository.findSummaries(gameIds, archivedAt).stream()
+                .collect(Collectors.toMap(GameHistoryDto::getGameId, Function.identity(), (first, second) -> first));
+
+        List<GameHistoryDto> items = page.getItems().stream()
+                .map(row -> summaries.get(row.getGameId()))
+                .filter(Objects::nonNull)
+                .toList();
+        return new CursorPage<>(items, page.getNextCursor());
+    }
+
+    /**
+     * Returns an archived game with its decompressed final state (turn, players and board tiles).
+     *
+     * @param gameId the ID of the archived game
+     * @return the archived game and its state
+     * @throws GameNotFoundException if no archive exists for the game
+     */
+    @Transactional(readOnly = true)
+    public GameReplayDto getReplay(UUID gameId) {
+        GameArchive archive = gameArchiveRepository.findById(gameId)
+                .orElseThrow(() -> new GameNotFoundException("Archived game not found with id: " + gameId));
+        GameHistoryDto summary = new GameHistoryDto(archive.getGameId(), archive.getName(), archive.getCreatedTime(),
+                archive.getFinishedTime(), archive.getArchivedAt(), archive.getPlayerCount());
+        try {
+            return new GameReplayDto(summary, objectMapper.readTree(CompressionUtils.decompress(archive.getPayload())));
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupted archive of game " + gameId, e);
+        }
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidActionException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.repositories.GameRepository;
+import com.dimon.catanbackend.repositories.PropertyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service class responsible for rebuilding the Redis snapshots of all live games when the node starts, so that
+ * the first reads of every game after a deploy or crash (the snapshot endpoints and the HMGET lookups of
+ * {@link GameSnapshotService}) are served from Redis instead of rebuilding the snapshot on demand.
+ *
+ * Only these read snapshots are pre-built. Commands still load the entities they change through JPA, so the
+ * first command of a game costs the same with or without rehydration.
+ *
+ * The service runs as an {@link ApplicationRunner}. Spring Boot only switches the application's readiness
+ * state to accepting traffic after all runners have finished, so the node reports ready once rehydration
+ * is done (or has timed out).
+ *
+ * Games are read from Postgres in chunks (players fetched with a join, properties with one query per chunk)
+ * and chunks are processed in parallel on a dedicated, bounded {@link ForkJoinPool}. Games whose snapshot
+ * already exists in Redis are skipped; each chunk checks that with one pipelined round-trip.
+ *
+ * Configuration properties:
+ * - {@code app.rehydration.enabled}: Whether to rehydrate games on startup.
+ * - {@code app.rehydration.parallelism}: Number of worker threads, keep it below the connection pool size.
+ * - {@code app.rehydration.chunk-size}: Number of games loaded per database round-trip.
+ * - {@code app.rehydration.timeout}: Maximum time readiness is held back for rehydration.
+ *
+ * @see GameSnapshotService
+ * @see ApplicationRunner
+ *
+ */
+@Service
+public class GameRehydrationService implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(GameRehydrationService.class);
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private GameSnapshotService gameSnapshotService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.rehydration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rehydration.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.rehydration.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${app.rehydration.timeout:PT2M}")
+    private Duration timeout;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        rehydrateAll();
+    }
+
+    /**
+     * Rebuilds the snapshots of all games that do not have one yet. Finished games waiting for the archive
+     * sweep are skipped; their snapshot is rebuilt on demand if someone still looks at them.
+     *
+     * @return the number of games rehydrated
+     */
+    public int rehydrateAll() {
+        long start = System.nanoTime();
+        List<UUID> gameIds = gameRepository.findLiveIds();
+        if (gameIds.isEmpty()) {
+            logger.info("No games to rehydrate");
+            return 0;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int rehydrated = pool.submit(new RehydrationTask(gameIds)).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            logger.info("Rehydrated {} of {} games in {} ms ({} games/s, parallelism {})",
+                    rehydrated, gameIds.size(), Math.round(seconds * 1000),
+                    Math.round(rehydrated / Math.max(seconds, 0.001)), parallelism);
+            return rehydrated;
+        } catch (Exception e) {
+            // Games that were not rehydrated are rebuilt lazily by their first command
+            logger.error("Game rehydration did not complete, continuing startup", e);
+            return 0;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int rehydrateChunk(List<UUID> gameIds) {
+        List<UUID> missing = gameSnapshotService.findMissing(gameIds);
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        // Not read-only, so the snapshots are built from the primary rather than a lagging replica
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return transactionTemplate.execute(status -> {
+            Map<UUID, List<Property>> propertiesByGame = propertyRepository.findByGameIdIn(missing).stream()
+                    .collect(Collectors.groupingBy(property -> property.getGame().getId()));
+
+            List<Game> games = gameRepository.findAllWithPlayersByIdIn(missing);
+            for (Game game : games) {
+                gameSnapshotService.rebuild(game, propertiesByGame.getOrDefault(game.getId(), List.of()));
+            }
+            return games.size();
+        });
+    }
+
+    /**
+     * Splits the list of game IDs in halves until it fits in one chunk, then rehydrates that chunk.
+     */
+    private class RehydrationTask extends RecursiveTask<Integer> {
+        private final List<UUID> gameIds;
+
+        private RehydrationTask(List<UUID> gameIds) {
+            this.gameIds = gameIds;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (gameIds.size() <= chunkSize) {
+                return rehydrateChunk(gameIds);
+            }
+            int middle = gameIds.size() / 2;
+            RehydrationTask left = new RehydrationTask(new ArrayList<>(gameIds.subList(0, middle)));
+            RehydrationTask right = new RehydrationTask(new ArrayList<>(gameIds.subList(middle, gameIds.size())));
+            left.fork();
+            return right.compute() + left.join();
+        }
+    }
+}
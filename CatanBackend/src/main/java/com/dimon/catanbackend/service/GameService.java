@@ -1,27 +1,41 @@
 package com.dimon.catanbackend.service;
 
+import com.dimon.catanbackend.config.pagination.PaginationProperties;
+import com.dimon.catanbackend.dtos.AuthUser;
+import com.dimon.catanbackend.dtos.CursorPage;
 import com.dimon.catanbackend.dtos.PlayerDTO;
 import com.dimon.catanbackend.entities.*;
 import com.dimon.catanbackend.exceptions.GameNotFoundException;
 import com.dimon.catanbackend.exceptions.InvalidActionException;
 import com.dimon.catanbackend.exceptions.PlayerNotFoundException;
+import com.dimon.catanbackend.exceptions.StateVersionConflictException;
 import com.dimon.catanbackend.exceptions.UserNotFoundException;
 import com.dimon.catanbackend.repositories.GameRepository;
-import com.dimon.catanbackend.repositories.GameStateRepository;
 import com.dimon.catanbackend.repositories.PlayerRepository;
 import com.dimon.catanbackend.repositories.UserRepository;
 import com.dimon.catanbackend.utils.CompressionUtils;
 import com.dimon.catanbackend.utils.Convertor;
+import com.dimon.catanbackend.utils.JsonPatchUtils;
+import com.dimon.catanbackend.utils.KeysetCursor;
+import com.dimon.catanbackend.utils.UuidUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 /**
@@ -29,7 +43,7 @@ import java.util.stream.Collectors;
  * leaving, and observing games. It also handles saving and retrieving game state, managing turns,
  * and managing players and properties in the context of the game.
  *
- * The service interacts with several repositories such as {@link GameRepository}, {@link GameStateRepository},
+ * The service interacts with several repositories such as {@link GameRepository},
  * {@link PlayerRepository}, and {@link UserRepository}. Additionally, it utilizes the
  * {@link SimpMessagingTemplate} to send updates to game clients in real-time.
  *
@@ -40,16 +54,18 @@ import java.util.stream.Collectors;
  *
  * Methods:
  * - {@code findGameById}: Finds a game by its ID.
- * - {@code saveGameState}: Saves the current game state to Redis.
+ * - {@code saveGameState}: Saves the full client game state to Redis and bumps its version.
+ * - {@code patchGameState}: Applies a JSON-Patch delta to the client game state against a known version.
  * - {@code getGameState}: Retrieves the saved game state from Redis.
  * - {@code createGame}: Creates a new game and adds the first player (game creator).
  * - {@code leaveGame}: Allows a player to leave a game.
  * - {@code joinGame}: Allows a player to join an existing game.
  * - {@code endTurn}: Ends the current player's turn and switches to the next player.
- * - {@code getGames}: Retrieves a list of all games.
- * - {@code findAllGames}: Finds all available games that have not started yet.
+ * - {@code findWaitingGames}: Finds one page of the games that have not started yet.
+ * - {@code findGamesPage}: Finds one page of all games.
  * - {@code getPropertyOwner}: Retrieves the owner of a property by game and property name.
  * - {@code deleteGameById}: Deletes a game and its associated players and properties.
+ * - {@code deleteGamesByIds}: Deletes several games with set-based statements.
  * - {@code addObserverToGame}: Adds an observer to a game.
  *
  * Messaging:
@@ -60,13 +76,17 @@ import java.util.stream.Collectors;
  * - {@link PlayerNotFoundException} if the player is not found.
  * - {@link UserNotFoundException} if the user is not found.
  * - {@link InvalidActionException} if an invalid action is attempted (e.g., joining a game twice).
+ * - {@link StateVersionConflictException} if a state patch targets an outdated version.
  *
  * Helper utilities:
  * - {@link CompressionUtils} for handling data compression in the game state.
  * - {@link Convertor} for converting entity objects (e.g., {@link Player}) to DTOs.
  *
  * Caching:
- * - Uses {@link RedisTemplate} to cache game state information for fast retrieval.
+ * - Keeps the client game state in a Redis hash ({@code state}, {@code version}) written through a
+ *   compare-and-set Lua script, so concurrent saves and patches never interleave. States saved before the
+ *   hash existed are moved into it from their old {@code game_state:} key the first time they are read.
+ * - Mirrors the server-side board into the field-level snapshot kept by {@link GameSnapshotService}.
  *
  * @see Game
  * @see Player
@@ -75,8 +95,8 @@ import java.util.stream.Collectors;
  * @see SimpMessagingTemplate
  * @see GameRepository
  * @see PlayerRepository
- * @see GameStateRepository
- * @see RedisTemplate
+ * @see GameState
+ * @see StringRedisTemplate
  * @see Convertor
  * @see CompressionUtils
  *
@@ -87,9 +107,6 @@ public class GameService {
     @Autowired
     private GameRepository gameRepository;
 
-    @Autowired
-    private GameStateRepository gameStateRepository;
-
     @Autowired
     private Convertor convertor;
 
@@ -102,13 +119,37 @@ public class GameService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserService userService;
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private GameSnapshotService gameSnapshotService;
 
-    private static final String PREFIX = "game_state:";
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> gameStateCasScript;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private MoneyLedgerService moneyLedgerService;
+
+    private static final String PREFIX = "game_client_state:";
+    // Client states saved before the versioned hash, as a JSON value holding the state
+    private static final String LEGACY_PREFIX = "game_state:";
+    private static final long UNCONDITIONAL = -1;
+    // Expected version of a hash that does not exist yet
+    private static final long ABSENT = 0;
 
     /**
      * Finds a game by its ID.
@@ -117,22 +158,72 @@ public class GameService {
      * @return the game found
      * @throws GameNotFoundException if the game is not found
      */
-    public Game findGameById(String gameId) {
+    public Game findGameById(UUID gameId) {
         return gameRepository.findById(gameId).orElseThrow(() -> new GameNotFoundException("Game not found with id: "+ gameId));
     }
 
     /**
-     * Saves the current state of the game to Redis.
+     * Saves the full client state of the game to Redis, overwriting whatever version is stored.
+     * Clients only need this on their first save or after a patch was rejected with a version conflict.
      *
      * @param gameId the ID of the game
      * @param state the game state as a string
+     * @return the new state version
+     * @throws GameNotFoundException if the game does not exist
      */
-    public void saveGameState(String gameId, String state) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new GameNotFoundException("Game not found with id: " + gameId));
+    public long saveGameState(UUID gameId, String state) {
+        requireGame(gameId);
+        return writeGameState(gameId, state, UNCONDITIONAL);
+    }
+
+    /**
+     * Applies a JSON-Patch delta to the stored client state. The patch is computed by the client against
+     * {@code baseVersion}; if the stored version has moved on, nothing is written and the client is expected
+     * to re-upload the full state.
+     *
+     * @param gameId the ID of the game
+     * @param baseVersion the version the patch was computed against
+     * @param patch the list of patch operations
+     * @return the new state version
+     * @throws GameNotFoundException if the game does not exist
+     * @throws StateVersionConflictException if the stored state is missing or has a different version
+     * @throws InvalidActionException if the patch cannot be applied to the stored state
+     */
+    public long patchGameState(UUID gameId, long baseVersion, JsonNode patch) {
+        GameState current = getGameStateSnapshot(gameId);
+        if (current == null) {
+            requireGame(gameId);
+        }
+        if (current == null || current.getVersion() != baseVersion) {
+            long currentVersion = current != null ? current.getVersion() : 0;
+            throw new StateVersionConflictException("Game state version mismatch", currentVersion);
+        }
 
-        GameState gameState = new GameState(gameId, state, game);
-        redisTemplate.opsForValue().set(PREFIX + gameId, gameState);
+        String patched;
+        try {
+            patched = objectMapper.writeValueAsString(JsonPatchUtils.apply(objectMapper.readTree(current.getState()), patch));
+        } catch (JsonProcessingException e) {
+            // The stored document is not JSON, so only a full upload can replace it
+            throw new StateVersionConflictException("Stored game state cannot be patched", current.getVersion());
+        }
+        return writeGameState(gameId, patched, baseVersion);
+    }
+
+    private long writeGameState(UUID gameId, String state, long expectedVersion) {
+        List<?> result = stringRedisTemplate.execute(gameStateCasScript, List.of(PREFIX + gameId),
+                String.valueOf(expectedVersion), state);
+        long version = ((Number) result.get(1)).longValue();
+        if (((Number) result.get(0)).longValue() == 0) {
+            throw new StateVersionConflictException("Game state version mismatch", version);
+        }
+        return version;
+    }
+
+    // A client state is only kept for a game that exists; a complete snapshot proves it without the database
+    private void requireGame(UUID gameId) {
+        if (!gameSnapshotService.exists(gameId) && !gameRepository.existsById(gameId)) {
+            throw new GameNotFoundException("Game not found with id: " + gameId);
+        }
     }
 
     /**
@@ -141,40 +232,107 @@ public class GameService {
      * @param gameId the ID of the game
      * @return the saved game state as a string, or null if not found
      */
-    public String getGameState(String gameId) {
-        GameState gameState = (GameState) redisTemplate.opsForValue().get(PREFIX + gameId);
+    public String getGameState(UUID gameId) {
+        GameState gameState = getGameStateSnapshot(gameId);
         return (gameState != null) ? gameState.getState() : null;
     }
 
+    /**
+     * Retrieves the saved state of the game together with its version.
+     *
+     * @param gameId the ID of the game
+     * @return the saved {@link GameState}, or null if not found
+     */
+    public GameState getGameStateSnapshot(UUID gameId) {
+        GameState gameState = readGameState(gameId);
+        return gameState != null ? gameState : migrateLegacyGameState(gameId);
+    }
+
+    private GameState readGameState(UUID gameId) {
+        List<Object> fields = stringRedisTemplate.opsForHash().multiGet(PREFIX + gameId, List.of("state", "version"));
+        if (fields.get(0) == null) {
+            return null;
+        }
+        return new GameState(gameId, (String) fields.get(0), Long.parseLong((String) fields.get(1)));
+    }
+
+    // Moves a state saved under the old key into the hash, so the old key is read at most once per game
+    private GameState migrateLegacyGameState(UUID gameId) {
+        String legacyKey = LEGACY_PREFIX + gameId;
+        String legacy = stringRedisTemplate.opsForValue().get(legacyKey);
+        if (legacy == null) {
+            return null;
+        }
+        String state;
+        try {
+            state = objectMapper.readTree(legacy).path("state").textValue();
+        } catch (JsonProcessingException e) {
+            state = null;
+        }
+        if (state == null) {
+            logger.warn("Dropping unreadable game state saved under {}", legacyKey);
+            stringRedisTemplate.delete(legacyKey);
+            return null;
+        }
+        // Only written while the hash is absent, so a save racing with the migration wins
+        List<?> result = stringRedisTemplate.execute(gameStateCasScript, List.of(PREFIX + gameId),
+                String.valueOf(ABSENT), state);
+        stringRedisTemplate.delete(legacyKey);
+        if (((Number) result.get(0)).longValue() == 1) {
+            return new GameState(gameId, state, ((Number) result.get(1)).longValue());
+        }
+        return readGameState(gameId);
+    }
+
     /**
      * Creates a new game with the specified parameters and adds the first player (the creator) to the game.
      *
-     * @param message a map containing game details (gameName, username, maxPlayers)
+     * @param message a map containing game details (gameName, username, maxPlayers, and optionally auctionMode,
+     *                {@code ENGLISH} by default)
      * @return the created game
      * @throws RuntimeException if an error occurs during game creation
      */
     @Transactional
     public Game createGame(Map<String, String> message) {
+        String username = message.get("username");
+        AuthUser user = userService.findAuthUser(username)
+                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + username));
+        return createGame(message, user.getId(), user.getUsername());
+    }
+
+    /**
+     * Creates a new game for a creator who is already authenticated, such as the user of a STOMP session,
+     * without looking the user up.
+     *
+     * @param message a map containing game details (gameName, maxPlayers, and optionally auctionMode,
+     *                {@code ENGLISH} by default)
+     * @param userId the ID of the creating user
+     * @param username the username of the creating user, which becomes the username of the first player
+     * @return the created game
+     * @throws RuntimeException if an error occurs during game creation
+     */
+    @Transactional
+    public Game createGame(Map<String, String> message, Long userId, String username) {
         try {
             String gameName = message.get("gameName");
-            String username = message.get("username");
             int maxPlayers = Integer.parseInt(message.get("maxPlayers"));
-
-            User user = userRepository.findByEmail(username)
-                    .orElseThrow(() -> new UserNotFoundException("User not found with email: " + username));
+            AuctionMode auctionMode = message.containsKey("auctionMode")
+                    ? AuctionMode.valueOf(message.get("auctionMode"))
+                    : AuctionMode.ENGLISH;
 
             Game game = Game.builder()
-                    .id(UUID.randomUUID().toString())
+                    .id(UuidUtils.timeOrdered())
                     .name(gameName)
                     .isGameStarted(false)
                     .maxPlayers(maxPlayers)
+                    .auctionMode(auctionMode)
                     .createdTime(LocalDateTime.now())
                     .players(new ArrayList<>())
                     .build();
 
             Player player = Player.builder()
-                    .id(UUID.randomUUID().toString())
-                    .username(user.getUsername())
+                    .id(UuidUtils.timeOrdered())
+                    .username(username)
                     .game(game)
                     .x(0)
                     .y(0)
@@ -182,14 +340,17 @@ public class GameService {
                     .currentPosition(0)
                     .color("red")
                     .properties(new HashSet<>())
-                    .user(user)
+                    .user(userRepository.getReferenceById(userId))
                     .build();
 
             game.addPlayer(player);
             game.setCurrentPlayerId(player.getId());
+            moneyLedgerService.record(null, player, player.getMoney(), LedgerReason.STARTING_MONEY);
             gameRepository.save(game);
+            gameRepository.addParticipant(game.getId(), player.getUsername());
 
-            propertyService.initializeProperties(game);
+            List<Property> properties = propertyService.initializeProperties(game);
+            gameSnapshotService.rebuild(game, properties);
 
             List<PlayerDTO> playerDTOs = playerRepository.findByGameId(game.getId()).stream()
                     .map(convertor::convertToPlayerDTO)
@@ -199,7 +360,8 @@ public class GameService {
                     "gameId", game.getId(),
                     "gameName", game.getName(),
                     "players", playerDTOs,
-                    "currentPlayerId", game.getCurrentPlayerId()
+                    "currentPlayerId", game.getCurrentPlayerId(),
+                    "auctionMode", game.getAuctionMode()
             );
             messagingTemplate.convertAndSend("/topic/game-created/" + game.getId(), response);
 
@@ -221,11 +383,11 @@ public class GameService {
      */
     //TODO Now game set to null, but it doesn't delete player from db
     @Transactional
-    public Game leaveGame(String gameId, Map<String, String> message) {
+    public Game leaveGame(UUID gameId, Map<String, String> message) {
         String username = message.get("username");
         System.out.println(username);
 
-        User user = userRepository.findByEmail(username)
+        AuthUser user = userService.findAuthUser(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + username));
         Player player = playerRepository.findByUsernameAndGameId(user.getUsername(), gameId)
                 .orElseThrow(() -> new PlayerNotFoundException("Player not found in this game"));
@@ -243,11 +405,9 @@ public class GameService {
         }
 
         System.out.println(player.getGame());
+        // The player row is deleted as an orphan of the game; looking it up again by username would miss it
+        // once the removal is flushed, and would match the user's players in other games
         gameRepository.save(game);
-        playerRepository.save(player);
-        Player deletePlayer = playerRepository.findByUsername(user.getUsername()).orElseThrow(() -> new RuntimeException("Player not found"));
-        playerRepository.delete(deletePlayer);
-//        playerRepository.deleteByUsername(user.getUsername());
 
 
         System.out.println("After deleting");
@@ -255,13 +415,17 @@ public class GameService {
         if (game.getPlayers().isEmpty()) {
             System.out.println("Empty");
             gameRepository.delete(game);
+            gameSnapshotService.evict(gameId);
             Map<String, String> response = Map.of(
-                    "gameId", gameId,
+                    "gameId", gameId.toString(),
                     "end","end"
             );
             messagingTemplate.convertAndSend("/topic/game-removed", response);
         } else {
             System.out.println("Not empty");
+            // A started game left with a single player is over; the archive sweeper moves it out later
+            game.markFinishedIfDecided();
+            gameSnapshotService.update(gameId).removePlayer(player).turn(game).write();
             List<PlayerDTO> playerDTOs = game.getPlayers().stream()
                     .map(convertor::convertToPlayerDTO)
                     .collect(Collectors.toList());
@@ -291,7 +455,7 @@ public class GameService {
      * @throws RuntimeException if an error occurs during the join process
      */
     @Transactional
-    public Game joinGame(String gameId, Map<String, String> message) {
+    public Game joinGame(UUID gameId, Map<String, String> message) {
         try {
             String username = message.get("username");
             String gameName = message.get("gameName");
@@ -300,7 +464,7 @@ public class GameService {
                 throw new RuntimeException("Username or Game Name is missing");
             }
 
-            User user = userRepository.findByEmail(username)
+            AuthUser user = userService.findAuthUser(username)
                     .orElseThrow(() -> new UserNotFoundException("User not found with email: " + username));
             Game game = gameRepository.findById(gameId)
                     .orElseThrow(() -> new GameNotFoundException("Game not found with id: " + gameId));
@@ -313,7 +477,7 @@ public class GameService {
             }
 
             Player player = Player.builder()
-                    .id(UUID.randomUUID().toString())
+                    .id(UuidUtils.timeOrdered())
                     .username(user.getUsername())
                     .game(game)
                     .x(0)
@@ -321,10 +485,11 @@ public class GameService {
                     .money(100000)
                     .currentPosition(0)
                     .color("blue")
-                    .user(user)
+                    .user(userRepository.getReferenceById(user.getId()))
                     .build();
 
             game.addPlayer(player);
+            moneyLedgerService.record(null, player, player.getMoney(), LedgerReason.STARTING_MONEY);
 
             boolean gameStarted = game.isGameStarted();
             if (game.getPlayers().size() >= game.getMaxPlayers() && !gameStarted) {
@@ -333,6 +498,8 @@ public class GameService {
             }
 
             gameRepository.save(game);
+            gameRepository.addParticipant(gameId, player.getUsername());
+            gameSnapshotService.update(gameId).player(player).turn(game).write();
 
             Map<String, Object> response = Map.of(
                     "gameId", game.getId(),
@@ -362,76 +529,94 @@ public class GameService {
     /**
      * Ends the current player's turn and switches to the next player in the game.
      *
-     * @param message a map containing the gameId and gameName
+     * @param message a map containing the gameId, the gameName and the username of the player ending the turn
+     * @throws GameNotFoundException if the game does not exist
+     * @throws InvalidActionException if the player ending the turn is not the current player
      */
     public void endTurn(Map<String, String> message) {
-        String gameId = message.get("gameId");
-        String gameName = message.get("gameName");
-
-        System.out.println("Game id: " + gameId);
-        System.out.println("Game name: " + gameName);
+        UUID gameId = UuidUtils.parse(message.get("gameId"));
+        String username = message.get("username");
 
         Game game = gameRepository.findById(gameId)
                 .orElseThrow(() -> new GameNotFoundException("Game not found with id: " + gameId));
 
         List<Player> players = game.getPlayers();
-        String currentPlayerId = game.getCurrentPlayerId();
-        System.out.println("Current player id: " + currentPlayerId);
+        UUID currentPlayerId = game.getCurrentPlayerId();
         int currentIndex = players.stream().map(Player::getId).toList().indexOf(currentPlayerId);
-        System.out.println("current index: " + currentIndex);
+        if (currentIndex == -1 || !players.get(currentIndex).getUsername().equals(username)) {
+            throw new InvalidActionException("Only the current player can end the turn");
+        }
 
-        if (currentIndex != -1) {
-            int nextIndex = (currentIndex + 1) % players.size();
-            System.out.println("Next index: " + nextIndex);
-            game.setCurrentPlayerId(players.get(nextIndex).getId());
-            System.out.println("Game current player id: " + game.getCurrentPlayerId());
-            gameRepository.save(game);
+        int nextIndex = (currentIndex + 1) % players.size();
+        game.setCurrentPlayerId(players.get(nextIndex).getId());
+        gameRepository.save(game);
+        gameSnapshotService.update(gameId).turn(game).write();
 
-            List<PlayerDTO> playerDTOs = players.stream()
-                    .map(convertor::convertToPlayerDTO)
-                    .toList();
+        List<PlayerDTO> playerDTOs = players.stream()
+                .map(convertor::convertToPlayerDTO)
+                .toList();
 
-            List<Player> playerss = playerRepository.findByGameId(gameId);
-            for (Player p : players) {
-                p.getProperties().size();
-            }
+        List<Player> playerss = playerRepository.findByGameId(gameId);
+        for (Player p : players) {
+            p.getProperties().size();
+        }
 
-            Map<String, Object> response = Map.of(
-                    "gameId", game.getId(),
-                    "gameName", game.getName(),
-                    "players", playerss,
-                    "currentPlayerId", game.getCurrentPlayerId()
-            );
+        Map<String, Object> response = Map.of(
+                "gameId", game.getId(),
+                "gameName", game.getName(),
+                "players", playerss,
+                "currentPlayerId", game.getCurrentPlayerId()
+        );
 
-            messagingTemplate.convertAndSend("/topic/game/" + game.getId(), response);
-        }
+        messagingTemplate.convertAndSend("/topic/game/" + game.getId(), response);
     }
 
     /**
-     * Retrieves a list of all active games in the system.
+     * Retrieves one page of the lobby: games that have not started yet, oldest first, keyed by
+     * creation time and ID.
      *
-     * @return a list of maps containing game details (id and name)
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param size the requested page size, or {@code null} for the configured default
+     * @return the page of games that have not started
+     * @throws InvalidActionException if the cursor is malformed
      */
-    public List<Map<String, String>> getGames() {
-        List<Game> games = gameRepository.findAll();
-        if (games.isEmpty()) {
-            return Collections.emptyList();
+    @Transactional(readOnly = true)
+    public CursorPage<Game> findWaitingGames(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        List<Game> rows;
+        if (cursor == null) {
+            rows = gameRepository.findWaiting(Limit.of(pageSize + 1));
+        } else {
+            String[] key = KeysetCursor.decode(cursor, 2);
+            rows = gameRepository.findWaitingAfter(parseCursorTime(key[0]), UuidUtils.parse(key[1]), Limit.of(pageSize + 1));
         }
-        return games.stream()
-                .map(game -> Map.of("id", game.getId(), "name", game.getName()))
-                .collect(Collectors.toList());
+        return KeysetCursor.page(rows, pageSize,
+                game -> KeysetCursor.encode(game.getCreatedTime().toString(), game.getId().toString()));
     }
 
     /**
-     * Retrieves all available games that have not yet started.
+     * Retrieves one page of all games, started or not, ordered by ID.
      *
-     * @return a list of games that have not started
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param size the requested page size, or {@code null} for the configured default
+     * @return the page of games
+     * @throws InvalidActionException if the cursor is malformed
      */
-    public List<Game> findAllGames() {
-        return gameRepository.findAll()
-                .stream()
-                .filter(game -> !game.isGameStarted())
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<Game> findGamesPage(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        // The nil UUID sorts before every other key
+        UUID afterId = cursor == null ? new UUID(0, 0) : UuidUtils.parse(KeysetCursor.decode(cursor, 1)[0]);
+        List<Game> rows = gameRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return KeysetCursor.page(rows, pageSize, game -> KeysetCursor.encode(game.getId().toString()));
+    }
+
+    private static LocalDateTime parseCursorTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidActionException("Invalid page cursor");
+        }
     }
 
     /**
@@ -441,7 +626,9 @@ public class GameService {
      * @param propertyName the name of the property
      * @return an {@link Optional} containing the owner as a {@link PlayerDTO}, or empty if no owner found
      */
-    public Optional<PlayerDTO> getPropertyOwner(String gameId, String propertyName) {
+    // Not read-only on purpose: gameplay decisions are made from this, so it must not see a lagging replica
+    @Transactional
+    public Optional<PlayerDTO> getPropertyOwner(UUID gameId, String propertyName) {
         Game game = gameRepository.findById(gameId).orElseThrow(() -> new RuntimeException("Game not found"));
         Optional<Property> property = propertyService.findByGameIdAndPropertyName(gameId, propertyName);
 
@@ -457,21 +644,50 @@ public class GameService {
      * Deletes a game and all its associated players and properties by game ID.
      *
      * @param gameId the ID of the game to delete
+     * @throws GameNotFoundException if the game is not found
      */
     @Transactional
-    public void deleteGameById(String gameId) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new GameNotFoundException("Game not found with id: " + gameId));
-
-        for(Player player : game.getPlayers()) {
-            playerRepository.delete(player);
+    public void deleteGameById(UUID gameId) {
+        if (!gameRepository.existsById(gameId)) {
+            throw new GameNotFoundException("Game not found with id: " + gameId);
         }
+        deleteGamesByIds(List.of(gameId));
+    }
 
-        for(Property property : game.getProperties()) {
-            propertyService.delete(property);
+    /**
+     * Deletes the given games with one set-based statement per table instead of loading and deleting
+     * every player and property row by row. The Redis snapshot and client state of each game are removed
+     * after commit.
+     *
+     * @param gameIds the IDs of the games to delete
+     * @return the number of games deleted
+     */
+    @Transactional
+    public int deleteGamesByIds(Collection<UUID> gameIds) {
+        if (gameIds.isEmpty()) {
+            return 0;
         }
-
-        gameRepository.delete(game);
+        // Children first: properties reference players, players and observers reference games
+        playerRepository.deleteOfficesByGameIdIn(gameIds);
+        gameRepository.deleteObserversByGameIdIn(gameIds);
+        gameRepository.deleteParticipantsByGameIdIn(gameIds);
+        propertyService.deleteAllByGameIds(gameIds);
+        playerRepository.deleteByGameIdIn(gameIds);
+        int deleted = gameRepository.deleteByIdIn(gameIds);
+
+        List<String> stateKeys = new ArrayList<>();
+        for (UUID gameId : gameIds) {
+            gameSnapshotService.evict(gameId);
+            stateKeys.add(PREFIX + gameId);
+            stateKeys.add(LEGACY_PREFIX + gameId);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stringRedisTemplate.delete(stateKeys);
+            }
+        });
+        return deleted;
     }
 
     /**
@@ -481,7 +697,7 @@ public class GameService {
      * @param userId the ID of the user who wants to observe
      */
     @Transactional
-    public void addObserverToGame(String gameId, Long userId) {
+    public void addObserverToGame(UUID gameId, Long userId) {
         Game game = gameRepository.findById(gameId)
                 .orElseThrow(() -> new GameNotFoundException("Game not found with id: " + gameId));
 
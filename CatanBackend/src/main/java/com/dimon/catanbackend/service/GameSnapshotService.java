@@ -0,0 +1,427 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.dtos.snapshot.GameSnapshot;
+import com.dimon.catanbackend.dtos.snapshot.PlayerSnapshot;
+import com.dimon.catanbackend.dtos.snapshot.TileSnapshot;
+import com.dimon.catanbackend.dtos.snapshot.TurnSnapshot;
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.exceptions.GameNotFoundException;
+import com.dimon.catanbackend.repositories.GameRepository;
+import com.dimon.catanbackend.repositories.PropertyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Service class responsible for keeping a field-level snapshot of every game in a Redis hash, so that a
+ * command which changes a single player's money rewrites only that player's field instead of the whole game.
+ *
+ * Hash layout ({@code game:{gameId}}):
+ * - {@code player:{playerId}}: JSON {@link PlayerSnapshot} of one player.
+ * - {@code tile:{position}}: JSON {@link TileSnapshot} holding ownership, offices and mortgage state of one board tile.
+ * - {@code turn}: JSON {@link TurnSnapshot} with the current player, turn order and lobby metadata.
+ * - {@code version}: counter incremented on every write.
+ * - {@code built}: completeness marker, written only when every field is written from the entities.
+ *
+ * Writes are collected with {@link #update(UUID)} and flushed by one Lua script doing the HSET, HDEL and
+ * HINCRBY atomically, so a reader never sees new fields with the old version, or a complete rewrite with
+ * players it is about to drop. Inside a transaction the flush is deferred until after commit, so Redis never
+ * shows state that was rolled back.
+ *
+ * A partial update that reaches Redis after the hash was lost (eviction, restart, {@code FLUSHALL}) recreates
+ * the key with only the fields it changed. Such a hash has no {@code built} marker, so readers treat it as
+ * missing and rebuild it from the database instead of serving the partial state.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ * - {@link Autowired} to inject dependencies.
+ *
+ * Methods:
+ * - {@code update}: Starts a batch of field writes for a game.
+ * - {@code getSnapshot}: Reads the full snapshot with HGETALL, rebuilding it from the database if it is missing.
+ * - {@code findPlayers}: Reads selected players with HMGET.
+ * - {@code findTiles}: Reads selected tiles with HMGET.
+ * - {@code rebuild}: Writes every field of a game from its entities.
+ * - {@code exists}: Checks whether a snapshot is present.
+ * - {@code findMissing}: Checks which of several games have no snapshot, in one pipelined round-trip.
+ * - {@code evict}: Removes the snapshot of a deleted game.
+ * - {@code committedVersion}: Returns the version written for a game by the transaction that just committed.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * gameSnapshotService.update(gameId).player(player).tile(property).write();
+ * List<PlayerSnapshot> players = gameSnapshotService.findPlayers(gameId, List.of(playerId));
+ * }
+ * </pre>
+ *
+ * @see GameSnapshot
+ * @see PlayerSnapshot
+ * @see TileSnapshot
+ * @see TurnSnapshot
+ * @see StringRedisTemplate
+ *
+ */
+@Service
+public class GameSnapshotService {
+
+    private static final String PREFIX = "game:";
+    private static final String PLAYER_FIELD = "player:";
+    private static final String TILE_FIELD = "tile:";
+    private static final String TURN_FIELD = "turn";
+    private static final String VERSION_FIELD = "version";
+    private static final String BUILT_FIELD = "built";
+
+    /**
+     * Order of the after-commit callbacks writing snapshots. They run before callbacks with the default
+     * order, which can then read the written versions through {@link #committedVersion(UUID)}.
+     */
+    public static final int SYNCHRONIZATION_ORDER = 0;
+
+    // Transaction resource holding the versions written after commit, by game
+    private static final Object WRITTEN_VERSIONS = new Object();
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private PropertyRepository propertyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RedisScript<Long> gameSnapshotWriteScript;
+
+    /**
+     * Starts a batch of field writes for the given game.
+     *
+     * @param gameId the ID of the game
+     * @return a {@link SnapshotUpdate} collecting the changed fields
+     */
+    public SnapshotUpdate update(UUID gameId) {
+        return new SnapshotUpdate(gameId);
+    }
+
+    /**
+     * Reads the full snapshot of a game. If the game has no complete snapshot (for example after a Redis
+     * restart), it is rebuilt from the database first.
+     *
+     * @param gameId the ID of the game
+     * @return the current {@link GameSnapshot}
+     * @throws GameNotFoundException if the game does not exist
+     */
+    public GameSnapshot getSnapshot(UUID gameId) {
+        Map<Object, Object> fields = stringRedisTemplate.opsForHash().entries(key(gameId));
+        if (!fields.containsKey(BUILT_FIELD)) {
+            repair(gameId);
+            fields = stringRedisTemplate.opsForHash().entries(key(gameId));
+        }
+        return toSnapshot(gameId, fields);
+    }
+
+    /**
+     * Reads the snapshots of the given players only.
+     *
+     * @param gameId the ID of the game
+     * @param playerIds the IDs of the players to read
+     * @return the snapshots found, in request order; players without a snapshot are skipped
+     * @throws GameNotFoundException if the snapshot is incomplete and the game does not exist
+     */
+    public List<PlayerSnapshot> findPlayers(UUID gameId, Collection<UUID> playerIds) {
+        List<Object> fields = playerIds.stream().map(id -> (Object) (PLAYER_FIELD + id)).toList();
+        return readFields(gameId, fields, PlayerSnapshot.class);
+    }
+
+    /**
+     * Reads the snapshots of the tiles at the given board positions only.
+     *
+     * @param gameId the ID of the game
+     * @param positions the board positions to read
+     * @return the snapshots found, in request order; positions without a snapshot are skipped
+     * @throws GameNotFoundException if the snapshot is incomplete and the game does not exist
+     */
+    public List<TileSnapshot> findTiles(UUID gameId, Collection<Integer> positions) {
+        List<Object> fields = positions.stream().map(position -> (Object) (TILE_FIELD + position)).toList();
+        return readFields(gameId, fields, TileSnapshot.class);
+    }
+
+    /**
+     * Writes every field of a game from its entities: all players, all tiles and the turn metadata.
+     *
+     * @param game the game, with its players loaded
+     * @param properties all properties of the game
+     */
+    public void rebuild(Game game, Collection<Property> properties) {
+        collect(game, properties).write();
+    }
+
+    /**
+     * Checks whether a complete snapshot exists for the given game. A hash recreated by a partial update
+     * does not count.
+     *
+     * @param gameId the ID of the game
+     * @return {@code true} if the snapshot exists and is complete
+     */
+    public boolean exists(UUID gameId) {
+        return stringRedisTemplate.opsForHash().hasKey(key(gameId), BUILT_FIELD);
+    }
+
+    /**
+     * Finds the games without a complete snapshot, checking all of them in one pipelined round-trip.
+     *
+     * @param gameIds the IDs of the games
+     * @return the IDs of the games whose snapshot is missing or partial, in the given order
+     */
+    public List<UUID> findMissing(List<UUID> gameIds) {
+        List<Object> present = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            gameIds.forEach(gameId -> redis.hExists(key(gameId), BUILT_FIELD));
+            return null;
+        });
+        List<UUID> missing = new ArrayList<>();
+        for (int i = 0; i < gameIds.size(); i++) {
+            if (!Boolean.TRUE.equals(present.get(i))) {
+                missing.add(gameIds.get(i));
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Removes the snapshot of a game, deferred until after commit when called inside a transaction.
+     *
+     * @param gameId the ID of the game
+     */
+    public void evict(UUID gameId) {
+        afterCommit(() -> stringRedisTemplate.delete(key(gameId)));
+    }
+
+    /**
+     * Returns the snapshot version written for a game by the transaction that is completing. Only
+     * meaningful in an after-commit callback ordered after {@link #SYNCHRONIZATION_ORDER}.
+     *
+     * @param gameId the ID of the game
+     * @return the written version, or {@code null} if the transaction wrote no snapshot of the game
+     */
+    public Long committedVersion(UUID gameId) {
+        @SuppressWarnings("unchecked")
+        Map<UUID, Long> versions = (Map<UUID, Long>) TransactionSynchronizationManager.getResource(WRITTEN_VERSIONS);
+        return versions != null ? versions.get(gameId) : null;
+    }
+
+    private SnapshotUpdate collect(Game game, Collection<Property> properties) {
+        SnapshotUpdate update = update(game.getId()).turn(game).players(game.getPlayers()).tiles(properties);
+        update.complete = true;
+        return update;
+    }
+
+    // Repairing a snapshot is not tied to the caller's transaction, so it is written right away. The game is
+    // read in a read-write transaction, which keeps it on the primary when a read replica is configured.
+    private void repair(UUID gameId) {
+        SnapshotUpdate update = new TransactionTemplate(transactionManager).execute(status -> {
+            Game game = gameRepository.findById(gameId)
+                    .orElseThrow(() -> new GameNotFoundException("Game not found with id: " + gameId));
+            return collect(game, propertyRepository.findByGameId(gameId));
+        });
+        update.flush();
+    }
+
+    private <T> List<T> readFields(UUID gameId, List<Object> fields, Class<T> type) {
+        if (fields.isEmpty()) {
+            return List.of();
+        }
+        // The marker is read in the same HMGET, so a complete snapshot still costs one round-trip
+        List<Object> withMarker = new ArrayList<>(fields);
+        withMarker.add(BUILT_FIELD);
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(key(gameId), withMarker);
+        if (values.get(fields.size()) == null) {
+            repair(gameId);
+            values = stringRedisTemplate.opsForHash().multiGet(key(gameId), withMarker);
+        }
+
+        List<T> result = new ArrayList<>();
+        for (Object value : values.subList(0, fields.size())) {
+            if (value != null) {
+                result.add(read((String) value, type));
+            }
+        }
+        return result;
+    }
+
+    private GameSnapshot toSnapshot(UUID gameId, Map<Object, Object> fields) {
+        Map<UUID, PlayerSnapshot> players = new LinkedHashMap<>();
+        Map<Integer, TileSnapshot> tiles = new TreeMap<>();
+        TurnSnapshot turn = null;
+        long version = 0;
+
+        for (Map.Entry<Object, Object> entry : fields.entrySet()) {
+            String field = (String) entry.getKey();
+            String value = (String) entry.getValue();
+            if (field.startsWith(PLAYER_FIELD)) {
+                players.put(UUID.fromString(field.substring(PLAYER_FIELD.length())), read(value, PlayerSnapshot.class));
+            } else if (field.startsWith(TILE_FIELD)) {
+                tiles.put(Integer.parseInt(field.substring(TILE_FIELD.length())), read(value, TileSnapshot.class));
+            } else if (TURN_FIELD.equals(field)) {
+                turn = read(value, TurnSnapshot.class);
+            } else if (VERSION_FIELD.equals(field)) {
+                version = Long.parseLong(value);
+            }
+        }
+        return new GameSnapshot(gameId, version, turn, players, tiles);
+    }
+
+    private <T> T read(String value, Class<T> type) {
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupted game snapshot field", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize game snapshot field", e);
+        }
+    }
+
+    private static String key(UUID gameId) {
+        return PREFIX + gameId;
+    }
+
+    // Binds the map collecting written versions to the transaction, and unbinds it once the transaction is done
+    private static void trackWrittenVersions() {
+        if (TransactionSynchronizationManager.hasResource(WRITTEN_VERSIONS)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WRITTEN_VERSIONS, new HashMap<UUID, Long>());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITTEN_VERSIONS);
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+
+                @Override
+                public int getOrder() {
+                    return SYNCHRONIZATION_ORDER;
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * A batch of changed snapshot fields for one game. Field values are serialized when added, so later
+     * changes to the entities do not leak into the batch.
+     */
+    public class SnapshotUpdate {
+        private final UUID gameId;
+        private final Map<String, String> changed = new LinkedHashMap<>();
+        private final Set<String> removed = new LinkedHashSet<>();
+        // Set when the batch holds every field of the game, see collect
+        private boolean complete;
+
+        private SnapshotUpdate(UUID gameId) {
+            this.gameId = gameId;
+        }
+
+        public SnapshotUpdate player(Player player) {
+            changed.put(PLAYER_FIELD + player.getId(), toJson(new PlayerSnapshot(player)));
+            removed.remove(PLAYER_FIELD + player.getId());
+            return this;
+        }
+
+        public SnapshotUpdate players(Collection<Player> players) {
+            players.forEach(this::player);
+            return this;
+        }
+
+        public SnapshotUpdate removePlayer(Player player) {
+            changed.remove(PLAYER_FIELD + player.getId());
+            removed.add(PLAYER_FIELD + player.getId());
+            return this;
+        }
+
+        public SnapshotUpdate tile(Property property) {
+            changed.put(TILE_FIELD + property.getPosition(), toJson(new TileSnapshot(property)));
+            return this;
+        }
+
+        public SnapshotUpdate tiles(Collection<Property> properties) {
+            properties.forEach(this::tile);
+            return this;
+        }
+
+        public SnapshotUpdate turn(Game game) {
+            changed.put(TURN_FIELD, toJson(new TurnSnapshot(game)));
+            return this;
+        }
+
+        /**
+         * Writes the collected fields, after commit when a transaction is active.
+         */
+        public void write() {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                trackWrittenVersions();
+            }
+            afterCommit(this::flush);
+        }
+
+        private void flush() {
+            if (changed.isEmpty() && removed.isEmpty()) {
+                return;
+            }
+            if (complete) {
+                changed.put(BUILT_FIELD, "1");
+            }
+            List<String> args = new ArrayList<>();
+            // A complete rewrite also drops the players left over in a partial hash; the version is kept so
+            // clients still see it grow
+            args.add(complete ? "1" : "0");
+            args.add(String.valueOf(changed.size()));
+            changed.forEach((field, value) -> {
+                args.add(field);
+                args.add(value);
+            });
+            args.addAll(removed);
+            Long version = stringRedisTemplate.execute(gameSnapshotWriteScript, List.of(key(gameId)), args.toArray());
+            @SuppressWarnings("unchecked")
+            Map<UUID, Long> versions = (Map<UUID, Long>) TransactionSynchronizationManager.getResource(WRITTEN_VERSIONS);
+            if (versions != null && version != null) {
+                versions.put(gameId, version);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.utils.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Service class for the timers of running games, such as the end of an auction once nobody bids any more.
+ *
+ * All timers share one {@link HashedTimingWheel}, so scheduling and cancelling a timer is O(1) and a single
+ * ticker thread serves every game, however many timers are rescheduled per second. When a timer fires, its
+ * task is not run on the ticker thread but queued into the game's lane of the {@link GameCommandExecutor}, so
+ * it runs in order with, and never at the same time as, the other commands of the game in that lane.
+ *
+ * A cancelled timer can still run if it fired just before it was cancelled and its task is already queued.
+ * Tasks should therefore check that what they expire is still current, for example by comparing a round
+ * number captured when the timer was scheduled.
+ *
+ * Configuration properties:
+ * - {@code app.timers.tick}: Length of one tick of the wheel, which is also the precision of the timers.
+ * - {@code app.timers.wheel-size}: Number of buckets of the wheel.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ *
+ * Methods:
+ * - {@code schedule}: Runs a task of a game after a delay.
+ * - {@code pendingTimers}: Returns the number of timers that have neither fired nor been cancelled.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * HashedTimingWheel.Timeout timer = gameTimerService.schedule(gameId, Duration.ofSeconds(10), () -> endAuction(gameId));
+ * timer.cancel();
+ * }
+ * </pre>
+ *
+ * @see HashedTimingWheel
+ * @see GameCommandExecutor
+ *
+ */
+@Service
+public class GameTimerService {
+
+    @Autowired
+    private GameCommandExecutor gameCommandExecutor;
+
+    @Value("${app.timers.tick:PT0.1S}")
+    private Duration tick;
+
+    @Value("${app.timers.wheel-size:512}")
+    private int wheelSize;
+
+    private HashedTimingWheel wheel;
+
+    @PostConstruct
+    void start() {
+        wheel = new HashedTimingWheel("game-timers", tick, wheelSize);
+        wheel.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        wheel.stop();
+    }
+
+    /**
+     * Runs a task of a game after the given delay, in order with the other commands of the game.
+     *
+     * @param gameId the ID of the game
+     * @param delay how long to wait before running the task
+     * @param task the task to run
+     * @return the handle to cancel the timer with
+     */
+    public HashedTimingWheel.Timeout schedule(UUID gameId, Duration delay, Runnable task) {
+        return wheel.newTimeout(() -> gameCommandExecutor.execute(gameId, task), delay);
+    }
+
+    /**
+     * Returns the number of timers that are scheduled and have neither fired nor been cancelled.
+     *
+     * @return the number of pending timers
+     */
+    public long pendingTimers() {
+        return wheel.pendingTimeouts();
+    }
+}
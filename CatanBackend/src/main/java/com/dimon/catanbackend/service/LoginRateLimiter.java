@@ -0,0 +1,115 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Service class limiting how often logins and registrations may be attempted, before any password is hashed.
+ *
+ * Two limits apply, each counted in fixed windows in Redis so that every node shares them:
+ * - per client IP address, for logins and registrations together, against a single client trying many
+ *   accounts or creating many;
+ * - per account, for logins only, against many clients guessing the password of a single account.
+ *
+ * Every attempt counts, successful or not. An attempt over a limit is refused with a
+ * {@link TooManyRequestsException} carrying the time left in the window, which the client receives as 429 with a
+ * Retry-After header. The account limit is only counted once the IP limit let the attempt through, so a client
+ * over its own limit cannot lock other users out of their accounts.
+ *
+ * Metrics:
+ * - {@code auth.rate_limit.rejected}: Counter of the refused attempts, tagged with the {@code scope} of the
+ *   limit, {@code ip} or {@code account}.
+ *
+ * Configuration properties:
+ * - {@code app.auth.rate-limit.window}: Length of the windows the attempts are counted in.
+ * - {@code app.auth.rate-limit.per-ip}: Attempts allowed from one IP address in a window.
+ * - {@code app.auth.rate-limit.per-account}: Login attempts allowed for one account in a window.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ *
+ * Methods:
+ * - {@code checkLogin}: Counts a login attempt against the limits of its IP address and account.
+ * - {@code checkRegistration}: Counts a registration attempt against the limit of its IP address.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * loginRateLimiter.checkLogin(request.getRemoteAddr(), authRequest.getEmail());
+ * }
+ * </pre>
+ *
+ * Exception handling:
+ * - Throws {@link TooManyRequestsException} when the attempt is over a limit.
+ *
+ * @see PasswordHashingExecutor
+ *
+ */
+@Service
+public class LoginRateLimiter {
+    static final String KEY_PREFIX = "ratelimit:auth:";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> rateLimitScript;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.auth.rate-limit.window:PT1M}")
+    private Duration window;
+
+    @Value("${app.auth.rate-limit.per-ip:30}")
+    private int perIp;
+
+    @Value("${app.auth.rate-limit.per-account:10}")
+    private int perAccount;
+
+    /**
+     * Counts a login attempt against the limits of its IP address and of the account it is for.
+     *
+     * @param ip the IP address of the client
+     * @param email the email of the account, or {@code null} if the request has none
+     * @throws TooManyRequestsException if either limit is exceeded
+     */
+    public void checkLogin(String ip, String email) {
+        check("ip", ip, perIp);
+        if (email != null && !email.isBlank()) {
+            check("account", email.trim().toLowerCase(Locale.ROOT), perAccount);
+        }
+    }
+
+    /**
+     * Counts a registration attempt against the limit of its IP address.
+     *
+     * @param ip the IP address of the client
+     * @throws TooManyRequestsException if the limit is exceeded
+     */
+    public void checkRegistration(String ip) {
+        check("ip", ip, perIp);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void check(String scope, String id, int limit) {
+        List<Long> result = stringRedisTemplate.execute(rateLimitScript,
+                List.of(KEY_PREFIX + scope + ":" + id), String.valueOf(window.toMillis()));
+        long count = result.get(0);
+        if (count > limit) {
+            meterRegistry.counter("auth.rate_limit.rejected", "scope", scope).increment();
+            throw new TooManyRequestsException("Too many attempts, please try again later",
+                    Duration.ofMillis(result.get(1)));
+        }
+    }
+}
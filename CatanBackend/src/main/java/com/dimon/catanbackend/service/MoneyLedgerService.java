@@ -0,0 +1,353 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.config.pagination.PaginationProperties;
+import com.dimon.catanbackend.dtos.CursorPage;
+import com.dimon.catanbackend.dtos.LedgerBalanceDto;
+import com.dimon.catanbackend.dtos.LedgerSummaryDto;
+import com.dimon.catanbackend.entities.LedgerEntry;
+import com.dimon.catanbackend.entities.LedgerReason;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.dimon.catanbackend.repositories.LedgerEntryRepository;
+import com.dimon.catanbackend.utils.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Service class keeping the append-only money ledger: one {@link LedgerEntry} for every amount moved between
+ * players or between a player and the bank, with the reason and the game snapshot version it produced.
+ *
+ * Entries are written in the transaction of the command that moved the money, so an entry exists if and only
+ * if the movement committed, even if the node dies right after. {@code record} collects the entries of the
+ * command and persists them just before it commits: sequence IDs are allocated in blocks and Hibernate sends
+ * the inserts of the command as one JDBC batch, instead of one insert before each money update.
+ *
+ * The snapshot version a command produced is only known once its snapshot is written after commit. The
+ * entries of the command are then stamped with it in one statement per game, the only update the ledger
+ * accepts. An entry whose stamp is lost keeps a {@code null} version; the movement itself is never lost.
+ *
+ * Balances are checkpointed from the ledger itself: a checkpoint adds the entries recorded since the previous
+ * one to the previous balances. Only entries recorded longer ago than {@code app.ledger.checkpoint-lag} are
+ * covered, so the entries of a command that is still committing are never skipped.
+ *
+ * Configuration properties:
+ * - {@code app.ledger.checkpoint-interval}: Delay between balance checkpoints.
+ * - {@code app.ledger.checkpoint-lag}: Age an entry must have before a checkpoint covers it.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ * - {@link Scheduled} for the checkpoint runs.
+ * - {@link Transactional} with {@code readOnly = true} on the query methods, which tolerate replica lag.
+ *
+ * Methods:
+ * - {@code record}: Records a money movement in the transaction of the current command.
+ * - {@code checkpoint}: Writes the balance checkpoints.
+ * - {@code findGameEntries}: Returns one page of the entries of a game.
+ * - {@code summarizeGame}: Returns the money paid and received per player and reason in a game.
+ * - {@code summarizeUser}: Returns the money paid and received per reason by a user over all games.
+ * - {@code getGameBalances}: Returns the balances of the players of a game according to the ledger.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * moneyLedgerService.record(player, owner, rent, LedgerReason.RENT);
+ * List<LedgerSummaryDto> economics = moneyLedgerService.summarizeGame(gameId);
+ * }
+ * </pre>
+ *
+ * @see LedgerEntry
+ * @see MoneyTransferService
+ *
+ */
+@Service
+public class MoneyLedgerService {
+    private static final Logger logger = LoggerFactory.getLogger(MoneyLedgerService.class);
+
+    private static final String CHECKPOINT_SQL = """
+            with moves as (
+                select game_id, to_player_id as player_id, to_username as username, amount::bigint as amount
+                from money_ledger
+                where to_player_id is not null and recorded_at >= ? and recorded_at < ?
+                union all
+                select game_id, from_player_id, from_username, -amount::bigint
+                from money_ledger
+                where from_player_id is not null and recorded_at >= ? and recorded_at < ?
+            ), delta as (
+                select game_id, player_id, max(username) as username, sum(amount) as amount
+                from moves group by game_id, player_id
+            ), previous as (
+                select distinct on (c.game_id, c.player_id) c.game_id, c.player_id, c.balance
+                from balance_checkpoint c join delta d on d.game_id = c.game_id and d.player_id = c.player_id
+                order by c.game_id, c.player_id, c.covered_until desc
+            )
+            insert into balance_checkpoint (game_id, player_id, username, covered_until, balance)
+            select d.game_id, d.player_id, d.username, ?, coalesce(p.balance, 0) + d.amount
+            from delta d left join previous p on p.game_id = d.game_id and p.player_id = d.player_id
+            """;
+
+    private static final String BALANCES_SQL = """
+            with latest as (
+                select distinct on (player_id) player_id, username, balance, covered_until
+                from balance_checkpoint where game_id = ?
+                order by player_id, covered_until desc
+            ), moves as (
+                select to_player_id as player_id, to_username as username, amount::bigint as amount, recorded_at
+                from money_ledger where game_id = ? and to_player_id is not null
+                union all
+                select from_player_id, from_username, -amount::bigint, recorded_at
+                from money_ledger where game_id = ? and from_player_id is not null
+            ), since as (
+                select m.player_id, max(m.username) as username, sum(m.amount) as amount
+                from moves m left join latest l on l.player_id = m.player_id
+                where l.covered_until is null or m.recorded_at >= l.covered_until
+                group by m.player_id
+            )
+            select coalesce(l.player_id, s.player_id) as player_id, coalesce(l.username, s.username) as username,
+                   coalesce(l.balance, 0) + coalesce(s.amount, 0) as balance
+            from latest l full join since s on s.player_id = l.player_id
+            order by username
+            """;
+
+    private static final String STAMP_VERSION_SQL =
+            "update money_ledger set game_version = ? where id = any(?) and game_version is null";
+
+    // Transaction resource holding the entries recorded by the current command
+    private static final Object PENDING_ENTRIES = new Object();
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private GameSnapshotService gameSnapshotService;
+
+    @Autowired
+    private PaginationProperties paginationProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.ledger.checkpoint-lag:PT1M}")
+    private Duration checkpointLag;
+
+    /**
+     * Records a money movement. Inside a transaction the entry is inserted when the transaction commits, so
+     * movements of a rolled back command are never recorded.
+     *
+     * @param from the paying player, or {@code null} for the bank
+     * @param to the receiving player, or {@code null} for the bank
+     * @param amount the amount moved
+     * @param reason why the money moved
+     */
+    public void record(Player from, Player to, int amount, LedgerReason reason) {
+        if (amount == 0) {
+            return;
+        }
+        Player anyPlayer = from != null ? from : to;
+        LedgerEntry entry = LedgerEntry.builder()
+                .gameId(anyPlayer.getGame().getId())
+                .fromPlayerId(from != null ? from.getId() : null)
+                .fromUsername(from != null ? from.getUsername() : null)
+                .toPlayerId(to != null ? to.getId() : null)
+                .toUsername(to != null ? to.getUsername() : null)
+                .amount(amount)
+                .reason(reason)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            pendingEntries().add(entry);
+        } else {
+            ledgerEntryRepository.save(entry);
+        }
+    }
+
+    /**
+     * Writes balance checkpoints covering the entries recorded more than {@code app.ledger.checkpoint-lag} ago.
+     */
+    @Scheduled(fixedDelayString = "${app.ledger.checkpoint-interval:PT5M}", initialDelayString = "${app.ledger.checkpoint-interval:PT5M}")
+    public void checkpoint() {
+        try {
+            int players = checkpoint(LocalDateTime.now().minus(checkpointLag));
+            if (players > 0) {
+                logger.info("Checkpointed the ledger balances of {} players", players);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Ledger checkpoint failed", e);
+        }
+    }
+
+    /**
+     * Writes balance checkpoints for every player with entries recorded between the previous checkpoint
+     * and the given time.
+     *
+     * @param until the end of the covered range, exclusive
+     * @return the number of players checkpointed
+     */
+    @Transactional
+    public int checkpoint(LocalDateTime until) {
+        Timestamp from = jdbcTemplate.queryForObject("select max(covered_until) from balance_checkpoint", Timestamp.class);
+        Timestamp to = Timestamp.valueOf(until);
+        if (from == null) {
+            from = new Timestamp(0);
+        } else if (!from.before(to)) {
+            return 0;
+        }
+        return jdbcTemplate.update(CHECKPOINT_SQL, from, to, from, to, to);
+    }
+
+    /**
+     * Returns one page of the entries of a game in the order they were recorded.
+     *
+     * @param gameId the ID of the game
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param size the requested page size, or {@code null} for the configured default
+     * @return the page of entries
+     * @throws InvalidActionException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<LedgerEntry> findGameEntries(UUID gameId, String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        long afterId = 0;
+        if (cursor != null) {
+            try {
+                afterId = Long.parseLong(KeysetCursor.decode(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new InvalidActionException("Invalid page cursor");
+            }
+        }
+        List<LedgerEntry> rows = ledgerEntryRepository.findByGameIdAndIdGreaterThanOrderByIdAsc(gameId, afterId, Limit.of(pageSize + 1));
+        return KeysetCursor.page(rows, pageSize, entry -> KeysetCursor.encode(entry.getId().toString()));
+    }
+
+    /**
+     * Returns the money each player of a game paid and received, per reason.
+     *
+     * @param gameId the ID of the game
+     * @return one row per player and reason
+     */
+    @Transactional(readOnly = true)
+    public List<LedgerSummaryDto> summarizeGame(UUID gameId) {
+        return summarize(ledgerEntryRepository.sumPaidByGame(gameId), ledgerEntryRepository.sumReceivedByGame(gameId));
+    }
+
+    /**
+     * Returns the money a user paid and received over all their games, per reason.
+     *
+     * @param username the username of the user
+     * @return one row per reason
+     */
+    @Transactional(readOnly = true)
+    public List<LedgerSummaryDto> summarizeUser(String username) {
+        return summarize(ledgerEntryRepository.sumPaidByUser(username), ledgerEntryRepository.sumReceivedByUser(username));
+    }
+
+    /**
+     * Returns the balance of every player of a game according to the ledger: the latest checkpoint plus the
+     * entries recorded since.
+     *
+     * @param gameId the ID of the game
+     * @return the balances, by username
+     */
+    @Transactional(readOnly = true)
+    public List<LedgerBalanceDto> getGameBalances(UUID gameId) {
+        return jdbcTemplate.query(BALANCES_SQL,
+                (row, index) -> new LedgerBalanceDto(row.getObject("player_id", UUID.class), row.getString("username"), row.getLong("balance")),
+                gameId, gameId, gameId);
+    }
+
+    private List<LedgerEntry> pendingEntries() {
+        @SuppressWarnings("unchecked")
+        List<LedgerEntry> pending = (List<LedgerEntry>) TransactionSynchronizationManager.getResource(PENDING_ENTRIES);
+        if (pending != null) {
+            return pending;
+        }
+        List<LedgerEntry> entries = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(PENDING_ENTRIES, entries);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Still inside the transaction, whose commit flushes the entries as one batch
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                ledgerEntryRepository.saveAll(entries);
+            }
+
+            @Override
+            public void afterCommit() {
+                stampVersions(entries);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_ENTRIES);
+            }
+
+            // After the snapshot writes, so that their versions are known
+            @Override
+            public int getOrder() {
+                return Ordered.LOWEST_PRECEDENCE;
+            }
+        });
+        return entries;
+    }
+
+    // The entries are committed already, so a failure here only loses the version, which is logged
+    private void stampVersions(List<LedgerEntry> entries) {
+        Map<UUID, List<Long>> idsByGame = new LinkedHashMap<>();
+        for (LedgerEntry entry : entries) {
+            idsByGame.computeIfAbsent(entry.getGameId(), gameId -> new ArrayList<>()).add(entry.getId());
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        idsByGame.forEach((gameId, ids) -> {
+            Long version = gameSnapshotService.committedVersion(gameId);
+            if (version == null) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(STAMP_VERSION_SQL,
+                        version, ids.toArray(new Long[0])));
+            } catch (RuntimeException e) {
+                logger.error("Stamping {} ledger entries of game {} with version {} failed", ids.size(), gameId, version, e);
+            }
+        });
+    }
+
+    private static List<LedgerSummaryDto> summarize(List<Object[]> paid, List<Object[]> received) {
+        Map<List<Object>, LedgerSummaryDto> rows = new LinkedHashMap<>();
+        for (Object[] row : paid) {
+            LedgerSummaryDto summary = rows.computeIfAbsent(List.of(row[0], row[1]),
+                    key -> new LedgerSummaryDto((String) row[0], (LedgerReason) row[1], 0, 0, 0));
+            summary.setPaid(((Number) row[2]).longValue());
+            summary.setTransfers(summary.getTransfers() + ((Number) row[3]).longValue());
+        }
+        for (Object[] row : received) {
+            LedgerSummaryDto summary = rows.computeIfAbsent(List.of(row[0], row[1]),
+                    key -> new LedgerSummaryDto((String) row[0], (LedgerReason) row[1], 0, 0, 0));
+            summary.setReceived(((Number) row[2]).longValue());
+            summary.setTransfers(summary.getTransfers() + ((Number) row[3]).longValue());
+        }
+        List<LedgerSummaryDto> result = new ArrayList<>(rows.values());
+        result.sort(Comparator.comparing(LedgerSummaryDto::getUsername).thenComparing(LedgerSummaryDto::getReason));
+        return result;
+    }
+}
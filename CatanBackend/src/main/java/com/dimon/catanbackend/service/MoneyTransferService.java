@@ -0,0 +1,184 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.dtos.PlayerBalance;
+import com.dimon.catanbackend.entities.LedgerReason;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.exceptions.InsufficientFundsException;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.dimon.catanbackend.repositories.PlayerRepository;
+import jakarta.persistence.Tuple;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service class moving money between players, and between players and the bank. It is the only place that
+ * writes {@code player.money}: the column is not updatable through the entity, so a player loaded earlier in a
+ * command can never write back a stale balance over a concurrent transfer.
+ *
+ * Every change is a single guarded {@code UPDATE ... RETURNING} statement. A transfer debits and credits both
+ * rows at once, and the debited row only matches while {@code money >= amount}, so the balance check is done by
+ * the database on the current row rather than on a value read earlier. No row is locked before the update
+ * itself, and the lock is held only for the rest of the calling transaction.
+ *
+ * The statement returns the new balances, which are copied into the given {@link Player} entities, so
+ * snapshots and messages built from them afterwards show the new amounts without another query.
+ *
+ * Every successful movement is recorded in the money ledger with its {@link LedgerReason}. Recording does not
+ * add a statement to the command; the ledger is written in batches after commit.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ * - {@link Transactional} so that a failed transfer rolls back the rest of the calling command.
+ *
+ * Methods:
+ * - {@code transfer}: Moves money from one player to another; fails if the payer cannot cover it.
+ * - {@code transferAllowingDebt}: Moves money from one player to another even if the payer goes below zero.
+ * - {@code debit}: Takes money from a player to the bank; fails if the player cannot cover it.
+ * - {@code credit}: Pays money from the bank to a player.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * List<PlayerBalance> balances = moneyTransferService.transfer(buyer, seller, 1500, LedgerReason.CONTRACT);
+ * int newBalance = moneyTransferService.credit(player, 2000, LedgerReason.GO_SALARY);
+ * }
+ * </pre>
+ *
+ * Exception handling:
+ * - Throws {@link InsufficientFundsException} if the payer cannot cover a guarded transfer or debit.
+ * - Throws {@link InvalidActionException} for negative amounts or a transfer to the paying player.
+ *
+ * @see PlayerRepository
+ * @see PlayerBalance
+ * @see MoneyLedgerService
+ */
+@Service
+public class MoneyTransferService {
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private MoneyLedgerService moneyLedgerService;
+
+    /**
+     * Moves money from one player to another in one statement.
+     *
+     * @param from the paying player
+     * @param to the receiving player
+     * @param amount the amount to move
+     * @param reason why the money moves, for the ledger
+     * @return the new balances of both players
+     * @throws InsufficientFundsException if the paying player has less than the amount
+     */
+    @Transactional
+    public List<PlayerBalance> transfer(Player from, Player to, int amount, LedgerReason reason) {
+        checkTransfer(from, to, amount);
+        if (amount == 0) {
+            return apply(List.of(), from, to);
+        }
+        List<Tuple> rows = playerRepository.transferMoney(from.getId(), to.getId(), amount);
+        if (rows.size() != 2) {
+            // Usually no row matched. If a concurrent debit won the payer's row after the guard was evaluated,
+            // only the credit went through, and throwing rolls it back
+            throw new InsufficientFundsException("Player " + from.getUsername() + " cannot pay " + amount);
+        }
+        moneyLedgerService.record(from, to, amount, reason);
+        return apply(rows, from, to);
+    }
+
+    /**
+     * Moves money from one player to another in one statement, even if the paying player ends up below zero.
+     * Used for payments a player owes regardless of their balance, such as rent.
+     *
+     * @param from the paying player
+     * @param to the receiving player
+     * @param amount the amount to move
+     * @param reason why the money moves, for the ledger
+     * @return the new balances of both players
+     */
+    @Transactional
+    public List<PlayerBalance> transferAllowingDebt(Player from, Player to, int amount, LedgerReason reason) {
+        checkTransfer(from, to, amount);
+        if (amount == 0) {
+            return apply(List.of(), from, to);
+        }
+        List<Tuple> rows = playerRepository.transferMoneyAllowingDebt(from.getId(), to.getId(), amount);
+        moneyLedgerService.record(from, to, amount, reason);
+        return apply(rows, from, to);
+    }
+
+    /**
+     * Takes money from a player and pays it to the bank.
+     *
+     * @param player the paying player
+     * @param amount the amount to take
+     * @param reason why the money moves, for the ledger
+     * @return the new balance of the player
+     * @throws InsufficientFundsException if the player has less than the amount
+     */
+    @Transactional
+    public int debit(Player player, int amount, LedgerReason reason) {
+        checkAmount(amount);
+        if (amount == 0) {
+            return player.getMoney();
+        }
+        List<Tuple> rows = playerRepository.debitMoney(player.getId(), amount);
+        if (rows.isEmpty()) {
+            throw new InsufficientFundsException("Player " + player.getUsername() + " cannot pay " + amount);
+        }
+        moneyLedgerService.record(player, null, amount, reason);
+        return apply(rows, player).get(0).getMoney();
+    }
+
+    /**
+     * Pays money from the bank to a player.
+     *
+     * @param player the receiving player
+     * @param amount the amount to pay
+     * @param reason why the money moves, for the ledger
+     * @return the new balance of the player
+     */
+    @Transactional
+    public int credit(Player player, int amount, LedgerReason reason) {
+        checkAmount(amount);
+        if (amount == 0) {
+            return player.getMoney();
+        }
+        List<Tuple> rows = playerRepository.creditMoney(player.getId(), amount);
+        moneyLedgerService.record(null, player, amount, reason);
+        return apply(rows, player).get(0).getMoney();
+    }
+
+    private void checkTransfer(Player from, Player to, int amount) {
+        checkAmount(amount);
+        if (from.getId().equals(to.getId())) {
+            throw new InvalidActionException("A player cannot transfer money to themselves");
+        }
+    }
+
+    private void checkAmount(int amount) {
+        if (amount < 0) {
+            throw new InvalidActionException("Amount must not be negative: " + amount);
+        }
+    }
+
+    // Copies the balances returned by the update into the entities, in the order the players were given
+    private List<PlayerBalance> apply(List<Tuple> rows, Player... players) {
+        Map<UUID, Player> byId = Arrays.stream(players)
+                .collect(Collectors.toMap(Player::getId, player -> player));
+        for (Tuple row : rows) {
+            byId.get(row.get("id", UUID.class)).setMoney(row.get("money", Integer.class));
+        }
+        return Arrays.stream(players)
+                .map(player -> new PlayerBalance(player.getId(), player.getMoney()))
+                .toList();
+    }
+}
@@ -0,0 +1,176 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Service class running password hashing and verification on a small pool of its own.
+ *
+ * BCrypt is deliberately slow, so a burst of logins or registrations run on the request threads would take
+ * every CPU and every request thread of the node, starving the games. Here at most {@code threads} hashes run
+ * at once and at most {@code queue-capacity} wait for a thread. A hash that finds the queue full is refused
+ * right away with a {@link TooManyRequestsException}, which the client receives as 429 with a Retry-After
+ * header, instead of waiting in a queue it would time out in anyway.
+ *
+ * The request thread waits for its hash, but no longer than {@code timeout}; a hash that is still queued by then
+ * is cancelled and refused the same way.
+ *
+ * Metrics:
+ * - {@code auth.password.hash}: Timer of the hashes, tagged with the {@code operation}, {@code encode} or
+ *   {@code matches}.
+ * - {@code auth.password.wait}: Timer of the time hashes spent queued.
+ * - {@code auth.password.queue.depth}: Gauge of the hashes waiting for a thread.
+ * - {@code auth.password.active}: Gauge of the hashes running.
+ * - {@code auth.password.rejected}: Counter of the hashes refused because the pool was saturated.
+ *
+ * Configuration properties:
+ * - {@code app.auth.hashing.threads}: Number of hashes running at once.
+ * - {@code app.auth.hashing.queue-capacity}: Number of hashes waiting for a thread before new ones are refused.
+ * - {@code app.auth.hashing.timeout}: How long a request waits for its hash before it is refused.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ *
+ * Methods:
+ * - {@code call}: Runs a hash on the pool and returns its result to the calling thread.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * String hash = passwordHashingExecutor.call("encode", () -> bcrypt.encode(rawPassword));
+ * }
+ * </pre>
+ *
+ * Exception handling:
+ * - Throws {@link TooManyRequestsException} when the queue is full or the hash did not finish in time.
+ * - Rethrows the {@link RuntimeException} thrown by the hash on the calling thread.
+ *
+ * @see com.dimon.catanbackend.config.security.BoundedPasswordEncoder
+ *
+ */
+@Service
+public class PasswordHashingExecutor {
+    // Hashes take tens of milliseconds, so a saturated pool frees up quickly
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.auth.hashing.threads:2}")
+    private int threads;
+
+    @Value("${app.auth.hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${app.auth.hashing.timeout:PT5S}")
+    private Duration timeout;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer waitTimer;
+
+    private Counter rejected;
+
+    @PostConstruct
+    void createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        waitTimer = Timer.builder("auth.password.wait")
+                .description("Time password hashes spent waiting for a thread")
+                .register(meterRegistry);
+        rejected = Counter.builder("auth.password.rejected")
+                .description("Password hashes refused because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes running")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs a hash on the pool and waits for its result.
+     *
+     * @param operation the name of the operation, which tags its timer
+     * @param hash the hash to run
+     * @param <T> the type of the result
+     * @return the result of the hash
+     * @throws TooManyRequestsException if the pool is saturated or the hash did not finish in time
+     */
+    public <T> T call(String operation, Supplier<T> hash) {
+        Timer hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        long submitted = System.nanoTime();
+
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long started = System.nanoTime();
+                waitTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return hash.get();
+                } finally {
+                    hashTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many sign-in attempts right now, please try again shortly", RETRY_AFTER);
+        }
+
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            // Frees the place of a hash that was still queued, which would otherwise be kept until a thread skips it
+            executor.purge();
+            rejected.increment();
+            throw new TooManyRequestsException("Too many sign-in attempts right now, please try again shortly", RETRY_AFTER);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hash failed", e.getCause());
+        }
+    }
+}
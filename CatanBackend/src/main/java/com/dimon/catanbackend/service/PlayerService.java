@@ -2,22 +2,31 @@ package com.dimon.catanbackend.service;
 
 
 import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.LedgerReason;
 import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.entities.PortfolioAction;
 import com.dimon.catanbackend.entities.Property;
 import com.dimon.catanbackend.exceptions.*;
 import com.dimon.catanbackend.repositories.GameRepository;
 import com.dimon.catanbackend.repositories.PlayerRepository;
 import com.dimon.catanbackend.repositories.PropertyRepository;
+import com.dimon.catanbackend.utils.UuidUtils;
 import org.hibernate.validator.internal.constraintvalidators.bv.notempty.NotEmptyValidatorForArraysOfShort;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class responsible for handling business logic related to {@link Player} entities
@@ -42,6 +51,7 @@ import java.util.Random;
  * - {@code sellOffice}: Allows a player to sell offices from a property.
  * - {@code mortgageProperty}: Allows a player to mortgage a property.
  * - {@code unmortgageProperty}: Allows a player to unmortgage a property.
+ * - {@code manageProperties}: Applies a list of build, sell, mortgage and unmortgage operations as a whole.
  * - {@code surrender}: Allows a player to surrender and remove themselves from the game.
  * - {@code playCasinoGame}: Simulates a casino game within the game.
  * - {@code payMoney}: Handles direct money transfers between players or entities.
@@ -61,9 +71,14 @@ import java.util.Random;
  * Messaging:
  * - Uses {@link SimpMessagingTemplate} to send real-time updates to game clients via WebSocket.
  *
+ * Caching:
+ * - Writes only the players and tiles each command changed to the {@link GameSnapshotService} hash.
+ *
  */
 @Service
 public class PlayerService {
+    private static final int OFFICE_PRICE = 2000;
+
     @Autowired
     private GameRepository gameRepository;
 
@@ -76,6 +91,12 @@ public class PlayerService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private GameSnapshotService gameSnapshotService;
+
+    @Autowired
+    private MoneyTransferService moneyTransferService;
+
     /**
      * Moves a player to a new position on the game board, updates their position, and checks if they landed on
      * a property that requires rent payment. Sends an update to the game clients via WebSocket.
@@ -86,7 +107,7 @@ public class PlayerService {
      */
     @Transactional
     public void movePlayer(Map<String, Object> message) {
-        String gameId = (String) message.get("gameId");
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
         String gameName = (String) message.get("gameName");
         String username = (String) message.get("username");
         int newPosition = (Integer) message.get("newPosition");
@@ -101,7 +122,7 @@ public class PlayerService {
                 .orElseThrow(() -> new PlayerNotFoundException("Player not found with username: " + username));
 
         if (newPosition < player.getCurrentPosition() || newPosition == 0 && isStart) {
-            player.setMoney(player.getMoney() + 2000);
+            moneyTransferService.credit(player, 2000, LedgerReason.GO_SALARY);
         }
 
         player.setCurrentPosition(newPosition);
@@ -123,6 +144,7 @@ public class PlayerService {
 
 
         playerRepository.save(player);
+        gameSnapshotService.update(gameId).player(player).write();
 
         Map<String, Object> landedPropertyMap = null;
         if (landedProperty != null && isFinalPosition) {
@@ -166,7 +188,7 @@ public class PlayerService {
     // TODO HERE PROBLEM WITH SQL
     @Transactional
     public void payRent(Map<String, Object> message) {
-        String gameId = (String) message.get("gameId");
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
         String username = (String) message.get("username");
         int rent = (Integer) message.get("rent");
 
@@ -178,11 +200,9 @@ public class PlayerService {
 
         Player owner = landedProperty.getOwner();
         if (owner != null && !owner.getUsername().equals(username)) {
-            player.setMoney(player.getMoney() - rent);
-            owner.setMoney(owner.getMoney() + rent);
-
-            playerRepository.save(player);
-            playerRepository.save(owner);
+            // Rent is owed even when the player cannot cover it; a negative balance has to be settled afterwards
+            moneyTransferService.transferAllowingDebt(player, owner, rent, LedgerReason.RENT);
+            gameSnapshotService.update(gameId).player(player).player(owner).write();
         }
 
         List<Player> players = playerRepository.findByGameId(gameId);
@@ -214,7 +234,7 @@ public class PlayerService {
      */
     @Transactional
     public void buyProperty(Map<String, String> message) {
-        String gameId = message.get("gameId");
+        UUID gameId = UuidUtils.parse(message.get("gameId"));
         String gameName = message.get("gameName");
         String username = message.get("username");
         String propertyName = message.get("propertyName");
@@ -237,14 +257,15 @@ public class PlayerService {
             throw new InsufficientFundsException("Insufficient funds to buy the property");
         }
 
+        moneyTransferService.debit(player, cost, LedgerReason.PURCHASE);
         property.setOwner(player);
-        player.setMoney(player.getMoney() - cost);
 
         // Check if the player now owns all properties in this category
-        checkAndApplyCategoryBonus(player, property.getCategory(), gameId);
+        List<Property> bonusProperties = checkAndApplyCategoryBonus(player, property.getCategory(), gameId);
 
         propertyRepository.save(property);
         playerRepository.save(player);
+        gameSnapshotService.update(gameId).player(player).tile(property).tiles(bonusProperties).write();
 
         List<Player> players = playerRepository.findByGameId(gameId);
         for (Player p : players) {
@@ -262,7 +283,7 @@ public class PlayerService {
         messagingTemplate.convertAndSend("/topic/game/" + gameId, response);
     }
 
-    private void checkAndApplyCategoryBonus(Player player, String category, String gameId) {
+    private List<Property> checkAndApplyCategoryBonus(Player player, String category, UUID gameId) {
         // Get all properties in the category
         List<Property> categoryProperties = propertyRepository.findByGameIdAndCategory(gameId, category);
 
@@ -281,7 +302,7 @@ public class PlayerService {
             } else if (ownedCount >= 4) {
                 newBaseRent = 2000;
             } else {
-                return; // No bonus applied if the player owns less than 2 car properties
+                return List.of(); // No bonus applied if the player owns less than 2 car properties
             }
 
             // Update base rent for all car properties owned by the player
@@ -292,6 +313,7 @@ public class PlayerService {
                     propertyRepository.save(property);
                 }
             }
+            return categoryProperties;
         } else {
             // General case for other categories: increase base rent by 20% if the player owns all properties
             boolean ownsAll = categoryProperties.stream()
@@ -304,13 +326,15 @@ public class PlayerService {
                     property.setOriginalBaseRent(newBaseRent);
                     propertyRepository.save(property);
                 }
+                return categoryProperties;
             }
+            return List.of();
         }
     }
 
     @Transactional
     public void landOnField(Map<String, String> message) {
-        String gameId = message.get("gameId");
+        UUID gameId = UuidUtils.parse(message.get("gameId"));
         String gameName = message.get("gameName");
         String username = message.get("username");
         String fieldName = message.get("fieldName");
@@ -331,7 +355,7 @@ public class PlayerService {
      */
     @Transactional
     public void buyOffice(Map<String, String> message) {
-        String gameId = message.get("gameId");
+        UUID gameId = UuidUtils.parse(message.get("gameId"));
         String username = message.get("username");
         String propertyName = message.get("propertyName");
         Game game = gameRepository.findById(gameId)
@@ -349,15 +373,16 @@ public class PlayerService {
             throw new InvalidActionException("Maximum number of offices reached for this property");
         }
 
-        if (player.getMoney() < 2000) {
+        if (player.getMoney() < OFFICE_PRICE) {
             throw new InsufficientFundsException("Insufficient funds to buy an office");
         }
 
+        moneyTransferService.debit(player, OFFICE_PRICE, LedgerReason.OFFICE_PURCHASE);
         property.setOffices(property.getOffices() + 1);
-        player.setMoney(player.getMoney() - 2000);
 
         propertyRepository.save(property);
         playerRepository.save(player);
+        gameSnapshotService.update(gameId).player(player).tile(property).write();
 
         List<Player> players = playerRepository.findByGameId(gameId);
         for (Player p : players) {
@@ -385,7 +410,7 @@ public class PlayerService {
      */
     @Transactional
     public void sellOffice(Map<String, String> message) {
-        String gameId = message.get("gameId");
+        UUID gameId = UuidUtils.parse(message.get("gameId"));
         String username = message.get("username");
         String propertyName = message.get("propertyName");
 
@@ -398,10 +423,11 @@ public class PlayerService {
 
         if (property.getOffices() > 0) {
             property.setOffices(property.getOffices() - 1);
-            player.setMoney(player.getMoney() + 2000); // Assuming selling an office gives back 2000
+            moneyTransferService.credit(player, OFFICE_PRICE, LedgerReason.OFFICE_SALE); // Assuming selling an office gives back its price
 
             propertyRepository.save(property);
             playerRepository.save(player);
+            gameSnapshotService.update(gameId).player(player).tile(property).write();
 
             List<Player> players = playerRepository.findByGameId(gameId);
             for (Player p : players) {
@@ -432,7 +458,7 @@ public class PlayerService {
      */
     @Transactional
     public void mortgageProperty(Map<String, String> message) {
-        String gameId = message.get("gameId");
+        UUID gameId = UuidUtils.parse(message.get("gameId"));
         String username = message.get("username");
         String propertyName = message.get("propertyName");
 
@@ -446,10 +472,11 @@ public class PlayerService {
         if (!property.isMortgaged() && property.getOffices() == 0) {
             property.setMortgaged(true);
             property.setBaseRent(0);
-            player.setMoney(player.getMoney() + property.getMortgageValue()); // Assuming mortgaging gives half the property cost
+            moneyTransferService.credit(player, property.getMortgageValue(), LedgerReason.MORTGAGE); // Assuming mortgaging gives half the property cost
 
             propertyRepository.save(property);
             playerRepository.save(player);
+            gameSnapshotService.update(gameId).player(player).tile(property).write();
 
             List<Player> players = playerRepository.findByGameId(gameId);
             for (Player p : players) {
@@ -472,7 +499,7 @@ public class PlayerService {
     //TODO CHECK IF THIS FUNCTION CORRECT WORK
     @Transactional
     public void payMoney(Map<String,Object> message) {
-        String gameId = (String) message.get("gameId");
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
         String username = (String) message.get("username");
         Integer amount = (Integer) message.get("amount");
         String propertyName = (String) message.get("propertyName"); // Get the property name
@@ -483,13 +510,9 @@ public class PlayerService {
                 .orElseThrow(() -> new RuntimeException("Player not found"));
 
 
-        if (player.getMoney() >= amount) {
-            player.setMoney(player.getMoney() - amount);
-            playerRepository.save(player);
-            System.out.println(username + " has paid " + amount);
-        } else {
-            throw new RuntimeException("Player does not have enough money to pay");
-        }
+        moneyTransferService.debit(player, amount, LedgerReason.PAYMENT);
+        gameSnapshotService.update(gameId).player(player).write();
+        System.out.println(username + " has paid " + amount);
 
         List<Player> players = game.getPlayers();
         for(Player player1: players) {
@@ -518,7 +541,7 @@ public class PlayerService {
      */
     @Transactional
     public void unmortgageProperty(Map<String, String> message) {
-        String gameId = message.get("gameId");
+        UUID gameId = UuidUtils.parse(message.get("gameId"));
         String username = message.get("username");
         String propertyName = message.get("propertyName");
 
@@ -530,14 +553,15 @@ public class PlayerService {
                 .orElseThrow(() -> new PropertyNotFoundException("Property not found with name: " + propertyName));
 
         if (property.isMortgaged()) {
-            int unmortgageCost = (int) (property.getMortgageValue() * 1.1); // Assuming unmortgaging costs 10% more
+            int unmortgageCost = unmortgageCost(property);
             if (player.getMoney() >= unmortgageCost) {
                 property.setMortgaged(false);
                 property.setBaseRent(property.getOriginalBaseRent());
-                player.setMoney(player.getMoney() - unmortgageCost);
+                moneyTransferService.debit(player, unmortgageCost, LedgerReason.UNMORTGAGE);
 
                 propertyRepository.save(property);
                 playerRepository.save(player);
+                gameSnapshotService.update(gameId).player(player).tile(property).write();
 
                 List<Player> players = playerRepository.findByGameId(gameId);
                 for (Player p : players) {
@@ -561,6 +585,138 @@ public class PlayerService {
         }
     }
 
+    /**
+     * Applies an ordered list of build, sell, mortgage and unmortgage operations to the properties of a player,
+     * as a whole. The operations are checked in order with the same rules as the single commands, against the
+     * balance as it changes along the list, so an office sold early in the list can pay for one built later.
+     * If any operation is not allowed, none is applied. The money moves with one statement per kind of
+     * operation, the properties are written in one batch, and the result is sent in one broadcast.
+     *
+     * @param message the message containing gameId, username and operations, each with an action
+     *                ({@link PortfolioAction}) and a propertyName
+     * @throws GameNotFoundException if the game is not found
+     * @throws PlayerNotFoundException if the player is not found
+     * @throws InvalidActionException if an operation is not allowed, naming the first one that is not
+     * @throws InsufficientFundsException if the player cannot pay for an operation when it is reached
+     */
+    @Transactional
+    public void manageProperties(Map<String, Object> message) {
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
+        String username = (String) message.get("username");
+        List<Map<String, Object>> operations = (List<Map<String, Object>>) message.get("operations");
+        if (operations == null || operations.isEmpty()) {
+            throw new InvalidActionException("No operations to apply");
+        }
+
+        List<Player> players = playerRepository.findByGameId(gameId);
+        if (players.isEmpty()) {
+            throw new GameNotFoundException("Game not found with id: " + gameId);
+        }
+        Player player = players.stream()
+                .filter(candidate -> candidate.getUsername().equals(username))
+                .findFirst()
+                .orElseThrow(() -> new PlayerNotFoundException("Player not found with username: " + username));
+        Map<String, Property> owned = player.getProperties().stream()
+                .collect(Collectors.toMap(Property::getName, Function.identity()));
+
+        // The loaded properties are changed as the operations are checked; a failed check rolls the
+        // transaction back before anything is written
+        Map<LedgerReason, Integer> credits = new EnumMap<>(LedgerReason.class);
+        Map<LedgerReason, Integer> debits = new EnumMap<>(LedgerReason.class);
+        Set<Property> changed = new LinkedHashSet<>();
+        int balance = player.getMoney();
+        for (int i = 0; i < operations.size(); i++) {
+            Map<String, Object> operation = operations.get(i);
+            String propertyName = (String) operation.get("propertyName");
+            String prefix = "Operation " + (i + 1) + " (" + operation.get("action") + " " + propertyName + "): ";
+            PortfolioAction action;
+            try {
+                action = PortfolioAction.valueOf(String.valueOf(operation.get("action")));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidActionException(prefix + "unknown action");
+            }
+            Property property = owned.get(propertyName);
+            if (property == null) {
+                throw new InvalidActionException(prefix + "the property is not owned by " + username);
+            }
+
+            switch (action) {
+                case BUILD -> {
+                    if ("cars".equalsIgnoreCase(property.getCategory())) {
+                        throw new InvalidActionException(prefix + "cannot buy offices for properties in the cars category");
+                    }
+                    if (property.getOffices() >= 4) {
+                        throw new InvalidActionException(prefix + "maximum number of offices reached");
+                    }
+                    if (property.isMortgaged()) {
+                        throw new InvalidActionException(prefix + "cannot buy offices for a mortgaged property");
+                    }
+                    if (balance < OFFICE_PRICE) {
+                        throw new InsufficientFundsException(prefix + "insufficient funds to buy an office");
+                    }
+                    balance -= OFFICE_PRICE;
+                    debits.merge(LedgerReason.OFFICE_PURCHASE, OFFICE_PRICE, Integer::sum);
+                    property.setOffices(property.getOffices() + 1);
+                }
+                case SELL -> {
+                    if (property.getOffices() == 0) {
+                        throw new InvalidActionException(prefix + "no offices to sell");
+                    }
+                    balance += OFFICE_PRICE;
+                    credits.merge(LedgerReason.OFFICE_SALE, OFFICE_PRICE, Integer::sum);
+                    property.setOffices(property.getOffices() - 1);
+                }
+                case MORTGAGE -> {
+                    if (property.isMortgaged() || property.getOffices() > 0) {
+                        throw new InvalidActionException(prefix + "cannot mortgage property with offices or already mortgaged");
+                    }
+                    balance += property.getMortgageValue();
+                    credits.merge(LedgerReason.MORTGAGE, property.getMortgageValue(), Integer::sum);
+                    property.setMortgaged(true);
+                    property.setBaseRent(0);
+                }
+                case UNMORTGAGE -> {
+                    if (!property.isMortgaged()) {
+                        throw new InvalidActionException(prefix + "property is not mortgaged");
+                    }
+                    int unmortgageCost = unmortgageCost(property);
+                    if (balance < unmortgageCost) {
+                        throw new InsufficientFundsException(prefix + "insufficient funds to unmortgage the property");
+                    }
+                    balance -= unmortgageCost;
+                    debits.merge(LedgerReason.UNMORTGAGE, unmortgageCost, Integer::sum);
+                    property.setMortgaged(false);
+                    property.setBaseRent(property.getOriginalBaseRent());
+                }
+            }
+            changed.add(property);
+        }
+
+        // Credits first, so every debit is covered when it runs; a debit still fails if the balance dropped
+        // since it was read, which rolls back the whole list
+        credits.forEach((reason, amount) -> moneyTransferService.credit(player, amount, reason));
+        debits.forEach((reason, amount) -> moneyTransferService.debit(player, amount, reason));
+
+        GameSnapshotService.SnapshotUpdate snapshotUpdate = gameSnapshotService.update(gameId).player(player);
+        changed.forEach(snapshotUpdate::tile);
+        snapshotUpdate.write();
+
+        Map<String, Object> response = Map.of(
+                "gameId", gameId,
+                "gameName", player.getGame().getName(),
+                "properties", List.copyOf(changed),
+                "owner", player,
+                "players", players
+        );
+
+        messagingTemplate.convertAndSend("/topic/game/" + gameId, response);
+    }
+
+    // Unmortgaging costs 10% more than the mortgage paid out
+    private static int unmortgageCost(Property property) {
+        return (int) (property.getMortgageValue() * 1.1);
+    }
+
     /**
      * Handles the action of a player surrendering, removing them from the game and transferring ownership of their properties back to the bank.
      *
@@ -570,7 +726,7 @@ public class PlayerService {
      */
     @Transactional
     public void surrender(Map<String, String> message) {
-        String gameId = message.get("gameId");
+        UUID gameId = UuidUtils.parse(message.get("gameId"));
         String username = message.get("username");
 
         Game game = gameRepository.findById(gameId)
@@ -586,8 +742,10 @@ public class PlayerService {
         propertyRepository.saveAll(properties);
 
         game.getPlayers().remove(player);
+        game.markFinishedIfDecided();
         gameRepository.save(game);
         playerRepository.delete(player);
+        gameSnapshotService.update(gameId).removePlayer(player).tiles(properties).turn(game).write();
 
         List<Player> players = playerRepository.findByGameId(gameId);
         for (Player p : players) {
@@ -613,11 +771,12 @@ public class PlayerService {
      * @param gameName the name of the game
      * @throws PlayerNotFoundException if the player is not found
      */
-    private void moveToJail(String gameId, String username, String gameName) {
+    private void moveToJail(UUID gameId, String username, String gameName) {
         Player player = playerRepository.findByUsernameAndGameId(username, gameId)
                 .orElseThrow(() -> new PlayerNotFoundException("Player not found with username: " + username));
         player.setCurrentPosition(10);
         playerRepository.save(player);
+        gameSnapshotService.update(gameId).player(player).write();
 
         Map<String, Object> response = Map.of(
                 "gameId", gameId,
@@ -635,10 +794,11 @@ public class PlayerService {
      * @param message the message containing gameId, username, bet amount, and selected numbers
      * @throws GameNotFoundException if the game is not found
      * @throws PlayerNotFoundException if the player is not found
+     * @throws InsufficientFundsException if the player cannot cover the bet
      */
     @Transactional
     public void playCasinoGame(Map<String, Object> message) {
-        String gameId = (String) message.get("gameId");
+        UUID gameId = UuidUtils.parse((String) message.get("gameId"));
         String username = (String) message.get("username");
         int bet = (Integer) message.get("bet");
         List<Integer> selectedNumbers = (List<Integer>) message.get("selectedNumbers");
@@ -648,6 +808,10 @@ public class PlayerService {
         Player player = playerRepository.findByUsernameAndGameId(username, gameId)
                 .orElseThrow(() -> new PlayerNotFoundException("Player not found with username: " + username));
 
+        if (player.getMoney() < bet) {
+            throw new InsufficientFundsException("Insufficient funds to place the bet");
+        }
+
         int randomNumber = new Random().nextInt(6) + 1;
         boolean isWinner = selectedNumbers.contains(randomNumber);
         int multiplier = 0;
@@ -668,12 +832,12 @@ public class PlayerService {
         }
 
         if (isWinner) {
-            player.setMoney(player.getMoney() + bet + (bet * multiplier / 100));
+            moneyTransferService.credit(player, bet + (bet * multiplier / 100), LedgerReason.CASINO_WIN);
         } else {
-            player.setMoney(player.getMoney() - bet);
+            moneyTransferService.debit(player, bet, LedgerReason.CASINO_LOSS);
         }
 
-        playerRepository.save(player);
+        gameSnapshotService.update(gameId).player(player).write();
         List<Player> players = playerRepository.findByGameId(gameId);
 
         Map<String, Object> response = Map.of(
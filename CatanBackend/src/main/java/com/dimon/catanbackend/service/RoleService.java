@@ -3,6 +3,9 @@ package com.dimon.catanbackend.service;
 import com.dimon.catanbackend.entities.Role;
 import com.dimon.catanbackend.repositories.RoleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -10,8 +13,27 @@ import org.springframework.stereotype.Service;
 public class RoleService {
     private final RoleRepository roleRepository;
 
+    // Self reference through the proxy, so that calls to findRoleId go through the cache
+    @Lazy
+    @Autowired
+    private RoleService self;
+
+    /**
+     * Returns a reference to the user role for linking it to a new user. Only the id is cached: a cached entity
+     * would be detached in every later persistence context and cannot be cascaded from a new user.
+     *
+     * @return a reference to the user role, managed by the current persistence context
+     */
     public Role getUserRole() {
-        return roleRepository.findByName("ROLE_USER").get();
+        return roleRepository.getReferenceById(self.findRoleId("ROLE_USER"));
+    }
+
+    // Roles are seeded by the migrations and never change at runtime
+    @Cacheable(cacheNames = "roles", key = "#name")
+    public Integer findRoleId(String name) {
+        return roleRepository.findByName(name)
+                .map(Role::getId)
+                .orElseThrow(() -> new IllegalStateException("Role " + name + " is missing"));
     }
 
 }
@@ -0,0 +1,200 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.utils.BloomFilter;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Service class keeping track of JWT tokens that were revoked before they expired, so that a request can be
+ * authorized from the claims of its token alone.
+ *
+ * Two kinds of revocation are stored in Redis, each only for as long as the tokens it covers can still be valid:
+ * - a single token, by its ID ({@code jti}), when its user logs out;
+ * - every token of a user issued up to a point in time, when the user is deleted or an admin revokes the
+ *   user's tokens.
+ *
+ * Revocations are rare while checks happen on every request, so each node keeps a {@link BloomFilter} of the
+ * Redis keys of all revocations in front of Redis. A token none of whose keys is in the filter is accepted
+ * without any round trip; only a match, real or false positive, is confirmed against Redis. Nodes learn about
+ * revocations made elsewhere over a Redis channel, and the filter is rebuilt from Redis on startup and on a
+ * schedule, which drops expired revocations and repairs a node that missed a message.
+ *
+ * Revocations are written to Redis before they are added to a filter or published, so a rebuild that is
+ * running at the same time either finds the key in Redis or receives it as it is added.
+ *
+ * Configuration properties:
+ * - {@code jwt.lifetime}: How long a token is valid, which is how long a user revocation is kept.
+ * - {@code app.auth.revocation.expected-revocations}: Number of revocations the filter is sized for.
+ * - {@code app.auth.revocation.false-positive-rate}: Rate of tokens that are checked against Redis needlessly.
+ * - {@code app.auth.revocation.rebuild-interval}: How often the filter is rebuilt from Redis.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ * - {@link Scheduled} on {@code rebuild}.
+ *
+ * Methods:
+ * - {@code isRevoked}: Returns whether the token with the given claims was revoked.
+ * - {@code revokeToken}: Revokes a single token until it expires.
+ * - {@code revokeUser}: Revokes every token issued to a user so far.
+ * - {@code rebuild}: Rebuilds the filter of this node from the revocations stored in Redis.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * Claims claims = jwtTokenUtils.getClaims(token);
+ * if (!tokenRevocationService.isRevoked(claims)) { ... }
+ * tokenRevocationService.revokeToken(claims);          // Logout
+ * tokenRevocationService.revokeUser(user.getEmail());  // Deleted user
+ * }
+ * </pre>
+ *
+ * @see BloomFilter
+ * @see com.dimon.catanbackend.config.security.JwtRequestFilter
+ *
+ */
+@Service
+public class TokenRevocationService implements MessageListener {
+    static final String KEY_PREFIX = "jwt:revoked:";
+    static final String TOKEN_KEY_PREFIX = KEY_PREFIX + "token:";
+    static final String USER_KEY_PREFIX = KEY_PREFIX + "user:";
+    static final String CHANNEL = "jwt:revocations";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Value("${jwt.lifetime}")
+    private Duration jwtLifetime;
+
+    @Value("${app.auth.revocation.expected-revocations:100000}")
+    private long expectedRevocations;
+
+    @Value("${app.auth.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+
+    // The filter a running rebuild is filling, which must also receive the revocations made meanwhile
+    private volatile BloomFilter rebuilding;
+
+    @PostConstruct
+    void start() {
+        filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        rebuild();
+    }
+
+    /**
+     * Returns whether the token with the given claims was revoked. Touches Redis only if the filter of this
+     * node holds one of the token's keys.
+     *
+     * @param claims the verified claims of the token
+     * @return {@code true} if the token must not be accepted any more
+     */
+    public boolean isRevoked(Claims claims) {
+        BloomFilter current = filter;
+        String tokenKey = claims.getId() != null ? TOKEN_KEY_PREFIX + claims.getId() : null;
+        String userKey = USER_KEY_PREFIX + claims.getSubject();
+
+        if (tokenKey != null && current.mightContain(tokenKey)
+                && Boolean.TRUE.equals(stringRedisTemplate.hasKey(tokenKey))) {
+            return true;
+        }
+        if (current.mightContain(userKey)) {
+            String revokedUpTo = stringRedisTemplate.opsForValue().get(userKey);
+            if (revokedUpTo != null) {
+                Date issuedAt = claims.getIssuedAt();
+                return issuedAt == null || issuedAt.toInstant().getEpochSecond() <= Long.parseLong(revokedUpTo);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Revokes a single token until it expires.
+     *
+     * @param claims the verified claims of the token
+     */
+    public void revokeToken(Claims claims) {
+        if (claims.getId() == null) {
+            // Tokens issued before they carried an ID can only be revoked with every other token of the user
+            revokeUser(claims.getSubject());
+            return;
+        }
+        Duration remaining = Duration.between(Instant.now(), claims.getExpiration().toInstant());
+        if (remaining.isNegative() || remaining.isZero()) {
+            return;
+        }
+        revoke(TOKEN_KEY_PREFIX + claims.getId(), "1", remaining);
+    }
+
+    /**
+     * Revokes every token issued to a user up to now. Tokens issued later, after the user logged in again, are
+     * accepted.
+     *
+     * @param email the email of the user, which is the subject of the user's tokens
+     */
+    public void revokeUser(String email) {
+        revoke(USER_KEY_PREFIX + email, String.valueOf(Instant.now().getEpochSecond()), jwtLifetime);
+    }
+
+    /**
+     * Rebuilds the filter of this node from the revocations stored in Redis, leaving out the ones that expired.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.revocation.rebuild-interval:PT10M}",
+            initialDelayString = "${app.auth.revocation.rebuild-interval:PT10M}")
+    public synchronized void rebuild() {
+        BloomFilter next = new BloomFilter(expectedRevocations, falsePositiveRate);
+        rebuilding = next;
+        try (Cursor<String> keys = stringRedisTemplate.scan(
+                ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build())) {
+            keys.forEachRemaining(next::put);
+            filter = next;
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * Adds a revocation published by any node, this one included, to the filter.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        remember(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void revoke(String key, String value, Duration ttl) {
+        stringRedisTemplate.opsForValue().set(key, value, ttl);
+        // Remembered right away, so this node never accepts the token again even before the message arrives
+        remember(key);
+        stringRedisTemplate.convertAndSend(CHANNEL, key);
+    }
+
+    private void remember(String key) {
+        // Read in the opposite order of the writes in rebuild: if no rebuild is seen running, either none has
+        // started and its scan will find the key, or it has finished and the filter read next is the new one
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(key);
+        }
+        filter.put(key);
+    }
+}
@@ -0,0 +1,59 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.dtos.AuthUser;
+import com.dimon.catanbackend.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Service class caching the authentication view of users by email, so that the JWT filter and the game
+ * commands resolve the current user without a query.
+ *
+ * The cache is a bounded, node-local Caffeine cache (see {@code spring.cache.caffeine.spec}). Changes made
+ * through {@link UserService} evict the user right away on this node; other nodes pick the change up when
+ * the entry expires, so {@code expireAfterWrite} bounds how long a deactivated user keeps access.
+ * Unknown emails are not cached.
+ *
+ * Annotations used:
+ * - {@link Service} to mark this as a Spring service component.
+ * - {@link Cacheable} and {@link CacheEvict} on the {@code authUsers} cache.
+ *
+ * Methods:
+ * - {@code findAuthUser}: Returns the cached user, loading it on a miss.
+ * - {@code evict}: Removes a user from the cache after it was changed or deleted.
+ *
+ * @see AuthUser
+ * @see UserService
+ *
+ */
+@Service
+public class UserCacheService {
+    public static final String AUTH_USERS = "authUsers";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Returns the authentication view of a user, loading it from the database on a cache miss.
+     *
+     * @param email the email of the user
+     * @return an {@link Optional} containing the user, or empty if no user has this email
+     */
+    @Cacheable(cacheNames = AUTH_USERS, key = "#email", unless = "#result == null")
+    public Optional<AuthUser> findAuthUser(String email) {
+        return userRepository.findByEmail(email).map(AuthUser::new);
+    }
+
+    /**
+     * Removes a user from the cache.
+     *
+     * @param email the email of the user
+     */
+    @CacheEvict(cacheNames = AUTH_USERS, key = "#email")
+    public void evict(String email) {
+    }
+}
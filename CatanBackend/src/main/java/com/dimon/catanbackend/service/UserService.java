@@ -1,12 +1,17 @@
 package com.dimon.catanbackend.service;
 
+import com.dimon.catanbackend.config.pagination.PaginationProperties;
+import com.dimon.catanbackend.dtos.AuthUser;
+import com.dimon.catanbackend.dtos.CursorPage;
 import com.dimon.catanbackend.dtos.RegistrationUserDto;
 import com.dimon.catanbackend.entities.User;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
 import com.dimon.catanbackend.repositories.UserRepository;
+import com.dimon.catanbackend.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -17,7 +22,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Service class responsible for handling business logic related to User entities.
@@ -43,6 +47,9 @@ public class UserService implements UserDetailsService {
     private UserRepository userRepository;
     private RoleService roleService;
     private PasswordEncoder passwordEncoder;
+    private PaginationProperties paginationProperties;
+    private UserCacheService userCacheService;
+    private TokenRevocationService tokenRevocationService;
 
     /**
      * Sets the {@link UserRepository} for this service.
@@ -64,6 +71,36 @@ public class UserService implements UserDetailsService {
         this.roleService = roleService;
     }
 
+    /**
+     * Sets the {@link PaginationProperties} for this service.
+     *
+     * @param paginationProperties the pagination settings to be injected
+     */
+    @Autowired
+    public void setPaginationProperties(PaginationProperties paginationProperties) {
+        this.paginationProperties = paginationProperties;
+    }
+
+    /**
+     * Sets the {@link UserCacheService} for this service.
+     *
+     * @param userCacheService the user cache to be injected
+     */
+    @Autowired
+    public void setUserCacheService(UserCacheService userCacheService) {
+        this.userCacheService = userCacheService;
+    }
+
+    /**
+     * Sets the {@link TokenRevocationService} for this service.
+     *
+     * @param tokenRevocationService the token revocation service to be injected
+     */
+    @Autowired
+    public void setTokenRevocationService(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
     /**
      * Sets the {@link PasswordEncoder} for this service.
      *
@@ -76,12 +113,26 @@ public class UserService implements UserDetailsService {
     }
 
     /**
-     * Retrieves all users from the database.
+     * Retrieves one page of users ordered by ID.
      *
-     * @return a list of all users
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page
+     * @param size the requested page size, or {@code null} for the configured default
+     * @return the page of users
+     * @throws InvalidActionException if the cursor is malformed
      */
-    public List<User> getAllUser() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<User> getUsersPage(String cursor, Integer size) {
+        int pageSize = paginationProperties.resolvePageSize(size);
+        long afterId = 0;
+        if (cursor != null) {
+            try {
+                afterId = Long.parseLong(KeysetCursor.decode(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new InvalidActionException("Invalid page cursor");
+            }
+        }
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return KeysetCursor.page(rows, pageSize, user -> KeysetCursor.encode(user.getId().toString()));
     }
 
     /**
@@ -114,7 +165,8 @@ public class UserService implements UserDetailsService {
     }
 
     /**
-     * Deletes a user by their ID.
+     * Deletes a user by their ID and revokes the tokens issued to the user, which would otherwise stay valid
+     * until they expire.
      *
      * @param id the ID of the user to be deleted
      * @throws Exception if the user is not found
@@ -123,6 +175,8 @@ public class UserService implements UserDetailsService {
         Optional<User> user = userRepository.findById(id);
         if (user.isPresent()) {
             userRepository.deleteById(id);
+            userCacheService.evict(user.get().getEmail());
+            tokenRevocationService.revokeUser(user.get().getEmail());
         } else {
             throw new Exception("User not found");
         }
@@ -134,6 +188,7 @@ public class UserService implements UserDetailsService {
      * @param username the username to search for
      * @return an {@link Optional} containing the user if found, or empty otherwise
      */
+    @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -148,32 +203,40 @@ public class UserService implements UserDetailsService {
         return userRepository.findByEmail(email);
     }
 
+    /**
+     * Finds the authentication view of a user by their email, served from the cache.
+     *
+     * @param email the email to search for
+     * @return an {@link Optional} containing the user if found, or empty otherwise
+     */
+    public Optional<AuthUser> findAuthUser(String email) {
+        return userCacheService.findAuthUser(email);
+    }
+
     /**
      * Finds a user by their ID.
      *
      * @param id the ID to search for
      * @return an {@link Optional} containing the user if found, or empty otherwise
      */
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
 
     /**
-     * Loads a user by their email for Spring Security authentication.
+     * Loads a user by their email for Spring Security authentication. Runs on every authenticated request,
+     * so the user is served from the cache and no transaction is opened.
      *
      * @param email the email of the user to load
      * @return a {@link UserDetails} object containing the user's details
      * @throws UsernameNotFoundException if the user is not found
      */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = findByEmail(email).orElseThrow(() -> new UsernameNotFoundException(String.format("User with email '%s' not found", email)));
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                user.getRoles().stream().map(role -> new SimpleGrantedAuthority(role.getName())).collect(Collectors.toList())
-        );
+        return findAuthUser(email)
+                .orElseThrow(() -> new UsernameNotFoundException(String.format("User with email '%s' not found", email)))
+                .toUserDetails();
     }
 
     /**
@@ -182,6 +245,7 @@ public class UserService implements UserDetailsService {
      * @param registrationUserDto the DTO containing the new user's information
      * @return the created user
      */
+    @Transactional
     public User createNewUser(RegistrationUserDto registrationUserDto) {
         User user = new User();
         user.setEmail(registrationUserDto.getEmail());
@@ -193,12 +257,13 @@ public class UserService implements UserDetailsService {
     }
 
     /**
-     * Saves the given user entity.
+     * Saves the given user entity and evicts it from the cache.
      *
      * @param user the user to save
      */
     public void save(User user) {
         userRepository.save(user);
+        userCacheService.evict(user.getEmail());
     }
 
     /**
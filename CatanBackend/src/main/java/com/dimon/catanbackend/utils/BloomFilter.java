@@ -0,0 +1,112 @@
+package com.dimon.catanbackend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings, safe to read and add to from many threads without locking.
+ *
+ * The filter answers whether a value might have been added. A {@code false} answer is certain, a
+ * {@code true} answer is wrong with about the false positive rate the filter was sized for, as long as no more
+ * than the expected number of values were added; past that the rate grows. Values cannot be removed, so a
+ * filter whose values expire is rebuilt from scratch rather than cleaned.
+ *
+ * Each value is hashed once into a 64-bit hash, from which the positions of its bits are derived by double
+ * hashing. Bits are set with a compare-and-set on the word holding them, so concurrent adds never lose a bit.
+ *
+ * Methods:
+ * - {@code put}: Adds a value.
+ * - {@code mightContain}: Returns whether a value might have been added.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * BloomFilter filter = new BloomFilter(100_000, 0.01);
+ * filter.put("jwt:revoked:token:" + tokenId);
+ * boolean check = filter.mightContain("jwt:revoked:token:" + tokenId);  // Ask Redis only when true
+ * }
+ * </pre>
+ */
+public class BloomFilter {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param expectedInsertions the number of values the filter is sized for
+     * @param falsePositiveRate the rate of wrong {@code true} answers once that many values were added
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int words = (int) Math.min(Integer.MAX_VALUE, (bits + 63) / 64);
+        this.words = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value the value to add
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.accumulateAndGet(word, mask, (current, set) -> current | set);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a value might have been added to the filter.
+     *
+     * @param value the value to look for
+     * @return {@code false} if the value was certainly never added, {@code true} otherwise
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a of the UTF-8 bytes, finished with the MurmurHash3 mixer so that every bit depends on every byte
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
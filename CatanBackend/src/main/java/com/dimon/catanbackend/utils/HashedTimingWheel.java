@@ -0,0 +1,308 @@
+package com.dimon.catanbackend.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel for a large number of short timers that are mostly cancelled before they fire.
+ *
+ * Time is split into ticks of a fixed length, and the wheel is an array of buckets, one per tick, reused on
+ * every turn. A timer is put into the bucket of the tick its deadline falls in, together with the number of
+ * full turns still left before it is due. Scheduling and cancelling only add the timer to a lock-free queue,
+ * so both are O(1) and never block; a single ticker thread moves new timers into their buckets, unlinks
+ * cancelled ones and, on every tick, runs the timers of the current bucket that are due.
+ *
+ * Timers fire at most one tick late and never early. Tasks run on the ticker thread, so they must be short:
+ * anything more than handing work to another executor delays every other timer. An exception thrown by a
+ * task is logged and does not stop the wheel.
+ *
+ * Methods:
+ * - {@code start}: Starts the ticker thread.
+ * - {@code newTimeout}: Schedules a task after a delay and returns its handle.
+ * - {@code pendingTimeouts}: Returns the number of timers that are scheduled and not yet fired or cancelled.
+ * - {@code stop}: Stops the ticker thread; timers that did not fire yet are dropped.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * HashedTimingWheel wheel = new HashedTimingWheel("game-timers", Duration.ofMillis(100), 512);
+ * wheel.start();
+ * HashedTimingWheel.Timeout timeout = wheel.newTimeout(() -> executor.execute(task), Duration.ofSeconds(10));
+ * timeout.cancel();
+ * }
+ * </pre>
+ */
+public class HashedTimingWheel {
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    // Upper bound of new timers moved into buckets per tick, so a burst cannot stall the wheel
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final String name;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingTimeouts = new AtomicLong();
+
+    private final long startTime = System.nanoTime();
+    private volatile Thread ticker;
+    private volatile boolean running;
+
+    // Only touched by the ticker thread
+    private long tick;
+
+    /**
+     * Creates a wheel that is not started yet.
+     *
+     * @param name the name of the ticker thread
+     * @param tickDuration the length of one tick, which is also the precision of the timers
+     * @param wheelSize the number of buckets, rounded up to a power of two
+     */
+    public HashedTimingWheel(String name, Duration tickDuration, int wheelSize) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("Wheel size must be between 1 and 2^30: " + wheelSize);
+        }
+        this.name = name;
+        this.tickNanos = tickDuration.toNanos();
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Starts the ticker thread. Ticks are counted from the creation of the wheel, and timers may be scheduled
+     * before it is started; their delay counts from the moment they were scheduled.
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        running = true;
+        ticker = new Thread(this::run, name);
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    /**
+     * Stops the ticker thread and waits for it to finish. Timers that did not fire yet are dropped.
+     */
+    public synchronized void stop() {
+        Thread thread = ticker;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task the task, run on the ticker thread
+     * @param delay how long to wait before running the task
+     * @return the handle to cancel the timer with
+     */
+    public Timeout newTimeout(Runnable task, Duration delay) {
+        long deadline = System.nanoTime() - startTime + Math.max(0, delay.toNanos());
+        Timeout timeout = new Timeout(task, deadline);
+        pendingTimeouts.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Returns the number of timers that are scheduled and have neither fired nor been cancelled.
+     *
+     * @return the number of pending timers
+     */
+    public long pendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    private void run() {
+        while (running) {
+            waitForNextTick();
+            if (!running) {
+                break;
+            }
+            removeCancelled();
+            transferNewTimeouts();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    // Sleeps until the end of the current tick
+    private void waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (running) {
+            long remaining = deadline - (System.nanoTime() - startTime);
+            if (remaining <= 0) {
+                break;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private void transferNewTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = newTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != Timeout.PENDING) {
+                continue;
+            }
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            // A timer that is already overdue goes into the current bucket and fires on this tick
+            long slot = Math.max(dueTick, tick);
+            wheel[(int) (slot & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Handle of a scheduled timer.
+     */
+    public final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // Only touched by the ticker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timer. Does nothing if it already fired or was cancelled before.
+         *
+         * @return {@code true} if this call cancelled the timer, {@code false} if it fired or was cancelled already
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            pendingTimeouts.decrementAndGet();
+            cancelledTimeouts.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            pendingTimeouts.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.warn("Timer task of {} failed", name, e);
+            }
+        }
+    }
+
+    // Doubly linked list of the timers of one tick, only touched by the ticker thread
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    // The timer went into the bucket of the tick its deadline falls in, so it is due now
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.dimon.catanbackend.utils;
+
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Utility class applying JSON-Patch (RFC 6902) style deltas to a JSON document.
+ *
+ * The frontend keeps its own serialized view of the game and, instead of uploading the whole document
+ * on every change, sends a list of operations against the last version it saw. This class applies those
+ * operations to a copy of the stored document so the caller can write the result back atomically.
+ *
+ * Supported operations:
+ * - {@code add}: Adds a value to an object member or inserts it into an array ({@code -} appends).
+ * - {@code replace}: Replaces an existing value.
+ * - {@code remove}: Removes an existing value.
+ * - {@code test}: Fails the whole patch if the value at the path differs from the given one. Numbers are
+ *   compared by value, so {@code 1}, {@code 1.0} and a long {@code 1} are equal however they were parsed.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * JsonNode patched = JsonPatchUtils.apply(document, objectMapper.readTree(
+ *         "[{\"op\":\"replace\",\"path\":\"/players/0/money\",\"value\":98000}]"));
+ * }
+ * </pre>
+ *
+ * Exception handling:
+ * - Throws {@link InvalidActionException} if the patch is malformed or refers to a missing location.
+ *
+ */
+public class JsonPatchUtils {
+
+    // Compares numeric leaves by value and everything else with equals; JsonNode applies it recursively
+    private static final Comparator<JsonNode> NUMERIC_VALUE_COMPARATOR = (left, right) -> {
+        if (left.isNumber() && right.isNumber()) {
+            return left.decimalValue().compareTo(right.decimalValue());
+        }
+        return left.equals(right) ? 0 : 1;
+    };
+
+    private JsonPatchUtils() {
+    }
+
+    /**
+     * Applies the given patch to a deep copy of the document.
+     *
+     * @param document the document to patch, left unmodified
+     * @param patch an array of patch operations
+     * @return the patched document
+     * @throws InvalidActionException if the patch cannot be applied
+     */
+    public static JsonNode apply(JsonNode document, JsonNode patch) {
+        if (patch == null || !patch.isArray()) {
+            throw new InvalidActionException("Patch must be an array of operations");
+        }
+
+        JsonNode result = document.deepCopy();
+        for (JsonNode operation : patch) {
+            String op = operation.path("op").asText();
+            JsonNode pathNode = operation.get("path");
+            if (pathNode == null || !pathNode.isTextual()) {
+                throw new InvalidActionException("Patch operation is missing a path");
+            }
+            List<String> path = parsePointer(pathNode.asText());
+
+            switch (op) {
+                case "add" -> result = add(result, path, requireValue(operation));
+                case "replace" -> result = replace(result, path, requireValue(operation));
+                case "remove" -> result = remove(result, path);
+                case "test" -> {
+                    if (!requireValue(operation).equals(NUMERIC_VALUE_COMPARATOR, resolve(result, path))) {
+                        throw new InvalidActionException("Patch test failed at " + pathNode.asText());
+                    }
+                }
+                default -> throw new InvalidActionException("Unsupported patch operation: " + op);
+            }
+        }
+        return result;
+    }
+
+    private static JsonNode requireValue(JsonNode operation) {
+        JsonNode value = operation.get("value");
+        if (value == null) {
+            throw new InvalidActionException("Patch operation is missing a value");
+        }
+        return value;
+    }
+
+    private static JsonNode add(JsonNode root, List<String> path, JsonNode value) {
+        if (path.isEmpty()) {
+            return value;
+        }
+        JsonNode parent = resolve(root, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+
+        if (parent instanceof ObjectNode object) {
+            object.set(token, value);
+        } else if (parent instanceof ArrayNode array) {
+            if ("-".equals(token)) {
+                array.add(value);
+            } else {
+                int index = arrayIndex(token, array.size() + 1);
+                array.insert(index, value);
+            }
+        } else {
+            throw new InvalidActionException("Cannot add a value below a scalar");
+        }
+        return root;
+    }
+
+    private static JsonNode replace(JsonNode root, List<String> path, JsonNode value) {
+        if (path.isEmpty()) {
+            return value;
+        }
+        JsonNode parent = resolve(root, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+
+        if (parent instanceof ObjectNode object) {
+            if (!object.has(token)) {
+                throw new InvalidActionException("Cannot replace missing member: " + token);
+            }
+            object.set(token, value);
+        } else if (parent instanceof ArrayNode array) {
+            array.set(arrayIndex(token, array.size()), value);
+        } else {
+            throw new InvalidActionException("Cannot replace a value below a scalar");
+        }
+        return root;
+    }
+
+    private static JsonNode remove(JsonNode root, List<String> path) {
+        if (path.isEmpty()) {
+            throw new InvalidActionException("Cannot remove the whole document");
+        }
+        JsonNode parent = resolve(root, path.subList(0, path.size() - 1));
+        String token = path.get(path.size() - 1);
+
+        if (parent instanceof ObjectNode object) {
+            if (object.remove(token) == null) {
+                throw new InvalidActionException("Cannot remove missing member: " + token);
+            }
+        } else if (parent instanceof ArrayNode array) {
+            array.remove(arrayIndex(token, array.size()));
+        } else {
+            throw new InvalidActionException("Cannot remove a value below a scalar");
+        }
+        return root;
+    }
+
+    private static JsonNode resolve(JsonNode root, List<String> path) {
+        JsonNode current = root;
+        for (String token : path) {
+            if (current.isObject()) {
+                current = current.get(token);
+            } else if (current.isArray()) {
+                current = current.get(arrayIndex(token, current.size()));
+            } else {
+                current = null;
+            }
+            if (current == null) {
+                throw new InvalidActionException("Patch path does not exist: /" + String.join("/", path));
+            }
+        }
+        return current;
+    }
+
+    private static int arrayIndex(String token, int bound) {
+        try {
+            int index = Integer.parseInt(token);
+            if (index < 0 || index >= bound) {
+                throw new InvalidActionException("Array index out of bounds: " + token);
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throw new InvalidActionException("Invalid array index: " + token);
+        }
+    }
+
+    private static List<String> parsePointer(String pointer) {
+        List<String> tokens = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return tokens;
+        }
+        if (!pointer.startsWith("/")) {
+            throw new InvalidActionException("Invalid JSON pointer: " + pointer);
+        }
+        for (String token : pointer.substring(1).split("/", -1)) {
+            tokens.add(token.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+}
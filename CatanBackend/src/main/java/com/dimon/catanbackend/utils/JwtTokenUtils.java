@@ -1,20 +1,34 @@
 package com.dimon.catanbackend.utils;
 
+import com.dimon.catanbackend.dtos.AuthUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 /**
  * Utility class for managing JWT token creation, validation, and extraction of claims.
@@ -23,6 +37,12 @@ import java.util.stream.Collectors;
  * It supports creating JWT tokens with roles and expiration time, validating tokens,
  * and extracting claims such as username and roles from the token.
  *
+ * Tokens are verified by one parser built at startup. The claims of a verified token are kept in a bounded
+ * cache keyed by the SHA-256 hash of the token, until the token expires, so a client that sends the same
+ * token with every request (SockJS polls several times a second) has its signature checked once. A token is
+ * never cached before its signature and expiry were checked, so a forged or expired token always reaches the
+ * parser and fails there.
+ *
  * Annotations used:
  * - {@link Component} to mark this class as a Spring-managed bean for dependency injection.
  * - {@link Value} to inject configuration properties such as the JWT secret and token lifetime.
@@ -30,20 +50,25 @@ import java.util.stream.Collectors;
  * Configuration properties:
  * - {@code jwt.secret}: The secret key used to sign JWT tokens (injected via application properties).
  * - {@code jwt.lifetime}: The duration (ISO-8601 format) for which the JWT token is valid.
+ * - {@code app.jwt.verified-cache-size}: Maximum number of verified tokens whose claims are cached.
  *
  * Methods:
- * - {@code generateToken}: Generates a JWT token for the given {@link UserDetails} object.
+ * - {@code generateToken}: Generates a JWT token for the given {@link UserDetails} object, or for a logged-in
+ *   {@link AuthUser}, whose token also carries the user's ID ({@code uid}) and username ({@code username}) so
+ *   that WebSocket sessions can be bound to the user without loading it.
  * - {@code getUsername}: Extracts the username (subject) from a given token.
  * - {@code getRoles}: Extracts the roles from a given token.
+ * - {@code getClaims}: Verifies a token once and returns all of its claims, from the cache if it was verified before.
+ * - {@code getUserDetails}: Builds the {@link UserDetails} of a verified token from its claims alone.
  * - {@code validateToken}: Validates if the token is valid and not expired for the given {@link UserDetails}.
- * - {@code isTokenExpired}: Checks if a given token is expired.
- * - {@code getAllClaimsFromToken}: Extracts all claims from a given token.
+ * - {@code isTokenExpired}: Checks if the claims of a token are expired.
  *
  * Example usage:
  * <pre>
  * {@code
  * String token = jwtTokenUtils.generateToken(userDetails);
- * boolean isValid = jwtTokenUtils.validateToken(token, userDetails);
+ * Claims claims = jwtTokenUtils.getClaims(token);  // Throws JwtException if the token is invalid
+ * boolean isValid = jwtTokenUtils.validateToken(claims, userDetails);
  * String username = jwtTokenUtils.getUsername(token);
  * List<String> roles = jwtTokenUtils.getRoles(token);
  * }
@@ -68,44 +93,85 @@ public class JwtTokenUtils {
     @Value("${jwt.lifetime}")
     private Duration jwtLifetime;
 
+    @Value("${app.jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
     private SecretKey secretKey;
 
+    private JwtParser parser;
+
+    // Claims of verified tokens by the hash of the token, each expiring with its token
+    private Cache<String, Claims> verifiedTokens;
+
     /**
-     * Retrieves the secret key used for signing and verifying JWT tokens.
-     * Lazily initializes the secret key using the injected secret.
-     *
-     * @return the {@link SecretKey} used for JWT signing
+     * Derives the signing key from the injected secret and builds the parser and the cache of verified tokens.
      */
-    private SecretKey getSecretKey() {
-        if (this.secretKey == null) {
-            this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-        }
-        return this.secretKey;
+    @PostConstruct
+    void init() {
+        secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(secretKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remaining = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     /**
      * Generates a JWT token for the given {@link UserDetails} object. The token includes claims for the
-     * username (subject), roles, issue date, and expiration time.
+     * username (subject), roles, issue date, and expiration time, and a random ID by which it can be revoked.
      *
      * @param userDetails the {@link UserDetails} object containing the user's details
      * @return the generated JWT token as a string
      */
     public String generateToken(UserDetails userDetails) {
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+        return generateToken(userDetails.getUsername(), roles, Map.of());
+    }
+
+    /**
+     * Generates a JWT token for a user who logged in. Besides the claims of {@code generateToken(UserDetails)},
+     * the token carries the ID and the username of the user.
+     *
+     * @param user the user who logged in
+     * @return the generated JWT token as a string
+     */
+    public String generateToken(AuthUser user) {
+        return generateToken(user.getEmail(), user.getRoles(),
+                Map.of("uid", user.getId(), "username", user.getUsername()));
+    }
+
+    private String generateToken(String subject, List<String> roles, Map<String, Object> claims) {
         Date issuedDate = new Date();
         long expMillis = issuedDate.getTime() + jwtLifetime.toMillis();
         long expSeconds = expMillis / 1000;
 
         var builder = Jwts.builder()
-                .claim("sub", userDetails.getUsername())
+                .claim("sub", subject)
+                .claim("jti", UUID.randomUUID().toString())
                 .claim("iat", issuedDate.getTime() / 1000)
                 .claim("exp", expSeconds)
-                .signWith(getSecretKey(), SignatureAlgorithm.HS256);
+                .claims(claims)
+                .signWith(secretKey, SignatureAlgorithm.HS256);
 
-        // Get roles from userDetails and add to claims
-        List<String> rolesList = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList());
-        builder.claim("roles", rolesList);
+        builder.claim("roles", roles);
 
         return builder.compact();
     }
@@ -117,7 +183,7 @@ public class JwtTokenUtils {
      * @return the username (subject) extracted from the token
      */
     public String getUsername(String token) {
-        return getAllClaimsFromToken(token).getSubject();
+        return getClaims(token).getSubject();
     }
 
     /**
@@ -127,21 +193,42 @@ public class JwtTokenUtils {
      * @return a list of roles extracted from the token
      */
     public List<String> getRoles(String token) {
-        return getAllClaimsFromToken(token).get("roles", List.class);
+        return getClaims(token).get("roles", List.class);
     }
 
     /**
-     * Extracts all claims from the JWT token.
+     * Verifies the signature and expiry of the JWT token and returns all of its claims. A token verified
+     * before is served from the cache without being parsed again.
      *
      * @param token the JWT token
      * @return the {@link Claims} object containing all claims from the token
+     * @throws JwtException if the token is malformed, forged or expired
      */
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSecretKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Claims getClaims(String token) {
+        String key = hash(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(token).getPayload();
+            // Tokens issued here always expire; one that does not is verified every time rather than kept
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(key, claims);
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * Builds the {@link UserDetails} of a verified token from its subject and roles, without loading the user.
+     * The result carries no password.
+     *
+     * @param claims the claims returned by {@code getClaims}
+     * @return the {@link UserDetails} the token was issued for
+     */
+    public UserDetails getUserDetails(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of()
+                : roles.stream().map(role -> new SimpleGrantedAuthority(role.toString())).toList();
+        return new User(claims.getSubject(), "", authorities);
     }
 
     /**
@@ -151,20 +238,42 @@ public class JwtTokenUtils {
      * @param token the JWT token to validate
      * @param userDetails the {@link UserDetails} to validate against
      * @return {@code true} if the token is valid, {@code false} otherwise
+     * @throws JwtException if the token is malformed, forged or expired
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return validateToken(getClaims(token), userDetails);
+    }
+
+    /**
+     * Validates the claims of a verified token by checking if the username matches the provided
+     * {@link UserDetails} and if the token is not expired.
+     *
+     * @param claims the claims returned by {@code getClaims}
+     * @param userDetails the {@link UserDetails} to validate against
+     * @return {@code true} if the token is valid, {@code false} otherwise
+     */
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 
     /**
-     * Checks if the JWT token has expired.
+     * Checks if the claims of a JWT token have expired. A cached token can be read in the moment between its
+     * expiry and its eviction, which this catches.
      *
-     * @param token the JWT token to check
+     * @param claims the claims of the token
      * @return {@code true} if the token is expired, {@code false} otherwise
      */
-    private boolean isTokenExpired(String token) {
-        final Date expiration = getAllClaimsFromToken(token).getExpiration();
-        return expiration.before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
     }
 }
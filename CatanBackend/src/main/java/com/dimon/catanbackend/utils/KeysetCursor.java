@@ -0,0 +1,89 @@
+package com.dimon.catanbackend.utils;
+
+import com.dimon.catanbackend.dtos.CursorPage;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utility class encoding and decoding the opaque cursors used by keyset pagination.
+ *
+ * A cursor holds the sort key of the last row of a page (for example {@code createdTime} and {@code id}).
+ * The next page is read with {@code WHERE (sort key) > (cursor)} using the index on the sort key, so the
+ * cost of a page does not depend on how far the client has scrolled.
+ *
+ * Methods:
+ * - {@code encode}: Encodes the parts of a sort key as a URL-safe Base64 token.
+ * - {@code decode}: Decodes a token back into the expected number of parts.
+ * - {@code page}: Builds a {@link CursorPage} from a result fetched with one extra row.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size + 1));
+ * CursorPage<User> page = KeysetCursor.page(rows, size, user -> KeysetCursor.encode(user.getId().toString()));
+ * }
+ * </pre>
+ *
+ * Exception handling:
+ * - Throws {@link InvalidActionException} if a cursor is malformed.
+ *
+ */
+public class KeysetCursor {
+    private static final String SEPARATOR = "\n";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Encodes the parts of a sort key as an opaque cursor.
+     *
+     * @param parts the sort key values of the last row
+     * @return the cursor token
+     */
+    public static String encode(String... parts) {
+        String joined = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encode(String...)}.
+     *
+     * @param cursor the cursor token
+     * @param expectedParts the number of sort key values the cursor must contain
+     * @return the sort key values
+     * @throws InvalidActionException if the cursor is malformed
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = joined.split(SEPARATOR, -1);
+            if (parts.length != expectedParts) {
+                throw new InvalidActionException("Invalid page cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidActionException("Invalid page cursor");
+        }
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of {@code size + 1}: the extra row only signals
+     * that another page exists and is not returned.
+     *
+     * @param rows the fetched rows, at most {@code size + 1}
+     * @param size the page size
+     * @param cursorOf creates the cursor of a row
+     * @return the page, with a next cursor if more rows exist
+     */
+    public static <T> CursorPage<T> page(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(List.copyOf(items), cursorOf.apply(items.get(size - 1)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.dimon.catanbackend.utils;
+
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utility class generating and parsing the UUIDs used as primary keys of games, players and properties.
+ *
+ * New keys are version 7 UUIDs (RFC 9562): the first 48 bits hold the Unix time in milliseconds, so keys
+ * created one after another land next to each other in the B-tree instead of on random pages. Keys created
+ * in the same millisecond on one node are kept increasing with a 12-bit counter (RFC 9562, method 1); only after
+ * 4096 keys in one millisecond does the timestamp move ahead of the clock. The remaining 62 bits are random.
+ *
+ * Methods:
+ * - {@code timeOrdered}: Generates a new version 7 UUID.
+ * - {@code parse}: Parses an ID received from a client.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * Game game = Game.builder().id(UuidUtils.timeOrdered()).build();
+ * UUID gameId = UuidUtils.parse((String) message.get("gameId"));
+ * }
+ * </pre>
+ *
+ * Exception handling:
+ * - {@code parse} throws {@link InvalidActionException} if the value is not a UUID.
+ *
+ */
+public class UuidUtils {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Unix milliseconds shifted left by 12 bits, plus the counter of keys generated in that millisecond
+    private static final AtomicLong LAST_TICK = new AtomicLong();
+
+    private UuidUtils() {
+    }
+
+    /**
+     * Generates a new version 7 (time-ordered) UUID.
+     *
+     * @return the generated UUID
+     */
+    public static UUID timeOrdered() {
+        long now = System.currentTimeMillis() << 12;
+        long tick = LAST_TICK.updateAndGet(last -> Math.max(now, last + 1));
+
+        long mostSigBits = ((tick >>> 12) << 16) | 0x7000L | (tick & 0x0FFFL);
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Parses an ID received from a client.
+     *
+     * @param value the string form of the UUID
+     * @return the parsed UUID
+     * @throws InvalidActionException if the value is missing or not a UUID
+     */
+    public static UUID parse(String value) {
+        if (value == null) {
+            throw new InvalidActionException("Id is missing");
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidActionException("Invalid id: " + value);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.dimon.catanbackend.utils.api;
 
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class ApiAnalyticsService {
@@ -16,11 +18,24 @@ public class ApiAnalyticsService {
      * If the endpoint does not yet have any metrics recorded, a new ApiMetrics instance is created.
      *
      * @param endpoint The name or signature of the API endpoint (e.g., "AdminController.getAllUser()").
-     * @param duration The time taken to process the API request, in milliseconds.
+     * @param durationNanos The time taken to process the API request, in nanoseconds.
      * @param success  A boolean indicating whether the API call was successful (true) or resulted in an error (false).
      */
-    public void recordApiCall(String endpoint, long duration, boolean success) {
-        metricsMap.computeIfAbsent(endpoint, k -> new ApiMetrics()).addCall(duration, success);
+    public void recordApiCall(String endpoint, long durationNanos, boolean success) {
+        // A plain read first, so calls of known endpoints never lock a bin of the map
+        ApiMetrics metrics = metricsMap.get(endpoint);
+        if (metrics == null) {
+            metrics = metricsMap.computeIfAbsent(endpoint, k -> new ApiMetrics());
+        }
+        metrics.addCall(durationNanos, success);
+    }
+
+    /**
+     * Moves the latency windows of every endpoint on by one ten-second slice.
+     */
+    @Scheduled(fixedRate = 10, timeUnit = TimeUnit.SECONDS)
+    public void rotate() {
+        metricsMap.values().forEach(ApiMetrics::rotate);
     }
 
     /**
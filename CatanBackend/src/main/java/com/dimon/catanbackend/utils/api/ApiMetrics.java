@@ -1,29 +1,67 @@
 package com.dimon.catanbackend.utils.api;
 
-import lombok.Getter;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
-@Getter
+/**
+ * Metrics of one API endpoint: totals since startup, and latency percentiles over the last minute, five minutes
+ * and hour.
+ *
+ * Recording takes no lock, so concurrent calls of a hot endpoint never wait for each other: the totals are
+ * {@link LongAdder}s, which spread contended updates over several cells, the maximum is a
+ * {@link LongAccumulator}, and the latency goes into the current slice of {@link LatencyWindows}.
+ *
+ * Durations are recorded in nanoseconds and reported in milliseconds.
+ */
 public class ApiMetrics {
-    private long totalCalls;
-    private long totalSuccessCalls;
-    private long totalFailureCalls;
-    private long totalDuration;
-    private long maxDuration;
-
-    public synchronized void addCall(long duration, boolean success) {
-        totalCalls++;
-        totalDuration += duration;
-        if(success) {
-            totalSuccessCalls++;
+    private final LongAdder successCalls = new LongAdder();
+    private final LongAdder failureCalls = new LongAdder();
+    private final LongAdder totalDurationNanos = new LongAdder();
+    private final LongAccumulator maxDurationNanos = new LongAccumulator(Math::max, 0);
+    private final LatencyWindows latencyWindows = new LatencyWindows();
+
+    public void addCall(long durationNanos, boolean success) {
+        if (success) {
+            successCalls.increment();
         } else {
-            totalFailureCalls++;
-        }
-        if(duration > maxDuration) {
-            maxDuration = duration;
+            failureCalls.increment();
         }
+        totalDurationNanos.add(durationNanos);
+        maxDurationNanos.accumulate(durationNanos);
+        latencyWindows.record(durationNanos);
+    }
+
+    void rotate() {
+        latencyWindows.rotate();
+    }
+
+    public long getTotalCalls() {
+        return successCalls.sum() + failureCalls.sum();
+    }
+
+    public long getTotalSuccessCalls() {
+        return successCalls.sum();
+    }
+
+    public long getTotalFailureCalls() {
+        return failureCalls.sum();
+    }
+
+    public long getTotalDuration() {
+        return totalDurationNanos.sum() / 1_000_000;
+    }
+
+    public long getMaxDuration() {
+        return maxDurationNanos.get() / 1_000_000;
     }
 
     public long getAverageDuration() {
-        return totalCalls > 0 ? totalDuration / totalCalls : 0;
+        long totalCalls = getTotalCalls();
+        return totalCalls > 0 ? totalDurationNanos.sum() / totalCalls / 1_000_000 : 0;
+    }
+
+    public Map<String, LatencyPercentiles> getLatency() {
+        return latencyWindows.percentiles();
     }
 }
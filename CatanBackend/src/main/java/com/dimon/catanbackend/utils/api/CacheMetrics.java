@@ -0,0 +1,23 @@
+package com.dimon.catanbackend.utils.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Getter;
+
+@Getter
+public class CacheMetrics {
+    private final long size;
+    private final long hits;
+    private final long misses;
+    private final double hitRate;
+    private final long evictions;
+
+    public CacheMetrics(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        this.size = cache.estimatedSize();
+        this.hits = stats.hitCount();
+        this.misses = stats.missCount();
+        this.hitRate = stats.hitRate();
+        this.evictions = stats.evictionCount();
+    }
+}
@@ -0,0 +1,117 @@
+package com.dimon.catanbackend.utils.api;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds, safe to record into from many threads without locking.
+ *
+ * Buckets are laid out like those of an HdrHistogram: values below 64 ns get a bucket each, and every power of
+ * two above is split into 32 buckets of equal width. A value is therefore counted within 1/32 (about 3%) of
+ * itself whatever its magnitude, in a fixed array of 1024 counters that covers up to about 68 seconds. Longer
+ * latencies are counted in the last bucket.
+ *
+ * A percentile is reported as the highest value of the bucket it falls in, so it is never below the true one.
+ *
+ * Methods:
+ * - {@code record}: Counts a latency.
+ * - {@code addTo}: Adds the counts of the histogram to an array of counts, to merge histograms.
+ * - {@code valueAtPercentile}: Returns a percentile of an array of counts.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * LatencyHistogram histogram = new LatencyHistogram();
+ * histogram.record(System.nanoTime() - start);
+ * long[] counts = new long[LatencyHistogram.BUCKETS];
+ * histogram.addTo(counts);
+ * long p99 = LatencyHistogram.valueAtPercentile(counts, 99.0);
+ * }
+ * </pre>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * The highest latency told apart from longer ones, in nanoseconds.
+     */
+    public static final long MAX_VALUE = (1L << 36) - 1;
+
+    /**
+     * The number of buckets, which is the length of the arrays of counts.
+     */
+    public static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Counts a latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values count as zero
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(0, Math.min(nanos, MAX_VALUE))));
+    }
+
+    /**
+     * Adds the counts of this histogram to an array of counts.
+     *
+     * @param into an array of {@link #BUCKETS} counts
+     * @return the number of latencies added
+     */
+    public long addTo(long[] into) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            into[i] += count;
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the latency below or at which the given percentage of the counted latencies fall.
+     *
+     * @param counts an array of {@link #BUCKETS} counts
+     * @param percentile the percentage, from 0 to 100
+     * @return the latency in nanoseconds, or 0 if nothing was counted
+     */
+    public static long valueAtPercentile(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // Shifted so that the value keeps its highest SUB_BUCKET_BITS bits, the top one of which is always set
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKET_HALF_COUNT + subBucket - SUB_BUCKET_HALF_COUNT;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = bucket % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,32 @@
+package com.dimon.catanbackend.utils.api;
+
+import lombok.Getter;
+
+/**
+ * Percentiles of the latencies of one endpoint over one window, in milliseconds.
+ */
+@Getter
+public class LatencyPercentiles {
+    private final long count;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+    private final double p999;
+
+    public LatencyPercentiles(long[] counts) {
+        long total = 0;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        this.count = total;
+        this.p50 = millis(LatencyHistogram.valueAtPercentile(counts, 50));
+        this.p90 = millis(LatencyHistogram.valueAtPercentile(counts, 90));
+        this.p99 = millis(LatencyHistogram.valueAtPercentile(counts, 99));
+        this.p999 = millis(LatencyHistogram.valueAtPercentile(counts, 99.9));
+    }
+
+    // Rounded to microseconds
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
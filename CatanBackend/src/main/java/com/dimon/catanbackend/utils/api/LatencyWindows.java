@@ -0,0 +1,130 @@
+package com.dimon.catanbackend.utils.api;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latencies of the last minute, five minutes and hour, kept as slices of {@link LatencyHistogram} that roll
+ * over with time.
+ *
+ * Latencies are recorded into the slice of the current ten seconds, which takes no lock. Every ten seconds
+ * {@code rotate} closes that slice and starts a new one. Closed slices are merged into coarser ones as they age:
+ * - the last 6 ten-second slices are kept as they are;
+ * - older ones are merged into one-minute slices, the last 4 of which are kept;
+ * - older ones again are merged into five-minute slices, the last 11 of which are kept.
+ * Each window adds up the slices it needs: the minute window the current slice and the ten-second ones, the
+ * five-minute window the minute ones on top, the hour window the five-minute ones on top. A window therefore
+ * covers at least its length and at most one slice of its coarsest kind more, and a whole hour of an endpoint
+ * costs 24 histograms at most, none for the slices in which it was not called.
+ *
+ * Closed ten-second slices stay lock-free histograms until they are merged, a minute later, so a call that
+ * picked up a slice just before it was closed is still counted.
+ *
+ * Methods:
+ * - {@code record}: Counts a latency in the current slice.
+ * - {@code rotate}: Closes the current slice; called every ten seconds.
+ * - {@code percentiles}: Returns the percentiles of each window.
+ */
+public class LatencyWindows {
+    private static final int TEN_SECOND_SLICES = 6;
+    private static final long[] EMPTY = new long[0];
+
+    private volatile LatencyHistogram current = new LatencyHistogram();
+
+    // Newest first
+    private final Deque<LatencyHistogram> tenSeconds = new ArrayDeque<>();
+
+    private final Tier minutes = new Tier(4, 6);
+
+    private final Tier fiveMinutes = new Tier(11, 5);
+
+    /**
+     * Counts a latency in the current slice.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        current.record(nanos);
+    }
+
+    /**
+     * Closes the current slice, starts a new one, and merges the slices that aged out of their tier into the
+     * next one.
+     */
+    public synchronized void rotate() {
+        tenSeconds.addFirst(current);
+        current = new LatencyHistogram();
+        if (tenSeconds.size() > TEN_SECOND_SLICES) {
+            long[] counts = new long[LatencyHistogram.BUCKETS];
+            long[] agedOut = minutes.add(tenSeconds.removeLast().addTo(counts) > 0 ? counts : EMPTY);
+            if (agedOut != null) {
+                fiveMinutes.add(agedOut);
+            }
+        }
+    }
+
+    /**
+     * Returns the percentiles of the latencies recorded in each window.
+     *
+     * @return the percentiles keyed by window: {@code 1m}, {@code 5m} and {@code 1h}
+     */
+    public synchronized Map<String, LatencyPercentiles> percentiles() {
+        Map<String, LatencyPercentiles> windows = new LinkedHashMap<>();
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        current.addTo(counts);
+        tenSeconds.forEach(slice -> slice.addTo(counts));
+        windows.put("1m", new LatencyPercentiles(counts));
+        minutes.addTo(counts);
+        windows.put("5m", new LatencyPercentiles(counts));
+        fiveMinutes.addTo(counts);
+        windows.put("1h", new LatencyPercentiles(counts));
+        return windows;
+    }
+
+    // Slices of one length, built by merging a fixed number of slices of the tier below
+    private static final class Tier {
+        private final int kept;
+        private final int merged;
+        // Newest first; empty slices are EMPTY
+        private final Deque<long[]> slices = new ArrayDeque<>();
+        private long[] building = EMPTY;
+        private int buildingSlices;
+
+        private Tier(int kept, int merged) {
+            this.kept = kept;
+            this.merged = merged;
+        }
+
+        // Returns the slice that aged out of this tier, if one did
+        private long[] add(long[] lower) {
+            building = merge(building, lower);
+            if (++buildingSlices < merged) {
+                return null;
+            }
+            slices.addFirst(building);
+            building = EMPTY;
+            buildingSlices = 0;
+            return slices.size() > kept ? slices.removeLast() : null;
+        }
+
+        private void addTo(long[] counts) {
+            merge(counts, building);
+            slices.forEach(slice -> merge(counts, slice));
+        }
+
+        private static long[] merge(long[] into, long[] counts) {
+            if (counts.length == 0) {
+                return into;
+            }
+            if (into.length == 0) {
+                return counts.clone();
+            }
+            for (int i = 0; i < counts.length; i++) {
+                into[i] += counts[i];
+            }
+            return into;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+-- Emails waiting to be sent. A row is inserted in the transaction of the change the email is about, so an
+-- email goes out if and only if that change committed. EmailOutboxService sends the rows in the background,
+-- deletes them once sent and keeps the ones it gave up on as DEAD, with the last error, for investigation.
+
+create sequence email_outbox_seq increment by 50;
+
+create table email_outbox (
+    id              bigint        not null primary key,
+    recipient       varchar(255)  not null,
+    subject         varchar(255)  not null,
+    html_content    text          not null,
+    status          varchar(16)   not null,
+    attempts        integer       not null default 0,
+    next_attempt_at timestamp(6)  not null,
+    last_error      varchar(1000),
+    created_at      timestamp(6)  not null
+);
+
+-- Senders only ever look for pending rows that are due
+create index idx_email_outbox_due on email_outbox (next_attempt_at) where status = 'PENDING';
@@ -0,0 +1,29 @@
+-- Ledger entries are now inserted in the transaction of the command that moved the money. The snapshot
+-- version of the command is only known after commit, so the entries are stamped with it afterwards: setting
+-- a missing game_version is the one change the ledger accepts. Every other update, deletes and truncates are
+-- still refused.
+
+drop trigger money_ledger_append_only on money_ledger;
+
+create trigger money_ledger_append_only
+    before delete or truncate on money_ledger
+    for each statement execute function reject_money_ledger_change();
+
+create function reject_money_ledger_update() returns trigger
+language plpgsql as $$
+begin
+    if old.game_version is null
+            and (new.id, new.game_id, new.from_player_id, new.from_username, new.to_player_id, new.to_username,
+                 new.amount, new.reason, new.created_at, new.recorded_at)
+                is not distinct from
+                (old.id, old.game_id, old.from_player_id, old.from_username, old.to_player_id, old.to_username,
+                 old.amount, old.reason, old.created_at, old.recorded_at) then
+        return new;
+    end if;
+    raise exception 'money_ledger is append-only';
+end;
+$$;
+
+create trigger money_ledger_version_stamp
+    before update on money_ledger
+    for each row execute function reject_money_ledger_update();
@@ -0,0 +1,84 @@
+-- Baseline schema, matching the tables previously created by hibernate.ddl-auto=update.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table roles (
+    id   integer generated by default as identity primary key,
+    name varchar(255)
+);
+
+create table users (
+    id                     bigint generated by default as identity primary key,
+    username               varchar(255) unique,
+    password               varchar(255),
+    email                  varchar(255) unique,
+    active                 boolean not null,
+    activation_token       varchar(255),
+    profile_photo_file_name varchar(255)
+);
+
+create table users_roles (
+    user_id bigint  not null references users (id),
+    role_id integer not null references roles (id)
+);
+
+create table user_friends (
+    user_id   bigint not null references users (id),
+    friend_id bigint not null references users (id)
+);
+
+create table game (
+    id                varchar(255) primary key,
+    name              varchar(255),
+    is_game_started   boolean not null,
+    max_players       integer not null,
+    current_player_id varchar(255),
+    created_time      timestamp(6)
+);
+
+create table game_observers (
+    game_id varchar(255) not null references game (id),
+    user_id bigint       not null references users (id),
+    primary key (game_id, user_id)
+);
+
+create table player (
+    id               varchar(255) primary key,
+    username         varchar(255),
+    color            varchar(255),
+    x                real    not null,
+    y                real    not null,
+    money            integer not null,
+    current_position integer not null,
+    game_id          varchar(255) references game (id),
+    user_id          bigint unique references users (id)
+);
+
+create table player_properties_with_offices (
+    player_id                varchar(255) not null references player (id),
+    properties_with_offices  varchar(255) not null,
+    primary key (player_id, properties_with_offices)
+);
+
+create table property (
+    id                 varchar(255) primary key,
+    name               varchar(255),
+    position           integer not null,
+    offices            integer not null,
+    cost               integer not null,
+    category           varchar(255),
+    base_rent          integer not null,
+    mortgaged          boolean not null,
+    mortgage_value     integer not null,
+    original_base_rent integer not null,
+    owner_id           varchar(255) references player (id),
+    game_id            varchar(255) references game (id)
+);
+
+create table chat_messages (
+    id      bigint generated by default as identity primary key,
+    type    smallint check (type between 0 and 2),
+    content varchar(255),
+    sender  varchar(255)
+);
+
+insert into roles (name) values ('ROLE_USER'), ('ROLE_ADMIN');
@@ -0,0 +1,15 @@
+-- Indexes backing the repository lookups issued on every gameplay command.
+-- "if not exists" keeps this safe on databases baselined from a hibernate-managed schema.
+
+create index if not exists idx_player_username_game on player (username, game_id);
+create index if not exists idx_player_game on player (game_id);
+
+create index if not exists idx_property_game_position on property (game_id, position);
+create index if not exists idx_property_game_name on property (game_id, name);
+create index if not exists idx_property_game_category on property (game_id, category);
+create index if not exists idx_property_owner on property (owner_id);
+
+create index if not exists idx_users_activation_token on users (activation_token);
+create index if not exists idx_users_roles_user on users_roles (user_id);
+create index if not exists idx_user_friends_user on user_friends (user_id);
+create index if not exists idx_game_observers_user on game_observers (user_id);
@@ -0,0 +1,13 @@
+-- Finished and stale games moved out of the live tables by the admin archive job.
+-- The payload is the gzip + Base64 encoded JSON snapshot of the game (see CompressionUtils).
+
+create table game_archive (
+    game_id      varchar(255) primary key,
+    name         varchar(255),
+    created_time timestamp(6),
+    archived_at  timestamp(6) not null,
+    player_count integer      not null,
+    payload      text         not null
+);
+
+create index idx_game_archive_archived_at on game_archive (archived_at);
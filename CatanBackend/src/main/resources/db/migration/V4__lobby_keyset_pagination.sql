@@ -0,0 +1,6 @@
+-- The lobby is paged by (created_time, id), so every game needs a creation time.
+
+update game set created_time = timestamp '1970-01-01 00:00:00' where created_time is null;
+alter table game alter column created_time set not null;
+
+create index if not exists idx_game_lobby on game (is_game_started, created_time, id);
@@ -0,0 +1,65 @@
+-- Finished games are archived automatically, so game_archive becomes a table partitioned by month
+-- of archived_at. Old months can be detached or dropped without touching the rest.
+
+alter table game add column finished_time timestamp(6);
+create index idx_game_finished_time on game (finished_time) where finished_time is not null;
+
+alter table game_archive rename to game_archive_legacy;
+alter table game_archive_legacy rename constraint game_archive_pkey to game_archive_legacy_pkey;
+drop index idx_game_archive_archived_at;
+
+create table game_archive (
+    game_id       varchar(255) not null,
+    name          varchar(255),
+    created_time  timestamp(6),
+    finished_time timestamp(6),
+    archived_at   timestamp(6) not null,
+    player_count  integer      not null,
+    payload       text         not null,
+    primary key (game_id, archived_at)
+) partition by range (archived_at);
+
+create index idx_game_archive_archived_at on game_archive (archived_at);
+
+-- Creates the partition holding the given month if it does not exist yet and returns its name.
+-- Called by GameArchiveService ahead of time for the coming months.
+create or replace function ensure_game_archive_partition(month date) returns text
+language plpgsql as $$
+declare
+    start_date date := date_trunc('month', month)::date;
+    partition_name text := 'game_archive_' || to_char(start_date, 'YYYY_MM');
+begin
+    execute format('create table if not exists %I partition of game_archive for values from (%L) to (%L)',
+                   partition_name, start_date, (start_date + interval '1 month')::date);
+    return partition_name;
+end;
+$$;
+
+select ensure_game_archive_partition(month::date)
+from generate_series(date_trunc('month', coalesce((select min(archived_at) from game_archive_legacy), now())),
+                     date_trunc('month', now()) + interval '1 month',
+                     interval '1 month') as month;
+
+insert into game_archive (game_id, name, created_time, archived_at, player_count, payload)
+select game_id, name, created_time, archived_at, player_count, payload from game_archive_legacy;
+
+drop table game_archive_legacy;
+
+-- Who played in an archived game, for per-player history lookups.
+create table game_archive_participant (
+    username    varchar(255) not null,
+    archived_at timestamp(6) not null,
+    game_id     varchar(255) not null,
+    primary key (username, archived_at, game_id)
+);
+
+-- Everyone who ever joined a live game, so players who surrendered still show up in its history.
+create table game_participant (
+    game_id  varchar(255) not null references game (id),
+    username varchar(255) not null,
+    primary key (game_id, username)
+);
+
+insert into game_participant (game_id, username)
+select game_id, username from player where game_id is not null and username is not null
+on conflict do nothing;
@@ -0,0 +1,39 @@
+-- Game, player and property keys move from varchar(255) to the native 16-byte uuid type.
+-- Existing keys are random UUID strings and convert in place; new keys are time-ordered (v7) UUIDs
+-- generated by the application.
+
+-- Foreign keys were named by hibernate on databases created before the baseline, so drop them by lookup
+do $$
+declare
+    constraint_row record;
+begin
+    for constraint_row in
+        select c.conrelid::regclass as table_name, c.conname
+        from pg_constraint c
+        where c.contype = 'f'
+          and c.confrelid in ('game'::regclass, 'player'::regclass, 'property'::regclass)
+    loop
+        execute format('alter table %s drop constraint %I', constraint_row.table_name, constraint_row.conname);
+    end loop;
+end;
+$$;
+
+alter table game alter column id type uuid using id::uuid;
+alter table game alter column current_player_id type uuid using current_player_id::uuid;
+alter table player alter column id type uuid using id::uuid;
+alter table player alter column game_id type uuid using game_id::uuid;
+alter table property alter column id type uuid using id::uuid;
+alter table property alter column owner_id type uuid using owner_id::uuid;
+alter table property alter column game_id type uuid using game_id::uuid;
+alter table game_observers alter column game_id type uuid using game_id::uuid;
+alter table player_properties_with_offices alter column player_id type uuid using player_id::uuid;
+alter table game_participant alter column game_id type uuid using game_id::uuid;
+alter table game_archive alter column game_id type uuid using game_id::uuid;
+alter table game_archive_participant alter column game_id type uuid using game_id::uuid;
+
+alter table game_observers add constraint fk_game_observers_game foreign key (game_id) references game (id);
+alter table player add constraint fk_player_game foreign key (game_id) references game (id);
+alter table player_properties_with_offices add constraint fk_player_offices_player foreign key (player_id) references player (id);
+alter table property add constraint fk_property_owner foreign key (owner_id) references player (id);
+alter table property add constraint fk_property_game foreign key (game_id) references game (id);
+alter table game_participant add constraint fk_game_participant_game foreign key (game_id) references game (id);
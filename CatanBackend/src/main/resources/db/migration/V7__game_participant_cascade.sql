@@ -0,0 +1,3 @@
+-- Participants belong to a live game: deleting an abandoned game removes them with it.
+alter table game_participant drop constraint fk_game_participant_game;
+alter table game_participant add constraint fk_game_participant_game foreign key (game_id) references game (id) on delete cascade;
@@ -0,0 +1,48 @@
+-- Append-only record of every money movement. Rows are written in batches by MoneyLedgerService after
+-- the command that moved the money has committed, and are never updated or deleted: they outlive the
+-- live game rows, so games that were archived can still be investigated.
+
+create sequence money_ledger_seq increment by 50;
+
+create table money_ledger (
+    id             bigint       not null primary key,
+    game_id        uuid         not null,
+    from_player_id uuid,
+    from_username  varchar(255),
+    to_player_id   uuid,
+    to_username    varchar(255),
+    amount         integer      not null check (amount > 0),
+    reason         varchar(32)  not null,
+    game_version   bigint,
+    created_at     timestamp(6) not null,
+    recorded_at    timestamp(6) not null default now()
+);
+
+create index idx_money_ledger_game on money_ledger (game_id, id);
+create index idx_money_ledger_from_username on money_ledger (from_username) where from_username is not null;
+create index idx_money_ledger_to_username on money_ledger (to_username) where to_username is not null;
+create index idx_money_ledger_recorded_at on money_ledger (recorded_at);
+
+create function reject_money_ledger_change() returns trigger
+language plpgsql as $$
+begin
+    raise exception 'money_ledger is append-only';
+end;
+$$;
+
+create trigger money_ledger_append_only
+    before update or delete or truncate on money_ledger
+    for each statement execute function reject_money_ledger_change();
+
+-- Balance of each player computed from the ledger up to covered_until. A player's current ledger balance
+-- is their latest checkpoint plus the entries recorded since.
+create table balance_checkpoint (
+    game_id       uuid         not null,
+    player_id     uuid         not null,
+    username      varchar(255),
+    covered_until timestamp(6) not null,
+    balance       bigint       not null,
+    primary key (game_id, player_id, covered_until)
+);
+
+create index idx_balance_checkpoint_covered_until on balance_checkpoint (covered_until);
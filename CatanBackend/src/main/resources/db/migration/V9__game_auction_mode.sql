@@ -0,0 +1,3 @@
+-- How unowned properties are auctioned in a game: ENGLISH (open ascending bids) or SEALED_BID (one hidden bid each).
+alter table game add column auction_mode varchar(16) not null default 'ENGLISH';
+alter table game add constraint ck_game_auction_mode check (auction_mode in ('ENGLISH', 'SEALED_BID'));
@@ -0,0 +1,42 @@
+-- Accepts a bid if it beats the highest bid and the bidder can cover it, and picks the next bidder.
+-- KEYS[1]  auction state hash (fields: round, highestBid, highestBidder, bidders, bidder:<i>,
+--          position:<username>, money:<username>)
+-- ARGV[1]  username of the bidder
+-- ARGV[2]  amount of the bid
+-- ARGV[3]  time to live of the hash in milliseconds, restarted by an accepted bid
+-- Returns {status, round, highestBid, nextBidder}. The status is 1 when the bid was accepted, 0 when there is
+-- no auction, -1 when the bid is not higher than the highest bid, -2 when the bidder cannot cover it and -3
+-- when the user does not take part. The next bidder is the first player after the bidder in turn order who
+-- can cover the new highest bid, or '' when nobody can.
+local key = KEYS[1]
+if redis.call('EXISTS', key) == 0 then
+    return {0, 0, 0, ''}
+end
+local round = tonumber(redis.call('HGET', key, 'round'))
+local highestBid = tonumber(redis.call('HGET', key, 'highestBid'))
+local money = redis.call('HGET', key, 'money:' .. ARGV[1])
+local amount = tonumber(ARGV[2])
+if not money then
+    return {-3, round, highestBid, ''}
+end
+if amount <= highestBid then
+    return {-1, round, highestBid, ''}
+end
+if tonumber(money) < amount then
+    return {-2, round, highestBid, ''}
+end
+
+round = round + 1
+local count = tonumber(redis.call('HGET', key, 'bidders'))
+local position = tonumber(redis.call('HGET', key, 'position:' .. ARGV[1]))
+local nextBidder = ''
+for i = 1, count - 1 do
+    local candidate = redis.call('HGET', key, 'bidder:' .. ((position + i) % count))
+    if tonumber(redis.call('HGET', key, 'money:' .. candidate)) >= amount then
+        nextBidder = candidate
+        break
+    end
+end
+redis.call('HSET', key, 'round', round, 'highestBid', amount, 'highestBidder', ARGV[1], 'nextBidder', nextBidder)
+redis.call('PEXPIRE', key, ARGV[3])
+return {1, round, amount, nextBidder}
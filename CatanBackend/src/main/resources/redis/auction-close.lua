@@ -0,0 +1,11 @@
+-- Closes an auction and returns its final state, so exactly one caller gets to award the property.
+-- KEYS[1]  auction state hash
+-- ARGV[1]  round the caller expects the auction to be in, or '' to close it in any round
+-- Returns the fields and values of the closed auction as a flat list, or an empty list when there is no
+-- auction or it moved on to another round.
+if ARGV[1] ~= '' and redis.call('HGET', KEYS[1], 'round') ~= ARGV[1] then
+    return {}
+end
+local fields = redis.call('HGETALL', KEYS[1])
+redis.call('DEL', KEYS[1])
+return fields
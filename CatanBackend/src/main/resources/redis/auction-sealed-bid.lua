@@ -0,0 +1,29 @@
+-- Records the one hidden bid a player may place in a sealed-bid auction.
+-- KEYS[1]  auction state hash (fields: highestBid holding the minimum bid, bidders, money:<username>,
+--          sealed:<username>)
+-- ARGV[1]  username of the bidder
+-- ARGV[2]  amount of the bid
+-- Returns {status, submitted, bidders}. The status is 1 when the bid was recorded, 0 when there is no auction,
+-- -1 when the bid is not above the minimum bid, -2 when the bidder cannot cover it, -3 when the user does not
+-- take part and -4 when the bidder already placed a bid. Submitted is the number of bids placed so far.
+local key = KEYS[1]
+if redis.call('EXISTS', key) == 0 then
+    return {0, 0, 0}
+end
+local count = tonumber(redis.call('HGET', key, 'bidders'))
+local money = redis.call('HGET', key, 'money:' .. ARGV[1])
+local amount = tonumber(ARGV[2])
+if not money then
+    return {-3, 0, count}
+end
+if amount <= tonumber(redis.call('HGET', key, 'highestBid')) then
+    return {-1, 0, count}
+end
+if tonumber(money) < amount then
+    return {-2, 0, count}
+end
+if redis.call('HSETNX', key, 'sealed:' .. ARGV[1], amount) == 0 then
+    return {-4, 0, count}
+end
+local submitted = redis.call('HINCRBY', key, 'submitted', 1)
+return {1, submitted, count}
@@ -0,0 +1,11 @@
+-- Creates the state hash of an auction unless one is already running in the game.
+-- KEYS[1]  auction state hash
+-- ARGV[1]  time to live of the hash in milliseconds
+-- ARGV[2..] field and value pairs of the new auction
+-- Returns 1 when the auction was created, 0 when the game already has one.
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return 0
+end
+redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+redis.call('PEXPIRE', KEYS[1], ARGV[1])
+return 1
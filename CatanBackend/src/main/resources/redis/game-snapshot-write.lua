@@ -0,0 +1,27 @@
+-- Writes a batch of changed fields of a game snapshot hash and bumps its version, atomically.
+-- KEYS[1]  game snapshot hash
+-- ARGV[1]  1 when the batch holds every field of the game, 0 for a partial update
+-- ARGV[2]  number of changed fields
+-- ARGV[3..] the changed fields and their values, in pairs, followed by the fields to remove
+-- Returns the new version.
+local count = tonumber(ARGV[2])
+local last = 2 + 2 * count
+if ARGV[1] == '1' then
+    -- Players left over in a partial hash are not part of the game any more
+    local written = {}
+    for i = 3, last, 2 do
+        written[ARGV[i]] = true
+    end
+    for _, field in ipairs(redis.call('HKEYS', KEYS[1])) do
+        if string.sub(field, 1, 7) == 'player:' and not written[field] then
+            redis.call('HDEL', KEYS[1], field)
+        end
+    end
+end
+if count > 0 then
+    redis.call('HSET', KEYS[1], unpack(ARGV, 3, last))
+end
+if #ARGV > last then
+    redis.call('HDEL', KEYS[1], unpack(ARGV, last + 1, #ARGV))
+end
+return redis.call('HINCRBY', KEYS[1], 'version', 1)
@@ -0,0 +1,13 @@
+-- Compare-and-set write of a game state hash.
+-- KEYS[1]  game state hash (fields: state, version)
+-- ARGV[1]  version the caller based its write on, or -1 to overwrite unconditionally
+-- ARGV[2]  new state document
+-- Returns {1, newVersion} when written, {0, currentVersion} on a version mismatch.
+local current = tonumber(redis.call('HGET', KEYS[1], 'version') or '0')
+local expected = tonumber(ARGV[1])
+if expected >= 0 and expected ~= current then
+    return {0, current}
+end
+local nextVersion = current + 1
+redis.call('HSET', KEYS[1], 'state', ARGV[2], 'version', nextVersion)
+return {1, nextVersion}
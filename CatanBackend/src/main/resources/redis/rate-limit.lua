@@ -0,0 +1,12 @@
+-- Counts one attempt in the fixed window of a rate limit.
+-- KEYS[1]  counter of the current window
+-- ARGV[1]  length of the window in milliseconds
+-- Returns the number of attempts counted in the window so far and the milliseconds left until it ends.
+local count = redis.call('INCR', KEYS[1])
+local ttl = redis.call('PTTL', KEYS[1])
+if ttl < 0 then
+    -- First attempt of the window, or a counter that somehow lost its expiry
+    redis.call('PEXPIRE', KEYS[1], ARGV[1])
+    ttl = tonumber(ARGV[1])
+end
+return {count, ttl}
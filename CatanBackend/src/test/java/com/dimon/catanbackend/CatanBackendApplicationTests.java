@@ -3,7 +3,7 @@ package com.dimon.catanbackend;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "jwt.secret=application-test-secret-of-at-least-32-bytes")
 class CatanBackendApplicationTests {
 
     @Test
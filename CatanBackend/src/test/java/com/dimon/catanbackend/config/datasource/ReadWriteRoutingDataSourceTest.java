@@ -0,0 +1,133 @@
+package com.dimon.catanbackend.config.datasource;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes transactions between two embedded PostgreSQL servers standing in for the primary and the replica.
+ * Each server holds a {@code whoami} row naming it, and the replica a {@code lag} row read by the lag probe.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static EmbeddedPostgres primary;
+    private static EmbeddedPostgres replica;
+
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        primary = EmbeddedPostgres.start();
+        replica = EmbeddedPostgres.start();
+        label(primary.getPostgresDatabase(), "primary");
+        label(replica.getPostgresDatabase(), "replica");
+        new JdbcTemplate(replica.getPostgresDatabase()).execute("create table lag (seconds double precision)");
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        primary.close();
+        replica.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        setReplicaLag(0);
+        route(new ReplicaLagMonitor(replica.getPostgresDatabase(), "select seconds from lag", Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheFreshReplica() {
+        monitor.probe();
+
+        assertThat(monitor.isReplicaUsable()).isTrue();
+        assertThat(server(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        monitor.probe();
+
+        assertThat(server(readWrite)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsUseThePrimaryUntilTheFirstProbe() {
+        assertThat(server(readOnly)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() {
+        setReplicaLag(5);
+        monitor.probe();
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(monitor.getLastLagSeconds()).isEqualTo(5);
+        assertThat(server(readOnly)).isEqualTo("primary");
+
+        setReplicaLag(0.5);
+        monitor.probe();
+
+        assertThat(server(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheProbeFails() {
+        route(new ReplicaLagMonitor(replica.getPostgresDatabase(), "select seconds from missing_table",
+                Duration.ofSeconds(1)));
+        monitor.probe();
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(server(readOnly)).isEqualTo("primary");
+    }
+
+    private void route(ReplicaLagMonitor lagMonitor) {
+        monitor = lagMonitor;
+        ReadWriteRoutingDataSource router = new ReadWriteRoutingDataSource(lagMonitor);
+        router.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.PRIMARY, primary.getPostgresDatabase(),
+                ReadWriteRoutingDataSource.Route.REPLICA, replica.getPostgresDatabase()));
+        router.setDefaultTargetDataSource(primary.getPostgresDatabase());
+        router.afterPropertiesSet();
+        // Lazy, as in DataSourceRoutingConfig, so the route is chosen after the read-only flag is set
+        DataSource dataSource = new LazyConnectionDataSourceProxy(router);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String server(TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from whoami", String.class));
+    }
+
+    private static void setReplicaLag(double seconds) {
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica.getPostgresDatabase());
+        replicaJdbc.update("delete from lag");
+        replicaJdbc.update("insert into lag (seconds) values (?)", seconds);
+    }
+
+    private static void label(DataSource dataSource, String name) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table whoami (name varchar(20))");
+        jdbc.update("insert into whoami (name) values (?)", name);
+    }
+}
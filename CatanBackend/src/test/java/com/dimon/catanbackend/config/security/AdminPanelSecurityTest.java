@@ -0,0 +1,84 @@
+package com.dimon.catanbackend.config.security;
+
+import com.dimon.catanbackend.utils.JwtTokenUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every endpoint under {@code /adminPanel} is reserved to administrators: anonymous callers are asked to
+ * authenticate and players are refused.
+ */
+@SpringBootTest(properties = "jwt.secret=security-test-secret-of-at-least-32-bytes")
+@AutoConfigureMockMvc
+class AdminPanelSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenUtils jwtTokenUtils;
+
+    @Test
+    void anonymousCallerCannotRevokeTokens() throws Exception {
+        mockMvc.perform(post("/adminPanel/revokeTokens/{userId}", 1L))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void playerCannotRevokeTokens() throws Exception {
+        mockMvc.perform(post("/adminPanel/revokeTokens/{userId}", 1L)
+                        .header("Authorization", bearer("ROLE_USER")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void administratorCanRevokeTokens() throws Exception {
+        // No such user, but the request got past the security filters
+        mockMvc.perform(post("/adminPanel/revokeTokens/{userId}", Long.MAX_VALUE)
+                        .header("Authorization", bearer("ROLE_USER", "ROLE_ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void anonymousCallerCannotArchiveGames() throws Exception {
+        mockMvc.perform(post("/adminPanel/archiveGames").param("olderThanHours", "24"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/adminPanel/archiveJobs/{jobId}", UUID.randomUUID()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void playerCannotArchiveGames() throws Exception {
+        String player = bearer("ROLE_USER");
+        mockMvc.perform(post("/adminPanel/archiveGames").param("olderThanHours", "24")
+                        .header("Authorization", player))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/adminPanel/archiveJobs/{jobId}", UUID.randomUUID())
+                        .header("Authorization", player))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void administratorCanFollowArchiveJobs() throws Exception {
+        mockMvc.perform(get("/adminPanel/archiveJobs/{jobId}", UUID.randomUUID())
+                        .header("Authorization", bearer("ROLE_USER", "ROLE_ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    private String bearer(String... roles) {
+        List<SimpleGrantedAuthority> authorities = List.of(roles).stream().map(SimpleGrantedAuthority::new).toList();
+        return "Bearer " + jwtTokenUtils.generateToken(new User(UUID.randomUUID() + "@example.com", "", authorities));
+    }
+}
@@ -0,0 +1,90 @@
+package com.dimon.catanbackend.config.security;
+
+import com.dimon.catanbackend.entities.User;
+import com.dimon.catanbackend.repositories.UserRepository;
+import com.dimon.catanbackend.utils.JwtTokenUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The ledger is only shown to authenticated users, and the economics of a user only to that user and to
+ * administrators.
+ */
+@SpringBootTest(properties = "jwt.secret=security-test-secret-of-at-least-32-bytes")
+@AutoConfigureMockMvc
+class LedgerSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenUtils jwtTokenUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void anonymousCallerCannotReadTheLedger() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        mockMvc.perform(get("/api/ledger/games/{gameId}/entries", gameId)).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/ledger/games/{gameId}/summary", gameId)).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/ledger/games/{gameId}/balances", gameId)).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/ledger/users/{username}/summary", "anyone")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void playerCanReadTheLedgerOfAGame() throws Exception {
+        mockMvc.perform(get("/api/ledger/games/{gameId}/summary", UUID.randomUUID())
+                        .header("Authorization", bearer(createUser(), "ROLE_USER")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void playerCanReadOnlyTheirOwnEconomics() throws Exception {
+        User player = createUser();
+        User other = createUser();
+        String token = bearer(player, "ROLE_USER");
+
+        mockMvc.perform(get("/api/ledger/users/{username}/summary", player.getUsername()).header("Authorization", token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/ledger/users/{username}/summary", other.getUsername()).header("Authorization", token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void administratorCanReadTheEconomicsOfAnyUser() throws Exception {
+        User other = createUser();
+
+        mockMvc.perform(get("/api/ledger/users/{username}/summary", other.getUsername())
+                        .header("Authorization", bearer(createUser(), "ROLE_USER", "ROLE_ADMIN")))
+                .andExpect(status().isOk());
+    }
+
+    private User createUser() {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .active(true)
+                .roles(new ArrayList<>())
+                .friends(new ArrayList<>())
+                .build());
+    }
+
+    private String bearer(User user, String... roles) {
+        List<SimpleGrantedAuthority> authorities = List.of(roles).stream().map(SimpleGrantedAuthority::new).toList();
+        return "Bearer " + jwtTokenUtils.generateToken(
+                new org.springframework.security.core.userdetails.User(user.getEmail(), "", authorities));
+    }
+}
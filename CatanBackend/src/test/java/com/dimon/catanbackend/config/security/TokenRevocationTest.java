@@ -0,0 +1,170 @@
+package com.dimon.catanbackend.config.security;
+
+import com.dimon.catanbackend.config.pagination.PaginationProperties;
+import com.dimon.catanbackend.entities.User;
+import com.dimon.catanbackend.service.RoleService;
+import com.dimon.catanbackend.service.TokenRevocationService;
+import com.dimon.catanbackend.service.UserCacheService;
+import com.dimon.catanbackend.service.UserService;
+import com.dimon.catanbackend.support.IntegrationTestSupport;
+import com.dimon.catanbackend.utils.JwtTokenUtils;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stateless authentication from token claims, and revocation of tokens across nodes.
+ */
+@Import({
+        TokenRevocationService.class,
+        JwtTokenUtils.class,
+        UserService.class,
+        UserCacheService.class,
+        RoleService.class,
+        PaginationProperties.class
+})
+class TokenRevocationTest extends IntegrationTestSupport {
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private JwtTokenUtils jwtTokenUtils;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessFilterAuthenticatesFromTheToken() {
+        JwtRequestFilter filter = applicationContext.getAutowireCapableBeanFactory().createBean(JwtRequestFilter.class);
+        String email = "player-" + UUID.randomUUID() + "@example.com";
+
+        doFilter(filter, token(email));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(((UserDetails) authentication.getPrincipal()).getUsername()).isEqualTo(email);
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void filterRefusesALoggedOutToken() {
+        JwtRequestFilter filter = applicationContext.getAutowireCapableBeanFactory().createBean(JwtRequestFilter.class);
+        String token = token("player-" + UUID.randomUUID() + "@example.com");
+        tokenRevocationService.revokeToken(jwtTokenUtils.getClaims(token));
+
+        doFilter(filter, token);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void loggedOutTokenIsRefusedOnEveryNode() throws InterruptedException {
+        TokenRevocationService otherNode = applicationContext.getAutowireCapableBeanFactory()
+                .createBean(TokenRevocationService.class);
+        String email = "player-" + UUID.randomUUID() + "@example.com";
+        Claims loggedOut = jwtTokenUtils.getClaims(token(email));
+        Claims otherDevice = jwtTokenUtils.getClaims(token(email));
+
+        tokenRevocationService.revokeToken(loggedOut);
+
+        assertThat(tokenRevocationService.isRevoked(loggedOut)).isTrue();
+        awaitRevoked(otherNode, loggedOut);
+        assertThat(otherNode.isRevoked(otherDevice)).isFalse();
+    }
+
+    @Test
+    void nodeStartedAfterARevocationLearnsItFromRedis() {
+        Claims claims = jwtTokenUtils.getClaims(token("player-" + UUID.randomUUID() + "@example.com"));
+        tokenRevocationService.revokeToken(claims);
+
+        TokenRevocationService laterNode = applicationContext.getAutowireCapableBeanFactory()
+                .createBean(TokenRevocationService.class);
+
+        assertThat(laterNode.isRevoked(claims)).isTrue();
+    }
+
+    @Test
+    void revokingAUserRefusesOnlyTheTokensIssuedBefore() throws InterruptedException {
+        String email = "player-" + UUID.randomUUID() + "@example.com";
+        Claims before = jwtTokenUtils.getClaims(token(email));
+
+        tokenRevocationService.revokeUser(email);
+        // Issue times have a precision of one second
+        Thread.sleep(1100);
+        Claims after = jwtTokenUtils.getClaims(token(email));
+
+        assertThat(tokenRevocationService.isRevoked(before)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(after)).isFalse();
+    }
+
+    @Test
+    void deletingAUserRevokesItsTokens() throws Exception {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .active(true)
+                .roles(new ArrayList<>())
+                .friends(new ArrayList<>())
+                .build());
+        Claims claims = jwtTokenUtils.getClaims(token(user.getEmail()));
+
+        userService.deleteUserById(user.getId());
+
+        assertThat(tokenRevocationService.isRevoked(claims)).isTrue();
+    }
+
+    private String token(String email) {
+        return jwtTokenUtils.generateToken(new org.springframework.security.core.userdetails.User(
+                email, "", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    private static void doFilter(JwtRequestFilter filter, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitRevoked(TokenRevocationService node, Claims claims) throws InterruptedException {
+        long deadline = System.nanoTime() + 3_000_000_000L;
+        while (!node.isRevoked(claims) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(node.isRevoked(claims)).isTrue();
+    }
+}
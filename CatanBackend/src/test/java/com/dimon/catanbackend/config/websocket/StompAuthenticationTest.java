@@ -0,0 +1,167 @@
+package com.dimon.catanbackend.config.websocket;
+
+import com.dimon.catanbackend.controller.GameController;
+import com.dimon.catanbackend.dtos.AuthUser;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.entities.User;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.dimon.catanbackend.repositories.PlayerRepository;
+import com.dimon.catanbackend.service.TokenRevocationService;
+import com.dimon.catanbackend.support.GameTestSupport;
+import com.dimon.catanbackend.utils.JwtTokenUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * STOMP sessions authenticate once at CONNECT, and handlers act for the session's user, not the payload's.
+ */
+@Import(JwtTokenUtils.class)
+class StompAuthenticationTest extends GameTestSupport {
+
+    @Autowired
+    private JwtTokenUtils jwtTokenUtils;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private StompAuthChannelInterceptor interceptor;
+
+    @BeforeEach
+    void createInterceptor() {
+        interceptor = applicationContext.getAutowireCapableBeanFactory().createBean(StompAuthChannelInterceptor.class);
+    }
+
+    @Test
+    void connectBindsThePrincipalOfTheToken() {
+        SeededGame seeded = seedGame(2);
+        AuthUser authUser = authUser(seeded, 0);
+        String token = jwtTokenUtils.generateToken(authUser);
+
+        Message<?> connected = interceptor.preSend(connect("Bearer " + token), null);
+
+        Principal user = MessageHeaderAccessor.getAccessor(connected, StompHeaderAccessor.class).getUser();
+        assertThat(user).isInstanceOf(StompPrincipal.class);
+        assertThat(((StompPrincipal) user).getUserId()).isEqualTo(authUser.getId());
+        assertThat(user.getName()).isEqualTo(seeded.username(0));
+    }
+
+    @Test
+    void connectWithoutAValidTokenIsRefused() {
+        SeededGame seeded = seedGame(2);
+        String token = jwtTokenUtils.generateToken(authUser(seeded, 0));
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> interceptor.preSend(connect(null), null))
+                .isInstanceOf(MessageDeliveryException.class);
+        assertThatThrownBy(() -> interceptor.preSend(connect("Bearer " + forged), null))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void connectWithARevokedTokenIsRefused() {
+        SeededGame seeded = seedGame(2);
+        String token = jwtTokenUtils.generateToken(authUser(seeded, 0));
+        tokenRevocationService.revokeToken(jwtTokenUtils.getClaims(token));
+
+        assertThatThrownBy(() -> interceptor.preSend(connect("Bearer " + token), null))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void framesOfAnUnauthenticatedSessionAreRefused() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setDestination("/app/player/buyProperty");
+        Message<byte[]> send = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        assertThatThrownBy(() -> interceptor.preSend(send, null)).isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void handlerActsForTheSessionUserWhateverThePayloadClaims() {
+        GameController gameController = applicationContext.getAutowireCapableBeanFactory()
+                .createBean(GameController.class);
+        SeededGame seeded = seedGame(2);
+        Map<String, String> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("gameName", "query-count");
+        // Player 1 claims to be player 0
+        message.put("username", seeded.username(0));
+        message.put("propertyName", "Mercedes");
+
+        gameController.buyProperty(message, principal(seeded, 1));
+
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), "Mercedes").orElseThrow();
+        assertThat(property.getOwner().getUsername()).isEqualTo(seeded.username(1));
+        Player impersonated = playerRepository.findByUsernameAndGameId(seeded.username(0), seeded.getGameId())
+                .orElseThrow();
+        assertThat(impersonated.getMoney()).isEqualTo(100000);
+    }
+
+    @Test
+    void onlyTheCurrentPlayerCanEndTheTurn() {
+        GameController gameController = applicationContext.getAutowireCapableBeanFactory()
+                .createBean(GameController.class);
+        SeededGame seeded = seedGame(2);
+
+        // Player 1 claims to be player 0, whose turn it is
+        assertThatThrownBy(() -> gameController.endTurn(endTurnMessage(seeded, 0), principal(seeded, 1)))
+                .isInstanceOf(InvalidActionException.class);
+        assertThat(gameRepository.findById(seeded.getGameId()).orElseThrow().getCurrentPlayerId())
+                .isEqualTo(seeded.player(0).getId());
+
+        gameController.endTurn(endTurnMessage(seeded, 1), principal(seeded, 0));
+
+        assertThat(gameRepository.findById(seeded.getGameId()).orElseThrow().getCurrentPlayerId())
+                .isEqualTo(seeded.player(1).getId());
+    }
+
+    private static Map<String, String> endTurnMessage(SeededGame seeded, int claimedPlayerIndex) {
+        Map<String, String> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("gameName", "query-count");
+        message.put("username", seeded.username(claimedPlayerIndex));
+        return message;
+    }
+
+    private static Message<byte[]> connect(String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        if (authorization != null) {
+            accessor.addNativeHeader("Authorization", authorization);
+        }
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private AuthUser authUser(SeededGame seeded, int playerIndex) {
+        User user = userRepository.findByUsername(seeded.username(playerIndex)).orElseThrow();
+        return new AuthUser(user);
+    }
+
+    private StompPrincipal principal(SeededGame seeded, int playerIndex) {
+        User user = userRepository.findByUsername(seeded.username(playerIndex)).orElseThrow();
+        return new StompPrincipal(user.getId(), user.getUsername(), user.getEmail());
+    }
+}
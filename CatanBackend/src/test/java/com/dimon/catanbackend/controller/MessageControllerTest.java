@@ -0,0 +1,96 @@
+package com.dimon.catanbackend.controller;
+
+import com.dimon.catanbackend.entities.ChatMessage;
+import com.dimon.catanbackend.repositories.ChatMessageRepository;
+import com.dimon.catanbackend.utils.KeysetCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset pagination of the chat history, newest messages first.
+ */
+@SpringBootTest(properties = "jwt.secret=security-test-secret-of-at-least-32-bytes")
+@AutoConfigureMockMvc
+class MessageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Test
+    void pagesWalkTheHistoryFromTheNewestMessage() throws Exception {
+        List<Long> sent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sent.add(send("message " + i).getId());
+        }
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        for (int i = 0; i < 2; i++) {
+            JsonNode page = getPage(cursor, 2);
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").asText();
+        }
+
+        assertThat(seen).containsExactly(sent.get(4), sent.get(3), sent.get(2), sent.get(1));
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() throws Exception {
+        send("first");
+        send("second");
+        List<Long> ids = chatMessageRepository.findAll().stream().map(ChatMessage::getId).sorted().toList();
+
+        // Exactly one message is older than the second oldest: a full page, but nothing after it
+        JsonNode page = getPage(KeysetCursor.encode(ids.get(1).toString()), 1);
+
+        assertThat(page.get("items")).extracting(item -> item.get("id").asLong()).containsExactly(ids.get(0));
+        assertThat(page.get("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() throws Exception {
+        for (String cursor : List.of("not a cursor!", KeysetCursor.encode("abc"), KeysetCursor.encode("1", "2"))) {
+            mockMvc.perform(get("/api/chat/messages").param("cursor", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Invalid page cursor"));
+        }
+    }
+
+    private ChatMessage send(String content) {
+        ChatMessage message = new ChatMessage();
+        message.setType(ChatMessage.MessageType.CHAT);
+        message.setContent(content);
+        message.setSender("pagination");
+        return chatMessageRepository.save(message);
+    }
+
+    private JsonNode getPage(String cursor, int size) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/chat/messages").param("size", Integer.toString(size));
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,61 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.service.AuctionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuctionServiceQueryCountTest extends QueryCountTestSupport {
+
+    @Autowired
+    private AuctionService auctionService;
+
+    @Test
+    void startAuctionStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+
+        assertQueryBudget(4, () -> auctionService.startAuction(startMessage(seeded)));
+    }
+
+    @Test
+    void placeBidDoesNotTouchTheDatabase() {
+        SeededGame seeded = seedGame(4);
+        auctionService.startAuction(startMessage(seeded));
+
+        assertQueryBudget(0, () -> auctionService.placeBid(bidMessage(seeded, 2500)));
+    }
+
+    @Test
+    void bidThatCannotWinIsRefusedWithoutTouchingTheDatabase() {
+        SeededGame seeded = seedGame(2);
+        auctionService.startAuction(startMessage(seeded));
+
+        assertQueryBudget(0, () -> {
+            assertThatThrownBy(() -> auctionService.placeBid(bidMessage(seeded, 2000)))
+                    .hasMessage("Bid amount must be higher than the current highest bid.");
+            assertThatThrownBy(() -> auctionService.placeBid(bidMessage(seeded, 100001)))
+                    .hasMessage("You don't have enough money");
+        });
+    }
+
+    private Map<String, Object> startMessage(SeededGame seeded) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(0));
+        message.put("propertyName", "Mercedes");
+        message.put("initialBid", 2000);
+        return message;
+    }
+
+    private Map<String, Object> bidMessage(SeededGame seeded, int amount) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(1));
+        message.put("bidAmount", amount);
+        return message;
+    }
+}
@@ -0,0 +1,95 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.entities.AuctionMode;
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.service.AuctionService;
+import com.dimon.catanbackend.service.GameTimerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@TestPropertySource(properties = {"app.auction.bid-window=PT0.3S", "app.auction.sealed-window=PT0.6S"})
+class AuctionTimerTest extends QueryCountTestSupport {
+
+    @Autowired
+    private AuctionService auctionService;
+
+    @Autowired
+    private GameTimerService gameTimerService;
+
+    @Test
+    void auctionEndsOnceNobodyBidsForTheBidWindow() {
+        SeededGame seeded = seedGame(2);
+
+        auctionService.startAuction(startMessage(seeded));
+
+        verify(messagingTemplate, timeout(3000)).convertAndSend(eq("/topic/auction/end/" + seeded.getGameId()), any(Object.class));
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), "Mercedes").orElseThrow();
+        assertThat(property.getOwner().getId()).isEqualTo(seeded.player(0).getId());
+        assertThat(gameTimerService.pendingTimers()).isZero();
+    }
+
+    @Test
+    void everyBidRestartsTheBidWindow() throws InterruptedException {
+        SeededGame seeded = seedGame(2);
+        auctionService.startAuction(startMessage(seeded));
+
+        for (int i = 1; i <= 4; i++) {
+            Thread.sleep(150);
+            auctionService.placeBid(bidMessage(seeded, i % 2, 2000 + i * 100));
+        }
+
+        // 600 ms after the start, but only just after the last bid
+        verify(messagingTemplate, after(150).never()).convertAndSend(eq("/topic/auction/end/" + seeded.getGameId()), any(Object.class));
+        verify(messagingTemplate, timeout(3000)).convertAndSend(eq("/topic/auction/end/" + seeded.getGameId()), any(Object.class));
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), "Mercedes").orElseThrow();
+        assertThat(property.getOwner().getId()).isEqualTo(seeded.player(0).getId());
+        assertThat(gameTimerService.pendingTimers()).isZero();
+    }
+
+    @Test
+    void sealedBidAuctionEndsWithItsSingleWindow() throws InterruptedException {
+        SeededGame seeded = seedGame(3);
+        Game game = gameRepository.findById(seeded.getGameId()).orElseThrow();
+        game.setAuctionMode(AuctionMode.SEALED_BID);
+        gameRepository.save(game);
+        auctionService.startAuction(startMessage(seeded));
+
+        Thread.sleep(300);
+        auctionService.placeBid(bidMessage(seeded, 1, 2500));
+
+        // A bid does not extend the window, and the third player does not have to bid
+        verify(messagingTemplate, timeout(3000)).convertAndSend(eq("/topic/auction/end/" + seeded.getGameId()), any(Object.class));
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), "Mercedes").orElseThrow();
+        assertThat(property.getOwner().getId()).isEqualTo(seeded.player(1).getId());
+        assertThat(gameTimerService.pendingTimers()).isZero();
+    }
+
+    private Map<String, Object> startMessage(SeededGame seeded) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(0));
+        message.put("propertyName", "Mercedes");
+        message.put("initialBid", 2000);
+        return message;
+    }
+
+    private Map<String, Object> bidMessage(SeededGame seeded, int playerIndex, int amount) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(playerIndex));
+        message.put("bidAmount", amount);
+        return message;
+    }
+}
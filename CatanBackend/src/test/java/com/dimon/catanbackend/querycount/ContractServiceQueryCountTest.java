@@ -0,0 +1,87 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.dtos.ContractDto;
+import com.dimon.catanbackend.service.ContractService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+class ContractServiceQueryCountTest extends QueryCountTestSupport {
+
+    @Autowired
+    private ContractService contractService;
+
+    @Test
+    void proposeContractStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+        giveProperty(seeded, 0, "Mercedes");
+        giveProperty(seeded, 0, "Adidas");
+        giveProperty(seeded, 1, "Ferrari");
+
+        assertQueryBudget(4, () -> contractService.proposeContract(contractMessage(seeded)));
+    }
+
+    @Test
+    void acceptContractStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+        giveProperty(seeded, 0, "Mercedes");
+        giveProperty(seeded, 0, "Adidas");
+        giveProperty(seeded, 1, "Ferrari");
+        Map<String, Object> accept = propose(seeded);
+
+        assertQueryBudget(7 + LEDGER_STATEMENTS, () -> contractService.acceptContract(accept));
+    }
+
+    @Test
+    void acceptContractDoesNotQueryPerPlayer() {
+        assertQueriesDoNotGrowWithPlayers(seeded -> {
+            giveProperty(seeded, 0, "Mercedes");
+            giveProperty(seeded, 0, "Adidas");
+            giveProperty(seeded, 1, "Ferrari");
+            contractService.acceptContract(propose(seeded));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> propose(SeededGame seeded) {
+        contractService.proposeContract(contractMessage(seeded));
+        ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq("/topic/game/" + seeded.getGameId() + "/contract"), response.capture());
+        ContractDto contract = (ContractDto) ((Map<String, Object>) response.getValue()).get("contract");
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("contractId", contract.getId().toString());
+        message.put("username", seeded.username(1));
+        return message;
+    }
+
+    private Map<String, Object> contractMessage(SeededGame seeded) {
+        Map<String, Object> offer = new HashMap<>();
+        offer.put("money", 500);
+        offer.put("properties", List.of("Mercedes", "Adidas"));
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("money", 0);
+        request.put("properties", List.of("Ferrari"));
+
+        Map<String, Object> contract = new HashMap<>();
+        contract.put("fromUsername", seeded.username(0));
+        contract.put("toUsername", seeded.username(1));
+        contract.put("offer", offer);
+        contract.put("request", request);
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("contract", contract);
+        return message;
+    }
+}
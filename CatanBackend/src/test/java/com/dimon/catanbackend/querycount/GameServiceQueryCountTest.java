@@ -0,0 +1,116 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.User;
+import com.dimon.catanbackend.service.GameService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameServiceQueryCountTest extends QueryCountTestSupport {
+
+    @Autowired
+    private GameService gameService;
+
+    @Test
+    void createGameStaysWithinBudget() {
+        User host = createUser();
+
+        Map<String, String> message = new HashMap<>();
+        message.put("username", host.getEmail());
+        message.put("gameName", "query-count");
+        message.put("maxPlayers", "4");
+
+        assertQueryBudget(11 + LEDGER_STATEMENTS, () -> gameService.createGame(message));
+    }
+
+    @Test
+    void joinGameStaysWithinBudget() {
+        Game game = createWaitingGame();
+        User guest = createUser();
+
+        Map<String, String> message = new HashMap<>();
+        message.put("username", guest.getEmail());
+        message.put("gameName", game.getName());
+
+        assertQueryBudget(9 + LEDGER_STATEMENTS, () -> gameService.joinGame(game.getId(), message));
+    }
+
+    @Test
+    void endTurnStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+
+        assertQueryBudget(12, () -> gameService.endTurn(endTurnMessage(seeded)));
+    }
+
+    @Test
+    void endTurnDoesNotQueryPerPlayer() {
+        assertQueriesDoNotGrowWithPlayers(seeded -> gameService.endTurn(endTurnMessage(seeded)));
+    }
+
+    @Test
+    void leaveGameStaysWithinBudget() {
+        Game game = createWaitingGame();
+        User guest = createUser();
+        Map<String, String> join = new HashMap<>();
+        join.put("username", guest.getEmail());
+        join.put("gameName", game.getName());
+        gameService.joinGame(game.getId(), join);
+
+        Map<String, String> message = new HashMap<>();
+        message.put("username", guest.getEmail());
+
+        assertQueryBudget(6, () -> gameService.leaveGame(game.getId(), message));
+    }
+
+    @Test
+    void lastPlayerLeavingDeletesTheGame() {
+        User host = createUser();
+        Map<String, String> create = new HashMap<>();
+        create.put("username", host.getEmail());
+        create.put("gameName", "query-count");
+        create.put("maxPlayers", "4");
+        Game game = gameService.createGame(create);
+
+        Map<String, String> message = new HashMap<>();
+        message.put("username", host.getEmail());
+        gameService.leaveGame(game.getId(), message);
+
+        assertThat(gameRepository.findById(game.getId())).isEmpty();
+        assertThat(gameRepository.findParticipantsByGameIdIn(List.of(game.getId()))).isEmpty();
+    }
+
+    private Game createWaitingGame() {
+        Map<String, String> message = new HashMap<>();
+        message.put("username", createUser().getEmail());
+        message.put("gameName", "query-count");
+        message.put("maxPlayers", "4");
+        return gameService.createGame(message);
+    }
+
+    private User createUser() {
+        String name = "u-" + UUID.randomUUID();
+        return userRepository.save(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .active(true)
+                .roles(new ArrayList<>())
+                .friends(new ArrayList<>())
+                .build());
+    }
+
+    private Map<String, String> endTurnMessage(SeededGame seeded) {
+        Map<String, String> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("gameName", "query-count");
+        message.put("username", seeded.username(0));
+        return message;
+    }
+}
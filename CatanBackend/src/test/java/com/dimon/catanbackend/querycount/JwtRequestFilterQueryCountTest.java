@@ -0,0 +1,52 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.config.security.JwtRequestFilter;
+import com.dimon.catanbackend.utils.JwtTokenUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtRequestFilterQueryCountTest extends QueryCountTestSupport {
+
+    @Autowired
+    private JwtTokenUtils jwtTokenUtils;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessFilterDoesNotTouchTheDatabase() {
+        JwtRequestFilter filter = applicationContext.getAutowireCapableBeanFactory().createBean(JwtRequestFilter.class);
+        String token = jwtTokenUtils.generateToken(new User(
+                "player-" + UUID.randomUUID() + "@example.com", "", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/me");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        assertQueryBudget(0, () -> {
+            try {
+                filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+    }
+}
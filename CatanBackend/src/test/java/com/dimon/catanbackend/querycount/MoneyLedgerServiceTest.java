@@ -0,0 +1,163 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.dtos.LedgerBalanceDto;
+import com.dimon.catanbackend.dtos.LedgerSummaryDto;
+import com.dimon.catanbackend.entities.LedgerEntry;
+import com.dimon.catanbackend.entities.LedgerReason;
+import com.dimon.catanbackend.exceptions.InsufficientFundsException;
+import com.dimon.catanbackend.service.GameSnapshotService;
+import com.dimon.catanbackend.service.MoneyLedgerService;
+import com.dimon.catanbackend.service.MoneyTransferService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MoneyLedgerServiceTest extends QueryCountTestSupport {
+
+    @Autowired
+    private MoneyLedgerService moneyLedgerService;
+
+    @Autowired
+    private MoneyTransferService moneyTransferService;
+
+    @Autowired
+    private GameSnapshotService gameSnapshotService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movementsAreWrittenWithTheirCommand() {
+        SeededGame seeded = seedGame(2);
+
+        moneyTransferService.transfer(seeded.player(0), seeded.player(1), 30000, LedgerReason.CONTRACT);
+        moneyTransferService.credit(seeded.player(1), 2000, LedgerReason.GO_SALARY);
+        moneyTransferService.debit(seeded.player(0), 500, LedgerReason.PAYMENT);
+
+        assertThat(entries(seeded))
+                .extracting(LedgerEntry::getFromUsername, LedgerEntry::getToUsername, LedgerEntry::getAmount, LedgerEntry::getReason)
+                .containsExactly(
+                        tuple(seeded.username(0), seeded.username(1), 30000, LedgerReason.CONTRACT),
+                        tuple(null, seeded.username(1), 2000, LedgerReason.GO_SALARY),
+                        tuple(seeded.username(0), null, 500, LedgerReason.PAYMENT));
+    }
+
+    @Test
+    void refusedMovementsAreNotRecorded() {
+        SeededGame seeded = seedGame(2);
+
+        assertThatThrownBy(() -> moneyTransferService.transfer(seeded.player(0), seeded.player(1), 100001, LedgerReason.CONTRACT))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(entries(seeded)).isEmpty();
+    }
+
+    @Test
+    void movementsOfARolledBackCommandAreNotRecorded() {
+        SeededGame seeded = seedGame(2);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            moneyTransferService.debit(seeded.player(0), 500, LedgerReason.PAYMENT);
+            status.setRollbackOnly();
+        });
+
+        assertThat(entries(seeded)).isEmpty();
+    }
+
+    @Test
+    void entriesCarryTheSnapshotVersionWrittenByTheSameCommand() {
+        SeededGame seeded = seedGame(2);
+        // A version the command does not start from, so a missing stamp cannot pass by accident
+        stringRedisTemplate.opsForHash().put("game:" + seeded.gameIdText(), "version", "41");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            moneyTransferService.debit(seeded.player(0), 500, LedgerReason.PAYMENT);
+            gameSnapshotService.update(seeded.getGameId()).player(seeded.player(0)).write();
+        });
+
+        assertThat(entries(seeded)).extracting(LedgerEntry::getGameVersion).containsExactly(42L);
+    }
+
+    @Test
+    void entriesOfACommandAreInsertedInBatches() {
+        SeededGame seeded = seedGame(2);
+
+        // Three sequence calls and three insert batches of at most 50 rows
+        int statements = countQueries(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 120; i++) {
+                moneyLedgerService.record(null, seeded.player(0), 1, LedgerReason.GO_SALARY);
+            }
+        }));
+
+        assertThat(statements).isLessThanOrEqualTo(6);
+        assertThat(entries(seeded)).hasSize(120);
+    }
+
+    @Test
+    void ledgerRowsCannotBeChanged() {
+        SeededGame seeded = seedGame(2);
+        moneyTransferService.credit(seeded.player(0), 2000, LedgerReason.GO_SALARY);
+
+        assertThatThrownBy(() -> jdbcTemplate.update("update money_ledger set amount = 1 where game_id = ?", seeded.getGameId()))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining("append-only");
+        // A missing version can be stamped once, and never changed afterwards
+        jdbcTemplate.update("update money_ledger set game_version = 7 where game_id = ?", seeded.getGameId());
+        assertThatThrownBy(() -> jdbcTemplate.update("update money_ledger set game_version = 8 where game_id = ?", seeded.getGameId()))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining("append-only");
+        assertThatThrownBy(() -> jdbcTemplate.update("delete from money_ledger where game_id = ?", seeded.getGameId()))
+                .isInstanceOf(DataAccessException.class);
+    }
+
+    @Test
+    void balancesCombineTheCheckpointWithLaterEntries() {
+        SeededGame seeded = seedGame(2);
+        moneyTransferService.transfer(seeded.player(0), seeded.player(1), 30000, LedgerReason.CONTRACT);
+        moneyTransferService.credit(seeded.player(0), 2000, LedgerReason.GO_SALARY);
+
+        moneyLedgerService.checkpoint(LocalDateTime.now());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from balance_checkpoint where game_id = ?",
+                Integer.class, seeded.getGameId())).isEqualTo(2);
+
+        moneyTransferService.transferAllowingDebt(seeded.player(1), seeded.player(0), 5000, LedgerReason.RENT);
+
+        assertThat(moneyLedgerService.getGameBalances(seeded.getGameId()))
+                .extracting(LedgerBalanceDto::getUsername, LedgerBalanceDto::getBalance)
+                .containsExactlyInAnyOrder(
+                        tuple(seeded.username(0), -30000L + 2000 + 5000),
+                        tuple(seeded.username(1), 30000L - 5000));
+    }
+
+    @Test
+    void summariesSplitPaidAndReceivedByReason() {
+        SeededGame seeded = seedGame(2);
+        moneyTransferService.transferAllowingDebt(seeded.player(0), seeded.player(1), 1000, LedgerReason.RENT);
+        moneyTransferService.transferAllowingDebt(seeded.player(0), seeded.player(1), 500, LedgerReason.RENT);
+        moneyTransferService.credit(seeded.player(0), 2000, LedgerReason.GO_SALARY);
+
+        assertThat(moneyLedgerService.summarizeGame(seeded.getGameId())).containsExactlyInAnyOrder(
+                new LedgerSummaryDto(seeded.username(0), LedgerReason.GO_SALARY, 0, 2000, 1),
+                new LedgerSummaryDto(seeded.username(0), LedgerReason.RENT, 1500, 0, 2),
+                new LedgerSummaryDto(seeded.username(1), LedgerReason.RENT, 0, 1500, 2));
+        assertThat(moneyLedgerService.summarizeUser(seeded.username(1))).containsExactly(
+                new LedgerSummaryDto(seeded.username(1), LedgerReason.RENT, 0, 1500, 2));
+    }
+
+    private List<LedgerEntry> entries(SeededGame seeded) {
+        return moneyLedgerService.findGameEntries(seeded.getGameId(), null, 200).getItems();
+    }
+}
@@ -0,0 +1,171 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.dtos.PlayerBalance;
+import com.dimon.catanbackend.entities.LedgerReason;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.exceptions.InsufficientFundsException;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.dimon.catanbackend.repositories.PlayerRepository;
+import com.dimon.catanbackend.service.MoneyTransferService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour of the guarded money statements against a real PostgreSQL server. Every seeded player starts
+ * with 100000.
+ */
+class MoneyTransferServiceTest extends QueryCountTestSupport {
+
+    @Autowired
+    private MoneyTransferService moneyTransferService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void transferMovesMoneyAndReturnsBothBalances() {
+        SeededGame seeded = seedGame(2);
+
+        List<PlayerBalance> balances = moneyTransferService.transfer(seeded.player(0), seeded.player(1), 30000, LedgerReason.CONTRACT);
+
+        assertThat(balances).containsExactly(
+                new PlayerBalance(seeded.player(0).getId(), 70000),
+                new PlayerBalance(seeded.player(1).getId(), 130000));
+        assertThat(storedMoney(seeded.player(0))).isEqualTo(70000);
+        assertThat(storedMoney(seeded.player(1))).isEqualTo(130000);
+    }
+
+    @Test
+    void failedTransferLeavesBothBalancesUnchanged() {
+        SeededGame seeded = seedGame(2);
+
+        assertThatThrownBy(() -> moneyTransferService.transfer(seeded.player(0), seeded.player(1), 100001, LedgerReason.CONTRACT))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(storedMoney(seeded.player(0))).isEqualTo(100000);
+        assertThat(storedMoney(seeded.player(1))).isEqualTo(100000);
+    }
+
+    @Test
+    void guardedTransferStatementDoesNotCreditWhenThePayerCannotCoverIt() {
+        SeededGame seeded = seedGame(2);
+
+        // Run in a transaction that is rolled back anyway, to see what the statement itself touched
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer rows = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return playerRepository.transferMoney(seeded.player(0).getId(), seeded.player(1).getId(), 100001).size();
+        });
+
+        assertThat(rows).isZero();
+    }
+
+    @Test
+    void transferAllowingDebtTakesThePayerBelowZero() {
+        SeededGame seeded = seedGame(2);
+
+        List<PlayerBalance> balances = moneyTransferService.transferAllowingDebt(seeded.player(0), seeded.player(1), 150000, LedgerReason.RENT);
+
+        assertThat(balances).containsExactly(
+                new PlayerBalance(seeded.player(0).getId(), -50000),
+                new PlayerBalance(seeded.player(1).getId(), 250000));
+        assertThat(storedMoney(seeded.player(0))).isEqualTo(-50000);
+        assertThat(seeded.player(0).getMoney()).isEqualTo(-50000);
+    }
+
+    @Test
+    void debitAndCreditReturnTheNewBalance() {
+        SeededGame seeded = seedGame(1);
+        Player player = seeded.player(0);
+
+        assertThat(moneyTransferService.debit(player, 40000, LedgerReason.PAYMENT)).isEqualTo(60000);
+        assertThat(moneyTransferService.credit(player, 2000, LedgerReason.GO_SALARY)).isEqualTo(62000);
+        assertThat(player.getMoney()).isEqualTo(62000);
+        assertThat(storedMoney(player)).isEqualTo(62000);
+    }
+
+    @Test
+    void debitBeyondTheBalanceFailsAndLeavesItUnchanged() {
+        SeededGame seeded = seedGame(1);
+
+        assertThatThrownBy(() -> moneyTransferService.debit(seeded.player(0), 100001, LedgerReason.PAYMENT))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(storedMoney(seeded.player(0))).isEqualTo(100000);
+    }
+
+    @Test
+    void zeroAmountsDoNotTouchTheDatabase() {
+        SeededGame seeded = seedGame(2);
+
+        assertThat(countQueries(() -> {
+            moneyTransferService.debit(seeded.player(0), 0, LedgerReason.PAYMENT);
+            moneyTransferService.credit(seeded.player(0), 0, LedgerReason.GO_SALARY);
+            moneyTransferService.transfer(seeded.player(0), seeded.player(1), 0, LedgerReason.CONTRACT);
+        })).isZero();
+    }
+
+    @Test
+    void invalidTransfersAreRejected() {
+        SeededGame seeded = seedGame(2);
+
+        assertThatThrownBy(() -> moneyTransferService.debit(seeded.player(0), -1, LedgerReason.PAYMENT))
+                .isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> moneyTransferService.transfer(seeded.player(0), seeded.player(0), 10, LedgerReason.CONTRACT))
+                .isInstanceOf(InvalidActionException.class);
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdrawTheBalance() throws Exception {
+        SeededGame seeded = seedGame(1);
+        Player player = seeded.player(0);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<Boolean> debit = () -> {
+                    start.await();
+                    try {
+                        moneyTransferService.debit(playerRepository.findById(player.getId()).orElseThrow(), 30000, LedgerReason.PAYMENT);
+                        return true;
+                    } catch (InsufficientFundsException e) {
+                        return false;
+                    }
+                };
+                results.add(executor.submit(debit));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                succeeded += result.get() ? 1 : 0;
+            }
+            assertThat(succeeded).isEqualTo(3);
+            assertThat(storedMoney(player)).isEqualTo(10000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int storedMoney(Player player) {
+        return playerRepository.findById(player.getId()).orElseThrow().getMoney();
+    }
+}
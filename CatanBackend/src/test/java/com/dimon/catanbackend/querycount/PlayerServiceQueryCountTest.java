@@ -0,0 +1,149 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.service.PlayerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class PlayerServiceQueryCountTest extends QueryCountTestSupport {
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Test
+    void movePlayerStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+
+        assertQueryBudget(7, () -> playerService.movePlayer(moveMessage(seeded, 0, 5)));
+    }
+
+    @Test
+    void movePlayerDoesNotQueryPerPlayer() {
+        assertQueriesDoNotGrowWithPlayers(seeded -> playerService.movePlayer(moveMessage(seeded, 0, 5)));
+    }
+
+    @Test
+    void payRentStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+        giveProperty(seeded, 1, "Mercedes");
+        playerService.movePlayer(moveMessage(seeded, 0, 5));
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(0));
+        message.put("rent", 250);
+
+        assertQueryBudget(7 + LEDGER_STATEMENTS, () -> playerService.payRent(message));
+    }
+
+    @Test
+    void buyPropertyStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+
+        assertQueryBudget(9 + LEDGER_STATEMENTS, () -> playerService.buyProperty(propertyMessage(seeded, 0, "Mercedes")));
+    }
+
+    @Test
+    void buyPropertyDoesNotQueryPerPlayer() {
+        assertQueriesDoNotGrowWithPlayers(seeded -> playerService.buyProperty(propertyMessage(seeded, 0, "Mercedes")));
+    }
+
+    @Test
+    void buyOfficeStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+        playerService.buyProperty(propertyMessage(seeded, 0, "Chanel"));
+        playerService.buyProperty(propertyMessage(seeded, 0, "Boss"));
+
+        assertQueryBudget(8 + LEDGER_STATEMENTS, () -> playerService.buyOffice(propertyMessage(seeded, 0, "Chanel")));
+    }
+
+    @Test
+    void mortgagePropertyStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+        playerService.buyProperty(propertyMessage(seeded, 0, "Mercedes"));
+
+        assertQueryBudget(8 + LEDGER_STATEMENTS, () -> playerService.mortgageProperty(propertyMessage(seeded, 0, "Mercedes")));
+    }
+
+    @Test
+    void unmortgagePropertyStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+        playerService.buyProperty(propertyMessage(seeded, 0, "Mercedes"));
+        playerService.mortgageProperty(propertyMessage(seeded, 0, "Mercedes"));
+
+        assertQueryBudget(8 + LEDGER_STATEMENTS, () -> playerService.unmortgageProperty(propertyMessage(seeded, 0, "Mercedes")));
+    }
+
+    @Test
+    void managePropertiesStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+        giveProperty(seeded, 0, "Chanel");
+        giveProperty(seeded, 0, "Adidas");
+        giveProperty(seeded, 0, "Nike");
+        giveProperty(seeded, 0, "Mercedes");
+
+        // Seven operations, but one statement per kind of money movement and one batch of property updates
+        assertQueryBudget(9 + LEDGER_STATEMENTS, () -> playerService.manageProperties(manageMessage(seeded,
+                "BUILD", "Chanel", "BUILD", "Chanel", "BUILD", "Adidas", "SELL", "Adidas",
+                "MORTGAGE", "Nike", "MORTGAGE", "Mercedes", "UNMORTGAGE", "Mercedes")));
+    }
+
+    @Test
+    void managePropertiesDoesNotQueryPerPlayer() {
+        assertQueriesDoNotGrowWithPlayers(seeded -> {
+            giveProperty(seeded, 0, "Chanel");
+            giveProperty(seeded, 0, "Mercedes");
+            playerService.manageProperties(manageMessage(seeded, "BUILD", "Chanel", "MORTGAGE", "Mercedes"));
+        });
+    }
+
+    @Test
+    void surrenderStaysWithinBudget() {
+        SeededGame seeded = seedGame(4);
+        playerService.buyProperty(propertyMessage(seeded, 1, "Mercedes"));
+
+        Map<String, String> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(1));
+
+        assertQueryBudget(7, () -> playerService.surrender(message));
+    }
+
+    private Map<String, Object> moveMessage(SeededGame seeded, int playerIndex, int newPosition) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("gameName", "query-count");
+        message.put("username", seeded.username(playerIndex));
+        message.put("newPosition", newPosition);
+        message.put("x", 0);
+        message.put("y", 0);
+        message.put("finalPos", true);
+        message.put("start", false);
+        return message;
+    }
+
+    private Map<String, Object> manageMessage(SeededGame seeded, String... actionsAndProperties) {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (int i = 0; i < actionsAndProperties.length; i += 2) {
+            operations.add(Map.of("action", actionsAndProperties[i], "propertyName", actionsAndProperties[i + 1]));
+        }
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(0));
+        message.put("operations", operations);
+        return message;
+    }
+
+    private Map<String, String> propertyMessage(SeededGame seeded, int playerIndex, String propertyName) {
+        Map<String, String> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("gameName", "query-count");
+        message.put("username", seeded.username(playerIndex));
+        message.put("propertyName", propertyName);
+        return message;
+    }
+}
@@ -0,0 +1,137 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.entities.LedgerReason;
+import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.exceptions.InsufficientFundsException;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.dimon.catanbackend.repositories.PlayerRepository;
+import com.dimon.catanbackend.service.MoneyTransferService;
+import com.dimon.catanbackend.service.PlayerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PropertyManagementTest extends QueryCountTestSupport {
+
+    @Autowired
+    private PlayerService playerService;
+
+    @Autowired
+    private MoneyTransferService moneyTransferService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Test
+    void operationsAreAppliedInOrderWithOneBroadcast() {
+        SeededGame seeded = seedGame(3);
+        giveProperty(seeded, 0, "Chanel");
+        giveProperty(seeded, 0, "Mercedes");
+        moneyTransferService.debit(seeded.player(0), 99000, LedgerReason.PAYMENT);
+
+        // 1000 is not enough for an office, until the mortgage of Mercedes pays 1500
+        playerService.manageProperties(manageMessage(seeded, "MORTGAGE", "Mercedes", "BUILD", "Chanel"));
+
+        assertThat(property(seeded, "Mercedes").isMortgaged()).isTrue();
+        assertThat(property(seeded, "Mercedes").getBaseRent()).isZero();
+        assertThat(property(seeded, "Chanel").getOffices()).isEqualTo(1);
+        assertThat(money(seeded, 0)).isEqualTo(500);
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/game/" + seeded.getGameId()),
+                argThat((Map<String, Object> response) -> ((List<?>) response.get("properties")).size() == 2
+                        && ((List<?>) response.get("players")).size() == 3));
+    }
+
+    @Test
+    void operationsThatCannotBePaidAtTheirTurnApplyNothing() {
+        SeededGame seeded = seedGame(2);
+        giveProperty(seeded, 0, "Chanel");
+        giveProperty(seeded, 0, "Mercedes");
+        moneyTransferService.debit(seeded.player(0), 99000, LedgerReason.PAYMENT);
+
+        assertThatThrownBy(() -> playerService.manageProperties(manageMessage(seeded, "BUILD", "Chanel", "MORTGAGE", "Mercedes")))
+                .isInstanceOf(InsufficientFundsException.class)
+                .hasMessageStartingWith("Operation 1 (BUILD Chanel)");
+
+        assertThat(property(seeded, "Chanel").getOffices()).isZero();
+        assertThat(property(seeded, "Mercedes").isMortgaged()).isFalse();
+        assertThat(money(seeded, 0)).isEqualTo(1000);
+    }
+
+    @Test
+    void invalidOperationLaterInTheListAppliesNothing() {
+        SeededGame seeded = seedGame(2);
+        giveProperty(seeded, 0, "Chanel");
+        giveProperty(seeded, 0, "Adidas");
+
+        assertThatThrownBy(() -> playerService.manageProperties(manageMessage(seeded,
+                "BUILD", "Chanel", "BUILD", "Chanel", "MORTGAGE", "Adidas", "SELL", "Adidas")))
+                .isInstanceOf(InvalidActionException.class)
+                .hasMessageStartingWith("Operation 4 (SELL Adidas)");
+
+        assertThat(property(seeded, "Chanel").getOffices()).isZero();
+        assertThat(property(seeded, "Adidas").isMortgaged()).isFalse();
+        assertThat(money(seeded, 0)).isEqualTo(100000);
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/game/" + seeded.getGameId()), any(Object.class));
+    }
+
+    @Test
+    void propertiesOfOtherPlayersCannotBeManaged() {
+        SeededGame seeded = seedGame(2);
+        giveProperty(seeded, 1, "Chanel");
+
+        assertThatThrownBy(() -> playerService.manageProperties(manageMessage(seeded, "BUILD", "Chanel")))
+                .isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> playerService.manageProperties(manageMessage(seeded, "DEMOLISH", "Chanel")))
+                .isInstanceOf(InvalidActionException.class);
+        assertThat(property(seeded, "Chanel").getOffices()).isZero();
+    }
+
+    @Test
+    void sellingAndUnmortgagingMoveTheSameMoneyAsTheSingleCommands() {
+        SeededGame seeded = seedGame(2);
+        giveProperty(seeded, 0, "Chanel");
+        giveProperty(seeded, 0, "Mercedes");
+        playerService.manageProperties(manageMessage(seeded, "BUILD", "Chanel", "BUILD", "Chanel", "MORTGAGE", "Mercedes"));
+
+        playerService.manageProperties(manageMessage(seeded, "SELL", "Chanel", "UNMORTGAGE", "Mercedes"));
+
+        // -2000 -2000 +1500, then +2000 -1650
+        assertThat(money(seeded, 0)).isEqualTo(97850);
+        assertThat(property(seeded, "Chanel").getOffices()).isEqualTo(1);
+        assertThat(property(seeded, "Mercedes").isMortgaged()).isFalse();
+        assertThat(property(seeded, "Mercedes").getBaseRent()).isEqualTo(120);
+    }
+
+    private Map<String, Object> manageMessage(SeededGame seeded, String... actionsAndProperties) {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        for (int i = 0; i < actionsAndProperties.length; i += 2) {
+            operations.add(Map.of("action", actionsAndProperties[i], "propertyName", actionsAndProperties[i + 1]));
+        }
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(0));
+        message.put("operations", operations);
+        return message;
+    }
+
+    private Property property(SeededGame seeded, String name) {
+        return propertyRepository.findByGameIdAndName(seeded.getGameId(), name).orElseThrow();
+    }
+
+    private int money(SeededGame seeded, int playerIndex) {
+        return playerRepository.findById(seeded.player(playerIndex).getId()).orElseThrow().getMoney();
+    }
+}
@@ -0,0 +1,35 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.support.IntegrationTestConfiguration;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data source of the embedded PostgreSQL server with a proxy reporting every statement to
+ * {@link QueryCounter}.
+ */
+@TestConfiguration
+@Import(IntegrationTestConfiguration.class)
+public class QueryCountTestConfiguration {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryCounter())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.support.GameTestSupport;
+import com.dimon.catanbackend.utils.JwtTokenUtils;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base class of the query count tests. Runs the game services against the embedded servers of
+ * {@link GameTestSupport}, with every statement sent to PostgreSQL counted by {@link QueryCounter}.
+ *
+ * Tests are not wrapped in a transaction: every service call opens and commits its own, so flushes and
+ * lazy loads are counted the way they happen in production. Each test seeds its own game.
+ */
+@Import({
+        QueryCountTestConfiguration.class,
+        JwtTokenUtils.class
+})
+abstract class QueryCountTestSupport extends GameTestSupport {
+
+    /**
+     * Statements a command that moves money adds for the ledger: the batched insert of its entries, the
+     * version stamp after commit, and now and then a fresh block of entry IDs.
+     */
+    protected static final int LEDGER_STATEMENTS = 3;
+
+    /**
+     * Runs an operation and fails if it sent more statements to the database than its budget.
+     * The failure message lists every statement, which usually points straight at the N+1.
+     */
+    protected void assertQueryBudget(int budget, Runnable operation) {
+        assertQueryBudget(budget, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    protected <T> T assertQueryBudget(int budget, Supplier<T> operation) {
+        QueryCounter.start();
+        T result;
+        List<String> statements;
+        try {
+            result = operation.get();
+        } finally {
+            statements = QueryCounter.stop();
+        }
+        assertThat(statements)
+                .as("statements executed (budget %d)", budget)
+                .hasSizeLessThanOrEqualTo(budget);
+        return result;
+    }
+
+    /**
+     * Runs an operation against a two player and a four player game and fails if the larger game needed more
+     * statements. A per-player query shows up here even when the absolute budget still has room for it.
+     */
+    protected void assertQueriesDoNotGrowWithPlayers(Consumer<SeededGame> operation) {
+        SeededGame small = seedGame(2);
+        SeededGame large = seedGame(4);
+
+        int smallCount = countQueries(() -> operation.accept(small));
+        int largeCount = countQueries(() -> operation.accept(large));
+
+        assertThat(largeCount)
+                .as("statements for 4 players compared to 2 players")
+                .isEqualTo(smallCount);
+    }
+
+    /**
+     * Counts the statements an operation sends to the database.
+     */
+    protected int countQueries(Runnable operation) {
+        QueryCounter.start();
+        try {
+            operation.run();
+        } catch (RuntimeException e) {
+            QueryCounter.stop();
+            throw e;
+        }
+        return QueryCounter.stop().size();
+    }
+}
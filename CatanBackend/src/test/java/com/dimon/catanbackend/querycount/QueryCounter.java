@@ -0,0 +1,41 @@
+package com.dimon.catanbackend.querycount;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records the statements sent to the database by the current thread while a recording is open.
+ * A JDBC batch is one round-trip and is counted once.
+ */
+public class QueryCounter implements QueryExecutionListener {
+    private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+
+    public static void start() {
+        RECORDING.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> statements = RECORDING.get();
+        RECORDING.remove();
+        return statements != null ? statements : List.of();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<String> statements = RECORDING.get();
+        if (statements == null) {
+            return;
+        }
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).distinct().collect(Collectors.joining("; "));
+        statements.add(execInfo.isBatch() ? "[batch of " + execInfo.getBatchSize() + "] " + sql : sql);
+    }
+}
@@ -0,0 +1,40 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.config.websocket.StompAuthChannelInterceptor;
+import com.dimon.catanbackend.dtos.AuthUser;
+import com.dimon.catanbackend.utils.JwtTokenUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StompAuthChannelInterceptorQueryCountTest extends QueryCountTestSupport {
+
+    @Autowired
+    private JwtTokenUtils jwtTokenUtils;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void connectDoesNotTouchTheDatabase() {
+        StompAuthChannelInterceptor interceptor = applicationContext.getAutowireCapableBeanFactory()
+                .createBean(StompAuthChannelInterceptor.class);
+        SeededGame seeded = seedGame(2);
+        String token = jwtTokenUtils.generateToken(new AuthUser(userRepository.findByUsername(seeded.username(0)).orElseThrow()));
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer " + token);
+        accessor.setLeaveMutable(true);
+        Message<byte[]> connect = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        Message<?> connected = assertQueryBudget(0, () -> interceptor.preSend(connect, null));
+
+        assertThat(MessageHeaderAccessor.getAccessor(connected, StompHeaderAccessor.class).getUser()).isNotNull();
+    }
+}
@@ -0,0 +1,38 @@
+package com.dimon.catanbackend.querycount;
+
+import com.dimon.catanbackend.dtos.RegistrationUserDto;
+import com.dimon.catanbackend.entities.User;
+import com.dimon.catanbackend.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserServiceQueryCountTest extends QueryCountTestSupport {
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void registeringTwoUsersReusesTheCachedRole() {
+        User first = userService.createNewUser(registration());
+        // The role is served from the cache now, and must still link to the second user
+        User second = assertQueryBudget(3, () -> userService.createNewUser(registration()));
+
+        assertThat(userRepository.findByUsername(first.getUsername()).orElseThrow().getRoles())
+                .extracting("name").containsExactly("ROLE_USER");
+        assertThat(userRepository.findByUsername(second.getUsername()).orElseThrow().getRoles())
+                .extracting("name").containsExactly("ROLE_USER");
+    }
+
+    private RegistrationUserDto registration() {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+        RegistrationUserDto dto = new RegistrationUserDto();
+        dto.setUsername(name);
+        dto.setEmail(name + "@example.com");
+        dto.setPassword("secret");
+        return dto;
+    }
+}
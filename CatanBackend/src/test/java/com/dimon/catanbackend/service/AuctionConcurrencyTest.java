@@ -0,0 +1,245 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.entities.AuctionMode;
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.repositories.PlayerRepository;
+import com.dimon.catanbackend.support.GameTestSupport;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Bids from several threads and two nodes racing each other and the end timer. Every auction must end exactly
+ * once, with the highest bid that was accepted, and charge nobody else.
+ */
+@TestPropertySource(properties = {
+        "app.timers.tick=PT0.01S",
+        "app.auction.bid-window=PT0.08S",
+        "app.auction.sealed-window=PT0.1S"
+})
+class AuctionConcurrencyTest extends GameTestSupport {
+
+    private static final int PLAYERS = 4;
+    private static final int AUCTIONS = 5;
+    private static final int ATTEMPTS_PER_PLAYER = 60;
+
+    @Autowired
+    private AuctionService auctionService;
+
+    @Autowired
+    private GameTimerService gameTimerService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void concurrentBidsAndExpiryEndEveryAuctionOnceWithTheHighestAcceptedBid() throws InterruptedException {
+        AuctionService otherNode = applicationContext.getAutowireCapableBeanFactory().createBean(AuctionService.class);
+        ExecutorService bidders = Executors.newFixedThreadPool(PLAYERS);
+        try {
+            for (int auction = 0; auction < AUCTIONS; auction++) {
+                SeededGame seeded = seedGame(PLAYERS);
+                auctionService.startAuction(startMessage(seeded));
+                Queue<Map.Entry<String, Integer>> accepted = new ConcurrentLinkedQueue<>();
+                accepted.add(Map.entry(seeded.username(0), 2000));
+                AtomicInteger highestSeen = new AtomicInteger(2000);
+                CountDownLatch done = new CountDownLatch(PLAYERS);
+
+                for (int i = 0; i < PLAYERS; i++) {
+                    int playerIndex = i;
+                    bidders.execute(() -> {
+                        try {
+                            ThreadLocalRandom random = ThreadLocalRandom.current();
+                            for (int attempt = 0; attempt < ATTEMPTS_PER_PLAYER; attempt++) {
+                                int amount = highestSeen.get() + 1 + random.nextInt(30);
+                                AuctionService node = random.nextBoolean() ? auctionService : otherNode;
+                                try {
+                                    node.placeBid(bidMessage(seeded, playerIndex, amount));
+                                    accepted.add(Map.entry(seeded.username(playerIndex), amount));
+                                    highestSeen.accumulateAndGet(amount, Math::max);
+                                } catch (RuntimeException e) {
+                                    if ("AuctionState not found".equals(e.getMessage())) {
+                                        return;
+                                    }
+                                }
+                                // Now and then a pause longer than the bid window lets the timer race the bids
+                                Thread.sleep(random.nextInt(10) == 0 ? 90 : random.nextInt(5));
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+
+                Map.Entry<String, Integer> highest = accepted.stream()
+                        .max(Comparator.comparing(Map.Entry<String, Integer>::getValue))
+                        .orElseThrow();
+                Map<String, Object> result = awaitSingleEnd(seeded);
+                assertThat(result.get("highestBid")).isEqualTo(highest.getValue());
+                assertThat(((Player) result.get("highestBidder")).getUsername()).isEqualTo(highest.getKey());
+                assertOnlyWinnerPaid(seeded, highest.getKey(), highest.getValue());
+                assertBidBroadcastsAscend(seeded);
+            }
+        } finally {
+            bidders.shutdownNow();
+        }
+        assertThat(gameTimerService.pendingTimers()).isZero();
+    }
+
+    @Test
+    void sealedBidsRacingTheWindowAreResolvedOnceWithEveryAcceptedBid() throws InterruptedException {
+        AuctionService otherNode = applicationContext.getAutowireCapableBeanFactory().createBean(AuctionService.class);
+        ExecutorService bidders = Executors.newFixedThreadPool(PLAYERS);
+        try {
+            for (int auction = 0; auction < AUCTIONS; auction++) {
+                SeededGame seeded = seedGame(PLAYERS);
+                Game game = gameRepository.findById(seeded.getGameId()).orElseThrow();
+                game.setAuctionMode(AuctionMode.SEALED_BID);
+                gameRepository.save(game);
+                auctionService.startAuction(startMessage(seeded));
+                Map<String, Integer> accepted = new ConcurrentHashMap<>();
+                accepted.put(seeded.username(0), 2000);
+                Queue<RuntimeException> failures = new ConcurrentLinkedQueue<>();
+                CountDownLatch done = new CountDownLatch(PLAYERS - 1);
+
+                for (int i = 1; i < PLAYERS; i++) {
+                    int playerIndex = i;
+                    bidders.execute(() -> {
+                        try {
+                            ThreadLocalRandom random = ThreadLocalRandom.current();
+                            // Some bids arrive just before the window closes, some just after
+                            Thread.sleep(80 + random.nextInt(40));
+                            int amount = 1600 + random.nextInt(800);
+                            AuctionService node = random.nextBoolean() ? auctionService : otherNode;
+                            node.placeBid(bidMessage(seeded, playerIndex, amount));
+                            accepted.put(seeded.username(playerIndex), amount);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } catch (RuntimeException e) {
+                            // Only a bid that arrives after the window may be refused
+                            if (!"AuctionState not found".equals(e.getMessage())) {
+                                failures.add(e);
+                            }
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+                assertThat(failures).isEmpty();
+
+                Map<String, Object> result = awaitSingleEnd(seeded);
+                assertThat(result.get("bids")).isEqualTo(accepted);
+                String winner = accepted.keySet().stream()
+                        .max(Comparator.comparing((String username) -> accepted.get(username))
+                                .thenComparing(username -> -position(seeded, username)))
+                        .orElseThrow();
+                assertThat(((Player) result.get("highestBidder")).getUsername()).isEqualTo(winner);
+                assertOnlyWinnerPaid(seeded, winner, accepted.get(winner));
+            }
+        } finally {
+            bidders.shutdownNow();
+        }
+        assertThat(gameTimerService.pendingTimers()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> awaitSingleEnd(SeededGame seeded) {
+        String destination = "/topic/auction/end/" + seeded.getGameId();
+        verify(messagingTemplate, timeout(3000)).convertAndSend(eq(destination), any(Object.class));
+        // Long enough for a second timer or a late bid to end the auction again
+        ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, after(300).times(1)).convertAndSend(eq(destination), response.capture());
+        assertThat(stringRedisTemplate.hasKey("auction:" + seeded.getGameId())).isFalse();
+        return (Map<String, Object>) response.getValue();
+    }
+
+    private void assertOnlyWinnerPaid(SeededGame seeded, String winner, int amount) {
+        for (Player player : playerRepository.findByGameId(seeded.getGameId())) {
+            int expected = player.getUsername().equals(winner) ? 100000 - amount : 100000;
+            assertThat(player.getMoney()).as(player.getUsername()).isEqualTo(expected);
+        }
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), "Mercedes").orElseThrow();
+        assertThat(property.getOwner().getUsername()).isEqualTo(winner);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertBidBroadcastsAscend(SeededGame seeded) {
+        ArgumentCaptor<String> destinations = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> responses = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeast(0)).convertAndSend(destinations.capture(), responses.capture());
+        Map<Integer, Integer> bidsByRound = new HashMap<>();
+        for (int i = 0; i < destinations.getAllValues().size(); i++) {
+            if (destinations.getAllValues().get(i).equals("/topic/auction/bid/" + seeded.getGameId())) {
+                Map<String, Object> response = (Map<String, Object>) responses.getAllValues().get(i);
+                // A round is broadcast at most once
+                assertThat(bidsByRound.put((Integer) response.get("round"), (Integer) response.get("highestBid"))).isNull();
+            }
+        }
+        List<Integer> rounds = new ArrayList<>(bidsByRound.keySet());
+        rounds.sort(null);
+        for (int i = 1; i < rounds.size(); i++) {
+            assertThat(bidsByRound.get(rounds.get(i))).isGreaterThan(bidsByRound.get(rounds.get(i - 1)));
+        }
+    }
+
+    private static int position(SeededGame seeded, String username) {
+        for (int i = 0; i < PLAYERS; i++) {
+            if (seeded.username(i).equals(username)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(username);
+    }
+
+    private Map<String, Object> startMessage(SeededGame seeded) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(0));
+        message.put("propertyName", "Mercedes");
+        message.put("initialBid", 2000);
+        return message;
+    }
+
+    private Map<String, Object> bidMessage(SeededGame seeded, int playerIndex, int amount) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(playerIndex));
+        message.put("bidAmount", amount);
+        return message;
+    }
+}
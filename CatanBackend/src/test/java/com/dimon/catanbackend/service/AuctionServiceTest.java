@@ -0,0 +1,177 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.entities.AuctionMode;
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.LedgerReason;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.repositories.PlayerRepository;
+import com.dimon.catanbackend.support.GameTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AuctionServiceTest extends GameTestSupport {
+
+    @Autowired
+    private AuctionService auctionService;
+
+    @Autowired
+    private MoneyTransferService moneyTransferService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void bidsCanBeSentToAnyNode() {
+        SeededGame seeded = seedGame(3);
+        AuctionService otherNode = applicationContext.getAutowireCapableBeanFactory().createBean(AuctionService.class);
+        auctionService.startAuction(startMessage(seeded, 0, 2000));
+
+        otherNode.placeBid(bidMessage(seeded, 1, 2500));
+
+        verify(messagingTemplate).convertAndSend(eq("/topic/auction/bid/" + seeded.getGameId()),
+                argThat((Map<String, Object> response) -> seeded.username(1).equals(response.get("highestBidder"))
+                        && seeded.username(2).equals(response.get("nextBidder"))));
+        // This node still has the bid of 2000 in memory, Redis has the bid of 2500
+        assertThatThrownBy(() -> auctionService.placeBid(bidMessage(seeded, 2, 2400)))
+                .hasMessage("Bid amount must be higher than the current highest bid.");
+        assertThatThrownBy(() -> otherNode.startAuction(startMessage(seeded, 2, 2000)))
+                .hasMessage("Auction already in progress for this game.");
+    }
+
+    @Test
+    void userOutsideTheGameCannotBid() {
+        SeededGame seeded = seedGame(2);
+        SeededGame other = seedGame(2);
+        auctionService.startAuction(startMessage(seeded, 0, 2000));
+
+        Map<String, Object> message = bidMessage(seeded, 1, 2500);
+        message.put("username", other.username(0));
+
+        assertThatThrownBy(() -> auctionService.placeBid(message)).hasMessage("Player not found");
+    }
+
+    @Test
+    void auctionEndsAtOnceWhenNobodyElseCanCoverTheBid() {
+        SeededGame seeded = seedGame(2);
+        moneyTransferService.debit(seeded.player(0), 50000, LedgerReason.PAYMENT);
+        auctionService.startAuction(startMessage(seeded, 0, 2000));
+
+        auctionService.placeBid(bidMessage(seeded, 1, 60000));
+
+        verify(messagingTemplate).convertAndSend(eq("/topic/auction/end/" + seeded.getGameId()), any(Object.class));
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), "Mercedes").orElseThrow();
+        assertThat(property.getOwner().getId()).isEqualTo(seeded.player(1).getId());
+        Player winner = playerRepository.findById(seeded.player(1).getId()).orElseThrow();
+        assertThat(winner.getMoney()).isEqualTo(40000);
+        assertThatThrownBy(() -> auctionService.placeBid(bidMessage(seeded, 0, 61000)))
+                .hasMessage("AuctionState not found");
+    }
+
+    @Test
+    void winnerWhoSpentTheMoneyMeanwhileDoesNotGetTheProperty() {
+        SeededGame seeded = seedGame(2);
+        moneyTransferService.debit(seeded.player(0), 50000, LedgerReason.PAYMENT);
+        auctionService.startAuction(startMessage(seeded, 0, 2000));
+        // Balances are cached when the auction starts, so this is only noticed by the award
+        moneyTransferService.debit(seeded.player(1), 50000, LedgerReason.PAYMENT);
+
+        auctionService.placeBid(bidMessage(seeded, 1, 60000));
+
+        verify(messagingTemplate).convertAndSend(eq("/topic/auction/end/" + seeded.getGameId()),
+                argThat((Map<String, Object> response) -> response.get("highestBidder") == null));
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), "Mercedes").orElseThrow();
+        assertThat(property.getOwner()).isNull();
+    }
+
+    @Test
+    void sealedBidAuctionIsResolvedInOnePassOnceEveryoneHasBid() {
+        SeededGame seeded = seedGame(3);
+        useSealedBids(seeded);
+        auctionService.startAuction(startMessage(seeded, 0, 2000));
+
+        auctionService.placeBid(bidMessage(seeded, 2, 5000));
+        auctionService.placeBid(bidMessage(seeded, 1, 5000));
+
+        verify(messagingTemplate).convertAndSend(eq("/topic/auction/start/" + seeded.getGameId()), any(Object.class));
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/auction/bid/" + seeded.getGameId()), any(Object.class));
+        // Equal bids go to the player who is earlier in turn order
+        verify(messagingTemplate).convertAndSend(eq("/topic/auction/end/" + seeded.getGameId()),
+                argThat((Map<String, Object> response) -> response.get("highestBidder") instanceof Player winner
+                        && winner.getId().equals(seeded.player(1).getId())
+                        && Integer.valueOf(5000).equals(response.get("highestBid"))
+                        && ((Map<?, ?>) response.get("bids")).size() == 3));
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), "Mercedes").orElseThrow();
+        assertThat(property.getOwner().getId()).isEqualTo(seeded.player(1).getId());
+    }
+
+    @Test
+    void sealedBidCanBePlacedOnlyOnce() {
+        SeededGame seeded = seedGame(3);
+        useSealedBids(seeded);
+        auctionService.startAuction(startMessage(seeded, 0, 2000));
+
+        assertThatThrownBy(() -> auctionService.placeBid(bidMessage(seeded, 0, 2500)))
+                .hasMessage("You have already placed a bid in this auction.");
+        auctionService.placeBid(bidMessage(seeded, 1, 1600));
+        assertThatThrownBy(() -> auctionService.placeBid(bidMessage(seeded, 1, 1700)))
+                .hasMessage("You have already placed a bid in this auction.");
+        assertThatThrownBy(() -> auctionService.placeBid(bidMessage(seeded, 2, 1500)))
+                .hasMessage("Bid amount must be higher than the minimum bid.");
+    }
+
+    @Test
+    void sealedBidGoesToTheNextBidderWhenTheHighestCannotPay() {
+        SeededGame seeded = seedGame(3);
+        useSealedBids(seeded);
+        auctionService.startAuction(startMessage(seeded, 0, 2000));
+        auctionService.placeBid(bidMessage(seeded, 1, 90000));
+        // Balances are cached when the auction starts, so this is only noticed by the award
+        moneyTransferService.debit(seeded.player(1), 50000, LedgerReason.PAYMENT);
+
+        auctionService.placeBid(bidMessage(seeded, 2, 3000));
+
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), "Mercedes").orElseThrow();
+        assertThat(property.getOwner().getId()).isEqualTo(seeded.player(2).getId());
+        assertThat(playerRepository.findById(seeded.player(1).getId()).orElseThrow().getMoney()).isEqualTo(50000);
+        assertThat(playerRepository.findById(seeded.player(2).getId()).orElseThrow().getMoney()).isEqualTo(97000);
+    }
+
+    private void useSealedBids(SeededGame seeded) {
+        Game game = gameRepository.findById(seeded.getGameId()).orElseThrow();
+        game.setAuctionMode(AuctionMode.SEALED_BID);
+        gameRepository.save(game);
+    }
+
+    private Map<String, Object> startMessage(SeededGame seeded, int playerIndex, int initialBid) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(playerIndex));
+        message.put("propertyName", "Mercedes");
+        message.put("initialBid", initialBid);
+        return message;
+    }
+
+    private Map<String, Object> bidMessage(SeededGame seeded, int playerIndex, int amount) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("username", seeded.username(playerIndex));
+        message.put("bidAmount", amount);
+        return message;
+    }
+}
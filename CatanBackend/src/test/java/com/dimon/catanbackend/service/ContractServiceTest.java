@@ -0,0 +1,191 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.dtos.ContractDto;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.exceptions.ContractNotFoundException;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.dimon.catanbackend.repositories.PlayerRepository;
+import com.dimon.catanbackend.support.GameTestSupport;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ContractServiceTest extends GameTestSupport {
+
+    @Autowired
+    private ContractService contractService;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Test
+    void bundleOfPropertiesAndMoneyIsSettledAtOnceWithOneBroadcast() {
+        SeededGame seeded = seedGame(3);
+        giveProperty(seeded, 0, "Mercedes");
+        giveProperty(seeded, 0, "Adidas");
+        giveProperty(seeded, 1, "Ferrari");
+        giveProperty(seeded, 1, "Nike");
+        ContractDto contract = propose(seeded, side(3000, "Mercedes", "Adidas"), side(1000, "Ferrari", "Nike"));
+
+        contractService.acceptContract(acceptMessage(seeded, contract, 1));
+
+        assertOwner(seeded, "Mercedes", 1);
+        assertOwner(seeded, "Adidas", 1);
+        assertOwner(seeded, "Ferrari", 0);
+        assertOwner(seeded, "Nike", 0);
+        assertThat(money(seeded, 0)).isEqualTo(98000);
+        assertThat(money(seeded, 1)).isEqualTo(102000);
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/game/" + seeded.getGameId()),
+                argThat((Map<String, Object> response) -> "ACCEPTED".equals(response.get("status"))
+                        && ((List<?>) response.get("players")).size() == 3));
+        assertThat(stringRedisTemplate.hasKey("contract:" + seeded.getGameId() + ":" + contract.getId())).isFalse();
+    }
+
+    @Test
+    void termsSentWithTheAcceptAreIgnored() {
+        SeededGame seeded = seedGame(2);
+        giveProperty(seeded, 0, "Mercedes");
+        ContractDto contract = propose(seeded, side(0, "Mercedes"), side(5000));
+
+        Map<String, Object> accept = acceptMessage(seeded, contract, 1);
+        accept.put("contract", Map.of("offer", side(50000, "Mercedes"), "request", side(0)));
+        contractService.acceptContract(accept);
+
+        assertOwner(seeded, "Mercedes", 1);
+        assertThat(money(seeded, 0)).isEqualTo(105000);
+        assertThat(money(seeded, 1)).isEqualTo(95000);
+    }
+
+    @Test
+    void contractIsSettledOnlyOnce() {
+        SeededGame seeded = seedGame(2);
+        ContractDto contract = propose(seeded, side(2000), side(0));
+
+        contractService.acceptContract(acceptMessage(seeded, contract, 1));
+
+        assertThatThrownBy(() -> contractService.acceptContract(acceptMessage(seeded, contract, 1)))
+                .isInstanceOf(ContractNotFoundException.class);
+        assertThat(money(seeded, 0)).isEqualTo(98000);
+        assertThat(money(seeded, 1)).isEqualTo(102000);
+    }
+
+    @Test
+    void onlyTheReceivingPlayerCanAccept() {
+        SeededGame seeded = seedGame(3);
+        ContractDto contract = propose(seeded, side(2000), side(0));
+
+        assertThatThrownBy(() -> contractService.acceptContract(acceptMessage(seeded, contract, 0)))
+                .isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> contractService.acceptContract(acceptMessage(seeded, contract, 2)))
+                .isInstanceOf(InvalidActionException.class);
+
+        // The contract is still there for the right player
+        contractService.acceptContract(acceptMessage(seeded, contract, 1));
+        assertThat(money(seeded, 1)).isEqualTo(102000);
+    }
+
+    @Test
+    void contractWhosePropertiesChangedHandsSettlesNothing() {
+        SeededGame seeded = seedGame(3);
+        giveProperty(seeded, 0, "Mercedes");
+        giveProperty(seeded, 1, "Ferrari");
+        ContractDto contract = propose(seeded, side(0, "Mercedes"), side(4000, "Ferrari"));
+        giveProperty(seeded, 2, "Ferrari");
+
+        assertThatThrownBy(() -> contractService.acceptContract(acceptMessage(seeded, contract, 1)))
+                .isInstanceOf(InvalidActionException.class);
+
+        assertOwner(seeded, "Mercedes", 0);
+        assertOwner(seeded, "Ferrari", 2);
+        assertThat(money(seeded, 0)).isEqualTo(100000);
+        assertThat(money(seeded, 1)).isEqualTo(100000);
+        verify(messagingTemplate).convertAndSend(eq("/topic/game/" + seeded.getGameId() + "/contract"),
+                argThat((Map<String, Object> response) -> "FAILED".equals(response.get("status"))));
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/game/" + seeded.getGameId()), any(Object.class));
+    }
+
+    @Test
+    void proposalIsCheckedAgainstTheServerState() {
+        SeededGame seeded = seedGame(2);
+        giveProperty(seeded, 1, "Mercedes");
+
+        assertThatThrownBy(() -> contractService.proposeContract(proposeMessage(seeded, side(0, "Mercedes"), side(100))))
+                .isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> contractService.proposeContract(proposeMessage(seeded, side(-5), side(100))))
+                .isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> contractService.proposeContract(proposeMessage(seeded, side(0), side(0))))
+                .isInstanceOf(InvalidActionException.class);
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/game/" + seeded.getGameId() + "/contract"), any(Object.class));
+    }
+
+    @Test
+    void declinedContractCanNoLongerBeAccepted() {
+        SeededGame seeded = seedGame(2);
+        ContractDto contract = propose(seeded, side(2000), side(0));
+
+        contractService.declineContract(acceptMessage(seeded, contract, 1));
+
+        assertThatThrownBy(() -> contractService.acceptContract(acceptMessage(seeded, contract, 1)))
+                .isInstanceOf(ContractNotFoundException.class);
+        assertThat(money(seeded, 1)).isEqualTo(100000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ContractDto propose(SeededGame seeded, Map<String, Object> offer, Map<String, Object> request) {
+        contractService.proposeContract(proposeMessage(seeded, offer, request));
+        ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq("/topic/game/" + seeded.getGameId() + "/contract"), response.capture());
+        return (ContractDto) ((Map<String, Object>) response.getValue()).get("contract");
+    }
+
+    private Map<String, Object> proposeMessage(SeededGame seeded, Map<String, Object> offer, Map<String, Object> request) {
+        Map<String, Object> contract = new HashMap<>();
+        contract.put("fromUsername", seeded.username(0));
+        contract.put("toUsername", seeded.username(1));
+        contract.put("offer", offer);
+        contract.put("request", request);
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("contract", contract);
+        return message;
+    }
+
+    private Map<String, Object> acceptMessage(SeededGame seeded, ContractDto contract, int playerIndex) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("gameId", seeded.gameIdText());
+        message.put("contractId", contract.getId().toString());
+        message.put("username", seeded.username(playerIndex));
+        return message;
+    }
+
+    private static Map<String, Object> side(int money, String... properties) {
+        Map<String, Object> side = new HashMap<>();
+        side.put("money", money);
+        side.put("properties", List.of(properties));
+        return side;
+    }
+
+    private void assertOwner(SeededGame seeded, String propertyName, int playerIndex) {
+        Player owner = propertyRepository.findByGameIdAndName(seeded.getGameId(), propertyName).orElseThrow().getOwner();
+        assertThat(owner.getId()).as(propertyName).isEqualTo(seeded.player(playerIndex).getId());
+    }
+
+    private int money(SeededGame seeded, int playerIndex) {
+        return playerRepository.findById(seeded.player(playerIndex).getId()).orElseThrow().getMoney();
+    }
+}
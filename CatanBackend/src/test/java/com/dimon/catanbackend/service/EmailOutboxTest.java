@@ -0,0 +1,194 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.entities.EmailOutboxMessage;
+import com.dimon.catanbackend.entities.EmailOutboxStatus;
+import com.dimon.catanbackend.repositories.EmailOutboxRepository;
+import com.dimon.catanbackend.support.IntegrationTestSupport;
+import com.icegreen.greenmail.util.GreenMail;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Emails queued in the outbox with the transaction of their change and sent in the background to an in-process
+ * SMTP server, with retries, dead-lettering, and several senders sharing the outbox.
+ */
+@Import({
+        EmailSenderService.class,
+        EmailOutboxService.class
+})
+class EmailOutboxTest extends IntegrationTestSupport {
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private GreenMail greenMail;
+
+    @BeforeEach
+    void clearMailboxes() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @Test
+    void emailIsSentOnlyAfterItsTransactionCommitted() throws Exception {
+        String recipient = randomRecipient();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailOutboxService.enqueue(recipient, "Email Verification", "<a href=\"http://localhost/activate\">Verify</a>"));
+        assertThat(received(recipient)).isEmpty();
+
+        emailOutboxService.dispatch();
+
+        List<MimeMessage> emails = received(recipient);
+        assertThat(emails).hasSize(1);
+        assertThat(emails.get(0).getSubject()).isEqualTo("Email Verification");
+        assertThat(emailOutboxRepository.findByRecipient(recipient)).isEmpty();
+    }
+
+    @Test
+    void emailOfARolledBackTransactionIsNeverSent() {
+        String recipient = randomRecipient();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            emailOutboxService.enqueue(recipient, "Email Verification", "<p>Verify</p>");
+            status.setRollbackOnly();
+        });
+
+        emailOutboxService.dispatch();
+
+        assertThat(emailOutboxRepository.findByRecipient(recipient)).isEmpty();
+        assertThat(received(recipient)).isEmpty();
+    }
+
+    @Test
+    void emailCannotBeQueuedOutsideATransaction() {
+        assertThatThrownBy(() -> emailOutboxService.enqueue(randomRecipient(), "Email Verification", "<p>Verify</p>"))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    @Test
+    void failedEmailIsRetriedWithBackoffAndFinallyGivenUpOn() throws IOException {
+        EmailOutboxService failingNode = applicationContext.getAutowireCapableBeanFactory().createBean(EmailOutboxService.class);
+        ReflectionTestUtils.setField(failingNode, "emailSenderService", new EmailSenderService(unreachableMailServer()));
+        ReflectionTestUtils.setField(failingNode, "maxAttempts", 2);
+        String recipient = randomRecipient();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailOutboxService.enqueue(recipient, "Email Verification", "<p>Verify</p>"));
+
+        LocalDateTime firstAttempt = LocalDateTime.now();
+        failingNode.dispatchBatch();
+
+        EmailOutboxMessage email = emailOutboxRepository.findByRecipient(recipient).get(0);
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getLastError()).isNotBlank();
+        // The default initial backoff of 30 seconds
+        assertThat(email.getNextAttemptAt()).isBetween(firstAttempt.plusSeconds(29), LocalDateTime.now().plusSeconds(31));
+        // Not due yet, so a healthy sender leaves it alone
+        emailOutboxService.dispatch();
+        assertThat(received(recipient)).isEmpty();
+
+        makeDue(email);
+        failingNode.dispatchBatch();
+
+        email = emailOutboxRepository.findByRecipient(recipient).get(0);
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxStatus.DEAD);
+        assertThat(email.getAttempts()).isEqualTo(2);
+        // Dead emails are kept for investigation and never picked up again
+        makeDue(email);
+        emailOutboxService.dispatch();
+        assertThat(received(recipient)).isEmpty();
+        assertThat(emailOutboxRepository.findByRecipient(recipient)).hasSize(1);
+    }
+
+    @Test
+    void sendersOnTwoNodesSendEveryEmailExactlyOnce() {
+        EmailOutboxService otherNode = applicationContext.getAutowireCapableBeanFactory().createBean(EmailOutboxService.class);
+        ReflectionTestUtils.setField(emailOutboxService, "batchSize", 5);
+        ReflectionTestUtils.setField(otherNode, "batchSize", 5);
+        String domain = UUID.randomUUID() + ".example.com";
+        List<String> recipients = IntStream.range(0, 40).mapToObj(i -> "player-" + i + "@" + domain).toList();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    recipients.forEach(recipient -> emailOutboxService.enqueue(recipient, "Email Verification", "<p>Verify</p>")));
+
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> drain(emailOutboxService)),
+                    CompletableFuture.runAsync(() -> drain(otherNode))).join();
+        } finally {
+            ReflectionTestUtils.setField(emailOutboxService, "batchSize", 50);
+        }
+
+        MimeMessage[] emails = greenMail.getReceivedMessagesForDomain(domain);
+        assertThat(Arrays.stream(emails).map(EmailOutboxTest::recipientOf)).containsExactlyInAnyOrderElementsOf(recipients);
+        recipients.forEach(recipient -> assertThat(emailOutboxRepository.findByRecipient(recipient)).isEmpty());
+    }
+
+    private static void drain(EmailOutboxService node) {
+        while (node.dispatchBatch() > 0) {
+            // Until no due email is left for this node
+        }
+    }
+
+    private void makeDue(EmailOutboxMessage email) {
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        emailOutboxRepository.save(email);
+    }
+
+    private List<MimeMessage> received(String recipient) {
+        return Arrays.stream(greenMail.getReceivedMessages())
+                .filter(email -> recipientOf(email).equals(recipient))
+                .toList();
+    }
+
+    private static String recipientOf(MimeMessage email) {
+        try {
+            return email.getAllRecipients()[0].toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JavaMailSenderImpl unreachableMailServer() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        return mailSender;
+    }
+
+    private static String randomRecipient() {
+        return "player-" + UUID.randomUUID() + "@example.com";
+    }
+}
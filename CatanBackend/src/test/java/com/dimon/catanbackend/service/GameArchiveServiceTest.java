@@ -0,0 +1,149 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.dtos.ArchiveJobDto;
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.repositories.GameArchiveParticipantRepository;
+import com.dimon.catanbackend.repositories.GameArchiveRepository;
+import com.dimon.catanbackend.repositories.PlayerRepository;
+import com.dimon.catanbackend.support.GameTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(GameArchiveService.class)
+@TestPropertySource(properties = "app.archive.retained-jobs=2")
+class GameArchiveServiceTest extends GameTestSupport {
+
+    @Autowired
+    private GameArchiveService gameArchiveService;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameArchiveRepository gameArchiveRepository;
+
+    @Autowired
+    private GameArchiveParticipantRepository gameArchiveParticipantRepository;
+
+    @Autowired
+    private PlayerRepository playerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createPartitions() {
+        gameArchiveService.ensurePartitions();
+    }
+
+    @Test
+    void deleteGamesByIdsRemovesEveryRowOfTheGames() {
+        SeededGame deleted = seedGame(2);
+        SeededGame kept = seedGame(2);
+        giveProperty(deleted, 0, "Chanel");
+        addParticipants(deleted);
+
+        int count = gameService.deleteGamesByIds(List.of(deleted.getGameId()));
+
+        assertThat(count).isEqualTo(1);
+        assertThat(gameRepository.existsById(deleted.getGameId())).isFalse();
+        assertThat(playerRepository.findByGameId(deleted.getGameId())).isEmpty();
+        assertThat(propertyRepository.findByGameId(deleted.getGameId())).isEmpty();
+        assertThat(gameRepository.findParticipantsByGameIdIn(List.of(deleted.getGameId()))).isEmpty();
+        assertThat(gameRepository.existsById(kept.getGameId())).isTrue();
+        assertThat(propertyRepository.findByGameId(kept.getGameId())).isNotEmpty();
+    }
+
+    @Test
+    void archiveJobSkipsGamesStillBeingPlayed() throws InterruptedException {
+        LocalDateTime twoDaysAgo = LocalDateTime.now().minusDays(2);
+        SeededGame finished = seedGame(2);
+        addParticipants(finished);
+        update(finished, game -> {
+            game.setCreatedTime(twoDaysAgo);
+            game.setFinishedTime(twoDaysAgo);
+        });
+        SeededGame playing = seedGame(2);
+        update(playing, game -> game.setCreatedTime(twoDaysAgo));
+        SeededGame abandoned = seedGame(2);
+        update(abandoned, game -> {
+            game.setCreatedTime(twoDaysAgo);
+            game.setGameStarted(false);
+        });
+
+        ArchiveJobDto job = awaitJob(gameArchiveService.startArchiveJob(Duration.ofHours(24)));
+
+        assertThat(job.getStatus()).isEqualTo(ArchiveJobDto.Status.COMPLETED);
+        assertThat(gameRepository.existsById(playing.getGameId())).isTrue();
+        assertThat(gameRepository.existsById(finished.getGameId())).isFalse();
+        assertThat(gameRepository.existsById(abandoned.getGameId())).isFalse();
+        assertThat(gameArchiveRepository.findById(finished.getGameId())).isPresent();
+        assertThat(gameArchiveRepository.findById(abandoned.getGameId())).isPresent();
+        assertThat(gameArchiveRepository.findById(playing.getGameId())).isEmpty();
+        assertThat(gameArchiveParticipantRepository.findAll())
+                .filteredOn(participant -> participant.getGameId().equals(finished.getGameId()))
+                .hasSize(2);
+    }
+
+    @Test
+    void sweepArchivesGamesFinishedBeforeTheGracePeriod() {
+        SeededGame finished = seedGame(2);
+        update(finished, game -> game.setFinishedTime(LocalDateTime.now().minusHours(1)));
+        SeededGame justFinished = seedGame(2);
+        update(justFinished, game -> game.setFinishedTime(LocalDateTime.now()));
+
+        gameArchiveService.archiveFinishedGames();
+
+        assertThat(gameRepository.existsById(finished.getGameId())).isFalse();
+        assertThat(gameArchiveRepository.findById(finished.getGameId())).isPresent();
+        assertThat(gameRepository.existsById(justFinished.getGameId())).isTrue();
+    }
+
+    @Test
+    void onlyTheLatestJobsAreRetained() throws InterruptedException {
+        // Nothing matches a cutoff in the past, so every job completes at once
+        ArchiveJobDto first = awaitJob(gameArchiveService.startArchiveJob(Duration.ofDays(3650)));
+        ArchiveJobDto second = awaitJob(gameArchiveService.startArchiveJob(Duration.ofDays(3650)));
+        ArchiveJobDto third = awaitJob(gameArchiveService.startArchiveJob(Duration.ofDays(3650)));
+
+        assertThat(gameArchiveService.getJob(first.getJobId())).isEmpty();
+        assertThat(gameArchiveService.getJob(second.getJobId())).isPresent();
+        assertThat(gameArchiveService.getJob(third.getJobId())).isPresent();
+    }
+
+    private void update(SeededGame seeded, Consumer<Game> change) {
+        Game game = gameRepository.findById(seeded.getGameId()).orElseThrow();
+        change.accept(game);
+        gameRepository.save(game);
+    }
+
+    private void addParticipants(SeededGame seeded) {
+        for (int i = 0; i < 2; i++) {
+            jdbcTemplate.update("insert into game_participant (game_id, username) values (?, ?)",
+                    seeded.getGameId(), seeded.username(i));
+        }
+    }
+
+    private ArchiveJobDto awaitJob(ArchiveJobDto job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ArchiveJobDto current = gameArchiveService.getJob(job.getJobId()).orElseThrow();
+            if (current.getStatus() == ArchiveJobDto.Status.COMPLETED || current.getStatus() == ArchiveJobDto.Status.FAILED) {
+                return current;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Archive job " + job.getJobId() + " did not finish");
+    }
+}
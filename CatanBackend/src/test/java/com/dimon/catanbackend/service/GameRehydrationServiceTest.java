@@ -0,0 +1,51 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.support.GameTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startup rehydration of the read snapshots of live games.
+ */
+@Import(GameRehydrationService.class)
+@TestPropertySource(properties = "app.rehydration.enabled=false")
+class GameRehydrationServiceTest extends GameTestSupport {
+
+    @Autowired
+    private GameRehydrationService gameRehydrationService;
+
+    @Autowired
+    private GameSnapshotService gameSnapshotService;
+
+    @Test
+    void findMissingReportsGamesWithoutACompleteSnapshot() {
+        UUID built = seedGame(2).getGameId();
+        UUID partial = seedGame(2).getGameId();
+        UUID absent = UUID.randomUUID();
+        gameSnapshotService.rebuild(gameRepository.findById(built).orElseThrow(), propertyRepository.findByGameId(built));
+        // A partial update reaching Redis after the hash was lost
+        stringRedisTemplate.opsForHash().increment("game:" + partial, "version", 1);
+
+        assertThat(gameSnapshotService.findMissing(List.of(built, partial, absent))).containsExactly(partial, absent);
+    }
+
+    @Test
+    void rehydrationBuildsTheSnapshotOfEveryLiveGameMissingOne() {
+        UUID first = seedGame(2).getGameId();
+        UUID second = seedGame(3).getGameId();
+
+        gameRehydrationService.rehydrateAll();
+
+        assertThat(gameSnapshotService.findMissing(List.of(first, second))).isEmpty();
+        assertThat(gameSnapshotService.getSnapshot(second).getPlayers()).hasSize(3);
+        // Snapshots that exist are left alone
+        assertThat(gameRehydrationService.rehydrateAll()).isZero();
+    }
+}
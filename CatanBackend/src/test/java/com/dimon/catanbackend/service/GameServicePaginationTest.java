@@ -0,0 +1,109 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.dtos.CursorPage;
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.dimon.catanbackend.support.GameTestSupport;
+import com.dimon.catanbackend.utils.KeysetCursor;
+import com.dimon.catanbackend.utils.UuidUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pagination of the lobby and of the admin list of games.
+ */
+class GameServicePaginationTest extends GameTestSupport {
+
+    // Later than any game created by the other tests, so the lobby walk only meets the games of this test
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(2999, 1, 1, 12, 0);
+
+    @Autowired
+    private GameService gameService;
+
+    @Test
+    void lobbyPagesBreakTiesOnCreationTimeById() {
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Three games share a creation time, so only the ID orders them
+            games.add(waitingGame(i < 3 ? FAR_FUTURE : FAR_FUTURE.plusSeconds(i)));
+        }
+        List<UUID> expected = games.stream()
+                .sorted(Comparator.comparing(Game::getCreatedTime).thenComparing(Game::getId, this::compareAsPostgres))
+                .map(Game::getId)
+                .toList();
+        // Just before the first of them: the nil UUID sorts before every ID with the same creation time
+        String cursor = KeysetCursor.encode(FAR_FUTURE.toString(), new UUID(0, 0).toString());
+
+        List<List<UUID>> pages = new ArrayList<>();
+        do {
+            CursorPage<Game> page = gameService.findWaitingGames(cursor, 2);
+            pages.add(page.getItems().stream().map(Game::getId).toList());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(pages).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(pages.stream().flatMap(List::stream).toList()).isEqualTo(expected);
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() {
+        Game before = waitingGame(LocalDateTime.now());
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            expected.add(waitingGame(LocalDateTime.now()).getId());
+        }
+
+        CursorPage<Game> first = gameService.findGamesPage(KeysetCursor.encode(before.getId().toString()), 2);
+        CursorPage<Game> second = gameService.findGamesPage(first.getNextCursor(), 2);
+
+        assertThat(first.getItems()).extracting(Game::getId).containsExactlyElementsOf(expected.subList(0, 2));
+        assertThat(first.getNextCursor()).isNotNull();
+        // Exactly two rows were left: the extra row that signals another page is missing, so the walk ends here
+        assertThat(second.getItems()).extracting(Game::getId).containsExactlyElementsOf(expected.subList(2, 4));
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pageSizeIsClampedToAtLeastOne() {
+        waitingGame(LocalDateTime.now());
+
+        assertThat(gameService.findGamesPage(null, 0).getItems()).hasSize(1);
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        String id = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> gameService.findWaitingGames("not a cursor!", 2)).isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> gameService.findWaitingGames(KeysetCursor.encode(id), 2)).isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> gameService.findWaitingGames(KeysetCursor.encode("yesterday", id), 2)).isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> gameService.findWaitingGames(KeysetCursor.encode(FAR_FUTURE.toString(), "x"), 2)).isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> gameService.findGamesPage(KeysetCursor.encode("x"), 2)).isInstanceOf(InvalidActionException.class);
+    }
+
+    private Game waitingGame(LocalDateTime createdTime) {
+        return gameRepository.save(Game.builder()
+                .id(UuidUtils.timeOrdered())
+                .name("pagination")
+                .isGameStarted(false)
+                .maxPlayers(4)
+                .createdTime(createdTime)
+                .players(new ArrayList<>())
+                .build());
+    }
+
+    // PostgreSQL compares UUIDs as unsigned bytes, UUID.compareTo as signed longs
+    private int compareAsPostgres(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
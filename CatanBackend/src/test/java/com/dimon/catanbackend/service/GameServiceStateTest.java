@@ -0,0 +1,118 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.entities.GameState;
+import com.dimon.catanbackend.exceptions.GameNotFoundException;
+import com.dimon.catanbackend.exceptions.StateVersionConflictException;
+import com.dimon.catanbackend.support.GameTestSupport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Versioned saves and patches of the client game state.
+ */
+class GameServiceStateTest extends GameTestSupport {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void saveAndPatchIncrementTheVersion() throws Exception {
+        UUID gameId = seedGame(2).getGameId();
+
+        long saved = gameService.saveGameState(gameId, "{\"round\":1}");
+        long patched = gameService.patchGameState(gameId, saved, replaceRound(2));
+
+        assertThat(patched).isEqualTo(saved + 1);
+        GameState state = gameService.getGameStateSnapshot(gameId);
+        assertThat(objectMapper.readTree(state.getState()).get("round").asInt()).isEqualTo(2);
+        assertThat(state.getVersion()).isEqualTo(patched);
+    }
+
+    @Test
+    void patchOnAnOutdatedVersionIsAConflict() throws Exception {
+        UUID gameId = seedGame(2).getGameId();
+        long saved = gameService.saveGameState(gameId, "{\"round\":1}");
+        gameService.patchGameState(gameId, saved, replaceRound(2));
+
+        assertThatThrownBy(() -> gameService.patchGameState(gameId, saved, replaceRound(3)))
+                .isInstanceOf(StateVersionConflictException.class);
+    }
+
+    @Test
+    void stateOfAnUnknownGameIsNeverStored() {
+        UUID gameId = UUID.randomUUID();
+
+        assertThatThrownBy(() -> gameService.saveGameState(gameId, "{}")).isInstanceOf(GameNotFoundException.class);
+        assertThatThrownBy(() -> gameService.patchGameState(gameId, 1, replaceRound(2))).isInstanceOf(GameNotFoundException.class);
+
+        assertThat(stringRedisTemplate.hasKey("game_client_state:" + gameId)).isFalse();
+    }
+
+    @Test
+    void gameWithoutASnapshotIsCheckedInTheDatabase() {
+        // The seeded game was never written to Redis
+        UUID gameId = seedGame(2).getGameId();
+
+        assertThat(gameService.saveGameState(gameId, "{}")).isEqualTo(1);
+    }
+
+    @Test
+    void stateSavedUnderTheOldKeyIsMovedOnFirstRead() throws Exception {
+        UUID gameId = seedGame(2).getGameId();
+        // As written by the JSON serializer of the old RedisTemplate
+        stringRedisTemplate.opsForValue().set("game_state:" + gameId, objectMapper.writeValueAsString(objectMapper.createObjectNode()
+                .put("@class", "com.dimon.catanbackend.entities.GameState")
+                .put("gameId", gameId.toString())
+                .put("state", "{\"round\":7}")));
+
+        GameState state = gameService.getGameStateSnapshot(gameId);
+
+        assertThat(state.getState()).isEqualTo("{\"round\":7}");
+        assertThat(state.getVersion()).isEqualTo(1);
+        assertThat(stringRedisTemplate.hasKey("game_state:" + gameId)).isFalse();
+        // Clients can patch the moved state like any other
+        assertThat(gameService.patchGameState(gameId, 1, replaceRound(8))).isEqualTo(2);
+    }
+
+    @Test
+    void newerStateWinsOverTheOldKey() {
+        UUID gameId = seedGame(2).getGameId();
+        long saved = gameService.saveGameState(gameId, "{\"round\":3}");
+        stringRedisTemplate.opsForValue().set("game_state:" + gameId, "{\"state\":\"{\\\"round\\\":1}\"}");
+
+        GameState state = gameService.getGameStateSnapshot(gameId);
+
+        assertThat(state.getState()).isEqualTo("{\"round\":3}");
+        assertThat(state.getVersion()).isEqualTo(saved);
+    }
+
+    @Test
+    void deletingAGameRemovesBothStateKeys() {
+        UUID gameId = seedGame(2).getGameId();
+        gameService.saveGameState(gameId, "{}");
+        stringRedisTemplate.opsForValue().set("game_state:" + gameId, "{\"state\":\"{}\"}");
+
+        gameService.deleteGameById(gameId);
+
+        assertThat(stringRedisTemplate.hasKey("game_client_state:" + gameId)).isFalse();
+        assertThat(stringRedisTemplate.hasKey("game_state:" + gameId)).isFalse();
+    }
+
+    private JsonNode replaceRound(int round) {
+        return objectMapper.valueToTree(List.of(objectMapper.createObjectNode()
+                .put("op", "replace")
+                .put("path", "/round")
+                .put("value", round)));
+    }
+}
@@ -0,0 +1,127 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.dtos.snapshot.GameSnapshot;
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.support.GameTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Field-level writes of the Redis game snapshots.
+ */
+class GameSnapshotServiceTest extends GameTestSupport {
+
+    @Autowired
+    private GameSnapshotService gameSnapshotService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void updateRewritesOnlyTheChangedFieldsAndIncrementsTheVersion() {
+        SeededGame seeded = seedGame(3);
+        rebuild(seeded.getGameId());
+        long version = gameSnapshotService.getSnapshot(seeded.getGameId()).getVersion();
+        Player player = seeded.player(1);
+        player.setMoney(1234);
+
+        gameSnapshotService.update(seeded.getGameId()).player(player).write();
+
+        GameSnapshot snapshot = gameSnapshotService.getSnapshot(seeded.getGameId());
+        assertThat(snapshot.getVersion()).isEqualTo(version + 1);
+        assertThat(snapshot.getPlayers().get(player.getId()).getMoney()).isEqualTo(1234);
+        assertThat(snapshot.getPlayers().get(seeded.player(0).getId()).getMoney()).isEqualTo(100000);
+        assertThat(snapshot.getTiles()).hasSize(propertyRepository.findByGameId(seeded.getGameId()).size());
+    }
+
+    @Test
+    void removedPlayerDisappearsFromTheSnapshot() {
+        SeededGame seeded = seedGame(3);
+        rebuild(seeded.getGameId());
+
+        gameSnapshotService.update(seeded.getGameId()).removePlayer(seeded.player(2)).write();
+
+        assertThat(gameSnapshotService.findPlayers(seeded.getGameId(), List.of(seeded.player(2).getId()))).isEmpty();
+        assertThat(gameSnapshotService.getSnapshot(seeded.getGameId()).getPlayers()).hasSize(2);
+    }
+
+    @Test
+    void partialHashIsRepairedFromTheDatabase() {
+        SeededGame seeded = seedGame(3);
+        String key = "game:" + seeded.getGameId();
+        // An update reaching Redis after the hash was lost, next to a player who has left the game since
+        Player player = seeded.player(0);
+        player.setMoney(1);
+        gameSnapshotService.update(seeded.getGameId()).player(player).write();
+        stringRedisTemplate.opsForHash().put(key, "player:" + UUID.randomUUID(), "{}");
+        assertThat(gameSnapshotService.exists(seeded.getGameId())).isFalse();
+
+        GameSnapshot snapshot = gameSnapshotService.getSnapshot(seeded.getGameId());
+
+        assertThat(gameSnapshotService.exists(seeded.getGameId())).isTrue();
+        assertThat(snapshot.getPlayers()).containsOnlyKeys(
+                seeded.player(0).getId(), seeded.player(1).getId(), seeded.player(2).getId());
+        // The database wins over the partial state, and the version keeps growing
+        assertThat(snapshot.getPlayers().get(player.getId()).getMoney()).isEqualTo(100000);
+        assertThat(snapshot.getVersion()).isEqualTo(2);
+        assertThat(snapshot.getTiles()).hasSize(propertyRepository.findByGameId(seeded.getGameId()).size());
+    }
+
+    @Test
+    void versionWrittenAfterCommitIsVisibleToLaterCallbacks() {
+        SeededGame seeded = seedGame(2);
+        rebuild(seeded.getGameId());
+        long version = gameSnapshotService.getSnapshot(seeded.getGameId()).getVersion();
+        AtomicReference<Long> committed = new AtomicReference<>();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            gameSnapshotService.update(seeded.getGameId()).player(seeded.player(0)).write();
+            // Nothing is written before commit
+            assertThat(stringRedisTemplate.opsForHash().get("game:" + seeded.getGameId(), "version"))
+                    .isEqualTo(Long.toString(version));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed.set(gameSnapshotService.committedVersion(seeded.getGameId()));
+                }
+            });
+        });
+
+        assertThat(committed.get()).isEqualTo(version + 1);
+        assertThat(gameSnapshotService.getSnapshot(seeded.getGameId()).getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void rolledBackUpdateIsNeverWritten() {
+        SeededGame seeded = seedGame(2);
+        rebuild(seeded.getGameId());
+        long version = gameSnapshotService.getSnapshot(seeded.getGameId()).getVersion();
+        Player player = seeded.player(0);
+        player.setMoney(1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            gameSnapshotService.update(seeded.getGameId()).player(player).write();
+            status.setRollbackOnly();
+        });
+
+        GameSnapshot snapshot = gameSnapshotService.getSnapshot(seeded.getGameId());
+        assertThat(snapshot.getVersion()).isEqualTo(version);
+        assertThat(snapshot.getPlayers().get(player.getId()).getMoney()).isEqualTo(100000);
+    }
+
+    private void rebuild(UUID gameId) {
+        Game game = gameRepository.findById(gameId).orElseThrow();
+        gameSnapshotService.rebuild(game, propertyRepository.findByGameId(gameId));
+    }
+}
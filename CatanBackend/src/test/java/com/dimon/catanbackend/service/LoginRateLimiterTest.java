@@ -0,0 +1,104 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.exceptions.TooManyRequestsException;
+import com.dimon.catanbackend.support.IntegrationTestSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Per IP address and per account limits of login and registration attempts, shared by every node through Redis.
+ */
+@Import(LoginRateLimiter.class)
+@TestPropertySource(properties = {
+        "app.auth.rate-limit.window=PT1M",
+        "app.auth.rate-limit.per-ip=5",
+        "app.auth.rate-limit.per-account=3"
+})
+class LoginRateLimiterTest extends IntegrationTestSupport {
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void attemptsFromOneAddressAreLimitedAcrossNodesAndEndpoints() {
+        LoginRateLimiter otherNode = applicationContext.getAutowireCapableBeanFactory().createBean(LoginRateLimiter.class);
+        String ip = randomIp();
+        for (int i = 0; i < 5; i++) {
+            LoginRateLimiter node = i % 2 == 0 ? loginRateLimiter : otherNode;
+            if (i < 3) {
+                node.checkRegistration(ip);
+            } else {
+                node.checkLogin(ip, randomEmail());
+            }
+        }
+
+        assertThatThrownBy(() -> otherNode.checkLogin(ip, randomEmail()))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfter())
+                        .isPositive()
+                        .isLessThanOrEqualTo(Duration.ofMinutes(1)));
+        assertThatThrownBy(() -> loginRateLimiter.checkRegistration(ip)).isInstanceOf(TooManyRequestsException.class);
+        // Other addresses are unaffected
+        loginRateLimiter.checkRegistration(randomIp());
+    }
+
+    @Test
+    void loginsToOneAccountAreLimitedWhateverTheAddressAndCase() {
+        double rejectedBefore = meterRegistry.counter("auth.rate_limit.rejected", "scope", "account").count();
+        String email = randomEmail();
+        loginRateLimiter.checkLogin(randomIp(), email);
+        loginRateLimiter.checkLogin(randomIp(), email.toUpperCase());
+        loginRateLimiter.checkLogin(randomIp(), " " + email);
+
+        assertThatThrownBy(() -> loginRateLimiter.checkLogin(randomIp(), email))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(meterRegistry.counter("auth.rate_limit.rejected", "scope", "account").count())
+                .isEqualTo(rejectedBefore + 1);
+        // Other accounts are unaffected
+        loginRateLimiter.checkLogin(randomIp(), randomEmail());
+    }
+
+    @Test
+    void attemptsRefusedForTheirAddressDoNotCountAgainstTheAccount() {
+        String ip = randomIp();
+        for (int i = 0; i < 5; i++) {
+            loginRateLimiter.checkRegistration(ip);
+        }
+        String email = randomEmail();
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> loginRateLimiter.checkLogin(ip, email)).isInstanceOf(TooManyRequestsException.class);
+        }
+
+        // The owner of the account can still log in from elsewhere
+        loginRateLimiter.checkLogin(randomIp(), email);
+        String accountKey = "ratelimit:auth:account:" + email;
+        assertThat(stringRedisTemplate.opsForValue().get(accountKey)).isEqualTo("1");
+        assertThat(stringRedisTemplate.getExpire(accountKey)).isPositive();
+    }
+
+    private static String randomIp() {
+        UUID uuid = UUID.randomUUID();
+        return "10." + Math.floorMod(uuid.getMostSignificantBits(), 256) + "."
+                + Math.floorMod(uuid.getLeastSignificantBits(), 256) + "." + Math.floorMod(uuid.hashCode(), 256);
+    }
+
+    private static String randomEmail() {
+        return "player-" + UUID.randomUUID() + "@example.com";
+    }
+}
@@ -0,0 +1,147 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PasswordHashingExecutor executor;
+
+    private PasswordHashingExecutor executor(int threads, int queueCapacity, Duration timeout) {
+        executor = new PasswordHashingExecutor();
+        ReflectionTestUtils.setField(executor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(executor, "threads", threads);
+        ReflectionTestUtils.setField(executor, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(executor, "timeout", timeout);
+        executor.createExecutor();
+        return executor;
+    }
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void hashRunsOnThePoolAndIsTimed() {
+        PasswordHashingExecutor executor = executor(2, 4, Duration.ofSeconds(5));
+
+        String thread = executor.call("encode", () -> Thread.currentThread().getName());
+
+        assertThat(thread).startsWith("password-hashing-");
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.wait").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void exceptionOfTheHashIsRethrownToTheCaller() {
+        PasswordHashingExecutor executor = executor(1, 1, Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> executor.call("matches", () -> {
+            throw new IllegalArgumentException("Encoded password does not look like BCrypt");
+        })).isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Encoded password does not look like BCrypt");
+    }
+
+    @Test
+    void hashIsRefusedRightAwayOnceThreadsAndQueueAreFull() throws Exception {
+        PasswordHashingExecutor executor = executor(1, 2, Duration.ofSeconds(5));
+        CountDownLatch running = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> waiting = new ArrayList<>();
+        waiting.add(CompletableFuture.supplyAsync(() -> executor.call("matches", () -> {
+            running.countDown();
+            return await(release);
+        })));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 2; i++) {
+            waiting.add(CompletableFuture.supplyAsync(() -> executor.call("matches", () -> true)));
+        }
+        awaitQueueDepth(2);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> executor.call("matches", () -> true))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfter()).isPositive());
+        // Refused without waiting for the hashes ahead of it
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.password.active").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        for (CompletableFuture<Boolean> hash : waiting) {
+            assertThat(hash.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(meterRegistry.get("auth.password.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void hashesNotDoneByTheTimeoutAreRefusedAndLeaveTheQueue() throws Exception {
+        PasswordHashingExecutor executor = executor(1, 2, Duration.ofMillis(200));
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocking = CompletableFuture.supplyAsync(() -> executor.call("matches", () -> {
+            running.countDown();
+            // Like BCrypt, keeps the thread busy even once its caller gave up on it
+            return awaitUninterruptibly(release);
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Still queued behind the blocking hash when its wait ends
+        assertThatThrownBy(() -> executor.call("matches", () -> true)).isInstanceOf(TooManyRequestsException.class);
+        assertThat(meterRegistry.get("auth.password.queue.depth").gauge().value()).isZero();
+        // The blocking hash itself ran past the timeout too
+        assertThatThrownBy(blocking::join).hasCauseInstanceOf(TooManyRequestsException.class);
+        assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(2);
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() != depth) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static boolean awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.dimon.catanbackend.service;
+
+import com.dimon.catanbackend.config.pagination.PaginationProperties;
+import com.dimon.catanbackend.dtos.CursorPage;
+import com.dimon.catanbackend.entities.User;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.dimon.catanbackend.support.IntegrationTestSupport;
+import com.dimon.catanbackend.utils.JwtTokenUtils;
+import com.dimon.catanbackend.utils.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pagination of the admin list of users.
+ */
+@Import({
+        TokenRevocationService.class,
+        JwtTokenUtils.class,
+        UserService.class,
+        UserCacheService.class,
+        RoleService.class,
+        PaginationProperties.class
+})
+class UserServicePaginationTest extends IntegrationTestSupport {
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void pagesWalkTheUsersInIdOrder() {
+        User before = createUser();
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(createUser().getId());
+        }
+
+        List<List<Long>> pages = new ArrayList<>();
+        String cursor = KeysetCursor.encode(before.getId().toString());
+        do {
+            CursorPage<User> page = userService.getUsersPage(cursor, 2);
+            pages.add(page.getItems().stream().map(User::getId).toList());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(pages).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(pages.stream().flatMap(List::stream).toList()).isEqualTo(expected);
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() {
+        User before = createUser();
+        User first = createUser();
+        User second = createUser();
+
+        CursorPage<User> page = userService.getUsersPage(KeysetCursor.encode(before.getId().toString()), 2);
+
+        assertThat(page.getItems()).extracting(User::getId).containsExactly(first.getId(), second.getId());
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void firstPageStartsAtTheOldestUser() {
+        createUser();
+        createUser();
+
+        CursorPage<User> page = userService.getUsersPage(null, 1);
+
+        assertThat(page.getItems()).extracting(User::getId).containsExactly(userRepository.findAll().stream()
+                .map(User::getId).min(Long::compare).orElseThrow());
+        assertThat(page.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThatThrownBy(() -> userService.getUsersPage("not a cursor!", 2)).isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> userService.getUsersPage(KeysetCursor.encode("abc"), 2)).isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> userService.getUsersPage(KeysetCursor.encode("1", "2"), 2)).isInstanceOf(InvalidActionException.class);
+    }
+
+    private User createUser() {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .active(true)
+                .roles(new ArrayList<>())
+                .friends(new ArrayList<>())
+                .build());
+    }
+}
@@ -0,0 +1,140 @@
+package com.dimon.catanbackend.support;
+
+import com.dimon.catanbackend.config.pagination.PaginationProperties;
+import com.dimon.catanbackend.entities.Game;
+import com.dimon.catanbackend.entities.Player;
+import com.dimon.catanbackend.entities.Property;
+import com.dimon.catanbackend.entities.User;
+import com.dimon.catanbackend.repositories.GameRepository;
+import com.dimon.catanbackend.repositories.PropertyRepository;
+import com.dimon.catanbackend.service.*;
+import com.dimon.catanbackend.utils.Convertor;
+import com.dimon.catanbackend.utils.UuidUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base class of the tests of the game services. Imports the services a game is played through, together with
+ * the user services they depend on, and seeds started games with the full board.
+ */
+@Import({
+        GameService.class,
+        PlayerService.class,
+        AuctionService.class,
+        ContractService.class,
+        MoneyTransferService.class,
+        MoneyLedgerService.class,
+        PropertyService.class,
+        GameSnapshotService.class,
+        GameTimerService.class,
+        GameCommandExecutor.class,
+        UserService.class,
+        UserCacheService.class,
+        TokenRevocationService.class,
+        RoleService.class,
+        Convertor.class,
+        PaginationProperties.class
+})
+public abstract class GameTestSupport extends IntegrationTestSupport {
+
+    @MockBean
+    protected PasswordEncoder passwordEncoder;
+
+    @Autowired
+    protected GameRepository gameRepository;
+
+    @Autowired
+    protected PropertyRepository propertyRepository;
+
+    @Autowired
+    protected PropertyService propertyService;
+
+    /**
+     * Creates a started game with the given number of players and the full board.
+     */
+    protected SeededGame seedGame(int playerCount) {
+        Game game = Game.builder()
+                .id(UuidUtils.timeOrdered())
+                .name("query-count")
+                .isGameStarted(true)
+                .maxPlayers(playerCount)
+                .createdTime(LocalDateTime.now())
+                .players(new ArrayList<>())
+                .build();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            String name = "p" + i + "-" + game.getId();
+            User user = userRepository.save(User.builder()
+                    .username(name)
+                    .email(name + "@example.com")
+                    .active(true)
+                    .roles(new ArrayList<>())
+                    .friends(new ArrayList<>())
+                    .build());
+            users.add(user);
+            game.addPlayer(Player.builder()
+                    .id(UuidUtils.timeOrdered())
+                    .username(name)
+                    .color("red")
+                    .money(100000)
+                    .properties(new HashSet<>())
+                    .user(user)
+                    .build());
+        }
+        game.setCurrentPlayerId(game.getPlayers().get(0).getId());
+        gameRepository.save(game);
+        propertyService.initializeProperties(game);
+        return new SeededGame(gameRepository.findById(game.getId()).orElseThrow(), users);
+    }
+
+    /**
+     * Gives a player the property with the given name.
+     */
+    protected void giveProperty(SeededGame seeded, int playerIndex, String propertyName) {
+        Property property = propertyRepository.findByGameIdAndName(seeded.getGameId(), propertyName).orElseThrow();
+        property.setOwner(seeded.player(playerIndex));
+        propertyRepository.save(property);
+    }
+
+    protected static class SeededGame {
+        private final Game game;
+        private final List<User> users;
+
+        SeededGame(Game game, List<User> users) {
+            this.game = game;
+            this.users = users;
+        }
+
+        public UUID getGameId() {
+            return game.getId();
+        }
+
+        public String gameIdText() {
+            return game.getId().toString();
+        }
+
+        public Player player(int index) {
+            return game.getPlayers().stream()
+                    .filter(player -> player.getUsername().equals(users.get(index).getUsername()))
+                    .findFirst()
+                    .orElseThrow();
+        }
+
+        public String username(int index) {
+            return users.get(index).getUsername();
+        }
+
+        public String email(int index) {
+            return users.get(index).getEmail();
+        }
+    }
+}
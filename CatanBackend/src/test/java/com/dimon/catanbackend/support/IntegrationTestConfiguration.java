@@ -0,0 +1,94 @@
+package com.dimon.catanbackend.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import redis.embedded.RedisServer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/**
+ * Starts a throwaway PostgreSQL server, against which the Flyway migrations run as in production, a throwaway
+ * Redis server, so snapshots, auctions and the Lua scripts run for real, and an in-process SMTP server receiving
+ * the emails the services send. Also provides the few infrastructure beans the services need outside a full
+ * application context.
+ */
+@TestConfiguration
+@EnableCaching
+public class IntegrationTestConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public EmbeddedPostgres embeddedPostgres() throws IOException {
+        return EmbeddedPostgres.start();
+    }
+
+    @Bean
+    public DataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+        return embeddedPostgres.getPostgresDatabase();
+    }
+
+    @Bean(destroyMethod = "stop")
+    public RedisServer embeddedRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        RedisServer server = new RedisServer(port);
+        server.start();
+        return server;
+    }
+
+    @Bean
+    public LettuceConnectionFactory redisConnectionFactory(RedisServer embeddedRedis) {
+        return new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", embeddedRedis.ports().get(0)));
+    }
+
+    @Bean
+    public StringRedisTemplate stringRedisTemplate(LettuceConnectionFactory redisConnectionFactory) {
+        return new StringRedisTemplate(redisConnectionFactory);
+    }
+
+    @Bean(destroyMethod = "stop")
+    public GreenMail greenMail() {
+        GreenMail greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+        greenMail.start();
+        return greenMail;
+    }
+
+    @Bean
+    public JavaMailSenderImpl mailSender(GreenMail greenMail) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        return mailSender;
+    }
+
+    @Bean
+    public SimpleMeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        return new ObjectMapper();
+    }
+
+    // Same cache names as production, so user lookups are served the way they are at runtime
+    @Bean
+    public CacheManager cacheManager() {
+        return new ConcurrentMapCacheManager("authUsers", "roles");
+    }
+}
@@ -0,0 +1,49 @@
+package com.dimon.catanbackend.support;
+
+import com.dimon.catanbackend.config.redis.RedisConfig;
+import com.dimon.catanbackend.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Base class of the integration tests. Runs the repositories against an embedded PostgreSQL server and the
+ * Redis scripts against an embedded Redis server, with STOMP mocked out. Each test class imports only the
+ * services it exercises.
+ *
+ * Tests are not wrapped in a transaction: every service call opens and commits its own, as in production.
+ * Each test creates its own data.
+ *
+ * The scheduled email sender is pushed out of the way, so tests decide when queued emails are sent.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        // JwtTokenUtils builds its key at startup and needs a secret of at least 256 bits
+        "jwt.secret=integration-test-secret-of-at-least-32-bytes",
+        "jwt.lifetime=120m",
+        "app.mail.outbox.poll-interval=PT1H"
+})
+@Import({
+        IntegrationTestConfiguration.class,
+        RedisConfig.class
+})
+public abstract class IntegrationTestSupport {
+
+    @MockBean
+    protected SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    protected StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    protected UserRepository userRepository;
+}
@@ -0,0 +1,125 @@
+package com.dimon.catanbackend.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    private final HashedTimingWheel wheel = new HashedTimingWheel("test-timers", Duration.ofMillis(10), 8);
+
+    @AfterEach
+    void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    void timerFiresAfterItsDelay() throws InterruptedException {
+        wheel.start();
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        wheel.newTimeout(fired::countDown, Duration.ofMillis(50));
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(50).toNanos());
+    }
+
+    @Test
+    void timerLongerThanOneTurnWaitsForItsRound() throws InterruptedException {
+        wheel.start();
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        // 8 buckets of 10 ms make one turn 80 ms long
+        HashedTimingWheel.Timeout timeout = wheel.newTimeout(fired::countDown, Duration.ofMillis(250));
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(250).toNanos());
+        assertThat(timeout.isExpired()).isTrue();
+    }
+
+    @Test
+    void timersFireInDeadlineOrder() throws InterruptedException {
+        wheel.start();
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(3);
+
+        wheel.newTimeout(() -> { order.add(3); fired.countDown(); }, Duration.ofMillis(150));
+        wheel.newTimeout(() -> { order.add(1); fired.countDown(); }, Duration.ofMillis(20));
+        wheel.newTimeout(() -> { order.add(2); fired.countDown(); }, Duration.ofMillis(90));
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void cancelledTimerDoesNotFire() throws InterruptedException {
+        wheel.start();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+
+        HashedTimingWheel.Timeout timeout = wheel.newTimeout(runs::incrementAndGet, Duration.ofMillis(30));
+        wheel.newTimeout(later::countDown, Duration.ofMillis(100));
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(later.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(runs).hasValue(0);
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(wheel.pendingTimeouts()).isZero();
+    }
+
+    @Test
+    void timerScheduledBeforeStartFiresOnceStarted() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        wheel.newTimeout(fired::countDown, Duration.ofMillis(20));
+
+        assertThat(wheel.pendingTimeouts()).isEqualTo(1);
+        wheel.start();
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheWheel() throws InterruptedException {
+        wheel.start();
+        CountDownLatch fired = new CountDownLatch(1);
+
+        wheel.newTimeout(() -> { throw new IllegalStateException("boom"); }, Duration.ofMillis(10));
+        wheel.newTimeout(fired::countDown, Duration.ofMillis(60));
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void manyRescheduledTimersLeaveOnlyTheLastPending() throws InterruptedException {
+        wheel.start();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch fired = new CountDownLatch(1);
+
+        HashedTimingWheel.Timeout timeout = null;
+        for (int i = 0; i < 10_000; i++) {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            timeout = wheel.newTimeout(() -> {
+                runs.incrementAndGet();
+                fired.countDown();
+            }, Duration.ofMillis(50));
+        }
+
+        assertThat(wheel.pendingTimeouts()).isEqualTo(1);
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        assertThat(runs).hasValue(1);
+    }
+}
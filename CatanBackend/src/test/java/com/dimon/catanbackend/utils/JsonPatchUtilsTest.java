@@ -0,0 +1,144 @@
+package com.dimon.catanbackend.utils;
+
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonPatchUtilsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final JsonNode document = json("""
+            {"turn": 3, "players": [{"name": "a", "money": 100}, {"name": "b", "money": 200}], "a/b": 1, "m~n": 2}
+            """);
+
+    @Test
+    void addSetsAnObjectMember() {
+        JsonNode patched = apply("[{\"op\":\"add\",\"path\":\"/round\",\"value\":1}]");
+
+        assertThat(patched.get("round").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    void addInsertsIntoAnArrayAtTheIndex() {
+        JsonNode patched = apply("[{\"op\":\"add\",\"path\":\"/players/1\",\"value\":{\"name\":\"c\"}}]");
+
+        assertThat(patched.get("players")).extracting(player -> player.get("name").asText())
+                .containsExactly("a", "c", "b");
+    }
+
+    @Test
+    void addWithDashAppendsToAnArray() {
+        JsonNode patched = apply("[{\"op\":\"add\",\"path\":\"/players/-\",\"value\":{\"name\":\"c\"}}]");
+
+        assertThat(patched.get("players")).extracting(player -> player.get("name").asText())
+                .containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void addAtTheArrayLengthAppends() {
+        JsonNode patched = apply("[{\"op\":\"add\",\"path\":\"/players/2\",\"value\":{\"name\":\"c\"}}]");
+
+        assertThat(patched.get("players")).hasSize(3);
+    }
+
+    @Test
+    void replaceChangesAnExistingValue() {
+        JsonNode patched = apply("[{\"op\":\"replace\",\"path\":\"/players/0/money\",\"value\":98}]");
+
+        assertThat(patched.at("/players/0/money").asInt()).isEqualTo(98);
+    }
+
+    @Test
+    void replaceOfAMissingMemberFails() {
+        assertInvalid("[{\"op\":\"replace\",\"path\":\"/missing\",\"value\":1}]");
+    }
+
+    @Test
+    void removeDeletesMembersAndArrayElements() {
+        JsonNode patched = apply("[{\"op\":\"remove\",\"path\":\"/turn\"},{\"op\":\"remove\",\"path\":\"/players/0\"}]");
+
+        assertThat(patched.has("turn")).isFalse();
+        assertThat(patched.get("players")).extracting(player -> player.get("name").asText())
+                .containsExactly("b");
+    }
+
+    @Test
+    void escapedTokensAddressMembersWithSlashAndTilde() {
+        JsonNode patched = apply("[{\"op\":\"replace\",\"path\":\"/a~1b\",\"value\":10},"
+                + "{\"op\":\"replace\",\"path\":\"/m~0n\",\"value\":20}]");
+
+        assertThat(patched.get("a/b").asInt()).isEqualTo(10);
+        assertThat(patched.get("m~n").asInt()).isEqualTo(20);
+    }
+
+    @Test
+    void outOfRangeIndexesAreRejected() {
+        assertInvalid("[{\"op\":\"add\",\"path\":\"/players/3\",\"value\":{}}]");
+        assertInvalid("[{\"op\":\"replace\",\"path\":\"/players/2\",\"value\":{}}]");
+        assertInvalid("[{\"op\":\"remove\",\"path\":\"/players/-1\"}]");
+        assertInvalid("[{\"op\":\"replace\",\"path\":\"/players/-\",\"value\":{}}]");
+        assertInvalid("[{\"op\":\"remove\",\"path\":\"/players/x\"}]");
+    }
+
+    @Test
+    void passingTestAppliesTheRestOfThePatch() {
+        JsonNode patched = apply("[{\"op\":\"test\",\"path\":\"/turn\",\"value\":3},"
+                + "{\"op\":\"replace\",\"path\":\"/turn\",\"value\":4}]");
+
+        assertThat(patched.get("turn").asInt()).isEqualTo(4);
+    }
+
+    @Test
+    void failingTestRejectsTheWholePatchAndLeavesTheDocumentUnchanged() {
+        assertInvalid("[{\"op\":\"replace\",\"path\":\"/turn\",\"value\":4},"
+                + "{\"op\":\"test\",\"path\":\"/players/0/money\",\"value\":101}]");
+
+        assertThat(document.get("turn").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    void testComparesNumbersByValue() {
+        ObjectNode longDocument = JsonNodeFactory.instance.objectNode().put("turn", 3L);
+
+        assertThat(JsonPatchUtils.apply(longDocument, json("[{\"op\":\"test\",\"path\":\"/turn\",\"value\":3}]")))
+                .isEqualTo(longDocument);
+        assertThat(apply("[{\"op\":\"test\",\"path\":\"/turn\",\"value\":3.0}]")).isEqualTo(document);
+        assertThat(apply("[{\"op\":\"test\",\"path\":\"/players/0\",\"value\":{\"money\":100.0,\"name\":\"a\"}}]"))
+                .isEqualTo(document);
+        assertInvalid("[{\"op\":\"test\",\"path\":\"/turn\",\"value\":\"3\"}]");
+    }
+
+    @Test
+    void malformedPatchesAreRejected() {
+        assertInvalid("{\"op\":\"add\"}");
+        assertInvalid("[{\"op\":\"add\",\"value\":1}]");
+        assertInvalid("[{\"op\":\"add\",\"path\":\"/x\"}]");
+        assertInvalid("[{\"op\":\"move\",\"path\":\"/x\",\"value\":1}]");
+        assertInvalid("[{\"op\":\"remove\",\"path\":\"\"}]");
+        assertInvalid("[{\"op\":\"add\",\"path\":\"x\",\"value\":1}]");
+    }
+
+    private JsonNode apply(String patch) {
+        return JsonPatchUtils.apply(document, json(patch));
+    }
+
+    private void assertInvalid(String patch) {
+        assertThatThrownBy(() -> apply(patch)).isInstanceOf(InvalidActionException.class);
+    }
+
+    private JsonNode json(String value) {
+        try {
+            return objectMapper.readTree(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
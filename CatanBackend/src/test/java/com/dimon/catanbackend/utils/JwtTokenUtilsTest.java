@@ -0,0 +1,95 @@
+package com.dimon.catanbackend.utils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtTokenUtilsTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final UserDetails user = new User("player@example.com", "password",
+            List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    private static JwtTokenUtils jwtTokenUtils(Duration lifetime) {
+        JwtTokenUtils jwtTokenUtils = new JwtTokenUtils();
+        ReflectionTestUtils.setField(jwtTokenUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenUtils, "jwtLifetime", lifetime);
+        ReflectionTestUtils.setField(jwtTokenUtils, "verifiedCacheSize", 100L);
+        jwtTokenUtils.init();
+        return jwtTokenUtils;
+    }
+
+    @Test
+    void verifiedTokenIsServedFromTheCacheWithoutParsingAgain() {
+        JwtTokenUtils jwtTokenUtils = jwtTokenUtils(Duration.ofMinutes(5));
+        String token = jwtTokenUtils.generateToken(user);
+
+        Claims first = jwtTokenUtils.getClaims(token);
+        Claims second = jwtTokenUtils.getClaims(token);
+
+        // A second parse would produce a new claims object
+        assertThat(second).isSameAs(first);
+        assertThat(first.getSubject()).isEqualTo("player@example.com");
+        assertThat(jwtTokenUtils.getRoles(token)).containsExactly("ROLE_USER");
+        assertThat(jwtTokenUtils.validateToken(first, user)).isTrue();
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterTheOriginalWasCached() {
+        JwtTokenUtils jwtTokenUtils = jwtTokenUtils(Duration.ofMinutes(5));
+        String token = jwtTokenUtils.generateToken(user);
+        jwtTokenUtils.getClaims(token);
+
+        int signature = token.lastIndexOf('.') + 1;
+        char replaced = token.charAt(signature) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signature) + replaced + token.substring(signature + 1);
+
+        assertThatThrownBy(() -> jwtTokenUtils.getClaims(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        JwtTokenUtils other = new JwtTokenUtils();
+        ReflectionTestUtils.setField(other, "secret", SECRET.replace('0', 'z'));
+        ReflectionTestUtils.setField(other, "jwtLifetime", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(other, "verifiedCacheSize", 100L);
+        other.init();
+
+        String token = other.generateToken(user);
+
+        assertThatThrownBy(() -> jwtTokenUtils(Duration.ofMinutes(5)).getClaims(token))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtTokenUtils jwtTokenUtils = jwtTokenUtils(Duration.ofMinutes(-1));
+        String token = jwtTokenUtils.generateToken(user);
+
+        assertThatThrownBy(() -> jwtTokenUtils.getClaims(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void cachedTokenExpiresWithTheToken() throws InterruptedException {
+        JwtTokenUtils jwtTokenUtils = jwtTokenUtils(Duration.ofSeconds(2));
+        String token = jwtTokenUtils.generateToken(user);
+        assertThat(jwtTokenUtils.getClaims(token).getSubject()).isEqualTo("player@example.com");
+
+        // The expiry claim has a precision of one second
+        Thread.sleep(3000);
+
+        assertThatThrownBy(() -> jwtTokenUtils.getClaims(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+}
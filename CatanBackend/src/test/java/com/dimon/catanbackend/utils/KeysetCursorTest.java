@@ -0,0 +1,57 @@
+package com.dimon.catanbackend.utils;
+
+import com.dimon.catanbackend.dtos.CursorPage;
+import com.dimon.catanbackend.exceptions.InvalidActionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void cursorRoundTripsItsParts() {
+        String cursor = KeysetCursor.encode("2024-05-01T10:15:30.123456", "0190a0c4-0000-7000-8000-000000000001");
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.decode(cursor, 2))
+                .containsExactly("2024-05-01T10:15:30.123456", "0190a0c4-0000-7000-8000-000000000001");
+    }
+
+    @Test
+    void emptyPartsSurviveTheRoundTrip() {
+        assertThat(KeysetCursor.decode(KeysetCursor.encode("a", ""), 2)).containsExactly("a", "");
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor!", 1))
+                .isInstanceOf(InvalidActionException.class)
+                .hasMessage("Invalid page cursor");
+        assertThatThrownBy(() -> KeysetCursor.decode(KeysetCursor.encode("a", "b"), 1))
+                .isInstanceOf(InvalidActionException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(KeysetCursor.encode("a"), 2))
+                .isInstanceOf(InvalidActionException.class);
+    }
+
+    @Test
+    void extraRowIsDroppedAndBecomesTheNextCursor() {
+        CursorPage<Integer> page = KeysetCursor.page(List.of(1, 2, 3), 2, String::valueOf);
+
+        assertThat(page.getItems()).containsExactly(1, 2);
+        // The cursor points at the last returned row, not at the extra one
+        assertThat(page.getNextCursor()).isEqualTo("2");
+    }
+
+    @Test
+    void pageWithoutTheExtraRowIsTheLast() {
+        assertThat(KeysetCursor.page(List.of(1, 2), 2, String::valueOf).getNextCursor()).isNull();
+        assertThat(KeysetCursor.page(List.of(1), 2, String::valueOf).getNextCursor()).isNull();
+
+        CursorPage<Integer> empty = KeysetCursor.page(List.of(), 2, String::valueOf);
+        assertThat(empty.getItems()).isEmpty();
+        assertThat(empty.getNextCursor()).isNull();
+    }
+}
@@ -0,0 +1,51 @@
+package com.dimon.catanbackend.utils.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApiMetricsTest {
+
+    @Test
+    void concurrentCallsOfOneEndpointAreAllCounted() {
+        ApiMetrics metrics = new ApiMetrics();
+        CompletableFuture.allOf(IntStream.range(0, 8)
+                .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        metrics.addCall(1_000_000L * (1 + i % 4), i % 10 != 0);
+                    }
+                }))
+                .toArray(CompletableFuture[]::new)).join();
+
+        assertThat(metrics.getTotalCalls()).isEqualTo(80_000);
+        assertThat(metrics.getTotalSuccessCalls()).isEqualTo(72_000);
+        assertThat(metrics.getTotalFailureCalls()).isEqualTo(8_000);
+        assertThat(metrics.getTotalDuration()).isEqualTo(200_000);
+        assertThat(metrics.getAverageDuration()).isEqualTo(2);
+        assertThat(metrics.getMaxDuration()).isEqualTo(4);
+        assertThat(metrics.getLatency().get("1m").getCount()).isEqualTo(80_000);
+        assertThat(metrics.getLatency().get("1m").getP50()).isBetween(2.0, 2.07);
+        assertThat(metrics.getLatency().get("1m").getP90()).isBetween(4.0, 4.13);
+    }
+
+    @Test
+    void serviceRotatesTheWindowsOfEveryEndpoint() {
+        ApiAnalyticsService service = new ApiAnalyticsService();
+        service.recordApiCall("GameController.getGame(..)", 3_000_000, true);
+        service.recordApiCall("AuthController.createAuthToken(..)", 80_000_000, false);
+
+        for (int i = 0; i < 7; i++) {
+            service.rotate();
+        }
+
+        assertThat(service.getAllMetrics()).hasSize(2).allSatisfy((endpoint, metrics) -> {
+            assertThat(metrics.getTotalCalls()).isEqualTo(1);
+            assertThat(metrics.getLatency().get("1m").getCount()).isZero();
+            assertThat(metrics.getLatency().get("5m").getCount()).isEqualTo(1);
+        });
+        assertThat(service.getMetricsForEndpoint("AuthController.createAuthToken(..)").getTotalFailureCalls()).isEqualTo(1);
+    }
+}
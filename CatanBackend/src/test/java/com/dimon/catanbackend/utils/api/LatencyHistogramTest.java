@@ -0,0 +1,99 @@
+package com.dimon.catanbackend.utils.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreContiguousAndNarrowerThanAThirtySecondOfTheirValues() {
+        assertThat(LatencyHistogram.BUCKETS).isEqualTo(1024);
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS - 1; bucket++) {
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertThat(LatencyHistogram.bucketOf(highest)).isEqualTo(bucket);
+            assertThat(LatencyHistogram.bucketOf(highest + 1)).isEqualTo(bucket + 1);
+        }
+        assertThat(LatencyHistogram.highestValueOf(LatencyHistogram.BUCKETS - 1)).isEqualTo(LatencyHistogram.MAX_VALUE);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(LatencyHistogram.MAX_VALUE);
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value));
+            assertThat(highest).isGreaterThanOrEqualTo(value);
+            assertThat(highest - value).isLessThanOrEqualTo(value / 32);
+        }
+    }
+
+    @Test
+    void smallLatenciesAreCountedExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int nanos = 1; nanos <= 50; nanos++) {
+            histogram.record(nanos);
+        }
+
+        long[] counts = counts(histogram);
+        assertThat(LatencyHistogram.valueAtPercentile(counts, 50)).isEqualTo(25);
+        assertThat(LatencyHistogram.valueAtPercentile(counts, 90)).isEqualTo(45);
+        assertThat(LatencyHistogram.valueAtPercentile(counts, 100)).isEqualTo(50);
+    }
+
+    @Test
+    void percentilesAreWithinAThirtySecondAboveTheExactOnes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(7);
+        long[] latencies = new long[100_000];
+        for (int i = 0; i < latencies.length; i++) {
+            // Mostly a few milliseconds, with a long tail
+            latencies[i] = (long) (2_000_000 * Math.exp(random.nextGaussian()));
+            histogram.record(latencies[i]);
+        }
+        Arrays.sort(latencies);
+
+        long[] counts = counts(histogram);
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = latencies[(int) Math.ceil(percentile * latencies.length / 100) - 1];
+            assertThat(LatencyHistogram.valueAtPercentile(counts, percentile))
+                    .as("p%s", percentile)
+                    .isBetween(exact, exact + exact / 32);
+        }
+    }
+
+    @Test
+    void latenciesOutOfRangeAreClampedAndEmptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(LatencyHistogram.valueAtPercentile(counts(histogram), 99)).isZero();
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        long[] counts = counts(histogram);
+        assertThat(LatencyHistogram.valueAtPercentile(counts, 50)).isZero();
+        assertThat(LatencyHistogram.valueAtPercentile(counts, 100)).isEqualTo(LatencyHistogram.MAX_VALUE);
+    }
+
+    @Test
+    void concurrentRecordingLosesNoLatency() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        CompletableFuture.allOf(IntStream.range(0, 8)
+                .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 100_000; i++) {
+                        histogram.record(1_000 + i % 100);
+                    }
+                }))
+                .toArray(CompletableFuture[]::new)).join();
+
+        assertThat(histogram.addTo(new long[LatencyHistogram.BUCKETS])).isEqualTo(800_000);
+    }
+
+    private static long[] counts(LatencyHistogram histogram) {
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+        histogram.addTo(counts);
+        return counts;
+    }
+}
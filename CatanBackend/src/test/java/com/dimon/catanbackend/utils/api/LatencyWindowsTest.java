@@ -0,0 +1,69 @@
+package com.dimon.catanbackend.utils.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyWindowsTest {
+
+    @Test
+    void latencyLeavesEachWindowOnceItIsOlderThanTheWindow() {
+        LatencyWindows windows = new LatencyWindows();
+        windows.record(5_000_000);
+
+        int leftMinute = rotationsUntilGone(windows, "1m", 0);
+        int leftFiveMinutes = rotationsUntilGone(windows, "5m", leftMinute);
+        int leftHour = rotationsUntilGone(windows, "1h", leftFiveMinutes);
+
+        // Rotations are ten seconds apart; a latency recorded during the first slice is counted for at least the
+        // length of the window, and at most one slice of the coarsest kind longer
+        assertThat(leftMinute * 10).isEqualTo(70);
+        assertThat(leftFiveMinutes * 10).isBetween(310, 360);
+        assertThat(leftHour * 10).isBetween(3610, 3900);
+    }
+
+    @Test
+    void windowsReportThePercentilesOfTheirOwnLatencies() {
+        LatencyWindows windows = new LatencyWindows();
+        // An hour ago: slow
+        for (int i = 0; i < 100; i++) {
+            windows.record(900_000_000);
+        }
+        rotate(windows, 60);
+        // Four minutes ago: medium
+        for (int i = 0; i < 100; i++) {
+            windows.record(90_000_000);
+        }
+        rotate(windows, 24);
+        // Now: fast
+        for (int i = 0; i < 100; i++) {
+            windows.record(9_000_000);
+        }
+
+        Map<String, LatencyPercentiles> percentiles = windows.percentiles();
+        assertThat(percentiles).containsOnlyKeys("1m", "5m", "1h");
+        assertThat(percentiles.get("1m").getCount()).isEqualTo(100);
+        assertThat(percentiles.get("1m").getP999()).isBetween(9.0, 9.3);
+        assertThat(percentiles.get("5m").getCount()).isEqualTo(200);
+        assertThat(percentiles.get("5m").getP50()).isBetween(9.0, 9.3);
+        assertThat(percentiles.get("5m").getP90()).isBetween(90.0, 93.0);
+        assertThat(percentiles.get("1h").getCount()).isEqualTo(300);
+        assertThat(percentiles.get("1h").getP99()).isBetween(900.0, 930.0);
+    }
+
+    private static int rotationsUntilGone(LatencyWindows windows, String window, int rotated) {
+        while (windows.percentiles().get(window).getCount() > 0) {
+            windows.rotate();
+            rotated++;
+        }
+        return rotated;
+    }
+
+    private static void rotate(LatencyWindows windows, int times) {
+        for (int i = 0; i < times; i++) {
+            windows.rotate();
+        }
+    }
+}
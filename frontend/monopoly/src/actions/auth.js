@@ -228,7 +228,18 @@ export const reset_password_confirm =
         }
     };
 
-export const logout = () => (dispatch) => {
+export const logout = () => async (dispatch) => {
+    const token = localStorage.getItem("token");
+    if (token) {
+        try {
+            // Revokes the token on the server, so it stops working before it expires
+            await axios.post("http://localhost:8000/auth/logout", null, {
+                headers: { Authorization: `Bearer ${token}` },
+            });
+        } catch (err) {
+            // Logged out locally either way
+        }
+    }
     dispatch({
         type: LOGOUT,
     });
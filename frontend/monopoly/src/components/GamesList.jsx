@@ -5,24 +5,30 @@ import "../css/GamesList.css";
 
 const GamesList = () => {
     const [games, setGames] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [selectedPlayer, setSelectedPlayer] = useState(null);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(null);
 
-    useEffect(() => {
-        const fetchGames = async () => {
-            try {
-                const response = await axios.get(
-                    "http://localhost:8000/adminPanel/getAllGames"
-                );
-                setGames(response.data);
-                setLoading(false);
-            } catch (error) {
-                setError("Failed to fetch games");
-                setLoading(false);
-            }
-        };
+    // Fetch one page of games; without a cursor the list starts over
+    const fetchGames = async (cursor = null) => {
+        try {
+            const response = await axios.get(
+                "http://localhost:8000/adminPanel/getAllGames",
+                { params: cursor ? { cursor } : {} }
+            );
+            setGames((prevGames) =>
+                cursor ? [...prevGames, ...response.data.items] : response.data.items
+            );
+            setNextCursor(response.data.nextCursor);
+            setLoading(false);
+        } catch (error) {
+            setError("Failed to fetch games");
+            setLoading(false);
+        }
+    };
 
+    useEffect(() => {
         fetchGames();
     }, []);
 
@@ -96,6 +102,14 @@ const GamesList = () => {
                     </button>
                 </div>
             ))}
+            {nextCursor && (
+                <button
+                    className="action-button"
+                    onClick={() => fetchGames(nextCursor)}
+                >
+                    Load more
+                </button>
+            )}
             {selectedPlayer && (
                 <UserModal
                     user={selectedPlayer}
@@ -7,25 +7,31 @@ import UserModal from "./UserModal";
 
 const UsersList = () => {
     const [users, setUsers] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
     const [selectedUser, setSelectedUser] = useState(null);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(null);
 
-    useEffect(() => {
-        // Fetch the list of users when the component mounts
-        const fetchUsers = async () => {
-            try {
-                const response = await axios.get(
-                    "http://localhost:8000/adminPanel/getAllUser"
-                );
-                setUsers(response.data);
-                setLoading(false);
-            } catch (error) {
-                setError("Failed to fetch users");
-                setLoading(false);
-            }
-        };
+    // Fetch one page of users; without a cursor the list starts over
+    const fetchUsers = async (cursor = null) => {
+        try {
+            const response = await axios.get(
+                "http://localhost:8000/adminPanel/getAllUser",
+                { params: cursor ? { cursor } : {} }
+            );
+            setUsers((prevUsers) =>
+                cursor ? [...prevUsers, ...response.data.items] : response.data.items
+            );
+            setNextCursor(response.data.nextCursor);
+            setLoading(false);
+        } catch (error) {
+            setError("Failed to fetch users");
+            setLoading(false);
+        }
+    };
 
+    useEffect(() => {
+        // Fetch the first page of users when the component mounts
         fetchUsers();
     }, []);
 
@@ -80,6 +86,14 @@ const UsersList = () => {
                     </div>
                 </div>
             ))}
+            {nextCursor && (
+                <button
+                    className="action-button"
+                    onClick={() => fetchUsers(nextCursor)}
+                >
+                    Load more
+                </button>
+            )}
             {selectedUser && (
                 <UserModal
                     user={selectedUser}
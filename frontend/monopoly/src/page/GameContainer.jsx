@@ -96,7 +96,7 @@ const GameContainer = ({ user }) => {
 
             const socket = new SockJS("http://localhost:8000/ws");
             stompClient.current = Stomp.over(socket);
-            stompClient.current.connect({}, () => {
+            stompClient.current.connect({ Authorization: `Bearer ${localStorage.getItem("token")}` }, () => {
                 stompClient.current.subscribe(
                     `/topic/game/${gameId}`,
                     (message) => {
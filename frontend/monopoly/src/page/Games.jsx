@@ -22,8 +22,8 @@ const Games = ({ isAuthenticated, user }) => {
     const fetchGames = useCallback(async () => {
         try {
             const response = await axios.get("http://localhost:8000/api/games");
-            if (Array.isArray(response.data)) {
-                setGames(response.data);
+            if (Array.isArray(response.data.items)) {
+                setGames(response.data.items);
             } else {
                 setGames([]);
             }
@@ -38,7 +38,8 @@ const Games = ({ isAuthenticated, user }) => {
             const response = await axios.get(
                 "http://localhost:8000/api/chat/messages"
             );
-            setChatMessages(response.data);
+            // The history comes newest first, the chat shows it oldest first
+            setChatMessages([...response.data.items].reverse());
         } catch (error) {
             console.error(
                 "There was an error fetching the chat messages!",
@@ -55,7 +56,7 @@ const Games = ({ isAuthenticated, user }) => {
         const stompClient = Stomp.over(socket);
         setStompClient(stompClient);
 
-        stompClient.connect({}, () => {
+        stompClient.connect({ Authorization: `Bearer ${localStorage.getItem("token")}` }, () => {
             // Subscribe to general games topic for updates
             stompClient.subscribe("/topic/games", (message) => {
                 const updatedGames = JSON.parse(message.body);
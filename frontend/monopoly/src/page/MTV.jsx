@@ -14,7 +14,7 @@ const M1TV = ({ user }) => {
                 const response = await axios.get(
                     "http://localhost:8000/m1tv/getAllGames"
                 );
-                setGames(response.data);
+                setGames(response.data.items);
             } catch (error) {
                 setError("Failed to load games");
             }
@@ -67,7 +67,7 @@ export default class GameScene extends Phaser.Scene {
         this.socket = new SockJS("http://localhost:8000/ws");
         this.stompClient = Stomp.over(this.socket);
 
-        this.stompClient.connect({}, (frame) => {
+        this.stompClient.connect({ Authorization: `Bearer ${localStorage.getItem("token")}` }, (frame) => {
             console.log("Connected: " + frame);
             this.setupSubscriptions();
             this.showCurrentPlayerButton({ players: this.players });
@@ -95,7 +95,10 @@ export default class GameScene extends Phaser.Scene {
             `/topic/game/${this.gameId}/contract`,
             (message) => {
                 const data = JSON.parse(message.body);
-                if (data.contract) {
+                if (
+                    data.status === "PROPOSED" &&
+                    data.contract.toUsername === this.username
+                ) {
                     this.showContractReviewWindow(data.contract);
                 }
             }
@@ -309,14 +312,14 @@ export default class GameScene extends Phaser.Scene {
             .setOrigin(0.5);
 
         const offerProperty = this.add
-            .text(150, 270, `Property: ${contract.offer.property}`, {
+            .text(150, 270, `Properties: ${contract.offer.properties.join(", ")}`, {
                 fontSize: "20px",
                 color: "#ffffff",
             })
             .setOrigin(0.5);
 
         const requestProperty = this.add
-            .text(450, 270, `Property: ${contract.request.property}`, {
+            .text(450, 270, `Properties: ${contract.request.properties.join(", ")}`, {
                 fontSize: "20px",
                 color: "#ffffff",
             })
@@ -335,7 +338,11 @@ export default class GameScene extends Phaser.Scene {
                 this.stompClient.send(
                     "/app/player/acceptContract",
                     {},
-                    JSON.stringify({ gameId: this.gameId, contract })
+                    JSON.stringify({
+                        gameId: this.gameId,
+                        contractId: contract.id,
+                        username: this.username,
+                    })
                 );
 
                 menu.clear();
@@ -360,7 +367,16 @@ export default class GameScene extends Phaser.Scene {
             .setOrigin(0.5)
             .setInteractive()
             .on("pointerdown", () => {
-                // Handle decline
+                this.stompClient.send(
+                    "/app/player/declineContract",
+                    {},
+                    JSON.stringify({
+                        gameId: this.gameId,
+                        contractId: contract.id,
+                        username: this.username,
+                    })
+                );
+
                 menu.clear();
                 title.destroy();
                 offerText.destroy();
@@ -777,21 +793,40 @@ export default class GameScene extends Phaser.Scene {
             // Any other state variables
         };
 
-        console.log(JSON.stringify({ state: JSON.stringify(gameState) }));
+        // Only send the top-level fields that changed since the last save
+        const snapshot = JSON.parse(JSON.stringify(gameState));
+        const patch =
+            this.savedState && this.savedStateVersion !== undefined
+                ? this.diffGameState(this.savedState, snapshot)
+                : null;
 
-        const token = localStorage.getItem("token");
-        fetch(`http://localhost:8000/api/games/${this.gameId}/state`, {
-            method: "POST",
-            headers: {
-                "Content-Type": "application/json",
-                Authorization: `Bearer ${token}`,
-            },
-            body: JSON.stringify({ state: JSON.stringify(gameState) }),
-        })
+        if (patch && patch.length === 0) {
+            return;
+        }
+
+        const body = patch
+            ? { baseVersion: this.savedStateVersion, patch }
+            : { state: JSON.stringify(snapshot) };
+
+        this.postGameState(body)
+            .then((response) => {
+                // On a version mismatch the server needs the full state
+                if (response.status === 409 && patch) {
+                    return this.postGameState({
+                        state: JSON.stringify(snapshot),
+                    });
+                }
+                return response;
+            })
             .then((response) => {
                 if (!response.ok) {
                     throw new Error("Failed to save game state");
                 }
+                return response.json();
+            })
+            .then((result) => {
+                this.savedState = snapshot;
+                this.savedStateVersion = result.version;
                 console.log("Game state saved successfully");
             })
             .catch((error) => {
@@ -799,6 +834,38 @@ export default class GameScene extends Phaser.Scene {
             });
     }
 
+    postGameState(body) {
+        const token = localStorage.getItem("token");
+        return fetch(`http://localhost:8000/api/games/${this.gameId}/state`, {
+            method: "POST",
+            headers: {
+                "Content-Type": "application/json",
+                Authorization: `Bearer ${token}`,
+            },
+            body: JSON.stringify(body),
+        });
+    }
+
+    diffGameState(previous, current) {
+        const patch = [];
+        Object.keys(current).forEach((key) => {
+            const path = `/${key}`;
+            if (!(key in previous)) {
+                patch.push({ op: "add", path, value: current[key] });
+            } else if (
+                JSON.stringify(previous[key]) !== JSON.stringify(current[key])
+            ) {
+                patch.push({ op: "replace", path, value: current[key] });
+            }
+        });
+        Object.keys(previous).forEach((key) => {
+            if (!(key in current)) {
+                patch.push({ op: "remove", path: `/${key}` });
+            }
+        });
+        return patch;
+    }
+
     // TODO FIX THE PROBLEM WITH ADDPLAYEROWNERSHIP
 
     restoreGameState() {
@@ -812,6 +879,8 @@ export default class GameScene extends Phaser.Scene {
             .then((savedState) => {
                 if (savedState && savedState.state) {
                     const gameState = JSON.parse(savedState.state);
+                    this.savedState = gameState;
+                    this.savedStateVersion = savedState.version;
 
                     // Restore players' state
                     this.players = gameState.players.map((savedPlayer) => {
@@ -1973,14 +2042,20 @@ export default class GameScene extends Phaser.Scene {
             .on("pointerdown", () => {
                 const offerMoney = parseInt(offerMoneyInput.node.value);
                 const requestMoney = parseInt(requestMoneyInput.node.value);
-                const offerProperty = offerPropertyInput.node.value;
-                const requestProperty = requestPropertyInput.node.value;
+                // Several properties can be traded at once, separated by commas
+                const toList = (value) =>
+                    value
+                        .split(",")
+                        .map((name) => name.trim())
+                        .filter((name) => name.length > 0);
+                const offerProperties = toList(offerPropertyInput.node.value);
+                const requestProperties = toList(requestPropertyInput.node.value);
 
                 const contract = {
                     fromUsername: this.username,
                     toUsername: clickedUsername,
-                    offer: { money: offerMoney, property: offerProperty },
-                    request: { money: requestMoney, property: requestProperty },
+                    offer: { money: offerMoney || 0, properties: offerProperties },
+                    request: { money: requestMoney || 0, properties: requestProperties },
                 };
 
                 this.stompClient.send(